@@ -4,6 +4,7 @@ import com.ubs.orkestra.dto.ApplicationDto;
 import com.ubs.orkestra.dto.BranchDto;
 import com.ubs.orkestra.dto.ValidationRequestDto;
 import com.ubs.orkestra.dto.ValidationResponseDto;
+import com.ubs.orkestra.service.ApplicationConcurrencyGate;
 import com.ubs.orkestra.service.ApplicationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -36,6 +37,9 @@ public class ApplicationController {
     @Autowired
     private ApplicationService applicationService;
 
+    @Autowired
+    private ApplicationConcurrencyGate applicationConcurrencyGate;
+
     @PostMapping
     @Operation(summary = "Create a new application", description = "Create a new GitLab application configuration")
     @ApiResponses(value = {
@@ -318,4 +322,21 @@ public class ApplicationController {
             return ResponseEntity.notFound().build();
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/{id}/capacity")
+    @Operation(summary = "Get pipeline capacity of application",
+               description = "Returns the application's maxConcurrentPipelines limit, its RUNNING pipelines and the ready steps waiting for a free slot")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Capacity retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Application not found")
+    })
+    public ResponseEntity<?> getPipelineCapacity(
+            @Parameter(description = "Application ID") @PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(applicationConcurrencyGate.getCapacity(id));
+        } catch (IllegalArgumentException e) {
+            logger.error("Application not found: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -1,9 +1,19 @@
 package com.ubs.orkestra.controller;
 
+import com.ubs.orkestra.dto.BulkReplayRequestDto;
 import com.ubs.orkestra.dto.FlowExecutionDto;
 import com.ubs.orkestra.dto.FlowExecutionRequestDto;
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.service.BulkReplayService;
+import com.ubs.orkestra.service.CompletionForecastService;
+import com.ubs.orkestra.service.ExecutionArchiveService;
+import com.ubs.orkestra.service.ExecutionExportService;
+import com.ubs.orkestra.service.ExecutionJournalService;
 import com.ubs.orkestra.service.FlowExecutionQueueService;
 import com.ubs.orkestra.service.FlowExecutionService;
+import com.ubs.orkestra.service.FlowExecutionSummaryService;
+import com.ubs.orkestra.service.IdempotencyService;
+import com.ubs.orkestra.service.RunCancellationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -19,9 +29,13 @@ import org.springframework.data.domain.Pageable;
 // import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -41,15 +55,48 @@ public class FlowExecutionController {
     @Autowired
     private FlowExecutionQueueService flowExecutionQueueService;
 
+    @Autowired
+    private CompletionForecastService completionForecastService;
+
+    @Autowired
+    private RunCancellationService runCancellationService;
+
+    @Autowired
+    private BulkReplayService bulkReplayService;
+
+    @Autowired
+    private ExecutionJournalService executionJournalService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private FlowExecutionSummaryService flowExecutionSummaryService;
+
+    @Autowired
+    private ExecutionExportService executionExportService;
+
+    @Autowired
+    private ExecutionArchiveService executionArchiveService;
+
     @PostMapping("/flows/{flowId}/execute")
     @Operation(summary = "Execute a flow", description = "Trigger execution of a specific flow")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "202", description = "Flow execution started successfully"),
             @ApiResponse(responseCode = "404", description = "Flow not found"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still being processed"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different request"),
             @ApiResponse(responseCode = "500", description = "Failed to start flow execution")
     })
-    public ResponseEntity<FlowExecutionDto> executeFlow(
-            @Parameter(description = "Flow ID to execute") @PathVariable Long flowId) {
+    public ResponseEntity<?> executeFlow(
+            @Parameter(description = "Flow ID to execute") @PathVariable Long flowId,
+            @Parameter(description = "Client-chosen key; a repeated request with the same key returns the original response")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/flows/" + flowId + "/execute",
+                () -> startFlowExecution(flowId));
+    }
+
+    private ResponseEntity<?> startFlowExecution(Long flowId) {
         logger.info("Starting execution of flow ID: {}", flowId);
         
         try {
@@ -72,20 +119,30 @@ public class FlowExecutionController {
     @PostMapping("/flows/execute")
     @Operation(summary = "Execute multiple flows", description = "Trigger execution of multiple flows asynchronously with immediate response. Accepts optional category payload to associate flows with a FlowGroup. Returns FlowExecutionDto objects for accepted flows, just like single flow execution.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "202", description = "Flow executions started successfully (all or partial) - returns FlowExecutionDto objects for accepted flows with RUNNING status"),
+            @ApiResponse(responseCode = "202", description = "Flow executions started successfully (all or partial) - returns FlowExecutionDto objects for accepted flows with PENDING status; they move to RUNNING when dispatched"),
             @ApiResponse(responseCode = "400", description = "Invalid flow IDs provided or invalid category"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still being processed"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different request"),
             @ApiResponse(responseCode = "503", description = "Thread pool at capacity - some flows rejected")
     })
     public ResponseEntity<?> executeMultipleFlows(
             @Parameter(description = "Comma-separated flow IDs to execute", example = "1,2,3")
             @RequestParam("trigger") String flowIds,
             @Parameter(description = "Optional payload with category to associate flows with a FlowGroup")
-            @RequestBody(required = false) FlowExecutionRequestDto requestDto) {
+            @RequestBody(required = false) FlowExecutionRequestDto requestDto,
+            @Parameter(description = "Client-chosen key; a repeated request with the same key returns the original response")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        String category = requestDto != null ? requestDto.getCategory() : null;
+        return idempotencyService.execute(idempotencyKey,
+                "POST /api/flows/execute?trigger=" + flowIds + "&category=" + category,
+                () -> startFlowExecutions(flowIds, category));
+    }
+
+    private ResponseEntity<?> startFlowExecutions(String flowIds, String category) {
         logger.info("Starting execution of multiple flows: {} with category: {}", flowIds,
-                   requestDto != null ? requestDto.getCategory() : "uncategorized");
+                   category != null ? category : "uncategorized");
 
         try {
-            String category = requestDto != null ? requestDto.getCategory() : null;
             Map<String, Object> result = flowExecutionService.executeMultipleFlows(flowIds, category);
             
             // Start async execution for all accepted flows.
@@ -145,12 +202,22 @@ public class FlowExecutionController {
            @Parameter(description = "Page number (0-based)") @RequestParam(required = false) Integer page,
            @Parameter(description = "Page size") @RequestParam(required = false) Integer size,
            @Parameter(description = "Sort by field (e.g., 'startTime', 'endTime', 'status', 'createdAt')") @RequestParam(required = false) String sortBy,
-           @Parameter(description = "Sort direction (ASC or DESC)") @RequestParam(required = false, defaultValue = "DESC") String sortDirection) {
+           @Parameter(description = "Sort direction (ASC or DESC)") @RequestParam(required = false, defaultValue = "DESC") String sortDirection,
+           @Parameter(description = "Cursor pagination ordered by createdAt: empty for the first page, then the nextCursor of the previous page. Takes precedence over 'page'.")
+           @RequestParam(value = "cursor", required = false) String cursor,
+           @Parameter(description = "Whether to compute totalElements/totalPages; false returns a slice without the count query")
+           @RequestParam(value = "includeTotal", defaultValue = "true") boolean includeTotal) {
         
         logger.debug("Fetching executions for flows: {} with page: {}, size: {}, sortBy: {}, sortDirection: {}, flowGroupName: {}, iteration: {}", 
                     flowIds != null ? flowIds : "ALL", page, size, sortBy, sortDirection, flowGroupName, iteration);
         
         try {
+            if (cursor != null) {
+                return ResponseEntity.ok(flowExecutionService.getFlowExecutionsByCursor(
+                        flowExecutionService.listingFilter(flowIds, search, flowGroupName, iteration),
+                        cursor, size != null ? size : 20, cursorDirection(sortBy, sortDirection)));
+            }
+
             // If pagination parameters are provided, use pagination
             if (page != null || size != null) {
                 int pageNumber = page != null ? page : 0;
@@ -168,6 +235,10 @@ public class FlowExecutionController {
                 }
                 
                 Pageable pageable = PageRequest.of(pageNumber, pageSize, sort);
+                if (!includeTotal) {
+                    return ResponseEntity.ok(flowExecutionService.getFlowExecutionsSlice(
+                            flowExecutionService.listingFilter(flowIds, search, flowGroupName, iteration), pageable));
+                }
                Page<FlowExecutionDto> executionsPage;
                
                 // If flowGroupName or iteration filters are provided, use advanced search
@@ -282,11 +353,22 @@ public class FlowExecutionController {
             @Parameter(description = "Page number (0-based)") @RequestParam(required = false) Integer page,
             @Parameter(description = "Page size") @RequestParam(required = false) Integer size,
             @Parameter(description = "Sort by field") @RequestParam(required = false) String sortBy,
-            @Parameter(description = "Sort direction (ASC or DESC)") @RequestParam(required = false, defaultValue = "DESC") String sortDirection) {
+            @Parameter(description = "Sort direction (ASC or DESC)") @RequestParam(required = false, defaultValue = "DESC") String sortDirection,
+            @Parameter(description = "Cursor pagination ordered by createdAt: empty for the first page, then the nextCursor of the previous page. Takes precedence over 'page'.")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Whether to compute totalElements/totalPages; false returns a slice without the count query")
+            @RequestParam(defaultValue = "true") boolean includeTotal) {
 
         logger.debug("Advanced search flow executions with filters");
 
         try {
+            if (cursor != null) {
+                return ResponseEntity.ok(flowExecutionService.getFlowExecutionsByCursor(
+                        flowExecutionService.searchFilter(executionId, flowId, flowGroupName, flowGroupId, iteration,
+                                                          fromDate, toDate),
+                        cursor, size != null ? size : 20, cursorDirection(sortBy, sortDirection)));
+            }
+
             int pageNumber = page != null ? page : 0;
             int pageSize = size != null ? size : 20;
 
@@ -300,10 +382,18 @@ public class FlowExecutionController {
             }
 
             Pageable pageable = PageRequest.of(pageNumber, pageSize, sort);
+            if (!includeTotal) {
+                return ResponseEntity.ok(flowExecutionService.getFlowExecutionsSlice(
+                        flowExecutionService.searchFilter(executionId, flowId, flowGroupName, flowGroupId, iteration,
+                                                          fromDate, toDate),
+                        pageable));
+            }
             Page<FlowExecutionDto> executionsPage = flowExecutionService.searchFlowExecutionsAdvanced(
                 executionId, flowId, flowGroupName, flowGroupId, iteration, fromDate, toDate, pageable);
 
             return ResponseEntity.ok(executionsPage);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error searching flow executions: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -311,6 +401,241 @@ public class FlowExecutionController {
         }
     }
 
+    // Cursor pages are always ordered by (createdAt, id)
+    private static Sort.Direction cursorDirection(String sortBy, String sortDirection) {
+        if (sortBy != null && !sortBy.trim().isEmpty() && !"createdAt".equals(sortBy.trim())) {
+            throw new IllegalArgumentException("Cursor pagination is ordered by createdAt; sortBy '" + sortBy + "' is not supported");
+        }
+        return sortDirection != null ? Sort.Direction.fromString(sortDirection) : Sort.Direction.DESC;
+    }
+
+    @GetMapping("/flow-executions/queue")
+    @Operation(summary = "Get the PENDING dispatch queue",
+               description = "Returns the active dispatch policy (FIFO or SEDF) and the PENDING flow executions in dispatch order, " +
+                           "each with its waiting time and estimated duration from historical step durations")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Queue retrieved successfully")
+    })
+    public ResponseEntity<?> getDispatchQueue(
+            @Parameter(description = "Maximum number of queue entries to return") @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(flowExecutionQueueService.getQueueSnapshot(limit));
+        } catch (Exception e) {
+            logger.error("Error retrieving dispatch queue: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Internal server error"));
+        }
+    }
+
+    @GetMapping("/flow-executions/forecast")
+    @Operation(summary = "Forecast completion of active flow executions",
+               description = "Simulates the RUNNING, SCHEDULED and PENDING flow executions forward under max-concurrent-flows, " +
+                           "using historical step durations, and returns an estimated start and finish per flow execution " +
+                           "and per FlowGroup iteration. Results are cached for a few seconds.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Forecast computed successfully")
+    })
+    public ResponseEntity<?> getCompletionForecast(
+            @Parameter(description = "Only flows of this FlowGroup") @RequestParam(required = false) Long flowGroupId,
+            @Parameter(description = "Only flows of this FlowGroup iteration") @RequestParam(required = false) Integer iteration,
+            @Parameter(description = "Only this flow execution") @RequestParam(required = false) UUID flowExecutionId) {
+        try {
+            return ResponseEntity.ok(completionForecastService.getForecast(flowGroupId, iteration, flowExecutionId));
+        } catch (Exception e) {
+            logger.error("Error computing completion forecast: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Internal server error"));
+        }
+    }
+
+    @GetMapping("/flow-executions/summaries")
+    @Operation(summary = "List flow execution summaries",
+               description = "Lightweight listing for dashboards: id, status, timing and a per-step status array, newest first. " +
+                           "Reads scalar columns only and returns a slice without a total count.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Summaries retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid flow IDs or paging parameters")
+    })
+    public ResponseEntity<?> getFlowExecutionSummaries(
+            @Parameter(description = "Optional comma-separated flow IDs", example = "1,2,3")
+            @RequestParam(value = "triggered", required = false) String flowIds,
+            @Parameter(description = "Only executions of this FlowGroup") @RequestParam(required = false) Long flowGroupId,
+            @Parameter(description = "Only executions of this iteration") @RequestParam(required = false) Integer iteration,
+            @Parameter(description = "Only executions with this status") @RequestParam(required = false) ExecutionStatus status,
+            @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(flowExecutionSummaryService.getSummaries(flowIds, flowGroupId, iteration, status, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error retrieving flow execution summaries: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Internal server error"));
+        }
+    }
+
+    @GetMapping("/flow-executions/export")
+    @Operation(summary = "Export flow executions",
+               description = "Streams the matching flow executions, oldest first, as NDJSON (one JSON object per line) " +
+                           "or CSV. The rows are written while they are read, so exports of any size use constant memory. " +
+                           "With gzip=true the file is gzip-compressed.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid format or date range")
+    })
+    public ResponseEntity<?> exportFlowExecutions(
+            @Parameter(description = "Export format: ndjson or csv") @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Gzip-compress the export") @RequestParam(defaultValue = "false") boolean gzip,
+            @Parameter(description = "Only executions of this flow") @RequestParam(required = false) Long flowId,
+            @Parameter(description = "Only executions of this FlowGroup") @RequestParam(required = false) Long flowGroupId,
+            @Parameter(description = "Only executions of this iteration") @RequestParam(required = false) Integer iteration,
+            @Parameter(description = "Only executions with this status") @RequestParam(required = false) ExecutionStatus status,
+            @Parameter(description = "Created at or after (ISO format: yyyy-MM-ddTHH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDate,
+            @Parameter(description = "Created at or before (ISO format: yyyy-MM-ddTHH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate) {
+        try {
+            ExecutionExportService.Format exportFormat = ExecutionExportService.Format.parse(format);
+            executionExportService.validate(fromDate, toDate);
+
+            StreamingResponseBody body = out -> executionExportService.export(
+                    exportFormat, gzip, flowId, flowGroupId, iteration, status, fromDate, toDate, out);
+            String fileName = "flow-executions." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()));
+            headers.setContentDisposition(ContentDisposition.attachment().filename(fileName).build());
+            return ResponseEntity.ok().headers(headers).body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error exporting flow executions: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Internal server error"));
+        }
+    }
+
+    @GetMapping("/flow-executions/archive/segments")
+    @Operation(summary = "List archive segments",
+               description = "Lists the gzip NDJSON segment files holding archived flow executions, by creation month")
+    @ApiResponse(responseCode = "200", description = "Segments retrieved successfully")
+    public ResponseEntity<?> getArchiveSegments() {
+        try {
+            return ResponseEntity.ok(executionArchiveService.listSegments());
+        } catch (Exception e) {
+            logger.error("Error listing archive segments: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Internal server error"));
+        }
+    }
+
+    @GetMapping("/flow-executions/archive")
+    @Operation(summary = "List archived flow executions",
+               description = "Returns a page of the flow executions created in the given month that were moved to the " +
+                           "archive by the retention job, with their step records")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Archived executions retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid month or paging parameters")
+    })
+    public ResponseEntity<?> getArchivedExecutions(
+            @Parameter(description = "Creation month (yyyy-MM)", example = "2024-05") @RequestParam String month,
+            @Parameter(description = "Only executions of this flow") @RequestParam(required = false) Long flowId,
+            @Parameter(description = "Only executions with this status") @RequestParam(required = false) ExecutionStatus status,
+            @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(executionArchiveService.getArchivedExecutions(month, flowId, status, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error reading archived flow executions: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Internal server error"));
+        }
+    }
+
+    @GetMapping("/flow-executions/archive/{flowExecutionUUID}")
+    @Operation(summary = "Get an archived flow execution",
+               description = "Returns an archived flow execution with its step records")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Archived execution found"),
+            @ApiResponse(responseCode = "404", description = "Flow execution is not archived")
+    })
+    public ResponseEntity<?> getArchivedExecution(
+            @Parameter(description = "Flow execution UUID") @PathVariable UUID flowExecutionUUID) {
+        try {
+            FlowExecutionDto archived = executionArchiveService.getArchivedExecution(flowExecutionUUID);
+            return archived != null ? ResponseEntity.ok(archived) : ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            logger.error("Error reading archived flow execution {}: {}", flowExecutionUUID, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Internal server error"));
+        }
+    }
+
+    @GetMapping("/flow-executions/journal")
+    @Operation(summary = "Read the execution journal sequentially",
+               description = "Returns up to 'limit' execution events appended after 'afterId' in append order. " +
+                           "Pass the returned nextAfterId to continue reading.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Journal entries retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit")
+    })
+    public ResponseEntity<?> readJournal(
+            @Parameter(description = "Return events with an id greater than this") @RequestParam(defaultValue = "0") long afterId,
+            @Parameter(description = "Maximum number of events to return") @RequestParam(defaultValue = "1000") int limit) {
+        try {
+            return ResponseEntity.ok(executionJournalService.readAfter(afterId, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error reading execution journal: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Internal server error"));
+        }
+    }
+
+    @GetMapping("/flow-executions/{flowExecutionUUID}/timeline")
+    @Operation(summary = "Get the timeline of a flow execution",
+               description = "Returns the journaled events of the flow execution and its steps (created, queued, triggered, " +
+                           "job found, artifact parsed, completed, cancelled) in the order they happened")
+    @ApiResponse(responseCode = "200", description = "Timeline retrieved successfully")
+    public ResponseEntity<?> getTimeline(
+            @Parameter(description = "Flow execution UUID") @PathVariable UUID flowExecutionUUID) {
+        try {
+            return ResponseEntity.ok(executionJournalService.getTimeline(flowExecutionUUID));
+        } catch (Exception e) {
+            logger.error("Error retrieving timeline of flow execution {}: {}", flowExecutionUUID, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Internal server error"));
+        }
+    }
+
+    @PostMapping("/flow-executions/cancel")
+    @Operation(summary = "Cancel all active flow executions of a category",
+               description = "Move all PENDING, RUNNING and PAUSED flow executions of the category and their unfinished steps " +
+                           "to CANCELLED, and cancel their running GitLab pipelines in parallel under a rate limit")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Flow executions cancelled; gitlabCancelComplete is false if GitLab " +
+                    "cancellation timed out, gitlabPipelinesCancelled then counts the pipelines cancelled until then"),
+            @ApiResponse(responseCode = "400", description = "Missing category"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> cancelCategory(
+            @Parameter(description = "Category of the flow executions to cancel") @RequestParam String category) {
+        logger.info("Cancelling active flow executions of category {}", category);
+
+        try {
+            return ResponseEntity.ok(runCancellationService.cancelCategory(category));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error cancelling category {}: {}", category, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Internal server error"));
+        }
+    }
+
     @GetMapping("/flow-executions/{flowExecutionUUID}")
     @Operation(summary = "Get flow execution details", 
                description = "Get comprehensive flow execution details including nested flow, steps, applications, and pipeline executions")
@@ -393,4 +718,31 @@ public class FlowExecutionController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/flow-executions/replay")
+    @Operation(summary = "Replay many failed flow executions",
+               description = "Replay the given FAILED flow executions, or every FAILED flow of a FlowGroup iteration. The failed step of each " +
+                           "flow is detected automatically; replays return to PENDING and are started by the dispatcher under the " +
+                           "concurrency limit and fair share")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Replays queued"),
+            @ApiResponse(responseCode = "400", description = "Invalid request - no flow executions or FlowGroup run given, or too many flows"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> replayFlowExecutions(@RequestBody BulkReplayRequestDto request) {
+        logger.info("Bulk replay request: {} flow executions, flowGroupId={}, iteration={}",
+                   request.getFlowExecutionIds() != null ? request.getFlowExecutionIds().size() : 0,
+                   request.getFlowGroupId(), request.getIteration());
+
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(bulkReplayService.replay(
+                    request.getFlowGroupId(), request.getIteration(), request.getFlowExecutionIds()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error replaying flow executions: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Internal server error"));
+        }
+    }
+}
@@ -5,9 +5,13 @@ import com.ubs.orkestra.dto.FlowGroupCreateDto;
 import com.ubs.orkestra.dto.FlowGroupDetailsDto;
 import com.ubs.orkestra.dto.FlowGroupDto;
 import com.ubs.orkestra.dto.FlowGroupPatchDto;
+import com.ubs.orkestra.dto.FlowGroupRunAbortDto;
 import com.ubs.orkestra.dto.FlowGroupUpdateDto;
+import com.ubs.orkestra.service.BulkReplayService;
 import com.ubs.orkestra.service.FlowExecutionService;
 import com.ubs.orkestra.service.FlowGroupService;
+import com.ubs.orkestra.service.RunCancellationService;
+import com.ubs.orkestra.service.SystemicFailureDetector;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -27,6 +31,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -42,6 +47,15 @@ public class FlowGroupController {
     @Autowired
     private FlowExecutionService flowExecutionService;
 
+    @Autowired
+    private SystemicFailureDetector systemicFailureDetector;
+
+    @Autowired
+    private RunCancellationService runCancellationService;
+
+    @Autowired
+    private BulkReplayService bulkReplayService;
+
     @PostMapping
     @Operation(summary = "Create a new flow group", description = "Create a new flow group with associated flows")
     @ApiResponses(value = {
@@ -195,7 +209,7 @@ public class FlowGroupController {
     }
 
     @PostMapping("/{flowGroupId}/execute")
-    @Operation(summary = "Execute a flow group", description = "Execute all flows in the specified flow group")
+    @Operation(summary = "Execute a flow group", description = "Execute all flows in the specified flow group. Step-0 triggers of accepted flows are spread over a ramp window; the expected schedule is returned in launch_plan")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "202", description = "Flow group execution started successfully"),
             @ApiResponse(responseCode = "404", description = "Flow group not found"),
@@ -271,6 +285,90 @@ public class FlowGroupController {
         }
     }
 
+    @GetMapping("/{flowGroupId}/aborts")
+    @Operation(summary = "Get early aborts of flow group runs",
+               description = "List the runs of this flow group that were paused or cancelled after a systemic step failure, with the reason for each")
+    @ApiResponse(responseCode = "200", description = "Aborts retrieved successfully")
+    public ResponseEntity<List<FlowGroupRunAbortDto>> getFlowGroupRunAborts(
+            @Parameter(description = "Flow group ID") @PathVariable Long flowGroupId) {
+        logger.debug("Getting run aborts for flow group: {}", flowGroupId);
+        return ResponseEntity.ok(systemicFailureDetector.getAborts(flowGroupId));
+    }
+
+    @PostMapping("/{flowGroupId}/iterations/{iteration}/resume")
+    @Operation(summary = "Resume a paused flow group run",
+               description = "Move the PAUSED flow executions of a flow group iteration back to PENDING so they are dispatched again")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Run resumed"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> resumeFlowGroupRun(
+            @Parameter(description = "Flow group ID") @PathVariable Long flowGroupId,
+            @Parameter(description = "Iteration of the flow group run") @PathVariable Integer iteration) {
+        logger.info("Resuming flow group {} iteration {}", flowGroupId, iteration);
+
+        try {
+            int resumed = systemicFailureDetector.resumeRun(flowGroupId, iteration);
+            return ResponseEntity.ok(Map.of(
+                "flowGroupId", flowGroupId,
+                "iteration", iteration,
+                "resumed", resumed
+            ));
+        } catch (Exception e) {
+            logger.error("Error resuming flow group run: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Internal server error"));
+        }
+    }
+
+    @PostMapping("/{flowGroupId}/iterations/{iteration}/cancel")
+    @Operation(summary = "Cancel a flow group run",
+               description = "Move all PENDING, RUNNING and PAUSED flow executions of a flow group iteration and their unfinished steps " +
+                           "to CANCELLED, and cancel their running GitLab pipelines in parallel under a rate limit")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Run cancelled; gitlabCancelComplete is false if GitLab " +
+                    "cancellation timed out, gitlabPipelinesCancelled then counts the pipelines cancelled until then"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> cancelFlowGroupRun(
+            @Parameter(description = "Flow group ID") @PathVariable Long flowGroupId,
+            @Parameter(description = "Iteration of the flow group run") @PathVariable Integer iteration) {
+        logger.info("Cancelling flow group {} iteration {}", flowGroupId, iteration);
+
+        try {
+            return ResponseEntity.ok(runCancellationService.cancelRun(flowGroupId, iteration));
+        } catch (Exception e) {
+            logger.error("Error cancelling flow group run: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Internal server error"));
+        }
+    }
+
+    @PostMapping("/{flowGroupId}/iterations/{iteration}/replay")
+    @Operation(summary = "Replay the failed flows of a flow group run",
+               description = "Replay every FAILED flow execution of a flow group iteration from its failed step. Replays return to PENDING " +
+                           "and are started by the dispatcher under the concurrency limit and fair share")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Replays queued"),
+            @ApiResponse(responseCode = "400", description = "Too many flows to replay at once"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> replayFlowGroupRun(
+            @Parameter(description = "Flow group ID") @PathVariable Long flowGroupId,
+            @Parameter(description = "Iteration of the flow group run") @PathVariable Integer iteration) {
+        logger.info("Replaying failed flows of flow group {} iteration {}", flowGroupId, iteration);
+
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(bulkReplayService.replay(flowGroupId, iteration, null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error replaying flow group run: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Internal server error"));
+        }
+    }
+
     @GetMapping("/details")
     @Operation(summary = "Get flow group details with associated flows", description = "Retrieve flow groups with their associated flows aggregated by flow group name, with pagination, filters and query parameters")
     @ApiResponse(responseCode = "200", description = "Flow group details retrieved successfully")
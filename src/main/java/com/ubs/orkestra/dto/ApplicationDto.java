@@ -1,5 +1,6 @@
 package com.ubs.orkestra.dto;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -52,6 +53,14 @@ public class ApplicationDto {
     @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "GitLab webhook ID (auto-registered)")
     private Long webhookId;
 
+    @Min(value = 1, message = "Scheduled release rate must be at least 1 per minute")
+    @Schema(description = "Maximum SCHEDULED steps of this application released per minute when their resume time is due; empty uses the global per-application default", example = "30")
+    private Integer scheduledReleasePerMinute;
+
+    @Min(value = 0, message = "Max concurrent pipelines must not be negative")
+    @Schema(description = "Maximum pipelines of this application running at once; further ready steps wait in FIFO order. Empty or 0 means unlimited", example = "10")
+    private Integer maxConcurrentPipelines;
+
     // Constructors
     public ApplicationDto() {}
 
@@ -156,4 +165,20 @@ public class ApplicationDto {
     public void setWebhookId(Long webhookId) {
         this.webhookId = webhookId;
     }
+
+    public Integer getScheduledReleasePerMinute() {
+        return scheduledReleasePerMinute;
+    }
+
+    public void setScheduledReleasePerMinute(Integer scheduledReleasePerMinute) {
+        this.scheduledReleasePerMinute = scheduledReleasePerMinute;
+    }
+
+    public Integer getMaxConcurrentPipelines() {
+        return maxConcurrentPipelines;
+    }
+
+    public void setMaxConcurrentPipelines(Integer maxConcurrentPipelines) {
+        this.maxConcurrentPipelines = maxConcurrentPipelines;
+    }
 }
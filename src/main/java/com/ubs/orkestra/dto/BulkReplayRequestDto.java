@@ -0,0 +1,45 @@
+package com.ubs.orkestra.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Failed flow executions to replay: an explicit list, or every FAILED flow of a FlowGroup iteration")
+public class BulkReplayRequestDto {
+
+    @Schema(description = "Flow executions to replay; takes precedence over flowGroupId and iteration")
+    private List<UUID> flowExecutionIds;
+
+    @Schema(description = "FlowGroup whose FAILED flows of the given iteration are replayed")
+    private Long flowGroupId;
+
+    @Schema(description = "Iteration of the FlowGroup run")
+    private Integer iteration;
+
+    public BulkReplayRequestDto() {}
+
+    public List<UUID> getFlowExecutionIds() {
+        return flowExecutionIds;
+    }
+
+    public void setFlowExecutionIds(List<UUID> flowExecutionIds) {
+        this.flowExecutionIds = flowExecutionIds;
+    }
+
+    public Long getFlowGroupId() {
+        return flowGroupId;
+    }
+
+    public void setFlowGroupId(Long flowGroupId) {
+        this.flowGroupId = flowGroupId;
+    }
+
+    public Integer getIteration() {
+        return iteration;
+    }
+
+    public void setIteration(Integer iteration) {
+        this.iteration = iteration;
+    }
+}
@@ -0,0 +1,129 @@
+package com.ubs.orkestra.dto;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Compact view of a flow execution: identity, status, timing and per-step progress")
+public class FlowExecutionSummaryDto {
+
+    private UUID id;
+    private Long flowId;
+    private ExecutionStatus status;
+    private String category;
+    private Long flowGroupId;
+    private Integer iteration;
+    private LocalDateTime createdAt;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+
+    @Schema(description = "Number of steps of the flow")
+    private int totalSteps;
+
+    @Schema(description = "Number of steps that finished (PASSED, FAILED or CANCELLED)")
+    private int completedSteps;
+
+    @Schema(description = "Status of each step in flow order; steps without a record yet are SCHEDULED, or CANCELLED once the flow failed")
+    private List<ExecutionStatus> stepStatuses;
+
+    public FlowExecutionSummaryDto() {}
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public Long getFlowId() {
+        return flowId;
+    }
+
+    public void setFlowId(Long flowId) {
+        this.flowId = flowId;
+    }
+
+    public ExecutionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ExecutionStatus status) {
+        this.status = status;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Long getFlowGroupId() {
+        return flowGroupId;
+    }
+
+    public void setFlowGroupId(Long flowGroupId) {
+        this.flowGroupId = flowGroupId;
+    }
+
+    public Integer getIteration() {
+        return iteration;
+    }
+
+    public void setIteration(Integer iteration) {
+        this.iteration = iteration;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public int getTotalSteps() {
+        return totalSteps;
+    }
+
+    public void setTotalSteps(int totalSteps) {
+        this.totalSteps = totalSteps;
+    }
+
+    public int getCompletedSteps() {
+        return completedSteps;
+    }
+
+    public void setCompletedSteps(int completedSteps) {
+        this.completedSteps = completedSteps;
+    }
+
+    public List<ExecutionStatus> getStepStatuses() {
+        return stepStatuses;
+    }
+
+    public void setStepStatuses(List<ExecutionStatus> stepStatuses) {
+        this.stepStatuses = stepStatuses;
+    }
+}
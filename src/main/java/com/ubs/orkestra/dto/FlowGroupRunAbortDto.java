@@ -0,0 +1,147 @@
+package com.ubs.orkestra.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Early abort of a FlowGroup run caused by a systemic failure at one step")
+public class FlowGroupRunAbortDto {
+
+    private Long id;
+    private Long flowGroupId;
+    private Integer iteration;
+
+    @Schema(description = "FlowStep at which the failure pattern was detected")
+    private Long flowStepId;
+
+    @Schema(description = "Flows of the run that FAILED at this step when the abort fired")
+    private Long failedCount;
+
+    @Schema(description = "Flows of the run that reached a terminal outcome at this step when the abort fired")
+    private Long terminalCount;
+
+    private Double failureRatio;
+    private Double threshold;
+
+    @Schema(description = "PAUSE or CANCEL", example = "PAUSE")
+    private String action;
+
+    @Schema(description = "Number of PENDING flows that were paused or cancelled")
+    private Integer affectedFlowCount;
+
+    @Schema(description = "Human-readable explanation of the abort")
+    private String reason;
+
+    private LocalDateTime createdAt;
+
+    @Schema(description = "When paused flows were resumed, null while still paused")
+    private LocalDateTime resumedAt;
+
+    // Constructors
+    public FlowGroupRunAbortDto() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getFlowGroupId() {
+        return flowGroupId;
+    }
+
+    public void setFlowGroupId(Long flowGroupId) {
+        this.flowGroupId = flowGroupId;
+    }
+
+    public Integer getIteration() {
+        return iteration;
+    }
+
+    public void setIteration(Integer iteration) {
+        this.iteration = iteration;
+    }
+
+    public Long getFlowStepId() {
+        return flowStepId;
+    }
+
+    public void setFlowStepId(Long flowStepId) {
+        this.flowStepId = flowStepId;
+    }
+
+    public Long getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(Long failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public Long getTerminalCount() {
+        return terminalCount;
+    }
+
+    public void setTerminalCount(Long terminalCount) {
+        this.terminalCount = terminalCount;
+    }
+
+    public Double getFailureRatio() {
+        return failureRatio;
+    }
+
+    public void setFailureRatio(Double failureRatio) {
+        this.failureRatio = failureRatio;
+    }
+
+    public Double getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(Double threshold) {
+        this.threshold = threshold;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public Integer getAffectedFlowCount() {
+        return affectedFlowCount;
+    }
+
+    public void setAffectedFlowCount(Integer affectedFlowCount) {
+        this.affectedFlowCount = affectedFlowCount;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getResumedAt() {
+        return resumedAt;
+    }
+
+    public void setResumedAt(LocalDateTime resumedAt) {
+        this.resumedAt = resumedAt;
+    }
+}
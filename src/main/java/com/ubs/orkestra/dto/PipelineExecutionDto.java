@@ -23,6 +23,7 @@ public class PipelineExecutionDto {
     private LocalDateTime createdAt;
     private Boolean isReplay;
     private LocalDateTime resumeTime;
+    private Boolean cacheHit;
 
     // Constructors
     public PipelineExecutionDto() {}
@@ -156,4 +157,12 @@ public class PipelineExecutionDto {
     public void setResumeTime(LocalDateTime resumeTime) {
         this.resumeTime = resumeTime;
     }
+
+    public Boolean getCacheHit() {
+        return cacheHit;
+    }
+
+    public void setCacheHit(Boolean cacheHit) {
+        this.cacheHit = cacheHit;
+    }
 }
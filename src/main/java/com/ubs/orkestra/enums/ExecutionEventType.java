@@ -0,0 +1,14 @@
+package com.ubs.orkestra.enums;
+
+public enum ExecutionEventType {
+    CREATED,
+    QUEUED,
+    SCHEDULED,
+    TRIGGERED,
+    PAUSED,
+    JOB_FOUND,
+    ARTIFACT_PARSED,
+    COMPLETED,
+    CANCELLED,
+    DELETED
+}
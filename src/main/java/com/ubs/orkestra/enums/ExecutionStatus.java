@@ -7,5 +7,6 @@ public enum ExecutionStatus {
     FAILED,
     CANCELLED,
     SCHEDULED,
-    IN_PROGRESS
+    IN_PROGRESS,
+    PAUSED
 }
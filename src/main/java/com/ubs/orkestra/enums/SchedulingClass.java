@@ -0,0 +1,10 @@
+package com.ubs.orkestra.enums;
+
+/**
+ * Fair-share scheduling class of a flow execution.
+ * INTERACTIVE runs are small ad-hoc launches; BULK runs are FlowGroup or large multi-flow launches.
+ */
+public enum SchedulingClass {
+    INTERACTIVE,
+    BULK
+}
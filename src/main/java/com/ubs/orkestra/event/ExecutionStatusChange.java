@@ -0,0 +1,71 @@
+package com.ubs.orkestra.event;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+
+import java.util.UUID;
+
+/**
+ * One flow or pipeline execution row moving between statuses.
+ *
+ * <p>Returned by the set-based transitions of the repositories and published as an application
+ * event for every persisted status change, so caches and streams see single rows whether the
+ * change came from an entity save or a bulk update. {@code pipelineExecutionId} is null for flow
+ * executions; {@code fromStatus} is null for a new row and {@code toStatus} for a deleted one.
+ */
+public class ExecutionStatusChange {
+
+    private final UUID flowExecutionId;
+    private final Long pipelineExecutionId;
+    private final Long flowStepId;
+    private final Long flowGroupId;
+    private final ExecutionStatus fromStatus;
+    private final ExecutionStatus toStatus;
+
+    public ExecutionStatusChange(UUID flowExecutionId, Long pipelineExecutionId, Long flowStepId, Long flowGroupId,
+                                 ExecutionStatus fromStatus, ExecutionStatus toStatus) {
+        this.flowExecutionId = flowExecutionId;
+        this.pipelineExecutionId = pipelineExecutionId;
+        this.flowStepId = flowStepId;
+        this.flowGroupId = flowGroupId;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+    }
+
+    public static ExecutionStatusChange forFlow(UUID flowExecutionId, Long flowGroupId,
+                                                ExecutionStatus fromStatus, ExecutionStatus toStatus) {
+        return new ExecutionStatusChange(flowExecutionId, null, null, flowGroupId, fromStatus, toStatus);
+    }
+
+    public static ExecutionStatusChange forPipeline(UUID flowExecutionId, Long pipelineExecutionId, Long flowStepId,
+                                                    ExecutionStatus fromStatus, ExecutionStatus toStatus) {
+        return new ExecutionStatusChange(flowExecutionId, pipelineExecutionId, flowStepId, null, fromStatus, toStatus);
+    }
+
+    public boolean isPipelineChange() {
+        return pipelineExecutionId != null;
+    }
+
+    public UUID getFlowExecutionId() {
+        return flowExecutionId;
+    }
+
+    public Long getPipelineExecutionId() {
+        return pipelineExecutionId;
+    }
+
+    public Long getFlowStepId() {
+        return flowStepId;
+    }
+
+    public Long getFlowGroupId() {
+        return flowGroupId;
+    }
+
+    public ExecutionStatus getFromStatus() {
+        return fromStatus;
+    }
+
+    public ExecutionStatus getToStatus() {
+        return toStatus;
+    }
+}
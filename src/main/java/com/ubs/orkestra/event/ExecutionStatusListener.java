@@ -0,0 +1,72 @@
+package com.ubs.orkestra.event;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.model.FlowExecution;
+import com.ubs.orkestra.model.PipelineExecution;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that publishes every persisted status change of flow and pipeline executions
+ * as an {@link ExecutionStatusChange} event. The status last written or read is kept on the entity
+ * so an update knows which status it moved from.
+ */
+@Component
+public class ExecutionStatusListener {
+
+    @Autowired
+    @Lazy
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostLoad
+    void onLoad(Object entity) {
+        if (entity instanceof FlowExecution flowExecution) {
+            flowExecution.setPersistedStatus(flowExecution.getStatus());
+        } else if (entity instanceof PipelineExecution pipelineExecution) {
+            pipelineExecution.setPersistedStatus(pipelineExecution.getStatus());
+        }
+    }
+
+    @PostPersist
+    @PostUpdate
+    void onWrite(Object entity) {
+        if (entity instanceof FlowExecution flowExecution) {
+            publish(flowExecution, flowExecution.getPersistedStatus(), flowExecution.getStatus());
+            flowExecution.setPersistedStatus(flowExecution.getStatus());
+        } else if (entity instanceof PipelineExecution pipelineExecution) {
+            publish(pipelineExecution, pipelineExecution.getPersistedStatus(), pipelineExecution.getStatus());
+            pipelineExecution.setPersistedStatus(pipelineExecution.getStatus());
+        }
+    }
+
+    @PostRemove
+    void onRemove(Object entity) {
+        if (entity instanceof FlowExecution flowExecution) {
+            publish(flowExecution, flowExecution.getPersistedStatus(), null);
+        } else if (entity instanceof PipelineExecution pipelineExecution) {
+            publish(pipelineExecution, pipelineExecution.getPersistedStatus(), null);
+        }
+    }
+
+    private void publish(FlowExecution flowExecution, ExecutionStatus from, ExecutionStatus to) {
+        if (from == to) {
+            return;
+        }
+        Long flowGroupId = flowExecution.getFlowGroup() != null ? flowExecution.getFlowGroup().getId() : null;
+        eventPublisher.publishEvent(ExecutionStatusChange.forFlow(flowExecution.getId(), flowGroupId, from, to));
+    }
+
+    private void publish(PipelineExecution pipelineExecution, ExecutionStatus from, ExecutionStatus to) {
+        if (from == to) {
+            return;
+        }
+        eventPublisher.publishEvent(ExecutionStatusChange.forPipeline(pipelineExecution.getFlowExecutionId(),
+                pipelineExecution.getId(), pipelineExecution.getFlowStepId(), from, to));
+    }
+}
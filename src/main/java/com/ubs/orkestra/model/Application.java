@@ -50,6 +50,14 @@ public class Application {
     @Column(name = "webhook_id")
     private Long webhookId;
 
+    // Max SCHEDULED steps of this application released per minute; null uses the global per-app default
+    @Column(name = "scheduled_release_per_minute")
+    private Integer scheduledReleasePerMinute;
+
+    // Max pipelines of this application RUNNING at once; null or 0 means unlimited
+    @Column(name = "max_concurrent_pipelines")
+    private Integer maxConcurrentPipelines;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -162,4 +170,20 @@ public class Application {
     public void setWebhookId(Long webhookId) {
         this.webhookId = webhookId;
     }
+
+    public Integer getScheduledReleasePerMinute() {
+        return scheduledReleasePerMinute;
+    }
+
+    public void setScheduledReleasePerMinute(Integer scheduledReleasePerMinute) {
+        this.scheduledReleasePerMinute = scheduledReleasePerMinute;
+    }
+
+    public Integer getMaxConcurrentPipelines() {
+        return maxConcurrentPipelines;
+    }
+
+    public void setMaxConcurrentPipelines(Integer maxConcurrentPipelines) {
+        this.maxConcurrentPipelines = maxConcurrentPipelines;
+    }
 }
@@ -0,0 +1,114 @@
+package com.ubs.orkestra.model;
+
+import com.ubs.orkestra.enums.ExecutionEventType;
+import com.ubs.orkestra.enums.ExecutionStatus;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One entry of the append-only execution journal.
+ * Entries are never updated; their id gives the order in which they were appended.
+ */
+@Entity
+@Table(name = "execution_events")
+public class ExecutionEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "execution_events_seq")
+    @SequenceGenerator(name = "execution_events_seq", sequenceName = "execution_events_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    @Column(name = "flow_execution_id", nullable = false, updatable = false, columnDefinition = "uuid")
+    private UUID flowExecutionId;
+
+    @Column(name = "pipeline_execution_id", updatable = false)
+    private Long pipelineExecutionId;
+
+    @Column(name = "flow_step_id", updatable = false)
+    private Long flowStepId;
+
+    @Column(name = "flow_group_id", updatable = false)
+    private Long flowGroupId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, updatable = false, length = 32)
+    private ExecutionEventType eventType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", updatable = false, length = 32)
+    private ExecutionStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", updatable = false, length = 32)
+    private ExecutionStatus toStatus;
+
+    @Column(name = "detail", updatable = false, length = 512)
+    private String detail;
+
+    @NotNull
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private LocalDateTime occurredAt;
+
+    // Constructors
+    public ExecutionEvent() {}
+
+    public ExecutionEvent(UUID flowExecutionId, Long pipelineExecutionId, Long flowStepId, Long flowGroupId,
+                          ExecutionEventType eventType, ExecutionStatus fromStatus, ExecutionStatus toStatus,
+                          String detail) {
+        this.flowExecutionId = flowExecutionId;
+        this.pipelineExecutionId = pipelineExecutionId;
+        this.flowStepId = flowStepId;
+        this.flowGroupId = flowGroupId;
+        this.eventType = eventType;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.detail = detail;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getFlowExecutionId() {
+        return flowExecutionId;
+    }
+
+    public Long getPipelineExecutionId() {
+        return pipelineExecutionId;
+    }
+
+    public Long getFlowStepId() {
+        return flowStepId;
+    }
+
+    public Long getFlowGroupId() {
+        return flowGroupId;
+    }
+
+    public ExecutionEventType getEventType() {
+        return eventType;
+    }
+
+    public ExecutionStatus getFromStatus() {
+        return fromStatus;
+    }
+
+    public ExecutionStatus getToStatus() {
+        return toStatus;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
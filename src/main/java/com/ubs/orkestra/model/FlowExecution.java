@@ -1,11 +1,15 @@
 package com.ubs.orkestra.model;
 
 import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.enums.SchedulingClass;
+import com.ubs.orkestra.event.ExecutionStatusListener;
+import com.ubs.orkestra.util.UuidV7;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -13,7 +17,8 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "flow_executions")
-public class FlowExecution {
+@EntityListeners(ExecutionStatusListener.class)
+public class FlowExecution implements Persistable<UUID> {
 
     @Id
     @Column(name = "id", updatable = false, nullable = false, columnDefinition = "uuid")
@@ -60,13 +65,33 @@ public class FlowExecution {
     @Column(name = "revolutions")
     private Integer revolutions;
 
+    // Fair-share class used when dispatching PENDING flows; null (older rows) is treated as BULK
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scheduling_class", length = 16)
+    private SchedulingClass schedulingClass;
+
+    // Identity of the run while it is in flight when launched with coalescing, cleared once it is paused or finishes
+    @Column(name = "coalescing_key", length = 64)
+    private String coalescingKey;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // The id is assigned in the constructor, so Spring Data cannot tell new rows apart by a null id.
+    // Tracking it here lets save()/saveAll() persist directly instead of issuing a SELECT per row via merge.
+    @Transient
+    private boolean newEntity = true;
+
+    // Status as last read from or written to the database, maintained by ExecutionStatusListener
+    @Transient
+    private ExecutionStatus persistedStatus;
+
     // Constructors
+    // Time-ordered ids keep inserts at the end of the primary key index; rows created before
+    // the switch keep their random (v4) ids
     public FlowExecution() {
-        this.id = UUID.randomUUID();
+        this.id = UuidV7.generate();
     }
 
     public FlowExecution(Long flowId, Map<String, String> runtimeVariables) {
@@ -80,7 +105,26 @@ public class FlowExecution {
         this.category = "uncategorized";
     }
 
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+
+    @PreUpdate
+    void releaseCoalescingKey() {
+        if (coalescingKey != null && status != ExecutionStatus.PENDING && status != ExecutionStatus.RUNNING) {
+            coalescingKey = null;
+        }
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
     // Getters and Setters
+    @Override
     public UUID getId() {
         return id;
     }
@@ -193,4 +237,28 @@ public class FlowExecution {
     public void setRevolutions(Integer revolutions) {
         this.revolutions = revolutions;
     }
-}
\ No newline at end of file
+
+    public SchedulingClass getSchedulingClass() {
+        return schedulingClass;
+    }
+
+    public void setSchedulingClass(SchedulingClass schedulingClass) {
+        this.schedulingClass = schedulingClass;
+    }
+
+    public String getCoalescingKey() {
+        return coalescingKey;
+    }
+
+    public void setCoalescingKey(String coalescingKey) {
+        this.coalescingKey = coalescingKey;
+    }
+
+    public ExecutionStatus getPersistedStatus() {
+        return persistedStatus;
+    }
+
+    public void setPersistedStatus(ExecutionStatus persistedStatus) {
+        this.persistedStatus = persistedStatus;
+    }
+}
@@ -0,0 +1,171 @@
+package com.ubs.orkestra.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records an early abort of a FlowGroup run (flowGroupId + iteration) after a systemic
+ * failure was detected at one FlowStep, so operators can see why PENDING flows were
+ * paused or cancelled.
+ */
+@Entity
+@Table(name = "flow_group_run_aborts")
+public class FlowGroupRunAbort {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flow_group_run_aborts_seq")
+    @SequenceGenerator(name = "flow_group_run_aborts_seq", sequenceName = "flow_group_run_aborts_seq", allocationSize = 1)
+    private Long id;
+
+    @NotNull
+    @Column(name = "flow_group_id", nullable = false)
+    private Long flowGroupId;
+
+    @NotNull
+    @Column(name = "iteration", nullable = false)
+    private Integer iteration;
+
+    @NotNull
+    @Column(name = "flow_step_id", nullable = false)
+    private Long flowStepId;
+
+    @Column(name = "failed_count")
+    private Long failedCount;
+
+    @Column(name = "terminal_count")
+    private Long terminalCount;
+
+    @Column(name = "failure_ratio")
+    private Double failureRatio;
+
+    @Column(name = "threshold")
+    private Double threshold;
+
+    // PAUSE or CANCEL
+    @Column(name = "action", length = 16)
+    private String action;
+
+    @Column(name = "affected_flow_count")
+    private Integer affectedFlowCount;
+
+    @Column(name = "reason", length = 1000)
+    private String reason;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "resumed_at")
+    private LocalDateTime resumedAt;
+
+    // Constructors
+    public FlowGroupRunAbort() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getFlowGroupId() {
+        return flowGroupId;
+    }
+
+    public void setFlowGroupId(Long flowGroupId) {
+        this.flowGroupId = flowGroupId;
+    }
+
+    public Integer getIteration() {
+        return iteration;
+    }
+
+    public void setIteration(Integer iteration) {
+        this.iteration = iteration;
+    }
+
+    public Long getFlowStepId() {
+        return flowStepId;
+    }
+
+    public void setFlowStepId(Long flowStepId) {
+        this.flowStepId = flowStepId;
+    }
+
+    public Long getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(Long failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public Long getTerminalCount() {
+        return terminalCount;
+    }
+
+    public void setTerminalCount(Long terminalCount) {
+        this.terminalCount = terminalCount;
+    }
+
+    public Double getFailureRatio() {
+        return failureRatio;
+    }
+
+    public void setFailureRatio(Double failureRatio) {
+        this.failureRatio = failureRatio;
+    }
+
+    public Double getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(Double threshold) {
+        this.threshold = threshold;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public Integer getAffectedFlowCount() {
+        return affectedFlowCount;
+    }
+
+    public void setAffectedFlowCount(Integer affectedFlowCount) {
+        this.affectedFlowCount = affectedFlowCount;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getResumedAt() {
+        return resumedAt;
+    }
+
+    public void setResumedAt(LocalDateTime resumedAt) {
+        this.resumedAt = resumedAt;
+    }
+}
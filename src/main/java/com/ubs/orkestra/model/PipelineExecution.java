@@ -1,6 +1,7 @@
 package com.ubs.orkestra.model;
 
 import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.event.ExecutionStatusListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import org.hibernate.annotations.CreationTimestamp;
@@ -13,11 +14,14 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "pipeline_executions")
+@EntityListeners(ExecutionStatusListener.class)
 public class PipelineExecution {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pipeline_executions_seq")
-    @SequenceGenerator(name = "pipeline_executions_seq", sequenceName = "pipeline_executions_seq", allocationSize = 1)
+    // Pooled allocation so batched inserts do not hit the sequence once per row;
+    // the database sequence must use INCREMENT BY 50 for the pooled optimizer to engage
+    @SequenceGenerator(name = "pipeline_executions_seq", sequenceName = "pipeline_executions_seq", allocationSize = 50)
     private long id;
 
     @NotNull
@@ -50,10 +54,20 @@ public class PipelineExecution {
     @Column(name = "end_time")
     private LocalDateTime endTime;
 
+    // Rows written before test data snapshots carry their configured test data inline
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "configured_test_data", columnDefinition = "json")
+    private Map<String, String> inlineConfiguredTestData;
+
+    // Content hash of the TestDataSnapshot holding the configured test data
+    @Column(name = "configured_test_data_hash", length = 64)
+    private String configuredTestDataHash;
+
+    // Resolved from the snapshot by TestDataSnapshotService
+    @Transient
     private Map<String, String> configuredTestData;
 
+    // Delta against configuredTestData (see VariableDelta); older rows hold the full map
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "runtime_test_data", columnDefinition = "json")
     private Map<String, String> runtimeTestData;
@@ -72,6 +86,25 @@ public class PipelineExecution {
     @Column(name = "resume_time")
     private LocalDateTime resumeTime;
 
+    // Step-result memoization: set when the outcome was reused from the cache instead of a new pipeline
+    @Column(name = "cache_hit")
+    private Boolean cacheHit = false;
+
+    // Cache key parts captured at trigger time so a PASSED outcome can be memoized on completion
+    @Column(name = "commit_sha", length = 64)
+    private String commitSha;
+
+    @Column(name = "input_hash", length = 64)
+    private String inputHash;
+
+    // Set while the step is ready but waits for a free pipeline slot of its application (FIFO order)
+    @Column(name = "awaiting_capacity_since")
+    private LocalDateTime awaitingCapacitySince;
+
+    // Status as last read from or written to the database, maintained by ExecutionStatusListener
+    @Transient
+    private ExecutionStatus persistedStatus;
+
     // Constructors
     public PipelineExecution() {}
 
@@ -168,13 +201,21 @@ public class PipelineExecution {
     }
 
     public Map<String, String> getConfiguredTestData() {
-        return configuredTestData;
+        return configuredTestData != null ? configuredTestData : inlineConfiguredTestData;
     }
 
     public void setConfiguredTestData(Map<String, String> configuredTestData) {
         this.configuredTestData = configuredTestData;
     }
 
+    public String getConfiguredTestDataHash() {
+        return configuredTestDataHash;
+    }
+
+    public void setConfiguredTestDataHash(String configuredTestDataHash) {
+        this.configuredTestDataHash = configuredTestDataHash;
+    }
+
     public Map<String, String> getRuntimeTestData() {
         return runtimeTestData;
     }
@@ -214,4 +255,44 @@ public class PipelineExecution {
     public void setResumeTime(LocalDateTime resumeTime) {
         this.resumeTime = resumeTime;
     }
+
+    public Boolean getCacheHit() {
+        return cacheHit;
+    }
+
+    public void setCacheHit(Boolean cacheHit) {
+        this.cacheHit = cacheHit;
+    }
+
+    public String getCommitSha() {
+        return commitSha;
+    }
+
+    public void setCommitSha(String commitSha) {
+        this.commitSha = commitSha;
+    }
+
+    public String getInputHash() {
+        return inputHash;
+    }
+
+    public void setInputHash(String inputHash) {
+        this.inputHash = inputHash;
+    }
+
+    public LocalDateTime getAwaitingCapacitySince() {
+        return awaitingCapacitySince;
+    }
+
+    public void setAwaitingCapacitySince(LocalDateTime awaitingCapacitySince) {
+        this.awaitingCapacitySince = awaitingCapacitySince;
+    }
+
+    public ExecutionStatus getPersistedStatus() {
+        return persistedStatus;
+    }
+
+    public void setPersistedStatus(ExecutionStatus persistedStatus) {
+        this.persistedStatus = persistedStatus;
+    }
 }
@@ -0,0 +1,162 @@
+package com.ubs.orkestra.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Memoized outcome of a PASSED flow step.
+ * A step is considered identical to a previous run when it targets the same FlowStep,
+ * the branch resolves to the same commit SHA and the input variables hash to the same value.
+ */
+@Entity
+@Table(name = "step_result_cache",
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_step_result_cache_key", columnNames = {"flow_step_id", "commit_sha", "input_hash"})
+       })
+public class StepResultCacheEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "step_result_cache_seq")
+    @SequenceGenerator(name = "step_result_cache_seq", sequenceName = "step_result_cache_seq", allocationSize = 1)
+    private Long id;
+
+    @NotNull
+    @Column(name = "flow_step_id", nullable = false)
+    private Long flowStepId;
+
+    @NotNull
+    @Column(name = "commit_sha", nullable = false, length = 64)
+    private String commitSha;
+
+    @NotNull
+    @Column(name = "input_hash", nullable = false, length = 64)
+    private String inputHash;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "runtime_test_data", columnDefinition = "json")
+    private Map<String, String> runtimeTestData;
+
+    @Column(name = "source_pipeline_execution_id")
+    private Long sourcePipelineExecutionId;
+
+    @Column(name = "pipeline_id")
+    private Long pipelineId;
+
+    @Column(name = "pipeline_url")
+    private String pipelineUrl;
+
+    @Column(name = "hit_count")
+    private Long hitCount = 0L;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @NotNull
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Constructors
+    public StepResultCacheEntry() {}
+
+    public StepResultCacheEntry(Long flowStepId, String commitSha, String inputHash) {
+        this.flowStepId = flowStepId;
+        this.commitSha = commitSha;
+        this.inputHash = inputHash;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getFlowStepId() {
+        return flowStepId;
+    }
+
+    public void setFlowStepId(Long flowStepId) {
+        this.flowStepId = flowStepId;
+    }
+
+    public String getCommitSha() {
+        return commitSha;
+    }
+
+    public void setCommitSha(String commitSha) {
+        this.commitSha = commitSha;
+    }
+
+    public String getInputHash() {
+        return inputHash;
+    }
+
+    public void setInputHash(String inputHash) {
+        this.inputHash = inputHash;
+    }
+
+    public Map<String, String> getRuntimeTestData() {
+        return runtimeTestData;
+    }
+
+    public void setRuntimeTestData(Map<String, String> runtimeTestData) {
+        this.runtimeTestData = runtimeTestData;
+    }
+
+    public Long getSourcePipelineExecutionId() {
+        return sourcePipelineExecutionId;
+    }
+
+    public void setSourcePipelineExecutionId(Long sourcePipelineExecutionId) {
+        this.sourcePipelineExecutionId = sourcePipelineExecutionId;
+    }
+
+    public Long getPipelineId() {
+        return pipelineId;
+    }
+
+    public void setPipelineId(Long pipelineId) {
+        this.pipelineId = pipelineId;
+    }
+
+    public String getPipelineUrl() {
+        return pipelineUrl;
+    }
+
+    public void setPipelineUrl(String pipelineUrl) {
+        this.pipelineUrl = pipelineUrl;
+    }
+
+    public Long getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(Long hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
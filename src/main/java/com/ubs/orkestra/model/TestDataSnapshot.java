@@ -0,0 +1,86 @@
+package com.ubs.orkestra.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Merged configured test data of a flow step, stored once per distinct content.
+ * The id is the SHA-256 content hash of the map, so snapshots are immutable and shared by every
+ * PipelineExecution that was configured with the same data.
+ */
+@Entity
+@Table(name = "test_data_snapshots")
+public class TestDataSnapshot implements Persistable<String> {
+
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "data", columnDefinition = "json")
+    private Map<String, String> data;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // The id is the content hash, so Spring Data cannot tell new rows apart by a null id.
+    // Tracking it here lets saveAll() insert a batch of snapshots without a SELECT per row via merge.
+    @Transient
+    private boolean newEntity = true;
+
+    // Constructors
+    public TestDataSnapshot() {}
+
+    public TestDataSnapshot(String hash, Map<String, String> data) {
+        this.hash = hash;
+        this.data = data;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+
+    @Override
+    public String getId() {
+        return hash;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    // Getters and Setters
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public Map<String, String> getData() {
+        return data;
+    }
+
+    public void setData(Map<String, String> data) {
+        this.data = data;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
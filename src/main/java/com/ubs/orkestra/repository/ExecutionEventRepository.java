@@ -0,0 +1,23 @@
+package com.ubs.orkestra.repository;
+
+import com.ubs.orkestra.model.ExecutionEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ExecutionEventRepository extends JpaRepository<ExecutionEvent, Long> {
+
+    /**
+     * Journal of one flow execution in append order
+     */
+    List<ExecutionEvent> findByFlowExecutionIdOrderByIdAsc(UUID flowExecutionId);
+
+    /**
+     * Journal entries appended after {@code afterId}, for sequential readers
+     */
+    List<ExecutionEvent> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+}
@@ -2,17 +2,27 @@ package com.ubs.orkestra.repository;
 
 import com.ubs.orkestra.enums.ExecutionStatus;
 import com.ubs.orkestra.model.FlowExecution;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface FlowExecutionRepository extends JpaRepository<FlowExecution, UUID> {
@@ -24,10 +34,21 @@ public interface FlowExecutionRepository extends JpaRepository<FlowExecution, UU
     Page<FlowExecution> findByFlowIdIn(List<Long> flowIds, Pageable pageable);
     
     List<FlowExecution> findByStatus(ExecutionStatus status);
+
+    List<FlowExecution> findByStatusOrderByCreatedAtAsc(ExecutionStatus status);
+
+    // Rows of [flowGroupId, category, schedulingClass, count] used for fair-share dispatch
+    @Query("SELECT fg.id, fe.category, fe.schedulingClass, COUNT(fe) FROM FlowExecution fe LEFT JOIN fe.flowGroup fg " +
+           "WHERE fe.status = :status GROUP BY fg.id, fe.category, fe.schedulingClass")
+    List<Object[]> countByStatusGroupedByTenant(@Param("status") ExecutionStatus status);
     
     List<FlowExecution> findByFlowIdAndStatus(Long flowId, ExecutionStatus status);
     
     Long countByStatus(ExecutionStatus status);
+
+    // Reconciliation of the in-memory status counters: rows of [flowGroupId, status, count]
+    @Query("SELECT fg.id, fe.status, COUNT(fe) FROM FlowExecution fe LEFT JOIN fe.flowGroup fg GROUP BY fg.id, fe.status")
+    List<Object[]> countGroupedByFlowGroupAndStatus();
     
     @Query("SELECT AVG(FUNCTION('TIMESTAMPDIFF', MINUTE, fe.startTime, fe.endTime)) FROM FlowExecution fe WHERE fe.endTime IS NOT NULL")
     List<Object[]> findAverageExecutionTime();
@@ -101,4 +122,130 @@ public interface FlowExecutionRepository extends JpaRepository<FlowExecution, UU
 
     Page<FlowExecution> findAll(Specification<FlowExecution> spec, Pageable pageable);
 
+    // Guarded single-row transition: returns 0 when another worker already moved the row
+    @Modifying
+    @Query("UPDATE FlowExecution fe SET fe.status = :toStatus WHERE fe.id = :id AND fe.status = :fromStatus")
+    int transitionStatus(@Param("id") UUID id, @Param("fromStatus") ExecutionStatus fromStatus,
+                         @Param("toStatus") ExecutionStatus toStatus);
+
+    // Queries scoped to one FlowGroup run (flowGroupId + iteration)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT fe FROM FlowExecution fe WHERE fe.flowGroup.id = :flowGroupId AND fe.iteration = :iteration " +
+           "AND fe.status = :status ORDER BY fe.createdAt")
+    List<FlowExecution> lockRunExecutionsByStatus(@Param("flowGroupId") Long flowGroupId, @Param("iteration") Integer iteration,
+                                                  @Param("status") ExecutionStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT fe FROM FlowExecution fe WHERE fe.id IN :ids")
+    List<FlowExecution> lockAllById(@Param("ids") Collection<UUID> ids);
+
+    // Waiting since: startTime when a resume restarted the PENDING clock, createdAt otherwise.
+    // Candidate rows are locked as [id, flowGroupId, status] for ExecutionTransitionService.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT fe.id, fe.flowGroup.id, fe.status FROM FlowExecution fe WHERE fe.status = :fromStatus " +
+           "AND ((fe.startTime IS NOT NULL AND fe.startTime > fe.createdAt AND fe.startTime < :waitingBefore) " +
+           "OR ((fe.startTime IS NULL OR fe.startTime <= fe.createdAt) AND fe.createdAt < :waitingBefore))")
+    List<Object[]> lockWaitingSince(@Param("fromStatus") ExecutionStatus fromStatus,
+                                    @Param("waitingBefore") LocalDateTime waitingBefore);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT fe.id, fe.flowGroup.id, fe.status FROM FlowExecution fe " +
+           "WHERE fe.flowGroup.id = :flowGroupId AND fe.iteration = :iteration AND fe.status IN :fromStatuses")
+    List<Object[]> lockRunExecutions(@Param("flowGroupId") Long flowGroupId, @Param("iteration") Integer iteration,
+                                     @Param("fromStatuses") Collection<ExecutionStatus> fromStatuses);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT fe.id, fe.flowGroup.id, fe.status FROM FlowExecution fe " +
+           "WHERE fe.category = :category AND fe.status IN :fromStatuses")
+    List<Object[]> lockCategoryExecutions(@Param("category") String category,
+                                          @Param("fromStatuses") Collection<ExecutionStatus> fromStatuses);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE FlowExecution fe SET fe.status = :toStatus, fe.endTime = :endTime, fe.coalescingKey = NULL " +
+           "WHERE fe.id IN :ids AND fe.status IN :fromStatuses")
+    int transitionByIds(@Param("ids") Collection<UUID> ids, @Param("fromStatuses") Collection<ExecutionStatus> fromStatuses,
+                        @Param("toStatus") ExecutionStatus toStatus, @Param("endTime") LocalDateTime endTime);
+
+    // Move to a non-final status (e.g. PENDING -> PAUSED): endTime is kept, the coalescing key is given up
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE FlowExecution fe SET fe.status = :toStatus, fe.coalescingKey = NULL " +
+           "WHERE fe.id IN :ids AND fe.status IN :fromStatuses")
+    int updateStatusByIds(@Param("ids") Collection<UUID> ids, @Param("fromStatuses") Collection<ExecutionStatus> fromStatuses,
+                          @Param("toStatus") ExecutionStatus toStatus);
+
+    // Resuming restarts the PENDING clock (startTime) so resumed flows are not timed out immediately
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE FlowExecution fe SET fe.status = :toStatus, fe.startTime = :startTime " +
+           "WHERE fe.id IN :ids AND fe.status IN :fromStatuses")
+    int restartByIds(@Param("ids") Collection<UUID> ids, @Param("fromStatuses") Collection<ExecutionStatus> fromStatuses,
+                     @Param("toStatus") ExecutionStatus toStatus, @Param("startTime") LocalDateTime startTime);
+
+    // In-flight coalescing index: key and id of every execution that still holds a key
+    @Query("SELECT fe.coalescingKey, fe.id FROM FlowExecution fe WHERE fe.coalescingKey IS NOT NULL")
+    List<Object[]> findCoalescingKeys();
+
+    @Query("SELECT fe.id FROM FlowExecution fe WHERE fe.coalescingKey = :coalescingKey")
+    Optional<UUID> findIdByCoalescingKey(@Param("coalescingKey") String coalescingKey);
+
+    @Query("SELECT fe.status FROM FlowExecution fe WHERE fe.id = :id")
+    Optional<ExecutionStatus> findStatusById(@Param("id") UUID id);
+
+    // Scalar summaries for dashboards; no entity or JSON column is loaded
+    @Query("SELECT fe.id AS id, fe.flowId AS flowId, fe.status AS status, fe.category AS category, " +
+           "fg.id AS flowGroupId, fe.iteration AS iteration, fe.createdAt AS createdAt, " +
+           "fe.startTime AS startTime, fe.endTime AS endTime " +
+           "FROM FlowExecution fe LEFT JOIN fe.flowGroup fg " +
+           "WHERE (:flowGroupId IS NULL OR fg.id = :flowGroupId) " +
+           "AND (:iteration IS NULL OR fe.iteration = :iteration) " +
+           "AND (:status IS NULL OR fe.status = :status)")
+    Slice<FlowExecutionSummaryView> findSummaries(@Param("flowGroupId") Long flowGroupId,
+                                                  @Param("iteration") Integer iteration,
+                                                  @Param("status") ExecutionStatus status,
+                                                  Pageable pageable);
+
+    @Query("SELECT fe.id AS id, fe.flowId AS flowId, fe.status AS status, fe.category AS category, " +
+           "fg.id AS flowGroupId, fe.iteration AS iteration, fe.createdAt AS createdAt, " +
+           "fe.startTime AS startTime, fe.endTime AS endTime " +
+           "FROM FlowExecution fe LEFT JOIN fe.flowGroup fg " +
+           "WHERE fe.flowId IN :flowIds " +
+           "AND (:flowGroupId IS NULL OR fg.id = :flowGroupId) " +
+           "AND (:iteration IS NULL OR fe.iteration = :iteration) " +
+           "AND (:status IS NULL OR fe.status = :status)")
+    Slice<FlowExecutionSummaryView> findSummariesByFlowIds(@Param("flowIds") Collection<Long> flowIds,
+                                                           @Param("flowGroupId") Long flowGroupId,
+                                                           @Param("iteration") Integer iteration,
+                                                           @Param("status") ExecutionStatus status,
+                                                           Pageable pageable);
+
+    // Forward-only read for exports; must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT fe.id AS id, fe.flowId AS flowId, fe.status AS status, fe.category AS category, " +
+           "fg.id AS flowGroupId, fe.iteration AS iteration, fe.createdAt AS createdAt, " +
+           "fe.startTime AS startTime, fe.endTime AS endTime " +
+           "FROM FlowExecution fe LEFT JOIN fe.flowGroup fg " +
+           "WHERE (:flowId IS NULL OR fe.flowId = :flowId) " +
+           "AND (:flowGroupId IS NULL OR fg.id = :flowGroupId) " +
+           "AND (:iteration IS NULL OR fe.iteration = :iteration) " +
+           "AND (:status IS NULL OR fe.status = :status) " +
+           "AND (:fromDate IS NULL OR fe.createdAt >= :fromDate) " +
+           "AND (:toDate IS NULL OR fe.createdAt <= :toDate) " +
+           "ORDER BY fe.createdAt ASC, fe.id ASC")
+    Stream<FlowExecutionSummaryView> streamSummaries(@Param("flowId") Long flowId,
+                                                     @Param("flowGroupId") Long flowGroupId,
+                                                     @Param("iteration") Integer iteration,
+                                                     @Param("status") ExecutionStatus status,
+                                                     @Param("fromDate") LocalDateTime fromDate,
+                                                     @Param("toDate") LocalDateTime toDate);
+
+    // Finished runs created before the cutoff, oldest first; locked so only one instance archives them
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT fe FROM FlowExecution fe WHERE fe.status IN :statuses AND fe.createdAt < :createdBefore " +
+           "ORDER BY fe.createdAt ASC, fe.id ASC")
+    List<FlowExecution> lockArchivable(@Param("statuses") Collection<ExecutionStatus> statuses,
+                                       @Param("createdBefore") LocalDateTime createdBefore,
+                                       Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM FlowExecution fe WHERE fe.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<UUID> ids);
 }
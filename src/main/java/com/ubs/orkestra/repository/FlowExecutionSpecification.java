@@ -1,11 +1,15 @@
 package com.ubs.orkestra.repository;
 
+import com.ubs.orkestra.model.Flow;
 import com.ubs.orkestra.model.FlowExecution;
 import com.ubs.orkestra.model.FlowGroup;
+import com.ubs.orkestra.util.ExecutionCursor;
 import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 public class FlowExecutionSpecification {
@@ -70,4 +74,46 @@ public class FlowExecutionSpecification {
             return predicate;
         };
     }
+
+    public static Specification<FlowExecution> withFlowIds(List<Long> flowIds) {
+        return (root, query, criteriaBuilder) -> root.get("flowId").in(flowIds);
+    }
+
+    /**
+     * Same matching as {@link FlowExecutionRepository#searchAll}: execution id, squashTestCaseId or
+     * squashTestCase of the flow.
+     */
+    public static Specification<FlowExecution> matchingTerm(String term) {
+        return (root, query, criteriaBuilder) -> {
+            String pattern = "%" + term.toLowerCase() + "%";
+            Subquery<Long> flows = query.subquery(Long.class);
+            Root<Flow> flow = flows.from(Flow.class);
+            flows.select(flow.get("id")).where(criteriaBuilder.or(
+                    criteriaBuilder.like(flow.get("squashTestCaseId").as(String.class), "%" + term + "%"),
+                    criteriaBuilder.like(criteriaBuilder.lower(flow.get("squashTestCase")), pattern)));
+            return criteriaBuilder.or(
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("id").as(String.class)), pattern),
+                    root.get("flowId").in(flows));
+        };
+    }
+
+    /**
+     * Rows strictly after {@code cursor} in (createdAt, id) order of the given direction.
+     */
+    public static Specification<FlowExecution> after(ExecutionCursor cursor, Sort.Direction direction) {
+        return (root, query, criteriaBuilder) -> {
+            Path<LocalDateTime> createdAt = root.get("createdAt");
+            Path<UUID> id = root.get("id");
+            if (direction.isAscending()) {
+                return criteriaBuilder.or(
+                        criteriaBuilder.greaterThan(createdAt, cursor.getCreatedAt()),
+                        criteriaBuilder.and(criteriaBuilder.equal(createdAt, cursor.getCreatedAt()),
+                                criteriaBuilder.greaterThan(id, cursor.getId())));
+            }
+            return criteriaBuilder.or(
+                    criteriaBuilder.lessThan(createdAt, cursor.getCreatedAt()),
+                    criteriaBuilder.and(criteriaBuilder.equal(createdAt, cursor.getCreatedAt()),
+                            criteriaBuilder.lessThan(id, cursor.getId())));
+        };
+    }
 }
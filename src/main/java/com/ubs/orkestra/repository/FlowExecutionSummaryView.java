@@ -0,0 +1,31 @@
+package com.ubs.orkestra.repository;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Scalar columns of a flow execution, read by {@link FlowExecutionRepository#findSummaries} and
+ * streamed by {@link FlowExecutionRepository#streamSummaries}.
+ */
+public interface FlowExecutionSummaryView {
+
+    UUID getId();
+
+    Long getFlowId();
+
+    ExecutionStatus getStatus();
+
+    String getCategory();
+
+    Long getFlowGroupId();
+
+    Integer getIteration();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+}
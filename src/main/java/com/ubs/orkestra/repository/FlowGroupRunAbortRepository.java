@@ -0,0 +1,18 @@
+package com.ubs.orkestra.repository;
+
+import com.ubs.orkestra.model.FlowGroupRunAbort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FlowGroupRunAbortRepository extends JpaRepository<FlowGroupRunAbort, Long> {
+
+    List<FlowGroupRunAbort> findByFlowGroupIdOrderByCreatedAtDesc(Long flowGroupId);
+
+    List<FlowGroupRunAbort> findByFlowGroupIdAndIterationAndResumedAtIsNull(Long flowGroupId, Integer iteration);
+
+    Optional<FlowGroupRunAbort> findTopByFlowGroupIdAndIterationAndResumedAtIsNotNullOrderByResumedAtDesc(Long flowGroupId, Integer iteration);
+}
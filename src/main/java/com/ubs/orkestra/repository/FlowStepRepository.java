@@ -20,6 +20,10 @@ public interface FlowStepRepository extends JpaRepository<FlowStep, Long> {
 
     List<FlowStep> findByIdIn(List<Long> ids);
 
+    // Rows of [flowStepId, applicationId]
+    @Query("SELECT fs.id, fs.application.id FROM FlowStep fs")
+    List<Object[]> findStepApplicationIds();
+
     @Query(value = "SELECT COUNT(*) > 0 FROM flow_steps WHERE test_data_ids LIKE CONCAT('%', :testDataId, '%')", nativeQuery = true)
     boolean existsByTestDataId(@Param("testDataId") String testDataId);
 }
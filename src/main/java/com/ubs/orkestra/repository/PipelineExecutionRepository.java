@@ -2,14 +2,19 @@ package com.ubs.orkestra.repository;
 
 import com.ubs.orkestra.enums.ExecutionStatus;
 import com.ubs.orkestra.model.PipelineExecution;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -29,6 +34,8 @@ public interface PipelineExecutionRepository extends JpaRepository<PipelineExecu
     List<PipelineExecution> findByFlowId(Long flowId);
     
     List<PipelineExecution> findByFlowExecutionIdOrderByCreatedAt(UUID flowExecutionId);
+
+    List<PipelineExecution> findByFlowExecutionIdInOrderByCreatedAt(Collection<UUID> flowExecutionIds);
     
     List<PipelineExecution> findByStatus(ExecutionStatus status);
     
@@ -66,6 +73,141 @@ public interface PipelineExecutionRepository extends JpaRepository<PipelineExecu
     // Method to find scheduled executions ready to resume
     List<PipelineExecution> findByStatusAndResumeTimeBefore(ExecutionStatus status, LocalDateTime resumeTime);
 
+    List<PipelineExecution> findByStatusAndResumeTimeBeforeOrderByResumeTimeAscIdAsc(ExecutionStatus status, LocalDateTime resumeTime);
+
+    // Guarded release of a due SCHEDULED step: returns 0 if it was cancelled or released meanwhile
+    @Transactional
+    @Modifying
+    @Query("UPDATE PipelineExecution pe SET pe.status = :toStatus, pe.resumeTime = null " +
+           "WHERE pe.id = :id AND pe.status = :fromStatus")
+    int claimScheduled(@Param("id") Long id, @Param("fromStatus") ExecutionStatus fromStatus,
+                       @Param("toStatus") ExecutionStatus toStatus);
+
+    // Per-application admission control: RUNNING pipelines of an application, minus reserved rows counted in memory
+    @Query("SELECT COUNT(pe) FROM PipelineExecution pe, FlowStep fs " +
+           "WHERE pe.flowStepId = fs.id AND fs.application.id = :applicationId AND pe.status = :status " +
+           "AND pe.id NOT IN :excludedIds")
+    long countByApplicationAndStatusExcluding(@Param("applicationId") Long applicationId,
+                                              @Param("status") ExecutionStatus status,
+                                              @Param("excludedIds") Collection<Long> excludedIds);
+
+    // Steps of RUNNING flows waiting for a pipeline slot of the application, oldest first
+    @Query("SELECT pe FROM PipelineExecution pe, FlowStep fs, FlowExecution fe " +
+           "WHERE pe.flowStepId = fs.id AND pe.flowExecutionId = fe.id AND fs.application.id = :applicationId " +
+           "AND pe.awaitingCapacitySince IS NOT NULL AND pe.status = :stepStatus AND fe.status = :flowStatus " +
+           "ORDER BY pe.awaitingCapacitySince ASC, pe.id ASC")
+    List<PipelineExecution> findAwaitingCapacity(@Param("applicationId") Long applicationId,
+                                                 @Param("stepStatus") ExecutionStatus stepStatus,
+                                                 @Param("flowStatus") ExecutionStatus flowStatus,
+                                                 Pageable pageable);
+
+    // Waiting steps queued ahead of (since, id) for the application
+    @Query("SELECT COUNT(pe) FROM PipelineExecution pe, FlowStep fs, FlowExecution fe " +
+           "WHERE pe.flowStepId = fs.id AND pe.flowExecutionId = fe.id AND fs.application.id = :applicationId " +
+           "AND pe.awaitingCapacitySince IS NOT NULL AND pe.status = :stepStatus AND fe.status = :flowStatus " +
+           "AND (pe.awaitingCapacitySince < :since OR (pe.awaitingCapacitySince = :since AND pe.id < :id))")
+    long countAwaitingCapacityAhead(@Param("applicationId") Long applicationId,
+                                    @Param("stepStatus") ExecutionStatus stepStatus,
+                                    @Param("flowStatus") ExecutionStatus flowStatus,
+                                    @Param("since") LocalDateTime since, @Param("id") Long id);
+
+    @Query("SELECT fs.application.id, COUNT(pe) FROM PipelineExecution pe, FlowStep fs, FlowExecution fe " +
+           "WHERE pe.flowStepId = fs.id AND pe.flowExecutionId = fe.id " +
+           "AND pe.awaitingCapacitySince IS NOT NULL AND pe.status = :stepStatus AND fe.status = :flowStatus " +
+           "GROUP BY fs.application.id")
+    List<Object[]> countAwaitingCapacityByApplication(@Param("stepStatus") ExecutionStatus stepStatus,
+                                                      @Param("flowStatus") ExecutionStatus flowStatus);
+
+    // Guarded dequeue of a waiting step: returns 0 if another release took it first or its flow left flowStatus
+    @Transactional
+    @Modifying
+    @Query("UPDATE PipelineExecution pe SET pe.awaitingCapacitySince = null " +
+           "WHERE pe.id = :id AND pe.awaitingCapacitySince IS NOT NULL AND pe.status = :stepStatus " +
+           "AND EXISTS (SELECT 1 FROM FlowExecution fe WHERE fe.id = pe.flowExecutionId AND fe.status = :flowStatus)")
+    int claimAwaitingCapacity(@Param("id") Long id, @Param("stepStatus") ExecutionStatus stepStatus,
+                              @Param("flowStatus") ExecutionStatus flowStatus);
+
+    // Recent real (non-memoized) run times of a step: rows of [startTime, endTime], newest first
+    @Query("SELECT pe.startTime, pe.endTime FROM PipelineExecution pe " +
+           "WHERE pe.flowStepId = :flowStepId AND pe.status = :status " +
+           "AND pe.startTime IS NOT NULL AND pe.endTime IS NOT NULL AND (pe.cacheHit IS NULL OR pe.cacheHit = false) " +
+           "ORDER BY pe.endTime DESC")
+    List<Object[]> findRecentStepRunTimes(@Param("flowStepId") Long flowStepId, @Param("status") ExecutionStatus status,
+                                          Pageable pageable);
+
+    // Step states of every flow in the given status: rows of [flowExecutionId, flowStepId, status, startTime, resumeTime]
+    @Query("SELECT pe.flowExecutionId, pe.flowStepId, pe.status, pe.startTime, pe.resumeTime " +
+           "FROM PipelineExecution pe, FlowExecution fe WHERE pe.flowExecutionId = fe.id AND fe.status = :flowStatus")
+    List<Object[]> findStepStatesByFlowStatus(@Param("flowStatus") ExecutionStatus flowStatus);
+
+    // Reconciliation of the in-memory status counters: rows of [flowStepId, status, count]
+    @Query("SELECT pe.flowStepId, pe.status, COUNT(pe) FROM PipelineExecution pe GROUP BY pe.flowStepId, pe.status")
+    List<Object[]> countGroupedByFlowStepAndStatus();
+
     // Method to find pipeline execution by GitLab pipeline ID
     List<PipelineExecution> findByPipelineId(Long pipelineId);
+
+    // Terminal step outcomes of one FlowGroup run at a given step: rows of [status, count]
+    @Query("SELECT pe.status, COUNT(pe) FROM PipelineExecution pe, FlowExecution fe " +
+           "WHERE pe.flowExecutionId = fe.id AND fe.flowGroup.id = :flowGroupId AND fe.iteration = :iteration " +
+           "AND pe.flowStepId = :flowStepId AND pe.status IN :statuses " +
+           "AND (pe.endTime IS NULL OR pe.endTime >= :since) AND pe.flowExecutionId <> :excludedFlowExecutionId " +
+           "GROUP BY pe.status")
+    List<Object[]> countRunStepOutcomes(@Param("flowGroupId") Long flowGroupId, @Param("iteration") Integer iteration,
+                                        @Param("flowStepId") Long flowStepId, @Param("statuses") List<ExecutionStatus> statuses,
+                                        @Param("since") LocalDateTime since,
+                                        @Param("excludedFlowExecutionId") UUID excludedFlowExecutionId);
+
+    // Set-based guarded transitions (see ExecutionTransitionService): the candidate rows are locked as
+    // [id, flowExecutionId, flowStepId, status], then exactly those ids still in a from-status are updated
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT pe.id, pe.flowExecutionId, pe.flowStepId, pe.status FROM PipelineExecution pe " +
+           "WHERE pe.flowExecutionId = :flowExecutionId AND pe.status IN :fromStatuses " +
+           "AND pe.flowStepId <> :excludedFlowStepId")
+    List<Object[]> lockByFlowExecutionAndStatus(@Param("flowExecutionId") UUID flowExecutionId,
+                                                @Param("fromStatuses") Collection<ExecutionStatus> fromStatuses,
+                                                @Param("excludedFlowStepId") Long excludedFlowStepId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT pe.id, pe.flowExecutionId, pe.flowStepId, pe.status FROM PipelineExecution pe " +
+           "WHERE pe.id IN :ids AND pe.status IN :fromStatuses")
+    List<Object[]> lockByIdsAndStatus(@Param("ids") Collection<Long> ids,
+                                      @Param("fromStatuses") Collection<ExecutionStatus> fromStatuses);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT pe.id, pe.flowExecutionId, pe.flowStepId, pe.status FROM PipelineExecution pe " +
+           "WHERE pe.flowExecutionId IN :flowExecutionIds AND pe.status IN :fromStatuses")
+    List<Object[]> lockByFlowExecutionIdsAndStatus(@Param("flowExecutionIds") Collection<UUID> flowExecutionIds,
+                                                   @Param("fromStatuses") Collection<ExecutionStatus> fromStatuses);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT pe.id, pe.flowExecutionId, pe.flowStepId, pe.status FROM PipelineExecution pe " +
+           "WHERE pe.status IN :fromStatuses AND pe.flowExecutionId IN " +
+           "(SELECT fe.id FROM FlowExecution fe WHERE fe.flowGroup.id = :flowGroupId AND fe.iteration = :iteration " +
+           "AND fe.status = :flowStatus)")
+    List<Object[]> lockRunPipelineExecutions(@Param("flowGroupId") Long flowGroupId, @Param("iteration") Integer iteration,
+                                             @Param("flowStatus") ExecutionStatus flowStatus,
+                                             @Param("fromStatuses") Collection<ExecutionStatus> fromStatuses);
+
+    // GitLab pipelines behind the given executions: rows of [pipelineExecutionId, pipelineId, applicationId]
+    @Query("SELECT pe.id, pe.pipelineId, fs.application.id FROM PipelineExecution pe, FlowStep fs " +
+           "WHERE pe.flowStepId = fs.id AND pe.id IN :ids AND pe.pipelineId IS NOT NULL")
+    List<Object[]> findGitLabPipelineRefs(@Param("ids") Collection<Long> ids);
+
+    // Step states of the given flow executions: rows of [flowExecutionId, flowStepId, status]
+    @Query("SELECT pe.flowExecutionId, pe.flowStepId, pe.status FROM PipelineExecution pe " +
+           "WHERE pe.flowExecutionId IN :flowExecutionIds")
+    List<Object[]> findStepStatusesByFlowExecutionIds(@Param("flowExecutionIds") Collection<UUID> flowExecutionIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE PipelineExecution pe SET pe.status = :toStatus, pe.endTime = :endTime " +
+           "WHERE pe.id IN :ids AND pe.status IN :fromStatuses")
+    int transitionByIds(@Param("ids") Collection<Long> ids,
+                        @Param("fromStatuses") Collection<ExecutionStatus> fromStatuses,
+                        @Param("toStatus") ExecutionStatus toStatus, @Param("endTime") LocalDateTime endTime);
+
+    // Bulk delete of archived runs; bypasses entity listeners, callers adjust the status counters
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM PipelineExecution pe WHERE pe.flowExecutionId IN :flowExecutionIds")
+    int deleteByFlowExecutionIds(@Param("flowExecutionIds") Collection<UUID> flowExecutionIds);
 }
@@ -0,0 +1,29 @@
+package com.ubs.orkestra.repository;
+
+import com.ubs.orkestra.model.StepResultCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface StepResultCacheRepository extends JpaRepository<StepResultCacheEntry, Long> {
+
+    Optional<StepResultCacheEntry> findByFlowStepIdAndCommitShaAndInputHash(Long flowStepId, String commitSha, String inputHash);
+
+    @Modifying
+    @Query("UPDATE StepResultCacheEntry e SET e.hitCount = e.hitCount + 1 WHERE e.id = :id")
+    int incrementHitCount(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM StepResultCacheEntry e WHERE e.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM StepResultCacheEntry e WHERE e.flowStepId = :flowStepId")
+    int deleteByFlowStepId(@Param("flowStepId") Long flowStepId);
+}
@@ -0,0 +1,9 @@
+package com.ubs.orkestra.repository;
+
+import com.ubs.orkestra.model.TestDataSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TestDataSnapshotRepository extends JpaRepository<TestDataSnapshot, String> {
+}
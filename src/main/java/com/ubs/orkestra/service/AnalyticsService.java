@@ -36,17 +36,21 @@ public class AnalyticsService {
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private StatusCounterRegistry statusCounterRegistry;
+
     public MetricsSummaryDto getMetricsSummary() {
         logger.debug("Calculating metrics summary");
 
         // Get flow execution counts
-        Long totalFlowExecutions = flowExecutionRepository.count();
-        Long flowPassed = flowExecutionRepository.countByStatus(ExecutionStatus.PASSED);
-        Long flowFailed = flowExecutionRepository.countByStatus(ExecutionStatus.FAILED);
-        Long flowCancelled = flowExecutionRepository.countByStatus(ExecutionStatus.CANCELLED);
+        // Served from the in-memory status counters instead of aggregate queries
+        Long totalFlowExecutions = statusCounterRegistry.countAllFlows();
+        Long flowPassed = statusCounterRegistry.countFlows(ExecutionStatus.PASSED);
+        Long flowFailed = statusCounterRegistry.countFlows(ExecutionStatus.FAILED);
+        Long flowCancelled = statusCounterRegistry.countFlows(ExecutionStatus.CANCELLED);
 
         // Get pipeline execution counts
-        Long totalPipelineExecutions = pipelineExecutionRepository.count();
+        Long totalPipelineExecutions = statusCounterRegistry.countAllPipelines();
 
         // Calculate rates
         Double successRate = totalFlowExecutions > 0 ? 
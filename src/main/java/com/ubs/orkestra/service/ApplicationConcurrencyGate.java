@@ -0,0 +1,263 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.model.Application;
+import com.ubs.orkestra.model.FlowStep;
+import com.ubs.orkestra.model.PipelineExecution;
+import com.ubs.orkestra.repository.ApplicationRepository;
+import com.ubs.orkestra.repository.FlowStepRepository;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-application admission control for pipeline triggers.
+ *
+ * <p>An application with {@code maxConcurrentPipelines} set may have at most that many
+ * PipelineExecutions RUNNING at once. A ready step that finds its application full is parked
+ * (status SCHEDULED, {@code awaitingCapacitySince} set) and released in FIFO order when one of the
+ * application's pipelines completes, or by the periodic sweep.
+ *
+ * <p>The limit is checked against the RUNNING rows in the database plus slots reserved in memory
+ * for triggers whose transaction has not committed yet, so two concurrent triggers cannot both
+ * take the last slot on this instance.
+ */
+@Service
+public class ApplicationConcurrencyGate {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationConcurrencyGate.class);
+
+    // Reservations whose trigger never reached tryAdmit (e.g. a failed resume) are dropped after this
+    private static final long RESERVATION_TTL_MILLIS = 2 * 60 * 1000;
+    private static final int MAX_RELEASE_BATCH = 100;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private FlowStepRepository flowStepRepository;
+
+    @Autowired
+    @Lazy
+    private FlowExecutionService flowExecutionService;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.app-concurrency.enabled:true}")
+    private boolean enabled;
+
+    // applicationId -> (pipelineExecutionId -> reserved at millis)
+    private final Map<Long, Map<Long, Long>> reservations = new ConcurrentHashMap<>();
+
+    private final Map<Long, Object> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Takes a pipeline slot of the step's application for {@code pipelineExecution}.
+     *
+     * @return {@code false} if the application is at its limit or older steps are waiting; the
+     *         caller must then park the step with {@link #markWaiting}
+     */
+    public boolean tryAdmit(Application application, PipelineExecution pipelineExecution) {
+        Integer limit = application.getMaxConcurrentPipelines();
+        if (!enabled || limit == null || limit <= 0) {
+            return true;
+        }
+        Long applicationId = application.getId();
+        long pipelineExecutionId = pipelineExecution.getId();
+        synchronized (lockFor(applicationId)) {
+            Map<Long, Long> reserved = reservationsFor(applicationId);
+            // Granted by releaseWaiting: the slot is already counted
+            boolean admitted = reserved.containsKey(pipelineExecutionId);
+            if (!admitted) {
+                LocalDateTime since = pipelineExecution.getAwaitingCapacitySince() != null
+                        ? pipelineExecution.getAwaitingCapacitySince() : LocalDateTime.now();
+                long ahead = pipelineExecutionRepository.countAwaitingCapacityAhead(applicationId,
+                        ExecutionStatus.SCHEDULED, ExecutionStatus.RUNNING, since, pipelineExecutionId);
+                admitted = ahead == 0 && inFlight(applicationId) < limit;
+                if (admitted) {
+                    reserved.put(pipelineExecutionId, System.currentTimeMillis());
+                }
+            }
+            if (admitted) {
+                releaseReservationAfterCompletion(applicationId, pipelineExecutionId);
+            }
+            return admitted;
+        }
+    }
+
+    /**
+     * Parks a ready step until its application has a free pipeline slot. The step keeps its place in
+     * the queue if it was already waiting.
+     *
+     * @param pipelineVars variables of the trigger beyond the step's configured test data and the
+     *                     flow's runtime variables, which the resume rebuilds itself
+     */
+    public void markWaiting(PipelineExecution pipelineExecution, Map<String, String> pipelineVars) {
+        pipelineExecution.setStatus(ExecutionStatus.SCHEDULED);
+        pipelineExecution.setResumeTime(null);
+        pipelineExecution.setStartTime(null);
+        if (pipelineExecution.getAwaitingCapacitySince() == null) {
+            pipelineExecution.setAwaitingCapacitySince(LocalDateTime.now());
+        }
+        // Read back by FlowExecutionService#resumeFlowExecution when the step is released
+        pipelineExecution.setRuntimeTestData(new HashMap<>(pipelineVars));
+        pipelineExecutionRepository.save(pipelineExecution);
+    }
+
+    /**
+     * Called when a pipeline of the given step reached a terminal state; releases waiting steps of
+     * the step's application once the completion is committed.
+     */
+    public void onPipelineFinished(Long flowStepId) {
+        if (!enabled || flowStepId == null) {
+            return;
+        }
+        FlowStep step = flowStepRepository.findById(flowStepId).orElse(null);
+        if (step == null || step.getApplication() == null) {
+            return;
+        }
+        Integer limit = step.getApplication().getMaxConcurrentPipelines();
+        if (limit == null || limit <= 0) {
+            return;
+        }
+        Long applicationId = step.getApplication().getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseWaiting(applicationId);
+                }
+            });
+        } else {
+            releaseWaiting(applicationId);
+        }
+    }
+
+    /**
+     * Releases the oldest waiting steps of an application into its free slots.
+     *
+     * @return number of steps released
+     */
+    public int releaseWaiting(Long applicationId) {
+        Application application = applicationRepository.findById(applicationId).orElse(null);
+        if (application == null) {
+            return 0;
+        }
+        Integer limit = application.getMaxConcurrentPipelines();
+        boolean unlimited = !enabled || limit == null || limit <= 0;
+
+        int released = 0;
+        try {
+            synchronized (lockFor(applicationId)) {
+                long free = unlimited ? MAX_RELEASE_BATCH : limit - inFlight(applicationId);
+                if (free <= 0) {
+                    return 0;
+                }
+                List<PipelineExecution> waiting = pipelineExecutionRepository.findAwaitingCapacity(applicationId,
+                        ExecutionStatus.SCHEDULED, ExecutionStatus.RUNNING,
+                        PageRequest.of(0, (int) Math.min(free, MAX_RELEASE_BATCH)));
+                for (PipelineExecution pe : waiting) {
+                    // Only steps of flows still RUNNING are dequeued: resumeFlowExecution skips any other
+                    // flow, which would leave the step SCHEDULED without its place in the queue
+                    if (pipelineExecutionRepository.claimAwaitingCapacity(pe.getId(),
+                            ExecutionStatus.SCHEDULED, ExecutionStatus.RUNNING) == 0) {
+                        continue;
+                    }
+                    reservationsFor(applicationId).put(pe.getId(), System.currentTimeMillis());
+                    flowExecutionService.resumeFlowExecution(pe.getFlowExecutionId(), pe.getFlowStepId());
+                    released++;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Failed to release waiting steps of application {}: {}", applicationId, e.getMessage(), e);
+        }
+        if (released > 0) {
+            logger.info("Released {} steps waiting for pipeline capacity of application {}", released, applicationId);
+        }
+        return released;
+    }
+
+    /**
+     * Safety net for releases missed by the completion hook, e.g. failed triggers, cancelled
+     * pipelines or limits raised through the API.
+     */
+    @Scheduled(fixedDelayString = "${flow-execution.app-concurrency.sweep-interval-ms:5000}")
+    public void releaseAllWaiting() {
+        long cutoff = System.currentTimeMillis() - RESERVATION_TTL_MILLIS;
+        reservations.values().forEach(reserved -> reserved.values().removeIf(reservedAt -> reservedAt < cutoff));
+
+        for (Object[] row : pipelineExecutionRepository.countAwaitingCapacityByApplication(
+                ExecutionStatus.SCHEDULED, ExecutionStatus.RUNNING)) {
+            releaseWaiting((Long) row[0]);
+        }
+    }
+
+    /**
+     * Current limit, running and waiting pipelines of an application.
+     */
+    public Map<String, Object> getCapacity(Long applicationId) {
+        Application application = applicationRepository.findById(applicationId)
+                .orElseThrow(() -> new IllegalArgumentException("Application not found with ID: " + applicationId));
+
+        long waiting = 0;
+        for (Object[] row : pipelineExecutionRepository.countAwaitingCapacityByApplication(
+                ExecutionStatus.SCHEDULED, ExecutionStatus.RUNNING)) {
+            if (applicationId.equals(row[0])) {
+                waiting = ((Number) row[1]).longValue();
+            }
+        }
+
+        Map<String, Object> capacity = new HashMap<>();
+        capacity.put("applicationId", applicationId);
+        capacity.put("maxConcurrentPipelines", application.getMaxConcurrentPipelines());
+        capacity.put("running", inFlight(applicationId));
+        capacity.put("waiting", waiting);
+        capacity.put("enforced", enabled && application.getMaxConcurrentPipelines() != null
+                && application.getMaxConcurrentPipelines() > 0);
+        return capacity;
+    }
+
+    private long inFlight(Long applicationId) {
+        Map<Long, Long> reserved = reservationsFor(applicationId);
+        List<Long> reservedIds = new ArrayList<>(reserved.keySet());
+        // Reserved rows are counted once, whether or not their RUNNING status is visible yet
+        long running = pipelineExecutionRepository.countByApplicationAndStatusExcluding(applicationId,
+                ExecutionStatus.RUNNING, reservedIds.isEmpty() ? List.of(-1L) : reservedIds);
+        return running + reservedIds.size();
+    }
+
+    private void releaseReservationAfterCompletion(Long applicationId, long pipelineExecutionId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    reservationsFor(applicationId).remove(pipelineExecutionId);
+                }
+            });
+        }
+        // Without a transaction the RUNNING row is committed by the caller's save; the TTL drops the reservation
+    }
+
+    private Map<Long, Long> reservationsFor(Long applicationId) {
+        return reservations.computeIfAbsent(applicationId, id -> new ConcurrentHashMap<>());
+    }
+
+    private Object lockFor(Long applicationId) {
+        return locks.computeIfAbsent(applicationId, id -> new Object());
+    }
+}
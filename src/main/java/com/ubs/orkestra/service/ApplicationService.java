@@ -153,6 +153,8 @@ public class ApplicationService {
         existingApplication.setPersonalAccessToken(encryptionService.encrypt(applicationDto.getPersonalAccessToken()));
         existingApplication.setApplicationName(applicationDto.getApplicationName());
         existingApplication.setApplicationDescription(applicationDto.getApplicationDescription());
+        existingApplication.setScheduledReleasePerMinute(applicationDto.getScheduledReleasePerMinute());
+        existingApplication.setMaxConcurrentPipelines(applicationDto.getMaxConcurrentPipelines());
 
         Application updatedApplication = applicationRepository.save(existingApplication);
 
@@ -349,6 +351,8 @@ public class ApplicationService {
         application.setApplicationDescription(dto.getApplicationDescription());
         application.setProjectName(dto.getProjectName());
         application.setProjectUrl(dto.getProjectUrl());
+        application.setScheduledReleasePerMinute(dto.getScheduledReleasePerMinute());
+        application.setMaxConcurrentPipelines(dto.getMaxConcurrentPipelines());
         // Set default token status as ACTIVE for new applications
         if (dto.getTokenStatus() != null) {
             application.setTokenStatus(dto.getTokenStatus());
@@ -368,6 +372,8 @@ public class ApplicationService {
         dto.setProjectUrl(entity.getProjectUrl());
         dto.setTokenStatus(entity.getTokenStatus());
         dto.setTokenValidationLastUpdateDate(entity.getTokenValidationLastUpdateDate());
+        dto.setScheduledReleasePerMinute(entity.getScheduledReleasePerMinute());
+        dto.setMaxConcurrentPipelines(entity.getMaxConcurrentPipelines());
         dto.setCreatedAt(entity.getCreatedAt());
         dto.setUpdatedAt(entity.getUpdatedAt());
         return dto;
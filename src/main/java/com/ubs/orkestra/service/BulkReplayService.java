@@ -0,0 +1,294 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.enums.SchedulingClass;
+import com.ubs.orkestra.model.Flow;
+import com.ubs.orkestra.model.FlowExecution;
+import com.ubs.orkestra.model.FlowStep;
+import com.ubs.orkestra.model.PipelineExecution;
+import com.ubs.orkestra.model.TestData;
+import com.ubs.orkestra.repository.FlowExecutionRepository;
+import com.ubs.orkestra.repository.FlowRepository;
+import com.ubs.orkestra.repository.FlowStepRepository;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import com.ubs.orkestra.util.VariableDelta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Replays many FAILED flow executions in one request, e.g. after an environment outage.
+ *
+ * <p>For each flow the failed step is detected from its step records: the first FAILED step in
+ * flow order, or else the first step that did not pass. The replay records are rebuilt the way
+ * {@link FlowExecutionService#createReplayFlowExecution} builds them, but in place and for all
+ * flows at once: definitions and step records are preloaded with IN queries, passed steps before
+ * the failed one are kept, and the failed and later steps that have a record are reset to
+ * SCHEDULED. The updates are flushed in JDBC batches in one transaction.
+ *
+ * <p>Replayed flows are not started here. They go back to PENDING as BULK flows and are started by
+ * the PENDING dispatcher under max-concurrent-flows and fair share;
+ * {@link FlowExecutionService} starts a replayed flow at its first unfinished step.
+ */
+@Service
+public class BulkReplayService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkReplayService.class);
+
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Autowired
+    private FlowRepository flowRepository;
+
+    @Autowired
+    private FlowStepRepository flowStepRepository;
+
+    @Autowired
+    private TestDataService testDataService;
+
+    @Autowired
+    private TestDataSnapshotService testDataSnapshotService;
+
+    @Autowired
+    private FlowExecutionQueueService flowExecutionQueueService;
+
+    @Autowired(required = false)
+    @Qualifier("flowExecutionTaskExecutor")
+    private ThreadPoolTaskExecutor flowExecutionTaskExecutor;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.bulk-replay.max-flows:1000}")
+    private int maxFlows;
+
+    /**
+     * Replays the given flow executions, or every FAILED flow of a FlowGroup iteration when no ids
+     * are given.
+     */
+    @Transactional
+    public Map<String, Object> replay(Long flowGroupId, Integer iteration, List<UUID> flowExecutionIds) {
+        long started = System.currentTimeMillis();
+
+        // Candidates are locked until commit: a concurrent replay of the same flows waits and then
+        // finds them PENDING instead of replaying them a second time
+        List<FlowExecution> candidates;
+        if (flowExecutionIds != null && !flowExecutionIds.isEmpty()) {
+            candidates = flowExecutionRepository.lockAllById(new LinkedHashSet<>(flowExecutionIds));
+        } else if (flowGroupId != null && iteration != null) {
+            candidates = flowExecutionRepository.lockRunExecutionsByStatus(flowGroupId, iteration, ExecutionStatus.FAILED);
+        } else {
+            throw new IllegalArgumentException("Either flowExecutionIds or flowGroupId and iteration are required");
+        }
+        if (candidates.size() > maxFlows) {
+            throw new IllegalArgumentException("Cannot replay " + candidates.size() + " flow executions at once (maximum " + maxFlows + ")");
+        }
+
+        List<Map<String, Object>> rejected = new ArrayList<>();
+        if (flowExecutionIds != null) {
+            Set<UUID> found = candidates.stream().map(FlowExecution::getId).collect(Collectors.toSet());
+            new LinkedHashSet<>(flowExecutionIds).stream()
+                    .filter(id -> !found.contains(id))
+                    .forEach(id -> rejected.add(rejection(id, "not_found")));
+        }
+
+        List<FlowExecution> failed = new ArrayList<>();
+        for (FlowExecution fe : candidates) {
+            if (fe.getStatus() == ExecutionStatus.FAILED) {
+                failed.add(fe);
+            } else {
+                rejected.add(rejection(fe.getId(), "not_failed"));
+            }
+        }
+
+        // Preload definitions and step records of all flows
+        Map<Long, Flow> flowsById = flowRepository.findAllById(
+                failed.stream().map(FlowExecution::getFlowId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Flow::getId, flow -> flow));
+        Set<Long> stepIds = new LinkedHashSet<>();
+        flowsById.values().forEach(flow -> stepIds.addAll(flow.getFlowStepIds()));
+        Map<Long, FlowStep> stepsById = stepIds.isEmpty() ? new HashMap<>()
+                : flowStepRepository.findByIdIn(new ArrayList<>(stepIds)).stream()
+                    .collect(Collectors.toMap(FlowStep::getId, step -> step));
+        Set<Long> testDataIds = new HashSet<>();
+        stepsById.values().forEach(step -> {
+            if (step.getTestDataIds() != null) {
+                testDataIds.addAll(step.getTestDataIds());
+            }
+        });
+        Map<Long, TestData> testDataById = testDataService.loadTestDataByIds(testDataIds);
+        Map<Long, Map<String, String>> configuredTestDataByStep = new HashMap<>();
+        stepsById.values().forEach(step -> configuredTestDataByStep.put(step.getId(),
+                testDataService.mergeTestData(step.getTestDataIds(), testDataById)));
+        // One lookup for the snapshots of every reset step record below
+        testDataSnapshotService.store(configuredTestDataByStep.values());
+
+        Map<UUID, Map<Long, PipelineExecution>> stepRecords = new HashMap<>();
+        if (!failed.isEmpty()) {
+            List<PipelineExecution> loaded = pipelineExecutionRepository.findByFlowExecutionIdInOrderByCreatedAt(
+                    failed.stream().map(FlowExecution::getId).collect(Collectors.toList()));
+            testDataSnapshotService.resolve(loaded);
+            for (PipelineExecution pe : loaded) {
+                stepRecords.computeIfAbsent(pe.getFlowExecutionId(), id -> new LinkedHashMap<>())
+                        .putIfAbsent(pe.getFlowStepId(), pe);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Map<String, Object>> replayed = new ArrayList<>();
+        List<PipelineExecution> newRecords = new ArrayList<>();
+        for (FlowExecution fe : failed) {
+            Flow flow = flowsById.get(fe.getFlowId());
+            if (flow == null || flow.getFlowStepIds().isEmpty()
+                    || !stepsById.keySet().containsAll(flow.getFlowStepIds())) {
+                rejected.add(rejection(fe.getId(), "flow_not_found"));
+                continue;
+            }
+            Map<Long, PipelineExecution> records = stepRecords.getOrDefault(fe.getId(), Map.of());
+            int failedIndex = failedStepIndex(flow, records);
+            if (failedIndex < 0) {
+                rejected.add(rejection(fe.getId(), "no_failed_step"));
+                continue;
+            }
+
+            // Runtime variables of the passed steps before the failed one, in execution order
+            Map<String, String> accumulated = new HashMap<>();
+            List<Long> keptSteps = flow.getFlowStepIds().subList(0, failedIndex);
+            records.values().stream()
+                    .filter(pe -> pe.getStatus() == ExecutionStatus.PASSED && keptSteps.contains(pe.getFlowStepId()))
+                    .filter(pe -> pe.getRuntimeTestData() != null)
+                    .forEach(pe -> accumulated.putAll(VariableDelta.apply(pe.getConfiguredTestData(), pe.getRuntimeTestData())));
+
+            for (int i = 0; i < flow.getFlowStepIds().size(); i++) {
+                Long stepId = flow.getFlowStepIds().get(i);
+                PipelineExecution pe = records.get(stepId);
+                if (i < failedIndex && pe != null && pe.getStatus() == ExecutionStatus.PASSED) {
+                    pe.setIsReplay(false);
+                    continue;
+                }
+                // Steps without a record stay virtual until the replay reaches them
+                if (pe == null && i >= failedIndex) {
+                    continue;
+                }
+                if (pe == null) {
+                    pe = new PipelineExecution();
+                    pe.setFlowId(fe.getFlowId());
+                    pe.setFlowExecutionId(fe.getId());
+                    pe.setFlowStepId(stepId);
+                    newRecords.add(pe);
+                }
+                resetStepRecord(pe, configuredTestDataByStep.get(stepId), accumulated, i < failedIndex);
+            }
+
+            fe.setReplayCount(fe.getReplayCount() == null ? 1 : fe.getReplayCount() + 1);
+            fe.setStatus(ExecutionStatus.PENDING);
+            fe.setSchedulingClass(SchedulingClass.BULK);
+            // Restarts the PENDING clock so the replay is not timed out for its original wait
+            fe.setStartTime(now);
+            fe.setEndTime(null);
+            fe.setRuntimeVariables(accumulated);
+
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("flowExecutionId", fe.getId());
+            entry.put("flowId", fe.getFlowId());
+            entry.put("failedFlowStepId", flow.getFlowStepIds().get(failedIndex));
+            entry.put("replayCount", fe.getReplayCount());
+            replayed.add(entry);
+        }
+        pipelineExecutionRepository.saveAll(newRecords);
+
+        // Let the dispatcher pick the replays up now rather than at its next poll; on another
+        // thread, since the committed transaction is still bound to this one in afterCommit
+        if (!replayed.isEmpty() && flowExecutionTaskExecutor != null
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    flowExecutionTaskExecutor.execute(flowExecutionQueueService::processPendingFlowExecutions);
+                }
+            });
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("summary", Map.of(
+            "total_requested", flowExecutionIds != null && !flowExecutionIds.isEmpty()
+                    ? new LinkedHashSet<>(flowExecutionIds).size() : candidates.size(),
+            "replayed", replayed.size(),
+            "rejected", rejected.size()
+        ));
+        result.put("replayed", replayed);
+        result.put("rejected", rejected);
+        result.put("durationMs", System.currentTimeMillis() - started);
+        logger.info("Bulk replay: {} flow executions reset to PENDING, {} rejected in {} ms",
+                   replayed.size(), rejected.size(), System.currentTimeMillis() - started);
+        return result;
+    }
+
+    /**
+     * Index of the step a flow failed at: the first FAILED step in flow order, else the first step
+     * without a PASSED record; -1 if every step passed.
+     */
+    private int failedStepIndex(Flow flow, Map<Long, PipelineExecution> records) {
+        List<Long> stepIds = flow.getFlowStepIds();
+        for (int i = 0; i < stepIds.size(); i++) {
+            PipelineExecution pe = records.get(stepIds.get(i));
+            if (pe != null && pe.getStatus() == ExecutionStatus.FAILED) {
+                return i;
+            }
+        }
+        for (int i = 0; i < stepIds.size(); i++) {
+            PipelineExecution pe = records.get(stepIds.get(i));
+            if (pe == null || pe.getStatus() != ExecutionStatus.PASSED) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Same states as createReplayFlowExecution: carried steps PASSED, the rest SCHEDULED replays.
+    // Replays start from the flow's runtime variables, so only carried steps keep a delta
+    private void resetStepRecord(PipelineExecution pe, Map<String, String> configuredTestData,
+                                 Map<String, String> accumulated, boolean carried) {
+        testDataSnapshotService.attach(pe, configuredTestData);
+        pe.setRuntimeTestData(carried ? VariableDelta.diff(configuredTestData, accumulated) : new HashMap<>());
+        pe.setStatus(carried ? ExecutionStatus.PASSED : ExecutionStatus.SCHEDULED);
+        pe.setIsReplay(!carried);
+        pe.setPipelineId(null);
+        pe.setPipelineUrl(null);
+        pe.setJobId(null);
+        pe.setJobUrl(null);
+        pe.setStartTime(null);
+        pe.setEndTime(null);
+        pe.setResumeTime(null);
+        pe.setAwaitingCapacitySince(null);
+        pe.setCacheHit(false);
+        pe.setCommitSha(null);
+        pe.setInputHash(null);
+    }
+
+    private static Map<String, Object> rejection(UUID flowExecutionId, String reason) {
+        Map<String, Object> rejection = new HashMap<>();
+        rejection.put("flowExecutionId", flowExecutionId);
+        rejection.put("reason", reason);
+        return rejection;
+    }
+}
@@ -0,0 +1,248 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.model.FlowExecution;
+import com.ubs.orkestra.repository.FlowExecutionRepository;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import com.ubs.orkestra.util.CompletionForecaster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Forecasts when active flow executions and FlowGroup iterations will start and finish.
+ *
+ * <p>The current RUNNING and PENDING state is simulated forward with {@link CompletionForecaster}
+ * under {@code max-concurrent-flows}. A running flow still needs the rest of its current step,
+ * the wait until the resume time of a SCHEDULED step, and the expected duration of every step not
+ * yet started; a PENDING flow needs its whole expected duration and starts in dispatch order,
+ * after flows already planned by the launch planner. Step durations come from
+ * {@link FlowDurationEstimator}, which keeps its per-step means up to date incrementally.
+ *
+ * <p>The forecast is recomputed at most once per {@code cache-ttl-seconds}; concurrent callers in
+ * that window share one result, so dashboards can poll the endpoint every few seconds.
+ */
+@Service
+public class CompletionForecastService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompletionForecastService.class);
+
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Autowired
+    private FlowExecutionQueueService flowExecutionQueueService;
+
+    @Autowired
+    private FlowLaunchPlanner flowLaunchPlanner;
+
+    @Autowired
+    private FlowDurationEstimator flowDurationEstimator;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.forecast.cache-ttl-seconds:5}")
+    private long cacheTtlSeconds;
+
+    private volatile CachedForecast cached;
+
+    /**
+     * Forecast for the active flow executions, optionally narrowed to one FlowGroup (and iteration)
+     * or to one flow execution.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getForecast(Long flowGroupId, Integer iteration, UUID flowExecutionId) {
+        CachedForecast forecast = currentForecast();
+
+        List<Map<String, Object>> flows = new ArrayList<>();
+        Map<String, Map<String, Object>> groups = new LinkedHashMap<>();
+        for (FlowForecast flow : forecast.flows) {
+            if (flowExecutionId != null && !flowExecutionId.equals(flow.flowExecutionId)) {
+                continue;
+            }
+            if (flowGroupId != null && !flowGroupId.equals(flow.flowGroupId)) {
+                continue;
+            }
+            if (iteration != null && !iteration.equals(flow.iteration)) {
+                continue;
+            }
+            flows.add(flow.toMap());
+            if (flow.flowGroupId != null) {
+                addToGroup(groups, flow);
+            }
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("generatedAt", forecast.generatedAt);
+        response.put("policy", forecast.policy);
+        response.put("maxConcurrentFlows", forecast.maxConcurrentFlows);
+        response.put("running", forecast.running);
+        response.put("pending", forecast.pending);
+        response.put("flows", flows);
+        response.put("groups", new ArrayList<>(groups.values()));
+        return response;
+    }
+
+    private synchronized CachedForecast currentForecast() {
+        CachedForecast current = cached;
+        if (current != null && System.currentTimeMillis() - current.computedAtMillis < cacheTtlSeconds * 1000) {
+            return current;
+        }
+        long started = System.currentTimeMillis();
+        current = computeForecast();
+        cached = current;
+        logger.debug("Computed completion forecast for {} flows in {} ms", current.flows.size(),
+                System.currentTimeMillis() - started);
+        return current;
+    }
+
+    private CachedForecast computeForecast() {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Running flows: remaining time from the state of each step
+        List<FlowExecution> running = flowExecutionRepository.findByStatus(ExecutionStatus.RUNNING);
+        Map<UUID, Map<Long, Object[]>> stepStates = new HashMap<>();
+        for (Object[] row : pipelineExecutionRepository.findStepStatesByFlowStatus(ExecutionStatus.RUNNING)) {
+            stepStates.computeIfAbsent((UUID) row[0], id -> new HashMap<>()).put((Long) row[1], row);
+        }
+        List<Long> runningRemaining = new ArrayList<>();
+        for (FlowExecution fe : running) {
+            runningRemaining.add(remainingMillis(fe, stepStates.getOrDefault(fe.getId(), Map.of()), now));
+        }
+
+        // Waiting flows: accepted launches first, then the PENDING backlog in dispatch order
+        List<FlowExecution> waiting = new ArrayList<>();
+        flowExecutionRepository.findByStatusOrderByCreatedAtAsc(ExecutionStatus.PENDING).stream()
+                .filter(fe -> flowLaunchPlanner.isReserved(fe.getId()))
+                .forEach(waiting::add);
+        waiting.addAll(flowExecutionQueueService.getDispatchOrder(now));
+        List<Long> waitingDurations = new ArrayList<>();
+        for (FlowExecution fe : waiting) {
+            waitingDurations.add(flowDurationEstimator.estimateFlow(fe.getFlowId()).getMillis());
+        }
+
+        int maxConcurrentFlows = flowExecutionQueueService.getMaxConcurrentFlows();
+        CompletionForecaster.Forecast forecast = CompletionForecaster.forecast(runningRemaining, waitingDurations, maxConcurrentFlows);
+
+        List<FlowForecast> flows = new ArrayList<>();
+        for (int i = 0; i < running.size(); i++) {
+            FlowExecution fe = running.get(i);
+            flows.add(new FlowForecast(fe, fe.getStartTime(), now.plus(Duration.ofMillis(forecast.getRunningFinish()[i]))));
+        }
+        for (int i = 0; i < waiting.size(); i++) {
+            flows.add(new FlowForecast(waiting.get(i), now.plus(Duration.ofMillis(forecast.getWaitingStart()[i])),
+                    now.plus(Duration.ofMillis(forecast.getWaitingFinish()[i]))));
+        }
+        return new CachedForecast(System.currentTimeMillis(), now, flowExecutionQueueService.getDispatchPolicy(),
+                maxConcurrentFlows, running.size(), waiting.size(), flows);
+    }
+
+    private long remainingMillis(FlowExecution fe, Map<Long, Object[]> states, LocalDateTime now) {
+        long remaining = 0;
+        for (Long stepId : flowDurationEstimator.getStepIds(fe.getFlowId())) {
+            Object[] state = states.get(stepId);
+            ExecutionStatus status = state != null ? (ExecutionStatus) state[2] : null;
+            if (status == ExecutionStatus.PASSED || status == ExecutionStatus.FAILED || status == ExecutionStatus.CANCELLED) {
+                continue;
+            }
+            long estimate = flowDurationEstimator.estimateStepMillis(stepId);
+            if (status == ExecutionStatus.RUNNING || status == ExecutionStatus.IN_PROGRESS) {
+                LocalDateTime startTime = (LocalDateTime) state[3];
+                long elapsed = startTime != null ? Duration.between(startTime, now).toMillis() : 0;
+                remaining += Math.max(0, estimate - elapsed);
+            } else {
+                LocalDateTime resumeTime = state != null ? (LocalDateTime) state[4] : null;
+                if (resumeTime != null && resumeTime.isAfter(now)) {
+                    remaining += Duration.between(now, resumeTime).toMillis();
+                }
+                remaining += estimate;
+            }
+        }
+        return remaining;
+    }
+
+    private void addToGroup(Map<String, Map<String, Object>> groups, FlowForecast flow) {
+        Map<String, Object> group = groups.computeIfAbsent(flow.flowGroupId + ":" + flow.iteration, key -> {
+            Map<String, Object> g = new HashMap<>();
+            g.put("flowGroupId", flow.flowGroupId);
+            g.put("iteration", flow.iteration);
+            g.put("activeFlows", 0);
+            return g;
+        });
+        group.put("activeFlows", (Integer) group.get("activeFlows") + 1);
+        LocalDateTime start = (LocalDateTime) group.get("estimatedStart");
+        if (flow.estimatedStart != null && (start == null || flow.estimatedStart.isBefore(start))) {
+            group.put("estimatedStart", flow.estimatedStart);
+        }
+        LocalDateTime finish = (LocalDateTime) group.get("estimatedFinish");
+        if (finish == null || flow.estimatedFinish.isAfter(finish)) {
+            group.put("estimatedFinish", flow.estimatedFinish);
+        }
+    }
+
+    private static class FlowForecast {
+        private final UUID flowExecutionId;
+        private final Long flowId;
+        private final Long flowGroupId;
+        private final Integer iteration;
+        private final ExecutionStatus status;
+        private final LocalDateTime estimatedStart;
+        private final LocalDateTime estimatedFinish;
+
+        private FlowForecast(FlowExecution fe, LocalDateTime estimatedStart, LocalDateTime estimatedFinish) {
+            this.flowExecutionId = fe.getId();
+            this.flowId = fe.getFlowId();
+            this.flowGroupId = fe.getFlowGroup() != null ? fe.getFlowGroup().getId() : null;
+            this.iteration = fe.getIteration();
+            this.status = fe.getStatus();
+            this.estimatedStart = estimatedStart;
+            this.estimatedFinish = Objects.requireNonNull(estimatedFinish);
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("flowExecutionId", flowExecutionId);
+            map.put("flowId", flowId);
+            map.put("flowGroupId", flowGroupId);
+            map.put("iteration", iteration);
+            map.put("status", status);
+            map.put("estimatedStart", estimatedStart);
+            map.put("estimatedFinish", estimatedFinish);
+            return map;
+        }
+    }
+
+    private static class CachedForecast {
+        private final long computedAtMillis;
+        private final LocalDateTime generatedAt;
+        private final String policy;
+        private final int maxConcurrentFlows;
+        private final int running;
+        private final int pending;
+        private final List<FlowForecast> flows;
+
+        private CachedForecast(long computedAtMillis, LocalDateTime generatedAt, String policy, int maxConcurrentFlows,
+                               int running, int pending, List<FlowForecast> flows) {
+            this.computedAtMillis = computedAtMillis;
+            this.generatedAt = generatedAt;
+            this.policy = policy;
+            this.maxConcurrentFlows = maxConcurrentFlows;
+            this.running = running;
+            this.pending = pending;
+            this.flows = flows;
+        }
+    }
+}
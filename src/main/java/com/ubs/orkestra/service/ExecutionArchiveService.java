@@ -0,0 +1,420 @@
+package com.ubs.orkestra.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ubs.orkestra.dto.FlowExecutionDto;
+import com.ubs.orkestra.dto.PipelineExecutionDto;
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.model.FlowExecution;
+import com.ubs.orkestra.model.FlowGroup;
+import com.ubs.orkestra.model.PipelineExecution;
+import com.ubs.orkestra.repository.FlowExecutionRepository;
+import com.ubs.orkestra.repository.FlowGroupRepository;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import com.ubs.orkestra.util.UuidV7;
+import com.ubs.orkestra.util.VariableDelta;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage of finished flow executions.
+ *
+ * <p>{@link #archiveBatch} moves finished runs created before a cutoff out of flow_executions and
+ * pipeline_executions into gzip-compressed NDJSON segment files, one line per flow execution with
+ * its step records, and one or more segments per creation month. A segment is written to a
+ * temporary file and moved into place before the rows are deleted in the same transaction; if the
+ * transaction does not commit the segment is removed again, so a run is either hot or archived. Archived runs are
+ * read back through {@link #getArchivedExecutions} (by month) and {@link #getArchivedExecution}
+ * (by id; a UUIDv7 id names its month, so only that month and its neighbours are scanned).
+ */
+@Service
+public class ExecutionArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionArchiveService.class);
+
+    private static final Set<ExecutionStatus> ARCHIVABLE_STATUSES =
+            Set.of(ExecutionStatus.PASSED, ExecutionStatus.FAILED, ExecutionStatus.CANCELLED);
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("flow-executions-(\\d{4}-\\d{2})-(\\d+)\\.ndjson\\.gz");
+
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Autowired
+    private FlowGroupRepository flowGroupRepository;
+
+    @Autowired
+    private TestDataSnapshotService testDataSnapshotService;
+
+    @Autowired
+    private StatusCounterRegistry statusCounterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.archive.directory:./archive}")
+    private String directory;
+
+    private ObjectMapper archiveMapper;
+
+    @PostConstruct
+    void initMapper() {
+        archiveMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    /**
+     * Archives up to {@code batchSize} finished runs created before {@code createdBefore}, oldest
+     * first. Returns the number of archived runs; 0 when nothing is left to archive.
+     */
+    @Transactional
+    public int archiveBatch(LocalDateTime createdBefore, int batchSize) {
+        List<FlowExecution> flowExecutions = flowExecutionRepository.lockArchivable(
+                ARCHIVABLE_STATUSES, createdBefore, PageRequest.of(0, batchSize));
+        if (flowExecutions.isEmpty()) {
+            return 0;
+        }
+        List<UUID> ids = new ArrayList<>(flowExecutions.size());
+        Set<Long> flowGroupIds = new HashSet<>();
+        for (FlowExecution flowExecution : flowExecutions) {
+            ids.add(flowExecution.getId());
+            if (flowExecution.getFlowGroup() != null) {
+                flowGroupIds.add(flowExecution.getFlowGroup().getId());
+            }
+        }
+
+        List<PipelineExecution> pipelineExecutions = pipelineExecutionRepository.findByFlowExecutionIdInOrderByCreatedAt(ids);
+        testDataSnapshotService.resolve(pipelineExecutions);
+        Map<UUID, List<PipelineExecutionDto>> stepsByExecution = new HashMap<>();
+        for (PipelineExecution pe : pipelineExecutions) {
+            stepsByExecution.computeIfAbsent(pe.getFlowExecutionId(), id -> new ArrayList<>()).add(toDocument(pe));
+        }
+        Map<Long, String> flowGroupNames = new HashMap<>();
+        for (FlowGroup flowGroup : flowGroupRepository.findAllById(flowGroupIds)) {
+            flowGroupNames.put(flowGroup.getId(), flowGroup.getFlowGroupName());
+        }
+
+        Map<YearMonth, List<FlowExecutionDto>> byMonth = new TreeMap<>();
+        for (FlowExecution flowExecution : flowExecutions) {
+            FlowExecutionDto document = toDocument(flowExecution, flowGroupNames);
+            document.setPipelineExecutions(stepsByExecution.getOrDefault(flowExecution.getId(), new ArrayList<>()));
+            byMonth.computeIfAbsent(YearMonth.from(flowExecution.getCreatedAt()), month -> new ArrayList<>()).add(document);
+        }
+
+        List<Path> segments = new ArrayList<>();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    recordDeleted(flowExecutions, pipelineExecutions);
+                } else {
+                    // The rows stay hot, so the segments must not keep a second copy
+                    segments.forEach(ExecutionArchiveService.this::deleteQuietly);
+                }
+            }
+        });
+        for (Map.Entry<YearMonth, List<FlowExecutionDto>> month : byMonth.entrySet()) {
+            segments.add(writeSegment(month.getKey(), month.getValue()));
+        }
+        pipelineExecutionRepository.deleteByFlowExecutionIds(ids);
+        flowExecutionRepository.deleteByIds(ids);
+
+        logger.info("Archived {} flow executions with {} step records into {} segment(s)",
+                   flowExecutions.size(), pipelineExecutions.size(), segments.size());
+        return flowExecutions.size();
+    }
+
+    // The bulk deletes bypass the entity listeners
+    private void recordDeleted(List<FlowExecution> flowExecutions, List<PipelineExecution> pipelineExecutions) {
+        for (FlowExecution flowExecution : flowExecutions) {
+            statusCounterRegistry.recordFlowTransition(
+                    flowExecution.getFlowGroup() != null ? flowExecution.getFlowGroup().getId() : null,
+                    flowExecution.getStatus(), null);
+        }
+        for (PipelineExecution pe : pipelineExecutions) {
+            statusCounterRegistry.recordPipelineTransition(pe.getFlowStepId(), pe.getStatus(), null);
+        }
+    }
+
+    /**
+     * Archive segments, oldest month first.
+     */
+    public List<Map<String, Object>> listSegments() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map.Entry<YearMonth, List<Path>> month : segmentsByMonth().entrySet()) {
+            for (Path segment : month.getValue()) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("month", month.getKey().toString());
+                entry.put("file", segment.getFileName().toString());
+                try {
+                    entry.put("sizeBytes", Files.size(segment));
+                } catch (IOException e) {
+                    entry.put("sizeBytes", null);
+                }
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * One page of the archived runs created in {@code month} (yyyy-MM), optionally filtered by
+     * flow and status, in archive order.
+     */
+    public Map<String, Object> getArchivedExecutions(String month, Long flowId, ExecutionStatus status,
+                                                     int page, int size) {
+        YearMonth yearMonth = parseMonth(month);
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        if (size < 1 || size > 1000) {
+            throw new IllegalArgumentException("Page size must be between 1 and 1000");
+        }
+        long skip = (long) page * size;
+        List<FlowExecutionDto> content = new ArrayList<>(size);
+        boolean hasNext = false;
+        outer:
+        for (Path segment : segmentsByMonth().getOrDefault(yearMonth, List.of())) {
+            try (BufferedReader reader = openSegment(segment)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    FlowExecutionDto document = archiveMapper.readValue(line, FlowExecutionDto.class);
+                    if ((flowId != null && !flowId.equals(document.getFlowId()))
+                            || (status != null && status != document.getStatus())) {
+                        continue;
+                    }
+                    if (skip > 0) {
+                        skip--;
+                    } else if (content.size() < size) {
+                        content.add(document);
+                    } else {
+                        hasNext = true;
+                        break outer;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read archive segment " + segment.getFileName(), e);
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("month", yearMonth.toString());
+        result.put("content", content);
+        result.put("page", page);
+        result.put("size", size);
+        result.put("numberOfElements", content.size());
+        result.put("hasNext", hasNext);
+        return result;
+    }
+
+    /**
+     * The archived run with {@code id}, or null if it is not archived.
+     */
+    public FlowExecutionDto getArchivedExecution(UUID id) {
+        Map<YearMonth, List<Path>> segments = segmentsByMonth();
+        Set<YearMonth> months = new LinkedHashSet<>();
+        Instant timestamp = UuidV7.timestamp(id);
+        if (timestamp != null) {
+            // Segments are bucketed by createdAt, a local time set on insert moments after the id; the
+            // neighbouring months cover a month boundary in between and segments written in another zone
+            YearMonth month = YearMonth.from(timestamp.atZone(ZoneId.systemDefault()));
+            months.add(month);
+            months.add(month.plusMonths(1));
+            months.add(month.minusMonths(1));
+        } else {
+            List<YearMonth> newestFirst = new ArrayList<>(segments.keySet());
+            newestFirst.sort(Comparator.reverseOrder());
+            months.addAll(newestFirst);
+        }
+
+        String needle = "\"id\":\"" + id + "\"";
+        for (YearMonth month : months) {
+            for (Path segment : segments.getOrDefault(month, List.of())) {
+                try (BufferedReader reader = openSegment(segment)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        // Cheap prefilter before parsing; step records carry flowExecutionId, not id
+                        if (line.contains(needle)) {
+                            FlowExecutionDto document = archiveMapper.readValue(line, FlowExecutionDto.class);
+                            if (id.equals(document.getId())) {
+                                return document;
+                            }
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read archive segment " + segment.getFileName(), e);
+                }
+            }
+        }
+        return null;
+    }
+
+    private Path writeSegment(YearMonth month, List<FlowExecutionDto> documents) {
+        Path dir = Paths.get(directory);
+        Path temp = null;
+        try {
+            Files.createDirectories(dir);
+            temp = Files.createTempFile(dir, "segment-", ".tmp");
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temp), 8192), StandardCharsets.UTF_8))) {
+                for (FlowExecutionDto document : documents) {
+                    writer.write(archiveMapper.writeValueAsString(document));
+                    writer.write('\n');
+                }
+            }
+            Path segment = dir.resolve(nextSegmentName(dir, month));
+            Files.move(temp, segment, StandardCopyOption.ATOMIC_MOVE);
+            return segment;
+        } catch (IOException e) {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+            throw new UncheckedIOException("Failed to write archive segment for " + month, e);
+        }
+    }
+
+    private static String nextSegmentName(Path dir, YearMonth month) {
+        long sequence = System.currentTimeMillis();
+        String name;
+        do {
+            name = "flow-executions-" + month + "-" + sequence++ + ".ndjson.gz";
+        } while (Files.exists(dir.resolve(name)));
+        return name;
+    }
+
+    // Segments by month, each month's segments in write order
+    private Map<YearMonth, List<Path>> segmentsByMonth() {
+        Map<YearMonth, List<Path>> segments = new TreeMap<>();
+        Path dir = Paths.get(directory);
+        if (!Files.isDirectory(dir)) {
+            return segments;
+        }
+        Map<Path, Long> sequences = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "flow-executions-*.ndjson.gz")) {
+            for (Path file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.computeIfAbsent(YearMonth.parse(matcher.group(1)), month -> new ArrayList<>()).add(file);
+                    sequences.put(file, Long.parseLong(matcher.group(2)));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list archive directory " + dir, e);
+        }
+        segments.values().forEach(files -> files.sort(Comparator.comparing(sequences::get)));
+        return segments;
+    }
+
+    private static BufferedReader openSegment(Path segment) throws IOException {
+        return new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(segment), 8192), StandardCharsets.UTF_8));
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete archive file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static YearMonth parseMonth(String month) {
+        if (month == null || month.trim().isEmpty()) {
+            throw new IllegalArgumentException("Month is required (format: yyyy-MM)");
+        }
+        try {
+            return YearMonth.parse(month.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid month: " + month + " (format: yyyy-MM)");
+        }
+    }
+
+    private static FlowExecutionDto toDocument(FlowExecution entity, Map<Long, String> flowGroupNames) {
+        FlowExecutionDto dto = new FlowExecutionDto();
+        dto.setId(entity.getId());
+        dto.setFlowId(entity.getFlowId());
+        dto.setStartTime(entity.getStartTime());
+        dto.setEndTime(entity.getEndTime());
+        dto.setRuntimeVariables(entity.getRuntimeVariables());
+        dto.setStatus(entity.getStatus());
+        dto.setCreatedAt(entity.getCreatedAt());
+        dto.setIsReplay(entity.getIsReplay());
+        dto.setReplayCount(entity.getReplayCount());
+        dto.setCategory(entity.getCategory());
+        if (entity.getFlowGroup() != null) {
+            dto.setFlowGroupId(entity.getFlowGroup().getId());
+            dto.setFlowGroupName(flowGroupNames.get(entity.getFlowGroup().getId()));
+        }
+        dto.setIteration(entity.getIteration());
+        dto.setRevolutions(entity.getRevolutions());
+        return dto;
+    }
+
+    // Test data is archived in full: the snapshot is inlined and the runtime delta applied
+    private static PipelineExecutionDto toDocument(PipelineExecution entity) {
+        PipelineExecutionDto dto = new PipelineExecutionDto();
+        dto.setId(entity.getId());
+        dto.setFlowId(entity.getFlowId());
+        dto.setFlowExecutionId(entity.getFlowExecutionId());
+        dto.setFlowStepId(entity.getFlowStepId());
+        dto.setPipelineId(entity.getPipelineId());
+        dto.setPipelineUrl(entity.getPipelineUrl());
+        dto.setStartTime(entity.getStartTime());
+        dto.setEndTime(entity.getEndTime());
+        dto.setConfiguredTestData(entity.getConfiguredTestData());
+        dto.setRuntimeTestData(entity.getRuntimeTestData() != null
+                ? VariableDelta.apply(entity.getConfiguredTestData(), entity.getRuntimeTestData()) : null);
+        dto.setStatus(entity.getStatus());
+        dto.setCreatedAt(entity.getCreatedAt());
+        dto.setIsReplay(entity.getIsReplay());
+        dto.setResumeTime(entity.getResumeTime());
+        dto.setCacheHit(entity.getCacheHit());
+        return dto;
+    }
+}
@@ -0,0 +1,189 @@
+package com.ubs.orkestra.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.repository.FlowExecutionRepository;
+import com.ubs.orkestra.repository.FlowExecutionSummaryView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams flow executions as NDJSON or CSV.
+ *
+ * <p>Rows are read forward-only through {@link FlowExecutionRepository#streamSummaries} with a JDBC
+ * fetch size, so the driver holds one fetch of rows at a time, and are written to the response as
+ * they arrive. The rows are scalar projections, not entities, so the persistence context stays
+ * empty however many rows are exported. NDJSON is written with Jackson's streaming generator, one
+ * object per line; CSV follows RFC 4180.
+ */
+@Service
+public class ExecutionExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionExportService.class);
+
+    private static final String[] COLUMNS = {
+            "id", "flowId", "status", "category", "flowGroupId", "iteration", "createdAt", "startTime", "endTime"
+    };
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Invalid export format: " + value + ". Use ndjson or csv");
+            }
+        }
+    }
+
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public void validate(LocalDateTime fromDate, LocalDateTime toDate) {
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("fromDate must not be after toDate");
+        }
+    }
+
+    /**
+     * Writes the matching executions, oldest first, to {@code out}; gzip-compressed if requested.
+     * Returns the number of rows written.
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, boolean gzip, Long flowId, Long flowGroupId, Integer iteration,
+                       ExecutionStatus status, LocalDateTime fromDate, LocalDateTime toDate,
+                       OutputStream out) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+        long rows;
+        try (Stream<FlowExecutionSummaryView> views = flowExecutionRepository.streamSummaries(
+                flowId, flowGroupId, iteration, status, fromDate, toDate)) {
+            rows = format == Format.CSV
+                    ? writeCsv(views.iterator(), target)
+                    : writeNdjson(views.iterator(), target);
+        }
+        if (target instanceof GZIPOutputStream) {
+            ((GZIPOutputStream) target).finish();
+        }
+        out.flush();
+        logger.info("Exported {} flow executions as {}{}", rows, format, gzip ? " (gzip)" : "");
+        return rows;
+    }
+
+    private long writeNdjson(Iterator<FlowExecutionSummaryView> views, OutputStream out) throws IOException {
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // The servlet stream is closed by the container, and the gzip stream is finished by export
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (views.hasNext()) {
+                FlowExecutionSummaryView view = views.next();
+                generator.writeStartObject();
+                generator.writeStringField("id", String.valueOf(view.getId()));
+                writeNumber(generator, "flowId", view.getFlowId());
+                generator.writeStringField("status", view.getStatus() != null ? view.getStatus().name() : null);
+                generator.writeStringField("category", view.getCategory());
+                writeNumber(generator, "flowGroupId", view.getFlowGroupId());
+                writeNumber(generator, "iteration", view.getIteration() != null ? view.getIteration().longValue() : null);
+                generator.writeStringField("createdAt", format(view.getCreatedAt()));
+                generator.writeStringField("startTime", format(view.getStartTime()));
+                generator.writeStringField("endTime", format(view.getEndTime()));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                rows++;
+            }
+            generator.flush();
+        }
+        return rows;
+    }
+
+    private long writeCsv(Iterator<FlowExecutionSummaryView> views, OutputStream out) throws IOException {
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+        while (views.hasNext()) {
+            FlowExecutionSummaryView view = views.next();
+            writer.write(String.valueOf(view.getId()));
+            writer.write(',');
+            writer.write(csv(view.getFlowId()));
+            writer.write(',');
+            writer.write(csv(view.getStatus() != null ? view.getStatus().name() : null));
+            writer.write(',');
+            writer.write(csv(view.getCategory()));
+            writer.write(',');
+            writer.write(csv(view.getFlowGroupId()));
+            writer.write(',');
+            writer.write(csv(view.getIteration()));
+            writer.write(',');
+            writer.write(csv(format(view.getCreatedAt())));
+            writer.write(',');
+            writer.write(csv(format(view.getStartTime())));
+            writer.write(',');
+            writer.write(csv(format(view.getEndTime())));
+            writer.write("\r\n");
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static void writeNumber(JsonGenerator generator, String field, Long value) throws IOException {
+        if (value != null) {
+            generator.writeNumberField(field, value);
+        } else {
+            generator.writeNullField(field);
+        }
+    }
+
+    private static String format(LocalDateTime value) {
+        return value != null ? value.toString() : null;
+    }
+
+    // RFC 4180: quote fields containing a separator, quote or line break, doubling embedded quotes
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,221 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.enums.ExecutionEventType;
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.event.ExecutionStatusChange;
+import com.ubs.orkestra.model.ExecutionEvent;
+import com.ubs.orkestra.model.PipelineExecution;
+import com.ubs.orkestra.repository.ExecutionEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only journal of what happened to flow and pipeline executions.
+ *
+ * <p>Every committed {@link ExecutionStatusChange} becomes an event (created, queued, scheduled,
+ * triggered, paused, completed, cancelled), and the GitLab side reports job-found and
+ * artifact-parsed events. Events are buffered in memory and appended in batches every
+ * {@code flush-interval-ms}, so the hot execution paths never write the journal themselves.
+ * flow_executions and pipeline_executions remain the current-state view; the journal holds the
+ * history for timelines and sequential readers, which page through it by id.
+ *
+ * <p>Buffered events are lost if the instance dies before the next flush; the journal is a record
+ * of the executions, not the source of their state.
+ */
+@Service
+public class ExecutionJournalService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionJournalService.class);
+
+    @Autowired
+    private ExecutionEventRepository executionEventRepository;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.journal.enabled:true}")
+    private boolean enabled;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.journal.batch-size:500}")
+    private int batchSize;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.journal.max-buffered:100000}")
+    private int maxBuffered;
+
+    private final ConcurrentLinkedQueue<ExecutionEvent> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+
+    // -------------------------------------------------------------------------
+    // Appends
+    // -------------------------------------------------------------------------
+
+    /**
+     * Journals a status change once its transaction has committed; changes made outside a
+     * transaction are journaled immediately.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChange(ExecutionStatusChange change) {
+        if (change.getFlowExecutionId() == null) {
+            return;
+        }
+        append(new ExecutionEvent(change.getFlowExecutionId(), change.getPipelineExecutionId(),
+                change.getFlowStepId(), change.getFlowGroupId(),
+                eventTypeOf(change.getFromStatus(), change.getToStatus()),
+                change.getFromStatus(), change.getToStatus(), null));
+    }
+
+    public void jobFound(PipelineExecution pipelineExecution, Long jobId) {
+        appendStepEvent(pipelineExecution, ExecutionEventType.JOB_FOUND, "jobId=" + jobId);
+    }
+
+    public void artifactParsed(PipelineExecution pipelineExecution, Long jobId, int variableCount) {
+        appendStepEvent(pipelineExecution, ExecutionEventType.ARTIFACT_PARSED,
+                "jobId=" + jobId + ", variables=" + variableCount);
+    }
+
+    private void appendStepEvent(PipelineExecution pipelineExecution, ExecutionEventType eventType, String detail) {
+        if (pipelineExecution.getFlowExecutionId() == null) {
+            return;
+        }
+        append(new ExecutionEvent(pipelineExecution.getFlowExecutionId(), pipelineExecution.getId(),
+                pipelineExecution.getFlowStepId(), null, eventType,
+                null, pipelineExecution.getStatus(), detail));
+    }
+
+    private void append(ExecutionEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (buffered.incrementAndGet() > maxBuffered) {
+            buffered.decrementAndGet();
+            logger.warn("Execution journal buffer full ({} events), dropping {} event of flow execution {}",
+                       maxBuffered, event.getEventType(), event.getFlowExecutionId());
+            return;
+        }
+        buffer.add(event);
+    }
+
+    static ExecutionEventType eventTypeOf(ExecutionStatus from, ExecutionStatus to) {
+        if (to == null) {
+            return ExecutionEventType.DELETED;
+        }
+        if (from == null) {
+            return ExecutionEventType.CREATED;
+        }
+        switch (to) {
+            case PENDING:
+                return ExecutionEventType.QUEUED;
+            case SCHEDULED:
+                return ExecutionEventType.SCHEDULED;
+            case RUNNING:
+            case IN_PROGRESS:
+                return ExecutionEventType.TRIGGERED;
+            case PAUSED:
+                return ExecutionEventType.PAUSED;
+            case CANCELLED:
+                return ExecutionEventType.CANCELLED;
+            default:
+                return ExecutionEventType.COMPLETED;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Flush
+    // -------------------------------------------------------------------------
+
+    @Scheduled(fixedDelayString = "${flow-execution.journal.flush-interval-ms:1000}")
+    public void flush() {
+        int chunkSize = Math.max(1, batchSize);
+        List<ExecutionEvent> chunk = new ArrayList<>(chunkSize);
+        ExecutionEvent event;
+        while ((event = buffer.poll()) != null) {
+            buffered.decrementAndGet();
+            chunk.add(event);
+            if (chunk.size() == chunkSize) {
+                save(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            save(chunk);
+        }
+    }
+
+    private void save(List<ExecutionEvent> chunk) {
+        try {
+            executionEventRepository.saveAll(chunk);
+        } catch (Exception e) {
+            logger.error("Failed to append {} execution journal events: {}", chunk.size(), e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    // -------------------------------------------------------------------------
+    // Reads
+    // -------------------------------------------------------------------------
+
+    /**
+     * Journal of one flow execution in the order the events were appended.
+     */
+    public List<Map<String, Object>> getTimeline(UUID flowExecutionId) {
+        List<Map<String, Object>> timeline = new ArrayList<>();
+        for (ExecutionEvent event : executionEventRepository.findByFlowExecutionIdOrderByIdAsc(flowExecutionId)) {
+            timeline.add(toMap(event));
+        }
+        return timeline;
+    }
+
+    /**
+     * Up to {@code limit} journal entries appended after {@code afterId}; pass the last returned
+     * {@code nextAfterId} to continue reading. Ids are allocated in blocks per instance, so with
+     * several instances a reader should re-read a short overlap.
+     */
+    public Map<String, Object> readAfter(long afterId, int limit) {
+        if (limit < 1 || limit > 10000) {
+            throw new IllegalArgumentException("limit must be between 1 and 10000");
+        }
+        List<ExecutionEvent> events = executionEventRepository
+                .findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit));
+        List<Map<String, Object>> content = new ArrayList<>(events.size());
+        long nextAfterId = afterId;
+        for (ExecutionEvent event : events) {
+            content.add(toMap(event));
+            nextAfterId = event.getId();
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("events", content);
+        response.put("nextAfterId", nextAfterId);
+        response.put("hasMore", events.size() == limit);
+        return response;
+    }
+
+    private static Map<String, Object> toMap(ExecutionEvent event) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", event.getId());
+        map.put("flowExecutionId", event.getFlowExecutionId());
+        map.put("pipelineExecutionId", event.getPipelineExecutionId());
+        map.put("flowStepId", event.getFlowStepId());
+        map.put("flowGroupId", event.getFlowGroupId());
+        map.put("eventType", event.getEventType());
+        map.put("fromStatus", event.getFromStatus());
+        map.put("toStatus", event.getToStatus());
+        map.put("detail", event.getDetail());
+        map.put("occurredAt", event.getOccurredAt());
+        return map;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ubs.orkestra.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Retention job keeping the execution tables small: finished runs older than
+ * {@code retention-days} are moved to the archive by {@link ExecutionArchiveService}, one
+ * transaction of {@code batch-size} runs at a time, up to {@code max-batches-per-run} per tick.
+ */
+@Service
+public class ExecutionRetentionScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionRetentionScheduler.class);
+
+    @Autowired
+    private ExecutionArchiveService executionArchiveService;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.archive.enabled:false}")
+    private boolean enabled;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.archive.retention-days:90}")
+    private int retentionDays;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.archive.batch-size:500}")
+    private int batchSize;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.archive.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    @Scheduled(fixedDelayString = "${flow-execution.archive.interval-ms:3600000}",
+               initialDelayString = "${flow-execution.archive.interval-ms:3600000}")
+    public void archiveExpiredRuns() {
+        if (!enabled || retentionDays < 1) {
+            return;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+            int size = Math.max(1, batchSize);
+            long archived = 0;
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                int count = executionArchiveService.archiveBatch(cutoff, size);
+                archived += count;
+                if (count < size) {
+                    break;
+                }
+            }
+            if (archived > 0) {
+                logger.info("Retention: archived {} flow executions created before {}", archived, cutoff);
+            }
+        } catch (Exception e) {
+            logger.error("Retention: archiving flow executions failed: {}", e.getMessage(), e);
+        }
+    }
+}
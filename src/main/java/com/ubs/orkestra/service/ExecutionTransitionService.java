@@ -0,0 +1,232 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.event.ExecutionStatusChange;
+import com.ubs.orkestra.repository.FlowExecutionRepository;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Set-based status transitions for cancellation, timeout and failure cascades, and for pausing
+ * and resuming FlowGroup runs.
+ *
+ * <p>Each transition locks the rows still in one of the expected statuses, moves exactly those
+ * rows with one guarded UPDATE per chunk, and publishes an {@link ExecutionStatusChange} per row,
+ * so listeners see the same per-row events as for entity saves. A row moved by another worker in
+ * the meantime no longer matches the guard and is left alone.
+ *
+ * <p>The UPDATE bypasses the persistence context: callers must not save stale managed instances
+ * of the affected rows afterwards.
+ */
+@Service
+@Transactional
+public class ExecutionTransitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionTransitionService.class);
+
+    private static final List<ExecutionStatus> NOT_STARTED_STEP_STATUSES = List.of(ExecutionStatus.SCHEDULED, ExecutionStatus.PENDING);
+    private static final List<ExecutionStatus> ACTIVE_FLOW_STATUSES =
+            List.of(ExecutionStatus.PENDING, ExecutionStatus.RUNNING, ExecutionStatus.PAUSED);
+    private static final List<ExecutionStatus> ACTIVE_STEP_STATUSES = List.of(ExecutionStatus.SCHEDULED,
+            ExecutionStatus.PENDING, ExecutionStatus.RUNNING, ExecutionStatus.IN_PROGRESS);
+
+    // Keeps IN lists well below driver and database parameter limits
+    private static final int MAX_IDS_PER_UPDATE = 500;
+
+    // flowStepId never matches a real step
+    private static final long NO_EXCLUDED_STEP = -1L;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Cancels the not yet started (SCHEDULED or PENDING) steps of a flow execution, except the
+     * step the flow failed at.
+     */
+    public List<ExecutionStatusChange> cancelNotStartedSteps(UUID flowExecutionId, Long exceptFlowStepId) {
+        List<Object[]> rows = pipelineExecutionRepository.lockByFlowExecutionAndStatus(flowExecutionId,
+                NOT_STARTED_STEP_STATUSES, exceptFlowStepId != null ? exceptFlowStepId : NO_EXCLUDED_STEP);
+        return transitionPipelines(rows, NOT_STARTED_STEP_STATUSES, ExecutionStatus.CANCELLED);
+    }
+
+    /**
+     * Cancels the given pipeline executions that are still in one of {@code fromStatuses}.
+     */
+    public List<ExecutionStatusChange> cancelPipelineExecutions(Collection<Long> pipelineExecutionIds,
+                                                                List<ExecutionStatus> fromStatuses) {
+        List<Object[]> rows = new ArrayList<>();
+        for (List<Long> chunk : chunks(new ArrayList<>(pipelineExecutionIds))) {
+            rows.addAll(pipelineExecutionRepository.lockByIdsAndStatus(chunk, fromStatuses));
+        }
+        return transitionPipelines(rows, fromStatuses, ExecutionStatus.CANCELLED);
+    }
+
+    /**
+     * Cancels the not yet started steps of every CANCELLED flow in a FlowGroup run.
+     */
+    public List<ExecutionStatusChange> cancelRunNotStartedSteps(Long flowGroupId, Integer iteration) {
+        List<Object[]> rows = pipelineExecutionRepository.lockRunPipelineExecutions(flowGroupId, iteration,
+                ExecutionStatus.CANCELLED, NOT_STARTED_STEP_STATUSES);
+        return transitionPipelines(rows, NOT_STARTED_STEP_STATUSES, ExecutionStatus.CANCELLED);
+    }
+
+    /**
+     * Cancels PENDING flow executions that have been waiting since before {@code waitingBefore}.
+     */
+    public List<ExecutionStatusChange> cancelPendingFlowsWaitingSince(LocalDateTime waitingBefore) {
+        List<Object[]> rows = flowExecutionRepository.lockWaitingSince(ExecutionStatus.PENDING, waitingBefore);
+        return transitionFlows(rows, List.of(ExecutionStatus.PENDING), ExecutionStatus.CANCELLED);
+    }
+
+    /**
+     * Pauses the PENDING flow executions of a FlowGroup run; they keep their place but are not
+     * dispatched until resumed.
+     */
+    public List<ExecutionStatusChange> pauseRun(Long flowGroupId, Integer iteration) {
+        List<Object[]> rows = flowExecutionRepository.lockRunExecutions(flowGroupId, iteration, List.of(ExecutionStatus.PENDING));
+        return transitionFlows(rows, ExecutionStatus.PAUSED,
+                ids -> flowExecutionRepository.updateStatusByIds(ids, List.of(ExecutionStatus.PENDING), ExecutionStatus.PAUSED));
+    }
+
+    /**
+     * Moves the PAUSED flow executions of a FlowGroup run back to PENDING, restarting their PENDING
+     * clock so the pending timeout counts from the resume.
+     */
+    public List<ExecutionStatusChange> resumeRun(Long flowGroupId, Integer iteration) {
+        List<Object[]> rows = flowExecutionRepository.lockRunExecutions(flowGroupId, iteration, List.of(ExecutionStatus.PAUSED));
+        LocalDateTime now = LocalDateTime.now();
+        return transitionFlows(rows, ExecutionStatus.PENDING,
+                ids -> flowExecutionRepository.restartByIds(ids, List.of(ExecutionStatus.PAUSED), ExecutionStatus.PENDING, now));
+    }
+
+    /**
+     * Cancels the PENDING flow executions of a FlowGroup run together with their steps.
+     */
+    public Cancellation cancelRunPending(Long flowGroupId, Integer iteration) {
+        return cancelFlowsWithSteps(flowExecutionRepository.lockRunExecutions(flowGroupId, iteration, List.of(ExecutionStatus.PENDING)));
+    }
+
+    /**
+     * Cancels every PENDING, RUNNING or PAUSED flow execution of a FlowGroup run together with all
+     * of their steps that have not finished.
+     */
+    public Cancellation cancelRun(Long flowGroupId, Integer iteration) {
+        return cancelFlowsWithSteps(flowExecutionRepository.lockRunExecutions(flowGroupId, iteration, ACTIVE_FLOW_STATUSES));
+    }
+
+    /**
+     * Cancels every PENDING, RUNNING or PAUSED flow execution of a category together with all of
+     * their steps that have not finished.
+     */
+    public Cancellation cancelCategory(String category) {
+        return cancelFlowsWithSteps(flowExecutionRepository.lockCategoryExecutions(category, ACTIVE_FLOW_STATUSES));
+    }
+
+    private Cancellation cancelFlowsWithSteps(List<Object[]> lockedFlowRows) {
+        List<ExecutionStatusChange> flows = transitionFlows(lockedFlowRows, ACTIVE_FLOW_STATUSES, ExecutionStatus.CANCELLED);
+
+        List<Object[]> stepRows = new ArrayList<>();
+        for (List<ExecutionStatusChange> chunk : chunks(flows)) {
+            List<UUID> flowExecutionIds = new ArrayList<>();
+            chunk.forEach(change -> flowExecutionIds.add(change.getFlowExecutionId()));
+            stepRows.addAll(pipelineExecutionRepository.lockByFlowExecutionIdsAndStatus(flowExecutionIds, ACTIVE_STEP_STATUSES));
+        }
+        List<ExecutionStatusChange> steps = transitionPipelines(stepRows, ACTIVE_STEP_STATUSES, ExecutionStatus.CANCELLED);
+        return new Cancellation(flows, steps);
+    }
+
+    private List<ExecutionStatusChange> transitionFlows(List<Object[]> lockedRows, List<ExecutionStatus> fromStatuses,
+                                                        ExecutionStatus toStatus) {
+        LocalDateTime now = LocalDateTime.now();
+        return transitionFlows(lockedRows, toStatus,
+                ids -> flowExecutionRepository.transitionByIds(ids, fromStatuses, toStatus, now));
+    }
+
+    private List<ExecutionStatusChange> transitionFlows(List<Object[]> lockedRows, ExecutionStatus toStatus,
+                                                        Consumer<List<UUID>> update) {
+        List<ExecutionStatusChange> changes = new ArrayList<>();
+        for (List<Object[]> chunk : chunks(lockedRows)) {
+            List<UUID> ids = new ArrayList<>();
+            chunk.forEach(row -> ids.add((UUID) row[0]));
+            update.accept(ids);
+            for (Object[] row : chunk) {
+                changes.add(ExecutionStatusChange.forFlow((UUID) row[0], (Long) row[1],
+                        (ExecutionStatus) row[2], toStatus));
+            }
+        }
+        publish(changes);
+        return changes;
+    }
+
+    private List<ExecutionStatusChange> transitionPipelines(List<Object[]> lockedRows, List<ExecutionStatus> fromStatuses,
+                                                            ExecutionStatus toStatus) {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<ExecutionStatusChange> changes = new ArrayList<>();
+        for (List<Object[]> chunk : chunks(lockedRows)) {
+            List<Long> ids = new ArrayList<>();
+            chunk.forEach(row -> ids.add((Long) row[0]));
+            pipelineExecutionRepository.transitionByIds(ids, fromStatuses, toStatus, now);
+            for (Object[] row : chunk) {
+                changes.add(ExecutionStatusChange.forPipeline((UUID) row[1], (Long) row[0], (Long) row[2],
+                        (ExecutionStatus) row[3], toStatus));
+            }
+        }
+        publish(changes);
+        return changes;
+    }
+
+    private void publish(List<ExecutionStatusChange> changes) {
+        changes.forEach(eventPublisher::publishEvent);
+        if (!changes.isEmpty()) {
+            logger.debug("Moved {} rows to {}", changes.size(), changes.get(0).getToStatus());
+        }
+    }
+
+    private static <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += MAX_IDS_PER_UPDATE) {
+            chunks.add(items.subList(i, Math.min(i + MAX_IDS_PER_UPDATE, items.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Flow executions and steps moved by one bulk cancellation.
+     */
+    public static class Cancellation {
+        private final List<ExecutionStatusChange> flows;
+        private final List<ExecutionStatusChange> pipelines;
+
+        public Cancellation(List<ExecutionStatusChange> flows, List<ExecutionStatusChange> pipelines) {
+            this.flows = flows;
+            this.pipelines = pipelines;
+        }
+
+        public List<ExecutionStatusChange> getFlows() {
+            return flows;
+        }
+
+        public List<ExecutionStatusChange> getPipelines() {
+            return pipelines;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.event.ExecutionStatusChange;
+import com.ubs.orkestra.model.Flow;
+import com.ubs.orkestra.model.FlowStep;
+import com.ubs.orkestra.repository.FlowExecutionRepository;
+import com.ubs.orkestra.repository.FlowRepository;
+import com.ubs.orkestra.repository.FlowStepRepository;
+import com.ubs.orkestra.util.VariableHasher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Opt-in coalescing of duplicate launches of a flow that is already in flight.
+ *
+ * <p>A launch is identified by its flow, category and the content hash of the test data of each
+ * step. While an execution with the same key is PENDING or RUNNING, a new launch attaches to it
+ * instead of creating a second FlowExecution; a paused execution gives its key up, so launches are
+ * never held behind a run that may not be resumed. The in-flight index is kept in memory and
+ * backed by the {@code coalescing_key} column of flow_executions, which is unique and cleared when
+ * the execution is paused or finishes; the index is loaded from it at startup and the unique index rejects a
+ * duplicate claimed concurrently by another instance.
+ *
+ * <p>An index entry is trusted only after its execution's status has been read, so executions
+ * finished by set-based updates never block a new launch.
+ */
+@Service
+public class FlowCoalescingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowCoalescingService.class);
+
+    // A claim whose row is not visible yet (transaction still open) is honoured this long
+    private static final long UNCOMMITTED_CLAIM_MILLIS = 5 * 60 * 1000L;
+
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Autowired
+    private FlowRepository flowRepository;
+
+    @Autowired
+    private FlowStepRepository flowStepRepository;
+
+    @Autowired
+    private TestDataService testDataService;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.coalescing.enabled:false}")
+    private boolean enabled;
+
+    private final Map<String, UUID> inFlight = new ConcurrentHashMap<>();
+    private final Map<UUID, String> keysByExecution = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> localClaims = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        if (!enabled) {
+            return;
+        }
+        for (Object[] row : flowExecutionRepository.findCoalescingKeys()) {
+            inFlight.put((String) row[0], (UUID) row[1]);
+            keysByExecution.put((UUID) row[1], (String) row[0]);
+        }
+        logger.info("Loaded {} in-flight coalescing keys", inFlight.size());
+    }
+
+    // -------------------------------------------------------------------------
+    // Keys
+    // -------------------------------------------------------------------------
+
+    /**
+     * Coalescing key of a launch of {@code flow} in {@code category}, given the merged test data of
+     * its steps by FlowStep id.
+     */
+    public String keyFor(Flow flow, String category, Map<Long, Map<String, String>> configuredTestDataByStep) {
+        List<String> parts = new ArrayList<>();
+        parts.add(String.valueOf(flow.getId()));
+        parts.add(category);
+        for (Long stepId : flow.getFlowStepIds()) {
+            parts.add(String.valueOf(stepId));
+            parts.add(VariableHasher.hash(configuredTestDataByStep.getOrDefault(stepId, Collections.emptyMap())));
+        }
+        return VariableHasher.hashParts(parts.toArray(new String[0]));
+    }
+
+    /**
+     * Coalescing key of a launch of the flow {@code flowId}; null if the flow does not exist.
+     */
+    public String keyFor(Long flowId, String category) {
+        Flow flow = flowRepository.findById(flowId).orElse(null);
+        if (flow == null) {
+            return null;
+        }
+        Map<Long, Map<String, String>> configuredTestDataByStep = flowStepRepository.findByIdIn(flow.getFlowStepIds())
+                .stream()
+                .collect(Collectors.toMap(FlowStep::getId,
+                        step -> testDataService.mergeTestDataByIds(step.getTestDataIds())));
+        return keyFor(flow, category, configuredTestDataByStep);
+    }
+
+    // -------------------------------------------------------------------------
+    // In-flight index
+    // -------------------------------------------------------------------------
+
+    /**
+     * Claims {@code key} for the new execution {@code flowExecutionId}.
+     *
+     * @return the id of the in-flight execution holding the key, or null if the claim succeeded
+     */
+    public UUID claim(String key, UUID flowExecutionId) {
+        while (true) {
+            UUID holder = inFlight.putIfAbsent(key, flowExecutionId);
+            if (holder == null) {
+                keysByExecution.put(flowExecutionId, key);
+                localClaims.put(flowExecutionId, System.currentTimeMillis());
+                return null;
+            }
+            if (isInFlight(holder)) {
+                return holder;
+            }
+            forget(holder);
+        }
+    }
+
+    /**
+     * Gives up a claim whose execution was not created.
+     */
+    public void release(String key, UUID flowExecutionId) {
+        if (key != null && inFlight.remove(key, flowExecutionId)) {
+            keysByExecution.remove(flowExecutionId);
+        }
+        localClaims.remove(flowExecutionId);
+    }
+
+    /**
+     * Execution holding {@code key} in the database, after an insert was rejected by the unique
+     * index; it is adopted into the in-memory index.
+     */
+    public Optional<UUID> holderInDatabase(String key) {
+        Optional<UUID> holder = flowExecutionRepository.findIdByCoalescingKey(key);
+        holder.ifPresent(id -> {
+            inFlight.put(key, id);
+            keysByExecution.put(id, key);
+        });
+        return holder;
+    }
+
+    @EventListener
+    public void onStatusChange(ExecutionStatusChange change) {
+        if (!change.isPipelineChange() && !isActive(change.getToStatus())) {
+            forget(change.getFlowExecutionId());
+        }
+    }
+
+    private boolean isInFlight(UUID flowExecutionId) {
+        Optional<ExecutionStatus> status = flowExecutionRepository.findStatusById(flowExecutionId);
+        if (status.isPresent()) {
+            return isActive(status.get());
+        }
+        Long claimedAt = localClaims.get(flowExecutionId);
+        return claimedAt != null && System.currentTimeMillis() - claimedAt < UNCOMMITTED_CLAIM_MILLIS;
+    }
+
+    private void forget(UUID flowExecutionId) {
+        String key = keysByExecution.remove(flowExecutionId);
+        if (key != null) {
+            inFlight.remove(key, flowExecutionId);
+        }
+        localClaims.remove(flowExecutionId);
+    }
+
+    private static boolean isActive(ExecutionStatus status) {
+        return status == ExecutionStatus.PENDING || status == ExecutionStatus.RUNNING;
+    }
+}
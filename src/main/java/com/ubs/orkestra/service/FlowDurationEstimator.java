@@ -0,0 +1,183 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.model.Flow;
+import com.ubs.orkestra.repository.FlowRepository;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates how long a flow runs from the historical durations of its steps.
+ *
+ * <p>A step's estimate is the mean run time of its most recent PASSED pipeline executions
+ * (memoized outcomes excluded), loaded on first use and then kept up to date incrementally as
+ * the webhook reports completions. Steps without history count with a configured default. A
+ * flow's estimate is the sum over its steps; scheduler delays between steps are not included.
+ */
+@Service
+public class FlowDurationEstimator {
+
+    public static final String SOURCE_HISTORY = "history";
+    public static final String SOURCE_PARTIAL = "partial";
+    public static final String SOURCE_DEFAULT = "default";
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Autowired
+    private FlowRepository flowRepository;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.dispatch.estimate-samples:20}")
+    private int estimateSamples;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.dispatch.default-step-seconds:600}")
+    private long defaultStepSeconds;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.dispatch.estimate-ttl-seconds:600}")
+    private long estimateTtlSeconds;
+
+    private final Map<Long, StepEstimate> stepEstimates = new ConcurrentHashMap<>();
+
+    private final Map<Long, FlowSteps> flowSteps = new ConcurrentHashMap<>();
+
+    /**
+     * Expected run time of one execution of the flow.
+     */
+    public Estimate estimateFlow(Long flowId) {
+        List<Long> stepIds = stepIdsOf(flowId);
+        long total = 0;
+        int withHistory = 0;
+        for (Long stepId : stepIds) {
+            StepEstimate step = stepEstimate(stepId);
+            if (step.samples > 0) {
+                total += step.meanMillis;
+                withHistory++;
+            } else {
+                total += defaultStepSeconds * 1000;
+            }
+        }
+        String source = withHistory == 0 ? SOURCE_DEFAULT
+                : withHistory < stepIds.size() ? SOURCE_PARTIAL : SOURCE_HISTORY;
+        return new Estimate(total, source);
+    }
+
+    /**
+     * Expected run time of one step; the configured default when the step has no history.
+     */
+    public long estimateStepMillis(Long flowStepId) {
+        StepEstimate step = stepEstimate(flowStepId);
+        return step.samples > 0 ? step.meanMillis : defaultStepSeconds * 1000;
+    }
+
+    /**
+     * Step IDs of the flow in execution order, cached like the estimates.
+     */
+    public List<Long> getStepIds(Long flowId) {
+        return stepIdsOf(flowId);
+    }
+
+    /**
+     * Folds a completed run of a step into its estimate as a moving mean over the last
+     * {@code estimate-samples} runs.
+     */
+    public void recordStepDuration(Long flowStepId, LocalDateTime startTime, LocalDateTime endTime) {
+        if (flowStepId == null || startTime == null || endTime == null || endTime.isBefore(startTime)) {
+            return;
+        }
+        long millis = Duration.between(startTime, endTime).toMillis();
+        // Only update estimates already loaded; others are read from the database on first use
+        stepEstimates.computeIfPresent(flowStepId, (id, current) -> current.plus(millis, estimateSamples));
+    }
+
+    private StepEstimate stepEstimate(Long flowStepId) {
+        long now = System.currentTimeMillis();
+        StepEstimate cached = stepEstimates.get(flowStepId);
+        if (cached != null && now - cached.loadedAtMillis < estimateTtlSeconds * 1000) {
+            return cached;
+        }
+        List<Object[]> rows = pipelineExecutionRepository.findRecentStepRunTimes(flowStepId, ExecutionStatus.PASSED,
+                PageRequest.of(0, Math.max(1, estimateSamples)));
+        long sum = 0;
+        int samples = 0;
+        for (Object[] row : rows) {
+            LocalDateTime start = (LocalDateTime) row[0];
+            LocalDateTime end = (LocalDateTime) row[1];
+            if (!end.isBefore(start)) {
+                sum += Duration.between(start, end).toMillis();
+                samples++;
+            }
+        }
+        StepEstimate loaded = new StepEstimate(samples > 0 ? sum / samples : 0, samples, now);
+        stepEstimates.put(flowStepId, loaded);
+        return loaded;
+    }
+
+    private List<Long> stepIdsOf(Long flowId) {
+        long now = System.currentTimeMillis();
+        FlowSteps cached = flowSteps.get(flowId);
+        if (cached != null && now - cached.loadedAtMillis < estimateTtlSeconds * 1000) {
+            return cached.stepIds;
+        }
+        List<Long> stepIds = flowRepository.findById(flowId)
+                .map(Flow::getFlowStepIds)
+                .map(List::copyOf)
+                .orElse(List.of());
+        flowSteps.put(flowId, new FlowSteps(stepIds, now));
+        return stepIds;
+    }
+
+    public static class Estimate {
+        private final long millis;
+        private final String source;
+
+        public Estimate(long millis, String source) {
+            this.millis = millis;
+            this.source = source;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        /** history, partial (some steps use the default) or default (no step has history) */
+        public String getSource() {
+            return source;
+        }
+    }
+
+    private static class StepEstimate {
+        private final long meanMillis;
+        private final int samples;
+        private final long loadedAtMillis;
+
+        private StepEstimate(long meanMillis, int samples, long loadedAtMillis) {
+            this.meanMillis = meanMillis;
+            this.samples = samples;
+            this.loadedAtMillis = loadedAtMillis;
+        }
+
+        private StepEstimate plus(long millis, int window) {
+            int n = Math.min(samples + 1, Math.max(1, window));
+            long mean = samples == 0 ? millis : meanMillis + (millis - meanMillis) / n;
+            return new StepEstimate(mean, Math.min(samples + 1, window), loadedAtMillis);
+        }
+    }
+
+    private static class FlowSteps {
+        private final List<Long> stepIds;
+        private final long loadedAtMillis;
+
+        private FlowSteps(List<Long> stepIds, long loadedAtMillis) {
+            this.stepIds = stepIds;
+            this.loadedAtMillis = loadedAtMillis;
+        }
+    }
+}
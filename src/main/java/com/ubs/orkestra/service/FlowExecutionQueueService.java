@@ -1,10 +1,14 @@
 package com.ubs.orkestra.service;
 
 import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.enums.SchedulingClass;
+import com.ubs.orkestra.event.ExecutionStatusChange;
 import com.ubs.orkestra.model.FlowExecution;
 import com.ubs.orkestra.model.QueuedFlowExecution;
 import com.ubs.orkestra.repository.FlowExecutionRepository;
 import com.ubs.orkestra.repository.QueuedFlowExecutionRepository;
+import com.ubs.orkestra.util.AgedShortestFirst;
+import com.ubs.orkestra.util.FairShareSelector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,10 +24,15 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 /**
@@ -59,9 +68,23 @@ public class FlowExecutionQueueService {
     @Qualifier("flowExecutionTaskExecutor")
     private ThreadPoolTaskExecutor flowExecutionTaskExecutor;
 
+    @Autowired
+    private FlowLaunchPlanner flowLaunchPlanner;
+
+    @Autowired
+    private FlowDurationEstimator flowDurationEstimator;
+
+    @Autowired
+    private StatusCounterRegistry statusCounterRegistry;
+
+    @Autowired
+    private ExecutionTransitionService executionTransitionService;
+
     @org.springframework.beans.factory.annotation.Value("${scheduling.queue-processing.polling-interval:30000}")
     private long queuePollingIntervalMs;
 
+    private final AtomicBoolean processingPending = new AtomicBoolean();
+
     @org.springframework.beans.factory.annotation.Value("${scheduling.queue-processing.initial-delay:10000}")
     private long queuePollingInitialDelayMs;
 
@@ -74,6 +97,35 @@ public class FlowExecutionQueueService {
     @org.springframework.beans.factory.annotation.Value("${flow-execution.pending-timeout-minutes:30}")
     private int pendingTimeoutMinutes;
 
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.fair-share.enabled:true}")
+    private boolean fairShareEnabled;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.fair-share.interactive-weight:4}")
+    private double interactiveWeight;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.fair-share.bulk-weight:1}")
+    private double bulkWeight;
+
+    // Comma-separated tenant=weight pairs, e.g. "group:12=3,category:nightly=0.5"
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.fair-share.tenant-weights:}")
+    private String tenantWeightsSpec;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.fair-share.min-interactive-share:0.2}")
+    private double minInteractiveShare;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.fair-share.tenant-max-running:0}")
+    private int tenantMaxRunning;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.fair-share.interactive-queue-priority:10}")
+    private int interactiveQueuePriority;
+
+    // FIFO, or SEDF: shortest expected duration first with aging
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.dispatch.policy:FIFO}")
+    private String dispatchPolicy;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.dispatch.aging-weight:1.0}")
+    private double agingWeight;
+
     // -------------------------------------------------------------------------
     // Public queue API
     // -------------------------------------------------------------------------
@@ -85,8 +137,19 @@ public class FlowExecutionQueueService {
     @Transactional
     public QueuedFlowExecution enqueueFlowExecution(UUID flowExecutionId, Long flowId, Long flowGroupId,
                                                      Integer iteration, Integer revolutions, String category) {
+        return enqueueFlowExecution(flowExecutionId, flowId, flowGroupId, iteration, revolutions, category, 0);
+    }
+
+    /**
+     * Same as above with an explicit queue priority; interactive flows are queued ahead of bulk ones.
+     */
+    @Transactional
+    public QueuedFlowExecution enqueueFlowExecution(UUID flowExecutionId, Long flowId, Long flowGroupId,
+                                                     Integer iteration, Integer revolutions, String category,
+                                                     int priority) {
         QueuedFlowExecution queuedExecution = new QueuedFlowExecution(
             flowExecutionId, flowId, flowGroupId, iteration, revolutions, category);
+        queuedExecution.setPriority(priority);
 
         queuedExecution = queuedFlowExecutionRepository.save(queuedExecution);
 
@@ -103,6 +166,8 @@ public class FlowExecutionQueueService {
      */
     @Transactional
     public void enqueueFromExistingExecution(UUID flowExecutionId) {
+        // The caller no longer dispatches it: free the capacity reserved at acceptance
+        flowLaunchPlanner.release(flowExecutionId);
         FlowExecution fe = flowExecutionRepository.findById(flowExecutionId).orElse(null);
         if (fe == null) {
             logger.error("Cannot enqueue flow execution {} – record not found", flowExecutionId);
@@ -119,7 +184,8 @@ public class FlowExecutionQueueService {
             fe.getFlowGroup() != null ? fe.getFlowGroup().getId() : null,
             fe.getIteration(),
             fe.getRevolutions(),
-            fe.getCategory()
+            fe.getCategory(),
+            queuePriorityOf(fe)
         );
         logger.warn("Flow execution {} was rejected by the thread pool and re-routed to DB queue", flowExecutionId);
     }
@@ -231,27 +297,28 @@ public class FlowExecutionQueueService {
                initialDelayString = "${scheduling.queue-processing.initial-delay:10000}")
     @Transactional
     public void processPendingFlowExecutions() {
+        // Single flight: the scheduler and on-demand nudges (e.g. after a bulk replay) must not
+        // compute the free capacity at the same time and hand out the same slots twice
+        if (!processingPending.compareAndSet(false, true)) {
+            logger.debug("processPendingFlowExecutions: already running, skipping");
+            return;
+        }
         try {
             // Timeout PENDING flows that have been waiting too long
             LocalDateTime timeoutBefore = LocalDateTime.now().minusMinutes(pendingTimeoutMinutes);
-            List<FlowExecution> timedOut = flowExecutionRepository.findByStatus(ExecutionStatus.PENDING)
-                .stream()
-                .filter(fe -> fe.getCreatedAt() != null && fe.getCreatedAt().isBefore(timeoutBefore))
-                .collect(Collectors.toList());
-
-            for (FlowExecution fe : timedOut) {
-                logger.warn("PENDING flow execution {} timed out after {} minutes — marking CANCELLED",
-                           fe.getId(), pendingTimeoutMinutes);
-                fe.setStatus(ExecutionStatus.CANCELLED);
-                fe.setEndTime(LocalDateTime.now());
-                flowExecutionRepository.save(fe);
+            List<ExecutionStatusChange> timedOut = executionTransitionService.cancelPendingFlowsWaitingSince(timeoutBefore);
+            for (ExecutionStatusChange change : timedOut) {
+                logger.warn("PENDING flow execution {} timed out after {} minutes — marked CANCELLED",
+                           change.getFlowExecutionId(), pendingTimeoutMinutes);
             }
 
-            // Start PENDING flows up to available capacity
-            long runningCount = flowExecutionRepository.countByStatus(ExecutionStatus.RUNNING);
-            int availableSlots = (int) Math.max(0, maxConcurrentFlows - runningCount);
+            // Start PENDING flows up to available capacity. Accepted flows not yet claimed by their
+            // dispatch (including those waiting for a launch-planner slot) already hold capacity.
+            releaseStaleReservations();
+            long runningCount = statusCounterRegistry.countFlows(ExecutionStatus.RUNNING);
+            int availableSlots = (int) Math.max(0, maxConcurrentFlows - runningCount - flowLaunchPlanner.getReservedCount());
             if (availableSlots <= 0) {
-                long pendingCount = flowExecutionRepository.countByStatus(ExecutionStatus.PENDING);
+                long pendingCount = statusCounterRegistry.countFlows(ExecutionStatus.PENDING);
                 if (pendingCount > 0) {
                     logger.debug("processPendingFlowExecutions: no capacity (running={}), {} PENDING flows waiting",
                                runningCount, pendingCount);
@@ -259,11 +326,17 @@ public class FlowExecutionQueueService {
                 return;
             }
 
-            List<FlowExecution> pendingFlows = flowExecutionRepository.findByStatus(ExecutionStatus.PENDING)
+            List<FlowExecution> waitingFlows = flowExecutionRepository.findByStatusOrderByCreatedAtAsc(ExecutionStatus.PENDING)
                 .stream()
-                .filter(fe -> fe.getCreatedAt() == null || !fe.getCreatedAt().isBefore(timeoutBefore))
-                .limit(availableSlots)
+                .filter(fe -> pendingSince(fe) == null || !pendingSince(fe).isBefore(timeoutBefore))
+                .filter(fe -> !flowLaunchPlanner.isReserved(fe.getId()))
                 .collect(Collectors.toList());
+            if (isShortestFirst()) {
+                waitingFlows = orderShortestFirst(waitingFlows, LocalDateTime.now());
+            }
+            List<FlowExecution> pendingFlows = fairShareEnabled
+                ? selectFairShare(waitingFlows, availableSlots)
+                : waitingFlows.stream().limit(availableSlots).collect(Collectors.toList());
 
             if (pendingFlows.isEmpty()) {
                 return;
@@ -273,10 +346,13 @@ public class FlowExecutionQueueService {
                        pendingFlows.size(), availableSlots);
 
             for (FlowExecution fe : pendingFlows) {
+                // The flow holds its slot until the asynchronous dispatch claims it
+                flowLaunchPlanner.reserve(fe.getId());
                 try {
                     flowExecutionService.executeFlowAsync(fe.getId());
                     logger.info("processPendingFlowExecutions: started PENDING flow {}", fe.getId());
                 } catch (Exception e) {
+                    flowLaunchPlanner.release(fe.getId());
                     logger.error("processPendingFlowExecutions: failed to start PENDING flow {}: {}",
                                 fe.getId(), e.getMessage(), e);
                 }
@@ -284,7 +360,179 @@ public class FlowExecutionQueueService {
 
         } catch (Exception e) {
             logger.error("processPendingFlowExecutions error: {}", e.getMessage(), e);
+        } finally {
+            processingPending.set(false);
+        }
+    }
+
+    /**
+     * PENDING backlog in the order the dispatcher would start it, with the duration estimate
+     * behind each position. Fair share is applied per dispatch round on top of this order.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getQueueSnapshot(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<FlowExecution> waitingFlows = getDispatchOrder(now);
+        boolean shortestFirst = isShortestFirst();
+
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (FlowExecution fe : waitingFlows.subList(0, Math.min(Math.max(0, limit), waitingFlows.size()))) {
+            FlowDurationEstimator.Estimate estimate = flowDurationEstimator.estimateFlow(fe.getFlowId());
+            long waitedMillis = waitedMillis(fe, now);
+
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("position", entries.size() + 1);
+            entry.put("flowExecutionId", fe.getId());
+            entry.put("flowId", fe.getFlowId());
+            entry.put("flowGroupId", fe.getFlowGroup() != null ? fe.getFlowGroup().getId() : null);
+            entry.put("category", fe.getCategory());
+            entry.put("schedulingClass", fe.getSchedulingClass());
+            entry.put("waitingSeconds", waitedMillis / 1000);
+            entry.put("estimatedDurationSeconds", estimate.getMillis() / 1000);
+            entry.put("estimateSource", estimate.getSource());
+            if (shortestFirst) {
+                entry.put("score", AgedShortestFirst.score(estimate.getMillis(), waitedMillis, agingWeight));
+            }
+            entries.add(entry);
+        }
+
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("policy", getDispatchPolicy());
+        snapshot.put("agingWeight", shortestFirst ? agingWeight : null);
+        snapshot.put("fairShareEnabled", fairShareEnabled);
+        snapshot.put("maxConcurrentFlows", maxConcurrentFlows);
+        snapshot.put("running", statusCounterRegistry.countFlows(ExecutionStatus.RUNNING));
+        snapshot.put("plannedLaunches", flowLaunchPlanner.getPlannedCount());
+        snapshot.put("reservedLaunches", flowLaunchPlanner.getReservedCount());
+        snapshot.put("pending", waitingFlows.size());
+        snapshot.put("entries", entries);
+        return snapshot;
+    }
+
+    /**
+     * PENDING flows not reserved by an accepted launch, in the order the active policy dispatches them.
+     */
+    @Transactional(readOnly = true)
+    public List<FlowExecution> getDispatchOrder(LocalDateTime now) {
+        List<FlowExecution> waitingFlows = flowExecutionRepository.findByStatusOrderByCreatedAtAsc(ExecutionStatus.PENDING)
+            .stream()
+            .filter(fe -> !flowLaunchPlanner.isReserved(fe.getId()))
+            .collect(Collectors.toList());
+        return isShortestFirst() ? orderShortestFirst(waitingFlows, now) : waitingFlows;
+    }
+
+    /**
+     * Releases reservations whose flow left PENDING without being claimed, e.g. paused, cancelled
+     * or timed out. Reservations younger than one polling interval are kept: their rows may not be
+     * committed yet.
+     */
+    private void releaseStaleReservations() {
+        List<UUID> reserved = flowLaunchPlanner.getReservationsBefore(System.currentTimeMillis() - queuePollingIntervalMs);
+        if (reserved.isEmpty()) {
+            return;
+        }
+        Set<UUID> stillPending = flowExecutionRepository.findAllById(reserved).stream()
+            .filter(fe -> fe.getStatus() == ExecutionStatus.PENDING)
+            .map(FlowExecution::getId)
+            .collect(Collectors.toSet());
+        reserved.stream()
+            .filter(id -> !stillPending.contains(id))
+            .forEach(flowLaunchPlanner::release);
+    }
+
+    public String getDispatchPolicy() {
+        return isShortestFirst() ? "SEDF" : "FIFO";
+    }
+
+    public int getMaxConcurrentFlows() {
+        return maxConcurrentFlows;
+    }
+
+    private boolean isShortestFirst() {
+        return "SEDF".equalsIgnoreCase(dispatchPolicy);
+    }
+
+    /**
+     * Orders waiting flows shortest expected duration first; waiting time ages long flows forward
+     * so they cannot starve behind a steady stream of short ones.
+     */
+    private List<FlowExecution> orderShortestFirst(List<FlowExecution> waitingFlows, LocalDateTime now) {
+        Map<Long, Long> estimateByFlow = new HashMap<>();
+        for (FlowExecution fe : waitingFlows) {
+            estimateByFlow.computeIfAbsent(fe.getFlowId(), flowId -> flowDurationEstimator.estimateFlow(flowId).getMillis());
+        }
+        return AgedShortestFirst.order(waitingFlows, fe -> estimateByFlow.get(fe.getFlowId()),
+            fe -> waitedMillis(fe, now), agingWeight);
+    }
+
+    private long waitedMillis(FlowExecution fe, LocalDateTime now) {
+        LocalDateTime since = pendingSince(fe);
+        return since != null ? Math.max(0, Duration.between(since, now).toMillis()) : 0;
+    }
+
+    /**
+     * Weighted fair queuing over (tenant, scheduling class) where the tenant is the FlowGroup,
+     * or the category for flows outside a group. Running flows count towards each queue's share,
+     * so a large group run cannot hold every free slot while other tenants wait.
+     */
+    private List<FlowExecution> selectFairShare(List<FlowExecution> waitingFlows, int availableSlots) {
+        Map<String, Integer> running = new HashMap<>();
+        for (Object[] row : flowExecutionRepository.countByStatusGroupedByTenant(ExecutionStatus.RUNNING)) {
+            String tenant = tenantKey((Long) row[0], (String) row[1]);
+            boolean interactive = row[2] == SchedulingClass.INTERACTIVE;
+            running.merge(FairShareSelector.queueKey(tenant, interactive), ((Number) row[3]).intValue(), Integer::sum);
+        }
+
+        List<FairShareSelector.Candidate<FlowExecution>> candidates = waitingFlows.stream()
+            .map(fe -> new FairShareSelector.Candidate<>(fe,
+                tenantKey(fe.getFlowGroup() != null ? fe.getFlowGroup().getId() : null, fe.getCategory()),
+                fe.getSchedulingClass() == SchedulingClass.INTERACTIVE))
+            .collect(Collectors.toList());
+
+        FairShareSelector.Policy policy = new FairShareSelector.Policy(interactiveWeight, bulkWeight,
+            parseTenantWeights(tenantWeightsSpec), minInteractiveShare, tenantMaxRunning, maxConcurrentFlows);
+        return FairShareSelector.select(candidates, running, availableSlots, policy);
+    }
+
+    private static String tenantKey(Long flowGroupId, String category) {
+        if (flowGroupId != null) {
+            return "group:" + flowGroupId;
+        }
+        return "category:" + (category != null ? category : "uncategorized");
+    }
+
+    private Map<String, Double> parseTenantWeights(String spec) {
+        Map<String, Double> weights = new HashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return weights;
+        }
+        for (String pair : spec.split(",")) {
+            int separator = pair.lastIndexOf('=');
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                weights.put(pair.substring(0, separator).trim(), Double.parseDouble(pair.substring(separator + 1).trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid fair-share tenant weight '{}'", pair);
+            }
+        }
+        return weights;
+    }
+
+    private int queuePriorityOf(FlowExecution fe) {
+        return fe.getSchedulingClass() == SchedulingClass.INTERACTIVE ? interactiveQueuePriority : 0;
+    }
+
+    /**
+     * Start of the current PENDING wait. A resumed flow (PAUSED -> PENDING) has its startTime
+     * reset, so the timeout counts from the resume rather than from creation.
+     */
+    private LocalDateTime pendingSince(FlowExecution fe) {
+        if (fe.getStartTime() != null && (fe.getCreatedAt() == null || fe.getStartTime().isAfter(fe.getCreatedAt()))) {
+            return fe.getStartTime();
         }
+        return fe.getCreatedAt();
     }
 
     // -------------------------------------------------------------------------
@@ -367,7 +615,8 @@ public class FlowExecutionQueueService {
                             fe.getFlowGroup() != null ? fe.getFlowGroup().getId() : null,
                             fe.getIteration(),
                             fe.getRevolutions(),
-                            fe.getCategory()
+                            fe.getCategory(),
+                            queuePriorityOf(fe)
                         );
                         requeued++;
                     }
@@ -2,23 +2,42 @@ package com.ubs.orkestra.service;
 
 import com.ubs.orkestra.dto.*;
 import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.event.ExecutionStatusChange;
+import com.ubs.orkestra.enums.SchedulingClass;
 import com.ubs.orkestra.model.*;
 import com.ubs.orkestra.repository.*;
 import com.ubs.orkestra.util.GitLabApiClient;
 import com.ubs.orkestra.util.OutputEnvParser;
+import com.ubs.orkestra.util.ExecutionCursor;
+import com.ubs.orkestra.util.UuidV7;
+import com.ubs.orkestra.util.VariableDelta;
 import com.ubs.orkestra.config.GitLabConfig;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -31,6 +50,9 @@ public class FlowExecutionService {
 
     private static final Logger logger = LoggerFactory.getLogger(FlowExecutionService.class);
 
+    @Autowired
+    private ExecutionJournalService executionJournalService;
+
     @Autowired
     private FlowExecutionRepository flowExecutionRepository;
 
@@ -49,6 +71,18 @@ public class FlowExecutionService {
     @Autowired
     private TestDataService testDataService;
 
+    @Autowired
+    private TestDataSnapshotService testDataSnapshotService;
+
+    @Autowired
+    private VariableTemplateService variableTemplateService;
+
+    @Autowired
+    private FlowCoalescingService flowCoalescingService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     private ApplicationRepository applicationRepository;
 
@@ -73,9 +107,36 @@ public class FlowExecutionService {
     @Autowired
     private FlowExecutionQueueService flowExecutionQueueService;
 
+    @Autowired
+    private StepResultCacheService stepResultCacheService;
+
+    @Autowired
+    private SystemicFailureDetector systemicFailureDetector;
+
+    @Autowired
+    private ApplicationConcurrencyGate applicationConcurrencyGate;
+
+    @Autowired
+    private StatusCounterRegistry statusCounterRegistry;
+
+    @Autowired
+    private ExecutionTransitionService executionTransitionService;
+
+    @Autowired
+    private FlowLaunchPlanner flowLaunchPlanner;
+
     @org.springframework.beans.factory.annotation.Value("${flow-execution.max-concurrent-flows:50}")
     private int maxConcurrentFlows;
 
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.fair-share.interactive-max-flows:5}")
+    private int interactiveMaxFlows;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.bulk-create.enabled:true}")
+    private boolean bulkCreateEnabled;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.bulk-create.chunk-size:200}")
+    private int bulkCreateChunkSize;
+
     @Autowired(required = false)
     @Qualifier("flowExecutionTaskExecutor")
     private ThreadPoolTaskExecutor flowExecutionTaskExecutor;
@@ -125,12 +186,13 @@ public class FlowExecutionService {
         // Circuit breaker: count RUNNING FlowExecutions against maxConcurrentFlows.
         // Threads are now short-lived (held only for the GitLab trigger call, ~1-5 s) so
         // thread-pool metrics are no longer the right signal for capacity.
-        long runningCount = flowExecutionRepository.countByStatus(ExecutionStatus.RUNNING);
-        int remainingCapacity = (int) Math.max(0, maxConcurrentFlows - runningCount);
+        // Accepted bulk-created flows not yet claimed are still PENDING but already hold capacity.
+        long runningCount = statusCounterRegistry.countFlows(ExecutionStatus.RUNNING);
+        int remainingCapacity = (int) Math.max(0, maxConcurrentFlows - runningCount - flowLaunchPlanner.getReservedCount());
         // Keep legacy fields so the response payload structure stays unchanged.
         int activeThreads = flowExecutionTaskExecutor != null ? flowExecutionTaskExecutor.getActiveCount() : 0;
         int maxThreads = maxConcurrentFlows;
-        int queueSize = flowExecutionRepository.countByStatus(ExecutionStatus.PENDING).intValue();
+        int queueSize = (int) statusCounterRegistry.countFlows(ExecutionStatus.PENDING);
         int availableCapacity = remainingCapacity;
 
         logger.info("Concurrent-flow circuit breaker — running: {}, maxConcurrentFlows: {}, available: {}",
@@ -140,45 +202,82 @@ public class FlowExecutionService {
         // excess flows are created as PENDING (step-0 not yet triggered).
         List<FlowExecutionDto> acceptedExecutions = new ArrayList<>();
         List<FlowExecutionDto> queuedExecutions = new ArrayList<>();
+        // Duplicates of in-flight executions, when coalescing is enabled
+        List<Map<String, Object>> coalescedExecutions = new ArrayList<>();
 
-        for (int i = 0; i < flowIds.size(); i++) {
-            Long flowId = flowIds.get(i);
+        // Small ad-hoc launches are interactive; FlowGroup runs and large batches are bulk
+        SchedulingClass schedulingClass = flowGroupId == null && flowIds.size() <= interactiveMaxFlows
+                ? SchedulingClass.INTERACTIVE : SchedulingClass.BULK;
 
-            try {
-                boolean createAsPending = remainingCapacity <= 0;
-                FlowExecutionDto executionDto = createFlowExecution(
-                    flowId, flowGroupId, iteration, revolutions, category, createAsPending);
-
-                if (!createAsPending) {
-                    remainingCapacity--;
-                    acceptedExecutions.add(executionDto);
-                    logger.info("Flow {} accepted for immediate execution with ID: {}", flowId, executionDto.getId());
-                } else {
-                    queuedExecutions.add(executionDto);
-                    logger.info("Flow {} created as PENDING with ID: {} (max concurrent flows reached)",
-                               flowId, executionDto.getId());
+        if (bulkCreateEnabled) {
+            createFlowExecutionsInBulk(flowIds, flowGroupId, iteration, revolutions, category, schedulingClass,
+                                       remainingCapacity, acceptedExecutions, queuedExecutions, coalescedExecutions);
+        } else {
+            for (int i = 0; i < flowIds.size(); i++) {
+                Long flowId = flowIds.get(i);
+
+                UUID flowExecutionId = UuidV7.generate();
+                String coalescingKey = flowCoalescingService.isEnabled()
+                        ? flowCoalescingService.keyFor(flowId, category) : null;
+                if (coalescingKey != null) {
+                    UUID inFlight = flowCoalescingService.claim(coalescingKey, flowExecutionId);
+                    if (inFlight != null) {
+                        coalescedExecutions.add(coalescedExecution(flowId, inFlight));
+                        logger.info("Flow {} coalesced into in-flight execution {}", flowId, inFlight);
+                        continue;
+                    }
+                }
+
+                boolean created = false;
+                try {
+                    boolean createAsPending = remainingCapacity <= 0;
+                    FlowExecutionDto executionDto = createFlowExecution(
+                        flowId, flowGroupId, iteration, revolutions, category, schedulingClass, createAsPending,
+                        flowExecutionId, coalescingKey);
+                    created = true;
+
+                    if (!createAsPending) {
+                        remainingCapacity--;
+                        acceptedExecutions.add(executionDto);
+                        logger.info("Flow {} accepted for immediate execution with ID: {}", flowId, executionDto.getId());
+                    } else {
+                        queuedExecutions.add(executionDto);
+                        logger.info("Flow {} created as PENDING with ID: {} (max concurrent flows reached)",
+                                   flowId, executionDto.getId());
+                    }
+                } catch (IllegalArgumentException e) {
+                    logger.error("Flow {} rejected during creation: {}", flowId, e.getMessage());
+                    Map<String, Object> rejectedFlow = new HashMap<>();
+                    rejectedFlow.put("flowId", flowId);
+                    rejectedFlow.put("status", "rejected");
+                    rejectedFlow.put("reason", "flow_not_found");
+                    rejectedFlow.put("message", e.getMessage());
+                } finally {
+                    // A failed creation must not leave its key claimed for later launches
+                    if (!created) {
+                        flowCoalescingService.release(coalescingKey, flowExecutionId);
+                    }
                 }
-            } catch (IllegalArgumentException e) {
-                logger.error("Flow {} rejected during creation: {}", flowId, e.getMessage());
-                Map<String, Object> rejectedFlow = new HashMap<>();
-                rejectedFlow.put("flowId", flowId);
-                rejectedFlow.put("status", "rejected");
-                rejectedFlow.put("reason", "flow_not_found");
-                rejectedFlow.put("message", e.getMessage());
             }
         }
 
-        long totalQueued = flowExecutionRepository.countByStatus(ExecutionStatus.PENDING);
+        long totalQueued = statusCounterRegistry.countFlows(ExecutionStatus.PENDING);
+        if (bulkCreateEnabled) {
+            // Bulk-created accepted flows stay PENDING until their dispatch claims them
+            totalQueued = Math.max(0, totalQueued - acceptedExecutions.size());
+        }
         
         Map<String, Object> result = new HashMap<>();
         result.put("summary", Map.of(
             "total_requested", flowIds.size(),
             "accepted", acceptedExecutions.size(),
             "queued", queuedExecutions.size(),
+            "coalesced", coalescedExecutions.size(),
             "total_queued_in_system", totalQueued
         ));
         result.put("accepted", acceptedExecutions);
         result.put("queued", queuedExecutions);
+        result.put("coalesced", coalescedExecutions);
         result.put("thread_pool_status", Map.of(
             "active_threads", activeThreads,
             "max_threads", maxThreads,
@@ -187,11 +286,19 @@ public class FlowExecutionService {
             "database_queue_size", totalQueued
         ));
 
-        logger.info("Multiple flow execution request processed - Accepted: {}, Queued: {}, Total in DB queue: {}", 
-                   acceptedExecutions.size(), queuedExecutions.size(), totalQueued);
+        logger.info("Multiple flow execution request processed - Accepted: {}, Queued: {}, Coalesced: {}, Total in DB queue: {}",
+                   acceptedExecutions.size(), queuedExecutions.size(), coalescedExecutions.size(), totalQueued);
         return result;
     }
 
+    private static Map<String, Object> coalescedExecution(Long flowId, UUID flowExecutionId) {
+        Map<String, Object> coalesced = new HashMap<>();
+        coalesced.put("flowId", flowId);
+        coalesced.put("flowExecutionId", flowExecutionId);
+        coalesced.put("status", "coalesced");
+        return coalesced;
+    }
+
 
     public Page<FlowExecutionDto> searchExecutionsByFlowIds(String flowIdsParam, String term, Pageable pageable) {
         logger.debug("Searching executions for multiple flows: {} with term '{}'", flowIdsParam, term);
@@ -259,6 +366,96 @@ public class FlowExecutionService {
         return new PageImpl<>(executionDtos, pageable, executionsPage.getTotalElements());
     }
 
+    /**
+     * Filter of the flow execution listing: all given filters combined.
+     */
+    public Specification<FlowExecution> listingFilter(String flowIdsParam, String search, String flowGroupName,
+                                                      Integer iteration) {
+        Specification<FlowExecution> filter = FlowExecutionSpecification.withFilters(
+                null, null, null, flowGroupName, iteration, null, null);
+        if (flowIdsParam != null && !flowIdsParam.trim().isEmpty()) {
+            filter = filter.and(FlowExecutionSpecification.withFlowIds(parseAndValidateFlowIds(flowIdsParam)));
+        }
+        if (search != null && !search.trim().isEmpty()) {
+            filter = filter.and(FlowExecutionSpecification.matchingTerm(search.trim()));
+        }
+        return filter;
+    }
+
+    /**
+     * Filter of the advanced flow execution search.
+     */
+    public Specification<FlowExecution> searchFilter(UUID executionId, Long flowId, String flowGroupName, Long flowGroupId,
+                                                     Integer iteration, LocalDateTime fromDate, LocalDateTime toDate) {
+        return FlowExecutionSpecification.withFilters(executionId, flowId, flowGroupId, flowGroupName, iteration,
+                                                      fromDate, toDate);
+    }
+
+    /**
+     * Keyset page of flow executions in (createdAt, id) order: the rows after {@code cursor}, or
+     * the first rows for an empty cursor. Every page costs one index range scan and no count.
+     */
+    public Map<String, Object> getFlowExecutionsByCursor(Specification<FlowExecution> filter, String cursor,
+                                                         int size, Sort.Direction direction) {
+        validatePageSize(size);
+        Specification<FlowExecution> spec = filter;
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(FlowExecutionSpecification.after(ExecutionCursor.decode(cursor.trim()), direction));
+        }
+        Sort sort = Sort.by(direction, "createdAt").and(Sort.by(direction, "id"));
+        List<FlowExecution> rows = fetchFlowExecutions(spec, sort, 0, size + 1);
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("content", rows.stream().map(this::convertToDtoWithDetails).collect(Collectors.toList()));
+        result.put("size", size);
+        result.put("numberOfElements", rows.size());
+        result.put("hasNext", hasNext);
+        FlowExecution last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        result.put("nextCursor", hasNext ? new ExecutionCursor(last.getCreatedAt(), last.getId()).encode() : null);
+        return result;
+    }
+
+    /**
+     * Offset page of flow executions without the total count query.
+     */
+    public Slice<FlowExecutionDto> getFlowExecutionsSlice(Specification<FlowExecution> filter, Pageable pageable) {
+        validatePageSize(pageable.getPageSize());
+        // Tie-break on id so rows with equal sort values keep a stable order across pages
+        Sort sort = pageable.getSort().and(Sort.by(Sort.Direction.DESC, "id"));
+        List<FlowExecution> rows = fetchFlowExecutions(filter, sort, pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        if (hasNext) {
+            rows = rows.subList(0, pageable.getPageSize());
+        }
+        List<FlowExecutionDto> dtos = rows.stream().map(this::convertToDtoWithDetails).collect(Collectors.toList());
+        return new SliceImpl<>(dtos, pageable, hasNext);
+    }
+
+    private List<FlowExecution> fetchFlowExecutions(Specification<FlowExecution> spec, Sort sort, long offset, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<FlowExecution> query = criteriaBuilder.createQuery(FlowExecution.class);
+        Root<FlowExecution> root = query.from(FlowExecution.class);
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static void validatePageSize(int size) {
+        if (size < 1 || size > 1000) {
+            throw new IllegalArgumentException("Page size must be between 1 and 1000");
+        }
+    }
+
     private List<Long> parseAndValidateFlowIds(String flowIdsParam) {
         if (flowIdsParam == null || flowIdsParam.trim().isEmpty()) {
             throw new IllegalArgumentException("Flow IDs parameter cannot be empty");
@@ -298,7 +495,8 @@ public class FlowExecutionService {
     }
 
     public FlowExecutionDto createFlowExecution(Long flowId, Long flowGroupId, Integer iteration, Integer revolutions, String category) {
-        return createFlowExecution(flowId, flowGroupId, iteration, revolutions, category, false);
+        SchedulingClass schedulingClass = flowGroupId == null ? SchedulingClass.INTERACTIVE : SchedulingClass.BULK;
+        return createFlowExecution(flowId, flowGroupId, iteration, revolutions, category, schedulingClass, false);
     }
 
     /**
@@ -308,7 +506,19 @@ public class FlowExecutionService {
      */
     private FlowExecutionDto createFlowExecution(Long flowId, Long flowGroupId, Integer iteration,
                                                   Integer revolutions, String category,
-                                                  boolean createAsPending) {
+                                                  SchedulingClass schedulingClass, boolean createAsPending) {
+        return createFlowExecution(flowId, flowGroupId, iteration, revolutions, category, schedulingClass,
+                                   createAsPending, null, null);
+    }
+
+    /**
+     * @param flowExecutionId id of the new execution, or null to generate one
+     * @param coalescingKey   key claimed for the execution in {@link FlowCoalescingService}, or null
+     */
+    private FlowExecutionDto createFlowExecution(Long flowId, Long flowGroupId, Integer iteration,
+                                                  Integer revolutions, String category,
+                                                  SchedulingClass schedulingClass, boolean createAsPending,
+                                                  UUID flowExecutionId, String coalescingKey) {
         logger.info("Creating flow execution for flow ID: {} (pending={})", flowId, createAsPending);
 
         Flow flow = flowRepository.findById(flowId)
@@ -316,6 +526,10 @@ public class FlowExecutionService {
 
         // Create flow execution record
         FlowExecution flowExecution = new FlowExecution(flowId, new HashMap<>());
+        if (flowExecutionId != null) {
+            flowExecution.setId(flowExecutionId);
+        }
+        flowExecution.setCoalescingKey(coalescingKey);
         if (createAsPending) {
             // Override the default RUNNING status — step-0 will be triggered later
             flowExecution.setStatus(ExecutionStatus.PENDING);
@@ -333,76 +547,40 @@ public class FlowExecutionService {
         if (category != null) {
             flowExecution.setCategory(category);
         }
+        flowExecution.setSchedulingClass(schedulingClass);
         flowExecution = flowExecutionRepository.save(flowExecution);
 
-        // Pre-create placeholder PipelineExecution records for immediate visibility
+        // Step records are created when a step is scheduled or triggered; until then the read
+        // paths synthesize them from the flow definition
         List<Long> stepIds = flow.getFlowStepIds();
-        List<PipelineExecution> pipelineExecutions = new ArrayList<>();
-
-        for (int i = 0; i < stepIds.size(); i++) {
-            Long stepId = stepIds.get(i);
-            FlowStep step = flowStepRepository.findById(stepId)
-                    .orElseThrow(() -> new IllegalArgumentException("Flow step not found with ID: " + stepId));
-
-            PipelineExecution placeholder = new PipelineExecution();
-            placeholder.setFlowId(flowId);
-            placeholder.setFlowExecutionId(flowExecution.getId());
-            placeholder.setFlowStepId(stepId);
-            // Pre-populate configured test data so clients can see inputs early
-            placeholder.setConfiguredTestData(testDataService.mergeTestDataByIds(step.getTestDataIds()));
-            placeholder.setRuntimeTestData(null);
-
-            if (i == 0) {
-                // PENDING flows: park step-0 as SCHEDULED; FlowExecutionQueueService will start it later
-                if (createAsPending) {
-                    placeholder.setStatus(ExecutionStatus.SCHEDULED);
-                    placeholder.setStartTime(null);
-                    pipelineExecutionTxService.saveNew(placeholder);
-                    pipelineExecutions.add(placeholder);
-                // Check if the first step has a scheduler/delay
-                } else if (step.getInvokeScheduler() != null) {
-                    // First step is scheduled or delayed - calculate resume time and schedule it
-                    LocalDateTime previousStepEndTime = flowExecution.getStartTime() != null ? flowExecution.getStartTime() : LocalDateTime.now();
-                    LocalDateTime resumeTime = schedulingService.calculateResumeTime(previousStepEndTime, step.getInvokeScheduler());
-
-                    if (resumeTime != null) {
-                        logger.info("First step {} has invokeScheduler, scheduling for execution at: {}", stepId, resumeTime);
-                        placeholder.setStatus(ExecutionStatus.SCHEDULED);
-                        placeholder.setResumeTime(resumeTime);
-                        placeholder.setStartTime(null);
-                        pipelineExecutionTxService.saveNew(placeholder);
-                        pipelineExecutions.add(placeholder);
-                    } else {
-                        logger.warn("Failed to calculate resume time for first step {} with invokeScheduler, executing immediately", stepId);
-                        PipelineExecution firstPipeline = triggerPipelineAsynchronously(flowExecution, step, placeholder);
-                        pipelineExecutions.add(firstPipeline);
-                    }
+        Map<Long, FlowStep> stepsById = flowStepRepository.findByIdIn(stepIds).stream()
+                .collect(Collectors.toMap(FlowStep::getId, step -> step));
+        for (Long stepId : stepIds) {
+            if (!stepsById.containsKey(stepId)) {
+                throw new IllegalArgumentException("Flow step not found with ID: " + stepId);
+            }
+        }
+
+        // PENDING flows: step-0 is started later by FlowExecutionQueueService
+        if (!createAsPending && !stepIds.isEmpty()) {
+            FlowStep step = stepsById.get(stepIds.get(0));
+            // Check if the first step has a scheduler/delay
+            if (step.getInvokeScheduler() != null) {
+                // First step is scheduled or delayed - calculate resume time and schedule it
+                LocalDateTime previousStepEndTime = flowExecution.getStartTime() != null ? flowExecution.getStartTime() : LocalDateTime.now();
+                LocalDateTime resumeTime = schedulingService.calculateResumeTime(previousStepEndTime, step.getInvokeScheduler());
+
+                if (resumeTime != null) {
+                    logger.info("First step {} has invokeScheduler, scheduling for execution at: {}", step.getId(), resumeTime);
+                    schedulingService.schedulePipelineExecution(materializeStepRecord(flowExecution, step), resumeTime);
                 } else {
-                    // First step has no scheduler - trigger immediately
-                    logger.info("Triggering first pipeline asynchronously for step: {}", stepId);
-                    PipelineExecution firstPipeline = triggerPipelineAsynchronously(flowExecution, step, placeholder);
-                    pipelineExecutions.add(firstPipeline);
+                    logger.warn("Failed to calculate resume time for first step {} with invokeScheduler, executing immediately", step.getId());
+                    triggerPipelineAsynchronously(flowExecution, step, materializeStepRecord(flowExecution, step));
                 }
             } else {
-                // Check if this subsequent step has a scheduler/delay
-                if (step.getInvokeScheduler() != null) {
-                    // For subsequent scheduled steps, we can't calculate exact resumeTime yet
-                    // because we don't know when the previous step will complete.
-                    // We'll set status=PENDING (not SCHEDULED) so the scheduler won't pick it up yet.
-                    // executeFlowAsync will calculate the actual resumeTime when it reaches this step.
-                    logger.info("Subsequent step {} has invokeScheduler, will be scheduled when execution reaches it", stepId);
-                    placeholder.setStatus(ExecutionStatus.PENDING);
-                    placeholder.setResumeTime(null);
-                    placeholder.setStartTime(null);
-                    pipelineExecutionTxService.saveNew(placeholder);
-                    pipelineExecutions.add(placeholder);
-                } else {
-                    // Create placeholder for subsequent steps without scheduler
-                    placeholder.setStatus(ExecutionStatus.SCHEDULED);
-                    placeholder.setStartTime(null);
-                    pipelineExecutionTxService.saveNew(placeholder);
-                    pipelineExecutions.add(placeholder);
-                }
+                // First step has no scheduler - trigger immediately
+                logger.info("Triggering first pipeline asynchronously for step: {}", step.getId());
+                triggerPipelineAsynchronously(flowExecution, step, materializeStepRecord(flowExecution, step));
             }
         }
 
@@ -410,6 +588,178 @@ public class FlowExecutionService {
         return convertToDtoWithDetails(flowExecution);
     }
 
+    /**
+     * Bulk variant of {@link #createFlowExecution} used by executeMultipleFlows / executeFlowGroup.
+     *
+     * <p>All Flow, FlowStep and TestData definitions are preloaded with IN queries, and every
+     * execution is created as PENDING; its step records are only materialised once it starts. Rows
+     * are written in chunks of {@code bulk-create.chunk-size}, each chunk in its own JDBC-batched
+     * transaction. The first {@code capacity} flows are returned as accepted; callers dispatch them
+     * through {@link #executeFlowAsync}, which triggers step-0 exactly like a queued flow. Accepted
+     * flows are reserved in the {@link FlowLaunchPlanner} before their chunk commits, so neither the
+     * PENDING queue processor nor a concurrent launch hands their slots to other flows.
+     */
+    private void createFlowExecutionsInBulk(List<Long> flowIds, Long flowGroupId, Integer iteration,
+                                            Integer revolutions, String category,
+                                            SchedulingClass schedulingClass, int capacity,
+                                            List<FlowExecutionDto> acceptedExecutions,
+                                            List<FlowExecutionDto> queuedExecutions,
+                                            List<Map<String, Object>> coalescedExecutions) {
+        long started = System.currentTimeMillis();
+
+        Map<Long, Flow> flowsById = flowRepository.findAllById(new LinkedHashSet<>(flowIds)).stream()
+                .collect(Collectors.toMap(Flow::getId, flow -> flow));
+
+        FlowGroup flowGroup = null;
+        if (flowGroupId != null) {
+            flowGroup = flowGroupRepository.findById(flowGroupId)
+                    .orElseThrow(() -> new IllegalArgumentException("FlowGroup not found with ID: " + flowGroupId));
+        }
+
+        Set<Long> stepIds = new LinkedHashSet<>();
+        flowsById.values().forEach(flow -> stepIds.addAll(flow.getFlowStepIds()));
+        Map<Long, FlowStep> stepsById = stepIds.isEmpty() ? new HashMap<>()
+                : flowStepRepository.findByIdIn(new ArrayList<>(stepIds)).stream()
+                    .collect(Collectors.toMap(FlowStep::getId, step -> step));
+
+        Set<Long> testDataIds = new HashSet<>();
+        stepsById.values().forEach(step -> {
+            if (step.getTestDataIds() != null) {
+                testDataIds.addAll(step.getTestDataIds());
+            }
+        });
+        Map<Long, TestData> testDataById = testDataService.loadTestDataByIds(testDataIds);
+        Map<Long, Map<String, String>> configuredTestDataByStep = new HashMap<>();
+        stepsById.values().forEach(step -> configuredTestDataByStep.put(step.getId(),
+                testDataService.mergeTestData(step.getTestDataIds(), testDataById)));
+
+        List<FlowExecution> flowExecutions = new ArrayList<>();
+        Set<UUID> reservedIds = new HashSet<>();
+
+        for (Long flowId : flowIds) {
+            Flow flow = flowsById.get(flowId);
+            if (flow == null) {
+                logger.error("Flow {} rejected during creation: Flow not found with ID: {}", flowId, flowId);
+                continue;
+            }
+            Optional<Long> missingStep = flow.getFlowStepIds().stream()
+                    .filter(stepId -> !stepsById.containsKey(stepId))
+                    .findFirst();
+            if (missingStep.isPresent()) {
+                logger.error("Flow {} rejected during creation: Flow step not found with ID: {}", flowId, missingStep.get());
+                continue;
+            }
+
+            FlowExecution flowExecution = new FlowExecution(flowId, new HashMap<>());
+            flowExecution.setStatus(ExecutionStatus.PENDING);
+            flowExecution.setFlowGroup(flowGroup);
+            if (iteration != null) {
+                flowExecution.setIteration(iteration);
+            }
+            if (revolutions != null) {
+                flowExecution.setRevolutions(revolutions);
+            }
+            if (category != null) {
+                flowExecution.setCategory(category);
+            }
+            flowExecution.setSchedulingClass(schedulingClass);
+
+            if (flowCoalescingService.isEnabled()) {
+                String coalescingKey = flowCoalescingService.keyFor(flow, category, configuredTestDataByStep);
+                UUID inFlight = flowCoalescingService.claim(coalescingKey, flowExecution.getId());
+                if (inFlight != null) {
+                    coalescedExecutions.add(coalescedExecution(flowId, inFlight));
+                    logger.info("Flow {} coalesced into in-flight execution {}", flowId, inFlight);
+                    continue;
+                }
+                flowExecution.setCoalescingKey(coalescingKey);
+            }
+            if (flowExecutions.size() < capacity) {
+                flowLaunchPlanner.reserve(flowExecution.getId());
+                reservedIds.add(flowExecution.getId());
+            }
+            flowExecutions.add(flowExecution);
+
+        }
+
+        int chunkSize = Math.max(1, bulkCreateChunkSize);
+        List<FlowExecution> created = new ArrayList<>(flowExecutions.size());
+        try {
+            for (int from = 0; from < flowExecutions.size(); from += chunkSize) {
+                List<FlowExecution> chunk = flowExecutions.subList(from, Math.min(from + chunkSize, flowExecutions.size()));
+                try {
+                    pipelineExecutionTxService.saveNewChunk(chunk);
+                    created.addAll(chunk);
+                } catch (DataIntegrityViolationException e) {
+                    if (!flowCoalescingService.isEnabled()) {
+                        throw e;
+                    }
+                    // Another instance claimed a coalescing key of this chunk: save row by row
+                    saveChunkCoalescing(chunk, created, coalescedExecutions);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Rows of earlier chunks stay PENDING and are started by the queue processor
+            reservedIds.forEach(flowLaunchPlanner::release);
+            Set<UUID> savedIds = created.stream().map(FlowExecution::getId).collect(Collectors.toSet());
+            flowExecutions.stream().filter(fe -> !savedIds.contains(fe.getId()))
+                    .forEach(fe -> flowCoalescingService.release(fe.getCoalescingKey(), fe.getId()));
+            throw e;
+        }
+        // Flows coalesced while saving were never created; the accepted ones are those reserved above
+        Set<UUID> createdIds = created.stream().map(FlowExecution::getId).collect(Collectors.toSet());
+        reservedIds.stream().filter(id -> !createdIds.contains(id)).forEach(flowLaunchPlanner::release);
+        flowExecutions = created;
+
+        for (int i = 0; i < flowExecutions.size(); i++) {
+            FlowExecution flowExecution = flowExecutions.get(i);
+            Flow flow = flowsById.get(flowExecution.getFlowId());
+            FlowExecutionDto dto = convertToDto(flowExecution);
+            List<FlowStep> flowSteps = flow.getFlowStepIds().stream().map(stepsById::get).collect(Collectors.toList());
+            dto.setFlow(convertFlowToDto(flow));
+            dto.setFlowSteps(flowSteps.stream().map(this::convertFlowStepToDto).collect(Collectors.toList()));
+            dto.setApplications(flowSteps.stream().map(FlowStep::getApplication).distinct()
+                    .map(this::convertApplicationToDto).collect(Collectors.toList()));
+            List<PipelineExecutionDto> virtualSteps = new ArrayList<>();
+            for (int step = 0; step < flowSteps.size(); step++) {
+                virtualSteps.add(virtualPipelineExecutionDto(flowExecution, flowSteps.get(step), step,
+                        configuredTestDataByStep.get(flowSteps.get(step).getId())));
+            }
+            dto.setPipelineExecutions(virtualSteps);
+
+            if (reservedIds.contains(flowExecution.getId())) {
+                acceptedExecutions.add(dto);
+            } else {
+                queuedExecutions.add(dto);
+            }
+        }
+
+        logger.info("Bulk-created {} flow executions ({} accepted, {} queued) in {} ms",
+                   flowExecutions.size(), acceptedExecutions.size(), queuedExecutions.size(),
+                   System.currentTimeMillis() - started);
+    }
+
+    private void saveChunkCoalescing(List<FlowExecution> chunk, List<FlowExecution> created,
+                                     List<Map<String, Object>> coalescedExecutions) {
+        for (FlowExecution flowExecution : chunk) {
+            try {
+                pipelineExecutionTxService.saveNewChunk(List.of(flowExecution));
+                created.add(flowExecution);
+            } catch (DataIntegrityViolationException e) {
+                String coalescingKey = flowExecution.getCoalescingKey();
+                flowCoalescingService.release(coalescingKey, flowExecution.getId());
+                UUID inFlight = coalescingKey != null
+                        ? flowCoalescingService.holderInDatabase(coalescingKey).orElse(null) : null;
+                if (inFlight == null) {
+                    throw e;
+                }
+                coalescedExecutions.add(coalescedExecution(flowExecution.getFlowId(), inFlight));
+                logger.info("Flow {} coalesced into in-flight execution {} of another instance",
+                           flowExecution.getFlowId(), inFlight);
+            }
+        }
+    }
+
     /**
      * Trigger the first pipeline and return immediately once we have pipelineId/pipelineUrl
      * Completion polling happens asynchronously
@@ -435,7 +785,25 @@ public class FlowExecutionService {
             logger.debug("Added EXECUTION_UUID '{}' and APP_NAME '{}' to pipeline variables for first step {}",
                         flowExecution.getId(), application.getApplicationName(), step.getId());
 
+            // Resolve ${...} references in the step's test data
+            variableTemplateService.render(flowExecution, pipelineExecution, pipelineVariables);
+
+            // Reuse a memoized PASSED outcome instead of triggering a new pipeline
+            if (completeFromStepCache(flowExecution, step, pipelineExecution, pipelineVariables)) {
+                return pipelineExecution;
+            }
+
+            // Application at its pipeline limit: wait in its FIFO queue, released by ApplicationConcurrencyGate
+            if (!applicationConcurrencyGate.tryAdmit(application, pipelineExecution)) {
+                logger.info("Application {} is at its pipeline limit, step {} waits for capacity",
+                           application.getId(), step.getId());
+                applicationConcurrencyGate.markWaiting(pipelineExecution,
+                        VariableDelta.diff(pipelineExecution.getConfiguredTestData(), pipelineVariables));
+                return pipelineExecution;
+            }
+
             // Save the pipeline execution record first
+            pipelineExecution.setAwaitingCapacitySince(null);
             pipelineExecution.setStatus(ExecutionStatus.RUNNING);
             pipelineExecution.setStartTime(LocalDateTime.now());
             pipelineExecution = pipelineExecutionRepository.save(pipelineExecution);
@@ -551,14 +919,43 @@ public class FlowExecutionService {
             logger.error("executeFlowAsync error for {}: {}", flowExecutionId, e.getMessage(), e);
             throw new RuntimeException(e);
         } finally {
+            releaseReservation(flowExecutionId);
             org.slf4j.MDC.remove("flowExecutionId");
         }
     }
 
+    /**
+     * Releases the capacity reserved for an accepted flow once the dispatch transaction completes;
+     * after commit a claimed flow is counted as RUNNING.
+     */
+    private void releaseReservation(UUID flowExecutionId) {
+        if (!flowLaunchPlanner.isReserved(flowExecutionId)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    flowLaunchPlanner.release(flowExecutionId);
+                }
+            });
+        } else {
+            flowLaunchPlanner.release(flowExecutionId);
+        }
+    }
+
     /**
      * Transitions a PENDING FlowExecution to RUNNING and triggers its step-0 pipeline.
      */
     private void startPendingFlowExecution(FlowExecution flowExecution) {
+        // Claim the row first: an accepted bulk-created flow can be dispatched by its caller and
+        // by the PENDING queue processor at the same time, and only one of them may trigger step-0
+        if (flowExecutionRepository.transitionStatus(flowExecution.getId(), ExecutionStatus.PENDING, ExecutionStatus.RUNNING) == 0) {
+            logger.info("startPendingFlowExecution: flow execution {} already claimed", flowExecution.getId());
+            return;
+        }
+        flowExecution.setStatus(ExecutionStatus.RUNNING);
+
         try {
             Flow flow = flowRepository.findById(flowExecution.getFlowId()).orElse(null);
             if (flow == null || flow.getFlowStepIds().isEmpty()) {
@@ -571,6 +968,14 @@ public class FlowExecutionService {
             flowExecution.setStatus(ExecutionStatus.RUNNING);
             flowExecution = flowExecutionRepository.save(flowExecution);
 
+            // A bulk replay waits as PENDING and restarts at its first unfinished step
+            boolean replay = flowExecution.getReplayCount() != null && flowExecution.getReplayCount() > 0;
+            int startIndex = replay ? firstUnfinishedStepIndex(flowExecution.getId(), flow) : 0;
+            if (startIndex > 0) {
+                startReplayAtStep(flowExecution, flow.getFlowStepIds().get(startIndex));
+                return;
+            }
+
             Long step0Id = flow.getFlowStepIds().get(0);
             FlowStep step0 = flowStepRepository.findById(step0Id).orElse(null);
             if (step0 == null) {
@@ -585,11 +990,7 @@ public class FlowExecutionService {
                 LocalDateTime base = flowExecution.getStartTime() != null ? flowExecution.getStartTime() : LocalDateTime.now();
                 LocalDateTime resumeTime = schedulingService.calculateResumeTime(base, step0.getInvokeScheduler());
                 if (resumeTime != null) {
-                    PipelineExecution pe = pipelineExecutionRepository
-                        .findByFlowExecutionIdAndFlowStepId(flowExecution.getId(), step0Id).orElse(null);
-                    if (pe != null) {
-                        schedulingService.schedulePipelineExecution(pe, resumeTime);
-                    }
+                    schedulingService.schedulePipelineExecution(materializeStepRecord(flowExecution, step0), resumeTime);
                     return;
                 }
             }
@@ -605,6 +1006,35 @@ public class FlowExecutionService {
         }
     }
 
+    private int firstUnfinishedStepIndex(UUID flowExecutionId, Flow flow) {
+        Map<Long, ExecutionStatus> stepStatus = new HashMap<>();
+        pipelineExecutionRepository.findByFlowExecutionIdOrderByCreatedAt(flowExecutionId)
+            .forEach(pe -> stepStatus.putIfAbsent(pe.getFlowStepId(), pe.getStatus()));
+        for (int i = 0; i < flow.getFlowStepIds().size(); i++) {
+            if (stepStatus.get(flow.getFlowStepIds().get(i)) != ExecutionStatus.PASSED) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    // Same start as executeReplayFlowAsync: the failed step is triggered right away with the carried variables
+    private void startReplayAtStep(FlowExecution flowExecution, Long stepId) {
+        FlowStep step = flowStepRepository.findById(stepId).orElse(null);
+        if (step == null) {
+            flowExecution.setStatus(ExecutionStatus.FAILED);
+            flowExecution.setEndTime(LocalDateTime.now());
+            flowExecutionRepository.save(flowExecution);
+            return;
+        }
+        Map<String, String> pipelineVars = new HashMap<>(testDataService.mergeTestDataByIds(step.getTestDataIds()));
+        if (flowExecution.getRuntimeVariables() != null) {
+            pipelineVars.putAll(flowExecution.getRuntimeVariables());
+        }
+        logger.info("startPendingFlowExecution: replay of flow execution {} starts at step {}", flowExecution.getId(), stepId);
+        triggerAndRegisterStep(flowExecution, step, pipelineVars);
+    }
+
     /**
      * State-machine driver called by {@link PipelineStatusPollingService#triggerFlowContinuation}
      * whenever a pipeline finishes.  Accumulates runtime variables, determines the next step,
@@ -642,11 +1072,24 @@ public class FlowExecutionService {
             PipelineExecution completedPipeline = pipelineExecutionRepository
                 .findByFlowExecutionIdAndFlowStepId(flowExecutionId, completedStepId).orElse(null);
 
-            // Merge accumulated runtime variables: FlowExecution base + completed step output
+            // Feed the systemic-failure detector for FlowGroup runs
+            if (completedPipeline != null) {
+                testDataSnapshotService.resolve(completedPipeline);
+                try {
+                    systemicFailureDetector.recordStepOutcome(flowExecution, completedStepId, completedPipeline.getStatus());
+                } catch (Exception e) {
+                    // Detection is best-effort and must never break flow advancement
+                    logger.error("Failure detector error for flow execution {} at step {}: {}",
+                                flowExecutionId, completedStepId, e.getMessage(), e);
+                }
+            }
+
+            // Merge accumulated runtime variables: FlowExecution base + full view of the completed step
             Map<String, String> accumulatedVars = new HashMap<>(
                 flowExecution.getRuntimeVariables() != null ? flowExecution.getRuntimeVariables() : Collections.emptyMap());
             if (completedPipeline != null && completedPipeline.getRuntimeTestData() != null) {
-                accumulatedVars.putAll(completedPipeline.getRuntimeTestData());
+                accumulatedVars.putAll(VariableDelta.apply(completedPipeline.getConfiguredTestData(),
+                        completedPipeline.getRuntimeTestData()));
             }
 
             // If the completed step failed, mark the whole flow as failed
@@ -693,13 +1136,8 @@ public class FlowExecutionService {
             if (nextStep.getInvokeScheduler() != null) {
                 LocalDateTime resumeTime = schedulingService.calculateResumeTime(previousStepEndTime, nextStep.getInvokeScheduler());
                 if (resumeTime != null) {
-                    PipelineExecution nextPipeline = pipelineExecutionRepository
-                        .findByFlowExecutionIdAndFlowStepId(flowExecutionId, nextStepId).orElse(null);
-                    if (nextPipeline != null) {
-                        // Persist accumulated variables so resumeFlowExecution can read them
-                        nextPipeline.setRuntimeTestData(new HashMap<>(accumulatedVars));
-                        schedulingService.schedulePipelineExecution(nextPipeline, resumeTime);
-                    }
+                    // resumeFlowExecution reads the accumulated variables from the flow execution
+                    schedulingService.schedulePipelineExecution(materializeStepRecord(flowExecution, nextStep), resumeTime);
                     logger.info("advanceFlowToNextStep: flow {} paused at scheduled step {} (resume at {})",
                                flowExecutionId, nextStepId, resumeTime);
                     return;
@@ -739,13 +1177,7 @@ public class FlowExecutionService {
     private void triggerAndRegisterStep(FlowExecution flowExecution, FlowStep step, Map<String, String> pipelineVars) {
         logger.info("triggerAndRegisterStep: flow={} step={}", flowExecution.getId(), step.getId());
 
-        PipelineExecution pe = pipelineExecutionRepository
-            .findByFlowExecutionIdAndFlowStepId(flowExecution.getId(), step.getId()).orElse(null);
-        if (pe == null) {
-            logger.error("triggerAndRegisterStep: pipeline execution record not found for flow {} step {}",
-                        flowExecution.getId(), step.getId());
-            return;
-        }
+        PipelineExecution pe = materializeStepRecord(flowExecution, step);
 
         // Merge variables: pipeline vars + system vars + FLOW_EXECUTION_ID for webhook correlation
         Map<String, String> mergedVars = new HashMap<>(pipelineVars);
@@ -756,7 +1188,24 @@ public class FlowExecutionService {
         mergedVars.put("APP_NAME", step.getApplication().getApplicationName());
         // Inject FlowExecutionId as a GitLab variable - this will be returned in the webhook
         mergedVars.put("FLOW_EXECUTION_ID", flowExecution.getId().toString());
+        // Resolve ${...} references in the step's test data against the accumulated variables
+        variableTemplateService.render(flowExecution, pe, mergedVars);
+
+        // Reuse a memoized PASSED outcome instead of triggering a new pipeline
+        if (completeFromStepCache(flowExecution, step, pe, mergedVars)) {
+            return;
+        }
 
+        // Application at its pipeline limit: wait in its FIFO queue, released by ApplicationConcurrencyGate
+        if (!applicationConcurrencyGate.tryAdmit(step.getApplication(), pe)) {
+            logger.info("triggerAndRegisterStep: application {} is at its pipeline limit, step {} waits for capacity",
+                       step.getApplication().getId(), step.getId());
+            applicationConcurrencyGate.markWaiting(pe, VariableDelta.diff(
+                    VariableDelta.apply(pe.getConfiguredTestData(), flowExecution.getRuntimeVariables()), pipelineVars));
+            return;
+        }
+
+        pe.setAwaitingCapacitySince(null);
         pe.setStatus(ExecutionStatus.RUNNING);
         pe.setStartTime(LocalDateTime.now());
         pe = pipelineExecutionRepository.save(pe);
@@ -807,6 +1256,58 @@ public class FlowExecutionService {
         }
     }
 
+    /**
+     * Completes the step from the step-result cache when memoization is enabled and a matching
+     * PASSED outcome exists. On a miss the cache key is recorded on the pipeline execution so the
+     * outcome can be memoized when the webhook reports completion.
+     *
+     * @return {@code true} if the step was completed from the cache and must not be triggered
+     */
+    private boolean completeFromStepCache(FlowExecution flowExecution, FlowStep step,
+                                          PipelineExecution pipelineExecution, Map<String, String> pipelineVars) {
+        if (!stepResultCacheService.isEnabled()) {
+            return false;
+        }
+        StepResultCacheService.CacheKey cacheKey = stepResultCacheService.resolveKey(step, pipelineVars);
+        if (cacheKey == null) {
+            return false;
+        }
+        Optional<StepResultCacheEntry> cached = stepResultCacheService.lookup(step.getId(), cacheKey);
+        if (cached.isEmpty()) {
+            pipelineExecution.setCommitSha(cacheKey.getCommitSha());
+            pipelineExecution.setInputHash(cacheKey.getInputHash());
+            return false;
+        }
+
+        stepResultCacheService.applyHit(pipelineExecution, cached.get(), cacheKey);
+        pipelineExecutionRepository.save(pipelineExecution);
+        stepResultCacheService.continueFlowAfterCommit(flowExecution.getId(), step.getId());
+        return true;
+    }
+
+    /**
+     * Returns the step record of a flow execution, creating it the first time the step is scheduled
+     * or triggered. Steps the flow has not reached yet have no row.
+     */
+    private PipelineExecution materializeStepRecord(FlowExecution flowExecution, FlowStep step) {
+        PipelineExecution existing = pipelineExecutionRepository
+            .findByFlowExecutionIdAndFlowStepId(flowExecution.getId(), step.getId()).orElse(null);
+        if (existing != null) {
+            testDataSnapshotService.resolve(existing);
+            return existing;
+        }
+        PipelineExecution pe = new PipelineExecution();
+        pe.setFlowId(flowExecution.getFlowId());
+        pe.setFlowExecutionId(flowExecution.getId());
+        pe.setFlowStepId(step.getId());
+        testDataSnapshotService.attach(pe, testDataService.mergeTestDataByIds(step.getTestDataIds()));
+        pe.setRuntimeTestData(null);
+        pe.setStatus(ExecutionStatus.SCHEDULED);
+        pe.setStartTime(null);
+        pe.setIsReplay(flowExecution.getReplayCount() != null && flowExecution.getReplayCount() > 0);
+        return pipelineExecutionRepository.save(pe);
+    }
+
     public FlowExecutionDto createReplayFlowExecution(UUID originalFlowExecutionId, Long failedFlowStepId) {
         logger.info("Creating replay flow execution for original execution: {} from failed step: {}", originalFlowExecutionId, failedFlowStepId);
 
@@ -851,16 +1352,31 @@ public class FlowExecutionService {
         Map<Long, PipelineExecution> originalPassedByStep = originalPipelinesOrdered.stream()
                 .filter(pe -> pe.getStatus() == ExecutionStatus.PASSED)
                 .collect(Collectors.toMap(PipelineExecution::getFlowStepId, pe -> pe, (a, b) -> a));
+        testDataSnapshotService.resolve(originalPassedByStep.values());
 
         // Delete all existing pipeline executions for this flow execution to recreate them
         pipelineExecutionRepository.deleteByFlowExecutionId(originalFlowExecutionId);
 
-        // 1) Pre-create "carried" entries for steps BEFORE the failed step, mark PASSED and reference original pipeline/job
-        for (int i = 0; i < failedStepIndex; i++) {
-            Long stepId = flow.getFlowStepIds().get(i);
-            FlowStep step = flowStepRepository.findById(stepId)
-                    .orElseThrow(() -> new IllegalArgumentException("Flow step not found with ID: " + stepId));
+        // 1) Pre-create "carried" entries for steps BEFORE the failed step, mark PASSED and reference original pipeline/job.
+        // Their definitions are read with one IN query and the records saved together, as BulkReplayService does
+        List<Long> carriedStepIds = flow.getFlowStepIds().subList(0, failedStepIndex);
+        Map<Long, FlowStep> carriedStepsById = carriedStepIds.isEmpty() ? new HashMap<>()
+                : flowStepRepository.findByIdIn(carriedStepIds).stream()
+                    .collect(Collectors.toMap(FlowStep::getId, step -> step));
+        Map<Long, Map<String, String>> fallbackTestDataByStep = new HashMap<>();
+        for (Long stepId : carriedStepIds) {
+            FlowStep step = carriedStepsById.get(stepId);
+            if (step == null) {
+                throw new IllegalArgumentException("Flow step not found with ID: " + stepId);
+            }
+            if (!originalPassedByStep.containsKey(stepId)) {
+                fallbackTestDataByStep.put(stepId, testDataService.mergeTestDataByIds(step.getTestDataIds()));
+            }
+        }
+        testDataSnapshotService.store(fallbackTestDataByStep.values());
 
+        List<PipelineExecution> carriedRecords = new ArrayList<>(carriedStepIds.size());
+        for (Long stepId : carriedStepIds) {
             PipelineExecution originalPe = originalPassedByStep.get(stepId);
             PipelineExecution carried = new PipelineExecution();
             carried.setFlowId(originalExecution.getFlowId());
@@ -868,7 +1384,7 @@ public class FlowExecutionService {
             carried.setFlowStepId(stepId);
             // preserve inputs/outputs from original successful step
             if (originalPe != null) {
-                carried.setConfiguredTestData(originalPe.getConfiguredTestData());
+                testDataSnapshotService.copy(originalPe, carried);
                 carried.setRuntimeTestData(originalPe.getRuntimeTestData());
                 carried.setPipelineId(originalPe.getPipelineId());
                 carried.setPipelineUrl(originalPe.getPipelineUrl());
@@ -878,31 +1394,16 @@ public class FlowExecutionService {
                 carried.setEndTime(originalPe.getEndTime());
             } else {
                 // Fallback to current config if no original found
-                carried.setConfiguredTestData(testDataService.mergeTestDataByIds(step.getTestDataIds()));
-                carried.setRuntimeTestData(new HashMap<>(accumulatedRuntimeVariables));
+                testDataSnapshotService.attach(carried, fallbackTestDataByStep.get(stepId));
+                carried.setRuntimeTestData(VariableDelta.diff(carried.getConfiguredTestData(), accumulatedRuntimeVariables));
             }
             carried.setStatus(ExecutionStatus.PASSED);
             carried.setIsReplay(false); // Carried steps are not replays - they're successful from original execution
-            pipelineExecutionTxService.saveNew(carried);
-        }
-
-        // 2) Pre-create placeholders only for steps from failedStep onwards
-        for (int i = failedStepIndex; i < flow.getFlowStepIds().size(); i++) {
-            Long stepId = flow.getFlowStepIds().get(i);
-            FlowStep step = flowStepRepository.findById(stepId)
-                    .orElseThrow(() -> new IllegalArgumentException("Flow step not found with ID: " + stepId));
-            PipelineExecution placeholder = new PipelineExecution();
-            placeholder.setFlowId(originalExecution.getFlowId());
-            placeholder.setFlowExecutionId(originalExecution.getId());
-            placeholder.setFlowStepId(stepId);
-            placeholder.setConfiguredTestData(testDataService.mergeTestDataByIds(step.getTestDataIds()));
-            // Seed with accumulated variables present at replay start
-            placeholder.setRuntimeTestData(new HashMap<>(accumulatedRuntimeVariables));
-            placeholder.setStatus(ExecutionStatus.SCHEDULED);
-            placeholder.setStartTime(null);
-            placeholder.setIsReplay(true);
-            pipelineExecutionTxService.saveNew(placeholder);
+            carriedRecords.add(carried);
         }
+        pipelineExecutionRepository.saveAll(carriedRecords);
+
+        // 2) The failed step and the steps after it get their records when the replay reaches them
 
         logger.info("Updated flow execution with ID: {} (replayCount: {}) to replay from failed step: {}", originalExecution.getId(), originalExecution.getReplayCount(), failedFlowStepId);
         return convertToDto(originalExecution);
@@ -1034,10 +1535,11 @@ public class FlowExecutionService {
                 })
                 .collect(Collectors.toList());
 
-        // Accumulate runtime variables from successful steps in order
+        // Accumulate the full runtime view of the successful steps in order
+        testDataSnapshotService.resolve(successfulPipelines);
         for (PipelineExecution pipeline : successfulPipelines) {
             if (pipeline.getRuntimeTestData() != null) {
-                accumulatedVariables.putAll(pipeline.getRuntimeTestData());
+                accumulatedVariables.putAll(VariableDelta.apply(pipeline.getConfiguredTestData(), pipeline.getRuntimeTestData()));
             }
         }
 
@@ -1066,10 +1568,7 @@ public class FlowExecutionService {
         logger.debug("Added EXECUTION_UUID '{}' and APP_NAME '{}' to replay pipeline variables for step {}",
                     flowExecution.getId(), application.getApplicationName(), step.getId());
 
-        // Find existing pipeline execution record created in createReplayFlowExecution
-        PipelineExecution pipelineExecution = pipelineExecutionRepository
-                .findByFlowExecutionIdAndFlowStepId(flowExecution.getId(), step.getId())
-                .orElseThrow(() -> new IllegalStateException("Replay pipeline execution record not found for step: " + step.getId()));
+        PipelineExecution pipelineExecution = materializeStepRecord(flowExecution, step);
 
         // Update the existing record instead of creating new one
         pipelineExecution.setStatus(ExecutionStatus.RUNNING);
@@ -1146,10 +1645,7 @@ public class FlowExecutionService {
                                                  Application application, Map<String, String> pipelineVariables) {
         logger.info("Executing pipeline step: {} for flow execution: {}", step.getId(), flowExecution.getId());
 
-        // Find existing pipeline execution record created in createFlowExecution
-        PipelineExecution pipelineExecution = pipelineExecutionRepository
-                .findByFlowExecutionIdAndFlowStepId(flowExecution.getId(), step.getId())
-                .orElseThrow(() -> new IllegalStateException("Pipeline execution record not found for step: " + step.getId()));
+        PipelineExecution pipelineExecution = materializeStepRecord(flowExecution, step);
 
         return executePipelineStepInternal(flowExecution, step, application, pipelineVariables, pipelineExecution);
     }
@@ -1276,6 +1772,7 @@ public class FlowExecutionService {
                     // Set job information
                     pipelineExecution.setJobId(targetJob.getId());
                     pipelineExecution.setJobUrl(targetJob.getWebUrl());
+                    executionJournalService.jobFound(pipelineExecution, targetJob.getId());
                     pipelineExecutionRepository.save(pipelineExecution);
 
                     // Download output.env from target/output.env (even if job failed)
@@ -1286,6 +1783,7 @@ public class FlowExecutionService {
 
                     if (artifactContent != null && !artifactContent.trim().isEmpty()) {
                         Map<String, String> parsedVariables = outputEnvParser.parseOutputEnv(artifactContent);
+                        executionJournalService.artifactParsed(pipelineExecution, targetJob.getId(), parsedVariables.size());
 
                         // Merge configured test data with artifact data
                         Map<String, String> runtimeTestData = new HashMap<>();
@@ -1294,15 +1792,15 @@ public class FlowExecutionService {
                         }
                         runtimeTestData.putAll(parsedVariables); // Artifact data can override configured data
 
-                        pipelineExecution.setRuntimeTestData(runtimeTestData);
+                        pipelineExecution.setRuntimeTestData(VariableDelta.diff(pipelineExecution.getConfiguredTestData(), runtimeTestData));
                         pipelineExecutionRepository.save(pipelineExecution);
                         logger.info("Successfully downloaded and parsed artifacts from job {} (status: {}): {} variables (total runtime: {})",
                                    targetJob.getId(), targetJob.getStatus(), parsedVariables.size(), runtimeTestData.size());
                     } else {
                         logger.info("No artifact content found in job {}, runtime data will remain as configured data",
                                    targetJob.getId());
-                        // Set runtime data to configured data if no artifacts
-                        pipelineExecution.setRuntimeTestData(pipelineExecution.getConfiguredTestData());
+                        // No outputs: the runtime view is the configured data
+                        pipelineExecution.setRuntimeTestData(new HashMap<>());
                         pipelineExecutionRepository.save(pipelineExecution);
                     }
                 } else {
@@ -1343,7 +1841,7 @@ public class FlowExecutionService {
             }
             runtimeTestData.putAll(mockOutputData); // Mock data can override configured data
 
-            pipelineExecution.setRuntimeTestData(runtimeTestData);
+            pipelineExecution.setRuntimeTestData(VariableDelta.diff(pipelineExecution.getConfiguredTestData(), runtimeTestData));
             pipelineExecutionRepository.save(pipelineExecution);
             
             logger.info("MOCK: Pipeline {} completed successfully with mock data: {}", 
@@ -1367,26 +1865,11 @@ public class FlowExecutionService {
                    flowExecutionId, failedAtStepId);
         
         try {
-            // Get all pipeline executions for this flow execution
-            List<PipelineExecution> allPipelineExecutions = pipelineExecutionRepository.findByFlowExecutionIdOrderByCreatedAt(flowExecutionId);
+            // One guarded UPDATE for all not-yet-started steps; the failed step itself is kept
+            List<ExecutionStatusChange> cancelled = executionTransitionService.cancelNotStartedSteps(flowExecutionId, failedAtStepId);
             
-            // Find all SCHEDULED or PENDING executions (not yet started)
-            List<PipelineExecution> remainingExecutions = allPipelineExecutions.stream()
-                .filter(pe -> pe.getStatus() == ExecutionStatus.SCHEDULED || pe.getStatus() == ExecutionStatus.PENDING)
-                .filter(pe -> !pe.getFlowStepId().equals(failedAtStepId)) // Don't cancel the failed step itself
-                .collect(Collectors.toList());
-            
-            if (!remainingExecutions.isEmpty()) {
-                logger.info("Found {} remaining SCHEDULED/PENDING pipeline executions to cancel", remainingExecutions.size());
-                
-                for (PipelineExecution pe : remainingExecutions) {
-                    pe.setStatus(ExecutionStatus.CANCELLED);
-                    pe.setEndTime(LocalDateTime.now());
-                    pipelineExecutionRepository.save(pe);
-                    logger.debug("Cancelled pipeline execution for step {}", pe.getFlowStepId());
-                }
-                
-                logger.info("Successfully cancelled {} remaining pipeline executions", remainingExecutions.size());
+            if (!cancelled.isEmpty()) {
+                logger.info("Successfully cancelled {} remaining pipeline executions", cancelled.size());
             } else {
                 logger.debug("No remaining SCHEDULED/PENDING pipeline executions to cancel");
             }
@@ -1484,7 +1967,7 @@ public class FlowExecutionService {
             dto.setApplications(applications.stream().map(this::convertApplicationToDto).collect(Collectors.toList()));
 
             // Load pipeline executions - show ALL configured FlowSteps with real-time status
-            List<PipelineExecutionDto> allPipelineExecutions = getAllPipelineExecutionsForFlowExecution(entity.getId(), flow, flowSteps);
+            List<PipelineExecutionDto> allPipelineExecutions = getAllPipelineExecutionsForFlowExecution(entity, flow, flowSteps);
             dto.setPipelineExecutions(allPipelineExecutions);
         });
 
@@ -1498,11 +1981,15 @@ public class FlowExecutionService {
      * CRITICAL FIX: Only use pipeline executions that belong to THIS specific flowExecutionId.
      * Previously, the map merge logic could pick pipeline executions from other executions of the same flow,
      * causing status display issues in the UI (e.g., showing old FAILED status as SCHEDULED in new executions).
+     *
+     * Steps the flow has not reached yet have no record and are synthesized from the flow definition.
      */
-    private List<PipelineExecutionDto> getAllPipelineExecutionsForFlowExecution(UUID flowExecutionId, Flow flow, List<FlowStep> flowSteps) {
+    private List<PipelineExecutionDto> getAllPipelineExecutionsForFlowExecution(FlowExecution flowExecution, Flow flow, List<FlowStep> flowSteps) {
+        UUID flowExecutionId = flowExecution.getId();
         // Get existing pipeline executions for THIS SPECIFIC flow execution - ensure fresh data
         // This query already filters by flowExecutionId, so we only get executions for this specific run
         List<PipelineExecution> existingPipelineExecutions = pipelineExecutionRepository.findByFlowExecutionIdOrderByCreatedAt(flowExecutionId);
+        testDataSnapshotService.resolve(existingPipelineExecutions);
 
         // Create a map of existing executions by flowStepId for quick lookup
         // Since we're already filtered by flowExecutionId, there should be no duplicates per stepId
@@ -1518,6 +2005,13 @@ public class FlowExecutionService {
                     }
                 ));
 
+        // Configured test data of the virtual steps, resolved with one query
+        Set<Long> testDataIds = new HashSet<>();
+        flowSteps.stream()
+                .filter(step -> !existingByStepId.containsKey(step.getId()) && step.getTestDataIds() != null)
+                .forEach(step -> testDataIds.addAll(step.getTestDataIds()));
+        Map<Long, TestData> testDataById = testDataService.loadTestDataByIds(testDataIds);
+
         // Build complete list of pipeline executions for all configured FlowSteps in order
         List<PipelineExecutionDto> allPipelineExecutions = new ArrayList<>();
 
@@ -1530,23 +2024,10 @@ public class FlowExecutionService {
                 logger.debug("Found existing pipeline execution for step {} with status: {}", stepId, existing.getStatus());
                 allPipelineExecutions.add(convertPipelineExecutionToDto(existing));
             } else {
-                // Create placeholder PipelineExecutionDto for FlowSteps not yet executed
-                PipelineExecutionDto placeholder = new PipelineExecutionDto();
-                 // No database record yet
-                placeholder.setFlowId(flow.getId());
-                placeholder.setFlowExecutionId(flowExecutionId);
-                placeholder.setFlowStepId(stepId);
-                placeholder.setPipelineId(null);
-                placeholder.setPipelineUrl(null);
-                placeholder.setStartTime(null);
-                placeholder.setEndTime(null);
-                // Set configured test data (what will be used as input)
-                placeholder.setConfiguredTestData(testDataService.mergeTestDataByIds(flowStep.getTestDataIds()));
-                placeholder.setRuntimeTestData(null); // No runtime data yet
-                placeholder.setStatus(ExecutionStatus.SCHEDULED); // Waiting to be executed
-                placeholder.setCreatedAt(null);
-                placeholder.setIsReplay(false);
-                allPipelineExecutions.add(placeholder);
+                // No database record yet: synthesize the step from the flow definition
+                allPipelineExecutions.add(virtualPipelineExecutionDto(flowExecution, flowStep,
+                        flow.getFlowStepIds().indexOf(stepId),
+                        testDataService.mergeTestData(flowStep.getTestDataIds(), testDataById)));
             }
         }
 
@@ -1554,6 +2035,30 @@ public class FlowExecutionService {
         return allPipelineExecutions;
     }
 
+    /**
+     * Placeholder for a step without a record: SCHEDULED until the flow reaches it, PENDING for a
+     * later step with a scheduler (its resume time is only known then), CANCELLED once the flow
+     * failed or was cancelled.
+     */
+    private PipelineExecutionDto virtualPipelineExecutionDto(FlowExecution flowExecution, FlowStep step, int stepIndex,
+                                                             Map<String, String> configuredTestData) {
+        PipelineExecutionDto placeholder = new PipelineExecutionDto();
+        placeholder.setFlowId(flowExecution.getFlowId());
+        placeholder.setFlowExecutionId(flowExecution.getId());
+        placeholder.setFlowStepId(step.getId());
+        placeholder.setConfiguredTestData(configuredTestData);
+        placeholder.setRuntimeTestData(null);
+        if (flowExecution.getStatus() == ExecutionStatus.FAILED || flowExecution.getStatus() == ExecutionStatus.CANCELLED) {
+            placeholder.setStatus(ExecutionStatus.CANCELLED);
+        } else if (stepIndex > 0 && step.getInvokeScheduler() != null) {
+            placeholder.setStatus(ExecutionStatus.PENDING);
+        } else {
+            placeholder.setStatus(ExecutionStatus.SCHEDULED);
+        }
+        placeholder.setIsReplay(false);
+        return placeholder;
+    }
+
     private FlowDto convertFlowToDto(Flow entity) {
         FlowDto dto = new FlowDto();
         dto.setId(entity.getId());
@@ -1645,11 +2150,14 @@ public class FlowExecutionService {
         dto.setStartTime(entity.getStartTime());
         dto.setEndTime(entity.getEndTime());
         dto.setConfiguredTestData(entity.getConfiguredTestData());
-        dto.setRuntimeTestData(entity.getRuntimeTestData());
+        // Stored as the step's delta; clients see the full runtime test data
+        dto.setRuntimeTestData(entity.getRuntimeTestData() != null
+                ? VariableDelta.apply(entity.getConfiguredTestData(), entity.getRuntimeTestData()) : null);
         dto.setStatus(entity.getStatus());
         dto.setCreatedAt(entity.getCreatedAt());
         dto.setIsReplay(entity.getIsReplay());
         dto.setResumeTime(entity.getResumeTime());
+        dto.setCacheHit(entity.getCacheHit());
         return dto;
     }
 }
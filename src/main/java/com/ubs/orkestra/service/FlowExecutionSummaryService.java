@@ -0,0 +1,128 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.dto.FlowExecutionSummaryDto;
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.repository.FlowExecutionRepository;
+import com.ubs.orkestra.repository.FlowExecutionSummaryView;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Lightweight flow execution listings for dashboards.
+ *
+ * <p>A page is read with two scalar queries: the execution columns through
+ * {@link FlowExecutionSummaryView} and the step statuses of the page's executions. No entity, flow
+ * definition or test data map is loaded; the step order comes from the cached flow definitions
+ * of {@link FlowDurationEstimator}. Pages are slices, so no count query runs either.
+ */
+@Service
+public class FlowExecutionSummaryService {
+
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Autowired
+    private FlowDurationEstimator flowDurationEstimator;
+
+    @Transactional(readOnly = true)
+    public Slice<FlowExecutionSummaryDto> getSummaries(String flowIdsParam, Long flowGroupId, Integer iteration,
+                                                       ExecutionStatus status, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        if (size < 1 || size > 1000) {
+            throw new IllegalArgumentException("Page size must be between 1 and 1000");
+        }
+        Pageable pageable = PageRequest.of(page, size,
+                Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")));
+
+        Slice<FlowExecutionSummaryView> views = flowIdsParam != null && !flowIdsParam.trim().isEmpty()
+                ? flowExecutionRepository.findSummariesByFlowIds(parseFlowIds(flowIdsParam), flowGroupId, iteration,
+                                                                 status, pageable)
+                : flowExecutionRepository.findSummaries(flowGroupId, iteration, status, pageable);
+
+        Map<UUID, Map<Long, ExecutionStatus>> stepStatuses = new HashMap<>();
+        if (!views.getContent().isEmpty()) {
+            List<UUID> ids = new ArrayList<>();
+            views.getContent().forEach(view -> ids.add(view.getId()));
+            for (Object[] row : pipelineExecutionRepository.findStepStatusesByFlowExecutionIds(ids)) {
+                stepStatuses.computeIfAbsent((UUID) row[0], id -> new HashMap<>())
+                        .put((Long) row[1], (ExecutionStatus) row[2]);
+            }
+        }
+
+        List<FlowExecutionSummaryDto> summaries = new ArrayList<>(views.getNumberOfElements());
+        for (FlowExecutionSummaryView view : views.getContent()) {
+            summaries.add(toSummary(view, stepStatuses.getOrDefault(view.getId(), Map.of())));
+        }
+        return new SliceImpl<>(summaries, pageable, views.hasNext());
+    }
+
+    private FlowExecutionSummaryDto toSummary(FlowExecutionSummaryView view, Map<Long, ExecutionStatus> recorded) {
+        FlowExecutionSummaryDto summary = new FlowExecutionSummaryDto();
+        summary.setId(view.getId());
+        summary.setFlowId(view.getFlowId());
+        summary.setStatus(view.getStatus());
+        summary.setCategory(view.getCategory());
+        summary.setFlowGroupId(view.getFlowGroupId());
+        summary.setIteration(view.getIteration());
+        summary.setCreatedAt(view.getCreatedAt());
+        summary.setStartTime(view.getStartTime());
+        summary.setEndTime(view.getEndTime());
+
+        // Steps are only recorded once scheduled or triggered
+        ExecutionStatus notRecorded = view.getStatus() == ExecutionStatus.FAILED
+                || view.getStatus() == ExecutionStatus.CANCELLED ? ExecutionStatus.CANCELLED : ExecutionStatus.SCHEDULED;
+        List<Long> stepIds = flowDurationEstimator.getStepIds(view.getFlowId());
+        List<ExecutionStatus> statuses = new ArrayList<>(stepIds.size());
+        int completed = 0;
+        for (Long stepId : stepIds) {
+            ExecutionStatus stepStatus = recorded.getOrDefault(stepId, notRecorded);
+            statuses.add(stepStatus);
+            if (stepStatus == ExecutionStatus.PASSED || stepStatus == ExecutionStatus.FAILED
+                    || stepStatus == ExecutionStatus.CANCELLED) {
+                completed++;
+            }
+        }
+        summary.setTotalSteps(stepIds.size());
+        summary.setCompletedSteps(completed);
+        summary.setStepStatuses(statuses);
+        return summary;
+    }
+
+    private static Set<Long> parseFlowIds(String flowIdsParam) {
+        Set<Long> flowIds = new LinkedHashSet<>();
+        for (String id : flowIdsParam.split(",")) {
+            if (id.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                flowIds.add(Long.parseLong(id.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid flow ID: " + id.trim());
+            }
+        }
+        if (flowIds.isEmpty()) {
+            throw new IllegalArgumentException("Flow IDs parameter cannot be empty");
+        }
+        return flowIds;
+    }
+}
@@ -36,6 +36,9 @@ public class FlowGroupService {
     @Autowired
     private FlowExecutionService flowExecutionService;
 
+    @Autowired
+    private FlowLaunchPlanner flowLaunchPlanner;
+
     public FlowGroupDto createFlowGroup(FlowGroupCreateDto flowGroupCreateDto) {
         logger.info("Creating new flow group: {}", flowGroupCreateDto.getFlowGroupName());
 
@@ -164,17 +167,11 @@ public class FlowGroupService {
 
         Map<String, Object> result = flowExecutionService.executeMultipleFlows(flowIdsStr, flowGroupId, currentIteration, revolutions, flowGroup.getFlowGroupName());
 
-        // Start async execution for all accepted flows - this happens after we have the response ready
+        // Start accepted flows through the launch planner, which spreads step-0 triggers over the ramp window
         @SuppressWarnings("unchecked")
         List<FlowExecutionDto> acceptedExecutions = (List<FlowExecutionDto>) result.get("accepted");
         logger.info("FlowGroup execution created {} accepted flow executions", acceptedExecutions != null ? acceptedExecutions.size() : 0);
-        if (acceptedExecutions != null) {
-            for (FlowExecutionDto executionDto : acceptedExecutions) {
-                flowExecutionService.executeFlowAsync(executionDto.getId());
-                logger.info("Started async execution for flow ID: {} with execution ID: {}",
-                           executionDto.getFlowId(), executionDto.getId());
-            }
-        }
+        result.put("launch_plan", flowLaunchPlanner.planAndSchedule(acceptedExecutions));
 
         return result;
     }
@@ -0,0 +1,218 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.dto.FlowExecutionDto;
+import com.ubs.orkestra.util.GitLabApiClient;
+import com.ubs.orkestra.util.LaunchScheduleCalculator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Spreads the step-0 triggers of a large FlowGroup launch over a ramp window.
+ *
+ * <p>Launch offsets come from {@link LaunchScheduleCalculator}: evenly spaced with jitter, and held
+ * back so that no more than the configured number of triggers are in flight globally and per
+ * application. The in-flight time of a trigger is the live GitLab trigger latency measured by
+ * {@link GitLabApiClient}. Planned flows stay PENDING until their slot; the PENDING queue processor
+ * skips them so it does not start them ahead of the plan.
+ *
+ * <p>Bulk-created flows accepted within capacity are also PENDING until their dispatch claims them
+ * (PENDING to RUNNING). From acceptance until that claim they are reserved here, so the concurrency
+ * limit counts them: capacity checks subtract {@link #getReservedCount()} from the free slots.
+ */
+@Service
+public class FlowLaunchPlanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowLaunchPlanner.class);
+
+    private static final String UNKNOWN_APPLICATION = "unknown";
+
+    @Autowired
+    private GitLabApiClient gitLabApiClient;
+
+    @Autowired
+    @Lazy
+    private FlowExecutionService flowExecutionService;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.launch-planner.enabled:true}")
+    private boolean enabled;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.launch-planner.ramp-window-seconds:60}")
+    private long rampWindowSeconds;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.launch-planner.max-concurrent-triggers:10}")
+    private int maxConcurrentTriggers;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.launch-planner.per-app-max-concurrent-triggers:5}")
+    private int perAppMaxConcurrentTriggers;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.launch-planner.jitter-ratio:0.25}")
+    private double jitterRatio;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.launch-planner.default-trigger-latency-ms:2000}")
+    private long defaultTriggerLatencyMs;
+
+    // Own scheduler rather than a TaskScheduler bean, which would take over all @Scheduled jobs
+    private ThreadPoolTaskScheduler launchScheduler;
+
+    private final Set<UUID> plannedLaunches = ConcurrentHashMap.newKeySet();
+
+    // Accepted flows not yet claimed by their dispatch, with the time they were reserved
+    private final Map<UUID, Long> reservedLaunches = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void initScheduler() {
+        launchScheduler = new ThreadPoolTaskScheduler();
+        launchScheduler.setPoolSize(2);
+        launchScheduler.setThreadNamePrefix("FlowLauncher-");
+        launchScheduler.setWaitForTasksToCompleteOnShutdown(false);
+        launchScheduler.initialize();
+    }
+
+    @PreDestroy
+    void shutdownScheduler() {
+        // Unlaunched flows are still PENDING and are started by the queue processor after a restart
+        launchScheduler.shutdown();
+    }
+
+    /**
+     * Schedules {@link FlowExecutionService#executeFlowAsync} for each accepted execution and
+     * returns the launch plan for the HTTP response.
+     */
+    public Map<String, Object> planAndSchedule(List<FlowExecutionDto> executions) {
+        Map<String, Object> plan = new HashMap<>();
+        if (executions == null || executions.isEmpty()) {
+            plan.put("strategy", "none");
+            plan.put("launches", List.of());
+            return plan;
+        }
+
+        long measuredLatency = gitLabApiClient.getTriggerLatencyMillis();
+        long triggerLatencyMs = measuredLatency >= 0 ? measuredLatency : defaultTriggerLatencyMs;
+
+        List<String> appKeys = new ArrayList<>();
+        for (FlowExecutionDto execution : executions) {
+            appKeys.add(firstStepApplicationKey(execution));
+        }
+
+        long[] offsets = enabled
+                ? LaunchScheduleCalculator.computeOffsets(appKeys, rampWindowSeconds * 1000, triggerLatencyMs,
+                        perAppMaxConcurrentTriggers, maxConcurrentTriggers, jitterRatio, ThreadLocalRandom.current())
+                : new long[executions.size()];
+
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> launches = new ArrayList<>();
+        for (int i = 0; i < executions.size(); i++) {
+            FlowExecutionDto execution = executions.get(i);
+            UUID flowExecutionId = execution.getId();
+            Instant launchAt = Instant.ofEpochMilli(now + offsets[i]);
+
+            if (offsets[i] <= 0) {
+                launch(flowExecutionId);
+            } else {
+                plannedLaunches.add(flowExecutionId);
+                launchScheduler.schedule(() -> launch(flowExecutionId), launchAt);
+            }
+
+            Map<String, Object> launchEntry = new HashMap<>();
+            launchEntry.put("flowExecutionId", flowExecutionId);
+            launchEntry.put("flowId", execution.getFlowId());
+            launchEntry.put("applicationId", UNKNOWN_APPLICATION.equals(appKeys.get(i)) ? null : Long.valueOf(appKeys.get(i)));
+            launchEntry.put("offset_ms", offsets[i]);
+            launchEntry.put("planned_at", LocalDateTime.ofInstant(launchAt, ZoneId.systemDefault()));
+            launches.add(launchEntry);
+        }
+
+        long lastOffset = offsets[offsets.length - 1];
+        plan.put("strategy", enabled ? "ramped" : "immediate");
+        plan.put("ramp_window_seconds", enabled ? rampWindowSeconds : 0);
+        plan.put("trigger_latency_ms", triggerLatencyMs);
+        plan.put("max_concurrent_triggers", maxConcurrentTriggers);
+        plan.put("per_app_max_concurrent_triggers", perAppMaxConcurrentTriggers);
+        plan.put("expected_last_launch_at", LocalDateTime.ofInstant(Instant.ofEpochMilli(now + lastOffset), ZoneId.systemDefault()));
+        plan.put("launches", launches);
+
+        logger.info("Planned {} flow launches over {} ms (trigger latency {} ms)", executions.size(), lastOffset, triggerLatencyMs);
+        return plan;
+    }
+
+    /** Number of accepted flows still waiting for their launch slot. */
+    public int getPlannedCount() {
+        return plannedLaunches.size();
+    }
+
+    /**
+     * Holds a slot of the concurrency limit for an accepted flow until its dispatch claims it.
+     */
+    public void reserve(UUID flowExecutionId) {
+        reservedLaunches.putIfAbsent(flowExecutionId, System.currentTimeMillis());
+    }
+
+    /**
+     * Gives the slot back: the flow was claimed (it now counts as RUNNING) or will not be dispatched
+     * by the caller that reserved it.
+     */
+    public void release(UUID flowExecutionId) {
+        reservedLaunches.remove(flowExecutionId);
+        plannedLaunches.remove(flowExecutionId);
+    }
+
+    /** True from acceptance until the dispatch claims the flow; the queue processor leaves it alone. */
+    public boolean isReserved(UUID flowExecutionId) {
+        return reservedLaunches.containsKey(flowExecutionId);
+    }
+
+    /** Number of accepted flows not yet claimed; they already hold capacity. */
+    public int getReservedCount() {
+        return reservedLaunches.size();
+    }
+
+    /** Reservations taken before {@code reservedBeforeMillis}, for clean-up of flows that left PENDING. */
+    public List<UUID> getReservationsBefore(long reservedBeforeMillis) {
+        List<UUID> ids = new ArrayList<>();
+        reservedLaunches.forEach((id, reservedAt) -> {
+            if (reservedAt < reservedBeforeMillis) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    private void launch(UUID flowExecutionId) {
+        try {
+            // The reservation is released when the dispatch claims the flow
+            flowExecutionService.executeFlowAsync(flowExecutionId);
+            plannedLaunches.remove(flowExecutionId);
+            logger.debug("Launched planned flow execution {}", flowExecutionId);
+        } catch (Exception e) {
+            // Still PENDING: the queue processor picks it up once it is no longer reserved
+            release(flowExecutionId);
+            logger.warn("Planned launch of flow execution {} failed: {}", flowExecutionId, e.getMessage());
+        }
+    }
+
+    private String firstStepApplicationKey(FlowExecutionDto execution) {
+        if (execution.getFlowSteps() == null || execution.getFlowSteps().isEmpty()
+                || execution.getFlowSteps().get(0).getApplicationId() == null) {
+            return UNKNOWN_APPLICATION;
+        }
+        return String.valueOf(execution.getFlowSteps().get(0).getApplicationId());
+    }
+}
@@ -30,6 +30,9 @@ public class FlowStepService {
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private StepResultCacheService stepResultCacheService;
+
     public FlowStepDto createFlowStep(FlowStepDto flowStepDto) {
         logger.info("Creating new flow step for application ID: {}", flowStepDto.getApplicationId());
         
@@ -107,6 +110,8 @@ public class FlowStepService {
         }
         
         FlowStep updatedFlowStep = flowStepRepository.save(existingFlowStep);
+        // Memoized outcomes were produced by the previous definition
+        stepResultCacheService.evictStep(id);
         
         logger.info("Flow step updated successfully with ID: {}", updatedFlowStep.getId());
         return convertToDto(updatedFlowStep);
@@ -120,6 +125,7 @@ public class FlowStepService {
         }
         
         flowStepRepository.deleteById(id);
+        stepResultCacheService.evictStep(id);
         logger.info("Flow step deleted successfully with ID: {}", id);
     }
 
@@ -0,0 +1,216 @@
+package com.ubs.orkestra.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ubs.orkestra.model.IdempotencyRecord;
+import com.ubs.orkestra.repository.IdempotencyRecordRepository;
+import com.ubs.orkestra.util.VariableHasher;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for the execution submission endpoints.
+ *
+ * <p>The first request with a key claims it by inserting an {@link IdempotencyRecord}; its
+ * response is stored on the record for {@code ttl-hours} and kept in an LRU of
+ * {@code cache-size} entries. A repeated request with the same key gets the stored response
+ * without reaching the creation path. A repeat that arrives while the first is still being
+ * processed gets 409, and reusing a key for a different request gets 422. 5xx responses are not
+ * stored, so the caller can retry them. A claim left behind by a crashed instance is taken over
+ * after {@code in-progress-timeout-seconds}.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.idempotency.enabled:true}")
+    private boolean enabled;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.idempotency.in-progress-timeout-seconds:300}")
+    private long inProgressTimeoutSeconds;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    private Map<String, StoredResponse> responses;
+
+    @PostConstruct
+    void initCache() {
+        int maxEntries = Math.max(1, cacheSize);
+        responses = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Runs {@code submission} once per idempotency key.
+     *
+     * @param idempotencyKey value of the Idempotency-Key header; without one the submission just runs
+     * @param request        method, path and parameters of the request, to detect reuse of a key
+     */
+    public ResponseEntity<?> execute(String idempotencyKey, String request, Supplier<ResponseEntity<?>> submission) {
+        if (!enabled || idempotencyKey == null || idempotencyKey.isBlank()) {
+            return submission.get();
+        }
+        String key = idempotencyKey.trim();
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", HEADER + " must be at most " + MAX_KEY_LENGTH + " characters"));
+        }
+        String requestHash = VariableHasher.hashParts(request);
+
+        StoredResponse cached = responses.get(key);
+        if (cached != null && cached.expiresAt.isAfter(LocalDateTime.now())) {
+            return replay(key, cached, requestHash);
+        }
+
+        IdempotencyRecord claimed = new IdempotencyRecord(key, requestHash, LocalDateTime.now().plusHours(ttlHours));
+        IdempotencyRecord existing = claim(claimed);
+        if (existing != null) {
+            if (!existing.isCompleted()) {
+                if (!existing.getRequestHash().equals(requestHash)) {
+                    return keyReused(key);
+                }
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(Map.of("error", "A request with this " + HEADER + " is still being processed"));
+            }
+            StoredResponse stored = new StoredResponse(existing);
+            responses.put(key, stored);
+            return replay(key, stored, requestHash);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = submission.get();
+        } catch (RuntimeException e) {
+            release(claimed);
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            release(claimed);
+            return response;
+        }
+        store(claimed, response);
+        return response;
+    }
+
+    // Inserts the claim; returns the record already holding the key, if any
+    private IdempotencyRecord claim(IdempotencyRecord claimed) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord existing = idempotencyRecordRepository.findById(claimed.getIdempotencyKey()).orElse(null);
+        if (existing != null && (existing.getExpiresAt().isBefore(now) || (!existing.isCompleted()
+                && existing.getCreatedAt().isBefore(now.minusSeconds(inProgressTimeoutSeconds))))) {
+            logger.info("Taking over expired or abandoned idempotency key {}", claimed.getIdempotencyKey());
+            idempotencyRecordRepository.delete(existing);
+            existing = null;
+        }
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            idempotencyRecordRepository.saveAndFlush(claimed);
+            return null;
+        } catch (DataIntegrityViolationException e) {
+            // Claimed concurrently; report it as in progress if it is already gone again
+            return idempotencyRecordRepository.findById(claimed.getIdempotencyKey())
+                    .orElse(new IdempotencyRecord(claimed.getIdempotencyKey(), claimed.getRequestHash(),
+                            claimed.getExpiresAt()));
+        }
+    }
+
+    private void store(IdempotencyRecord claimed, ResponseEntity<?> response) {
+        try {
+            claimed.setStatusCode(response.getStatusCode().value());
+            claimed.setResponseBody(response.getBody() != null ? objectMapper.writeValueAsString(response.getBody()) : null);
+            idempotencyRecordRepository.save(claimed);
+            responses.put(claimed.getIdempotencyKey(), new StoredResponse(claimed));
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to store response for idempotency key {}: {}", claimed.getIdempotencyKey(), e.getMessage());
+            release(claimed);
+        }
+    }
+
+    private void release(IdempotencyRecord claimed) {
+        try {
+            idempotencyRecordRepository.deleteById(claimed.getIdempotencyKey());
+        } catch (Exception e) {
+            logger.warn("Failed to release idempotency key {}: {}", claimed.getIdempotencyKey(), e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> replay(String key, StoredResponse stored, String requestHash) {
+        if (!stored.requestHash.equals(requestHash)) {
+            return keyReused(key);
+        }
+        logger.info("Replaying stored response for idempotency key {}", key);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.statusCode).header(REPLAYED_HEADER, "true");
+        if (stored.body == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(stored.body);
+    }
+
+    private static ResponseEntity<?> keyReused(String key) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(Map.of("error", HEADER + " '" + key + "' was already used for a different request"));
+    }
+
+    @Scheduled(fixedDelayString = "${flow-execution.idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = idempotencyRecordRepository.deleteExpired(now);
+        if (purged > 0) {
+            logger.info("Purged {} expired idempotency keys", purged);
+        }
+        synchronized (responses) {
+            responses.values().removeIf(stored -> stored.expiresAt.isBefore(now));
+        }
+    }
+
+    private static final class StoredResponse {
+        private final String requestHash;
+        private final int statusCode;
+        private final String body;
+        private final LocalDateTime expiresAt;
+
+        private StoredResponse(IdempotencyRecord record) {
+            this.requestHash = record.getRequestHash();
+            this.statusCode = record.getStatusCode();
+            this.body = record.getResponseBody();
+            this.expiresAt = record.getExpiresAt();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.ubs.orkestra.service;
 import com.ubs.orkestra.dto.PipelineExecutionDto;
 import com.ubs.orkestra.model.PipelineExecution;
 import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import com.ubs.orkestra.util.VariableDelta;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,38 +26,44 @@ public class PipelineExecutionService {
     @Autowired
     private PipelineExecutionRepository pipelineExecutionRepository;
 
+    @Autowired
+    private TestDataSnapshotService testDataSnapshotService;
+
     public List<PipelineExecutionDto> getPipelineExecutionsByFlowExecutionId(UUID flowExecutionId) {
         logger.debug("Fetching pipeline executions for flow execution ID: {} (including replays)", flowExecutionId);
-        return pipelineExecutionRepository.findByFlowExecutionIdIncludingReplays(flowExecutionId)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(pipelineExecutionRepository.findByFlowExecutionIdIncludingReplays(flowExecutionId));
     }
 
     public Page<PipelineExecutionDto> getPipelineExecutionsByFlowExecutionId(UUID flowExecutionId, Pageable pageable) {
         logger.debug("Fetching pipeline executions for flow execution ID: {} with pagination: {}", flowExecutionId, pageable);
-        return pipelineExecutionRepository.findByFlowExecutionId(flowExecutionId, pageable)
-                .map(this::convertToDto);
+        Page<PipelineExecution> page = pipelineExecutionRepository.findByFlowExecutionId(flowExecutionId, pageable);
+        testDataSnapshotService.resolve(page.getContent());
+        return page.map(this::convertToDto);
     }
 
     public Optional<PipelineExecutionDto> getPipelineExecutionById(Long pipelineExecutionId) {
         logger.debug("Fetching pipeline execution with ID: {}", pipelineExecutionId);
         return pipelineExecutionRepository.findById(pipelineExecutionId)
-                .map(this::convertToDto);
+                .map(pe -> {
+                    testDataSnapshotService.resolve(pe);
+                    return convertToDto(pe);
+                });
     }
 
     public List<PipelineExecutionDto> getPipelineExecutionsByFlowId(Long flowId) {
         logger.debug("Fetching pipeline executions for flow ID: {}", flowId);
-        return pipelineExecutionRepository.findByFlowId(flowId)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(pipelineExecutionRepository.findByFlowId(flowId));
     }
 
     public List<PipelineExecutionDto> getPipelineExecutionsByFlowStepId(Long flowStepId) {
         logger.debug("Fetching pipeline executions for flow step ID: {} (including replays)", flowStepId);
-        return pipelineExecutionRepository.findByFlowStepIdIncludingReplays(flowStepId)
-                .stream()
+        return convertToDtos(pipelineExecutionRepository.findByFlowStepIdIncludingReplays(flowStepId));
+    }
+
+    // Configured test data is resolved from its snapshots for the whole list at once
+    private List<PipelineExecutionDto> convertToDtos(List<PipelineExecution> pipelineExecutions) {
+        testDataSnapshotService.resolve(pipelineExecutions);
+        return pipelineExecutions.stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
@@ -72,11 +79,14 @@ public class PipelineExecutionService {
         dto.setStartTime(entity.getStartTime());
         dto.setEndTime(entity.getEndTime());
         dto.setConfiguredTestData(entity.getConfiguredTestData());
-        dto.setRuntimeTestData(entity.getRuntimeTestData());
+        // Stored as the step's delta; clients see the full runtime test data
+        dto.setRuntimeTestData(entity.getRuntimeTestData() != null
+                ? VariableDelta.apply(entity.getConfiguredTestData(), entity.getRuntimeTestData()) : null);
         dto.setStatus(entity.getStatus());
         dto.setCreatedAt(entity.getCreatedAt());
         dto.setIsReplay(entity.getIsReplay());
         dto.setResumeTime(entity.getResumeTime());
+        dto.setCacheHit(entity.getCacheHit());
         return dto;
     }
 }
@@ -1,18 +1,30 @@
 package com.ubs.orkestra.service;
 
+import com.ubs.orkestra.model.FlowExecution;
 import com.ubs.orkestra.model.PipelineExecution;
+import com.ubs.orkestra.model.TestDataSnapshot;
+import com.ubs.orkestra.repository.FlowExecutionRepository;
 import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import com.ubs.orkestra.repository.TestDataSnapshotRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 public class PipelineExecutionTxService {
 
     @Autowired
     private PipelineExecutionRepository pipelineExecutionRepository;
 
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Autowired
+    private TestDataSnapshotRepository testDataSnapshotRepository;
+
     // Persist a new PipelineExecution in its own transaction so clients can see it immediately
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public PipelineExecution saveNew(PipelineExecution pipelineExecution) {
@@ -24,4 +36,17 @@ public class PipelineExecutionTxService {
     public PipelineExecution saveUpdate(PipelineExecution pipelineExecution) {
         return pipelineExecutionRepository.save(pipelineExecution);
     }
+
+    // Persist one chunk of a bulk launch in its own transaction; inserts are JDBC-batched
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void saveNewChunk(List<FlowExecution> flowExecutions) {
+        flowExecutionRepository.saveAll(flowExecutions);
+    }
+
+    // Persist test data snapshots in their own transaction so a concurrent insert of the same hash
+    // fails here rather than rolling back the caller
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void saveNewSnapshots(List<TestDataSnapshot> snapshots) {
+        testDataSnapshotRepository.saveAllAndFlush(snapshots);
+    }
 }
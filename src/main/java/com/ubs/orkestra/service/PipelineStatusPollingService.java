@@ -9,6 +9,7 @@ import com.ubs.orkestra.repository.FlowStepRepository;
 import com.ubs.orkestra.repository.PipelineExecutionRepository;
 import com.ubs.orkestra.util.GitLabApiClient;
 import com.ubs.orkestra.util.OutputEnvParser;
+import com.ubs.orkestra.util.VariableDelta;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -41,9 +42,15 @@ public class PipelineStatusPollingService {
 
     private static final Logger logger = LoggerFactory.getLogger(PipelineStatusPollingService.class);
 
+    @Autowired
+    private ExecutionJournalService executionJournalService;
+
     @Autowired
     private PipelineExecutionRepository pipelineExecutionRepository;
 
+    @Autowired
+    private TestDataSnapshotService testDataSnapshotService;
+
     @Autowired
     private FlowStepRepository flowStepRepository;
 
@@ -223,6 +230,7 @@ public class PipelineStatusPollingService {
 
                     pipelineExecution.setJobId(targetJob.getId());
                     pipelineExecution.setJobUrl(targetJob.getWebUrl());
+                    executionJournalService.jobFound(pipelineExecution, targetJob.getId());
 
                     String artifactContent = gitLabApiClient
                             .downloadJobArtifact(gitLabConfig.getBaseUrl(), application.getGitlabProjectId(),
@@ -233,17 +241,19 @@ public class PipelineStatusPollingService {
 
                     if (artifactContent != null && !artifactContent.trim().isEmpty()) {
                         Map<String, String> parsedVariables = outputEnvParser.parseOutputEnv(artifactContent);
+                        executionJournalService.artifactParsed(pipelineExecution, targetJob.getId(), parsedVariables.size());
+                        testDataSnapshotService.resolve(pipelineExecution);
                         Map<String, String> runtimeTestData = new HashMap<>();
                         if (pipelineExecution.getConfiguredTestData() != null) {
                             runtimeTestData.putAll(pipelineExecution.getConfiguredTestData());
                         }
                         runtimeTestData.putAll(parsedVariables);
-                        pipelineExecution.setRuntimeTestData(runtimeTestData);
+                        pipelineExecution.setRuntimeTestData(VariableDelta.diff(pipelineExecution.getConfiguredTestData(), runtimeTestData));
                         logger.info("Successfully downloaded and parsed artifacts from job {}: {} variables",
                                    targetJob.getId(), parsedVariables.size());
                     } else {
                         logger.info("No artifact content found in job {}, using configured data", targetJob.getId());
-                        pipelineExecution.setRuntimeTestData(pipelineExecution.getConfiguredTestData());
+                        pipelineExecution.setRuntimeTestData(new HashMap<>());
                     }
                 } else {
                     logger.info("No job found for stage '{}' in pipeline {}",
@@ -254,7 +264,7 @@ public class PipelineStatusPollingService {
             logger.warn("Failed to download artifacts for pipeline {}: {}",
                        pipelineExecution.getPipelineId(), e.getMessage());
             if (pipelineExecution.getRuntimeTestData() == null) {
-                pipelineExecution.setRuntimeTestData(pipelineExecution.getConfiguredTestData());
+                pipelineExecution.setRuntimeTestData(new HashMap<>());
             }
         }
     }
@@ -11,6 +11,7 @@ import com.ubs.orkestra.repository.FlowStepRepository;
 import com.ubs.orkestra.repository.PipelineExecutionRepository;
 import com.ubs.orkestra.util.GitLabApiClient;
 import com.ubs.orkestra.util.OutputEnvParser;
+import com.ubs.orkestra.util.VariableDelta;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,9 +37,15 @@ public class PipelineWebHookService {
 
     private static final Logger logger = LoggerFactory.getLogger(PipelineWebHookService.class);
 
+    @Autowired
+    private ExecutionJournalService executionJournalService;
+
     @Autowired
     private PipelineExecutionRepository pipelineExecutionRepository;
 
+    @Autowired
+    private TestDataSnapshotService testDataSnapshotService;
+
     @Autowired
     private FlowStepRepository flowStepRepository;
 
@@ -57,6 +64,12 @@ public class PipelineWebHookService {
     @Autowired
     private GitLabConfig gitLabConfig;
 
+    @Autowired
+    private ApplicationConcurrencyGate applicationConcurrencyGate;
+
+    @Autowired
+    private FlowDurationEstimator flowDurationEstimator;
+
     @Autowired
     @Lazy
     private FlowExecutionService flowExecutionService;
@@ -109,8 +122,10 @@ public class PipelineWebHookService {
             }
 
             // Check if already processed
+            // CANCELLED steps were stopped by us (e.g. a run cancel); GitLab's "canceled" event must not fail them
             if (pipelineExecution.getStatus() == ExecutionStatus.PASSED || 
-                pipelineExecution.getStatus() == ExecutionStatus.FAILED) {
+                pipelineExecution.getStatus() == ExecutionStatus.FAILED ||
+                pipelineExecution.getStatus() == ExecutionStatus.CANCELLED) {
                 logger.info("Pipeline execution {} already in terminal state {}, ignoring webhook", 
                            pipelineExecution.getId(), pipelineExecution.getStatus());
                 return new WebHookProcessingResult(true, "Pipeline already processed with status: " + pipelineExecution.getStatus());
@@ -130,6 +145,7 @@ public class PipelineWebHookService {
             Map<String, String> webhookVariables = extractVariablesFromWebHook(attributes);
             
             // Merge with configured test data
+            testDataSnapshotService.resolve(pipelineExecution);
             Map<String, String> runtimeTestData = new HashMap<>();
             if (pipelineExecution.getConfiguredTestData() != null) {
                 runtimeTestData.putAll(pipelineExecution.getConfiguredTestData());
@@ -146,15 +162,25 @@ public class PipelineWebHookService {
                 runtimeTestData.putAll(webhookVariables);
             }
             
-            pipelineExecution.setRuntimeTestData(runtimeTestData);
+            // Stored as the delta against the configured test data kept on the same row
+            pipelineExecution.setRuntimeTestData(VariableDelta.diff(pipelineExecution.getConfiguredTestData(), runtimeTestData));
             pipelineExecutionRepository.save(pipelineExecution);
 
             logger.info("Updated PipelineExecution {} to status {} with {} runtime variables", 
                        pipelineExecution.getId(), newStatus, runtimeTestData.size());
 
+            // PASSED outcomes are memoized by StepResultCacheService once the status change commits
+            if (newStatus == ExecutionStatus.PASSED) {
+                flowDurationEstimator.recordStepDuration(pipelineExecution.getFlowStepId(),
+                        pipelineExecution.getStartTime(), pipelineExecution.getEndTime());
+            }
+
             // Trigger flow continuation to advance to next step
             UUID flowExecutionId = pipelineExecution.getFlowExecutionId();
             Long flowStepId = pipelineExecution.getFlowStepId();
+
+            // The pipeline slot of the step's application is free again
+            applicationConcurrencyGate.onPipelineFinished(flowStepId);
             
             if (flowExecutionId != null && flowStepId != null) {
                 logger.info("Triggering flow continuation: flowExecution={} completedStep={}", 
@@ -272,6 +298,7 @@ public class PipelineWebHookService {
                     // Set job information
                     pipelineExecution.setJobId(targetJob.getId());
                     pipelineExecution.setJobUrl(targetJob.getWebUrl());
+                    executionJournalService.jobFound(pipelineExecution, targetJob.getId());
 
                     // Download output.env
                     String artifactContent = gitLabApiClient
@@ -286,6 +313,7 @@ public class PipelineWebHookService {
 
                     if (artifactContent != null && !artifactContent.trim().isEmpty()) {
                         Map<String, String> parsedVariables = outputEnvParser.parseOutputEnv(artifactContent);
+                        executionJournalService.artifactParsed(pipelineExecution, targetJob.getId(), parsedVariables.size());
                         logger.info("Successfully downloaded and parsed artifacts from job {}: {} variables",
                                    targetJob.getId(), parsedVariables.size());
                         return parsedVariables;
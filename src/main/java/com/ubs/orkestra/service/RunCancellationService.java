@@ -0,0 +1,228 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.config.GitLabConfig;
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.event.ExecutionStatusChange;
+import com.ubs.orkestra.model.Application;
+import com.ubs.orkestra.repository.ApplicationRepository;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import com.ubs.orkestra.util.GitLabApiClient;
+import com.ubs.orkestra.util.TokenBucket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stops a whole FlowGroup iteration or category at once.
+ *
+ * <p>All active flow executions and their unfinished steps are moved to CANCELLED in bulk by
+ * {@link ExecutionTransitionService}, which commits before GitLab is contacted. The GitLab
+ * pipelines of steps that were running are then cancelled in parallel: calls are paced by a token
+ * bucket and at most {@code parallelism} are in flight, so freeing the runners of a large run does
+ * not trip GitLab's API rate limits. The webhook ignores the resulting {@code canceled} events
+ * because the steps are already CANCELLED.
+ */
+@Service
+public class RunCancellationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RunCancellationService.class);
+
+    private static final Duration TOKEN_POLL_INTERVAL = Duration.ofMillis(50);
+    private static final int MAX_REPORTED_ERRORS = 20;
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    @Autowired
+    private ExecutionTransitionService executionTransitionService;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private ApplicationService applicationService;
+
+    @Autowired
+    private ApplicationConcurrencyGate applicationConcurrencyGate;
+
+    @Autowired
+    private GitLabApiClient gitLabApiClient;
+
+    @Autowired
+    private GitLabConfig gitLabConfig;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.run-cancel.gitlab-calls-per-minute:600}")
+    private double gitlabCallsPerMinute;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.run-cancel.gitlab-burst:20}")
+    private int gitlabBurst;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.run-cancel.parallelism:8}")
+    private int parallelism;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.run-cancel.timeout-seconds:120}")
+    private long timeoutSeconds;
+
+    private volatile TokenBucket gitlabBucket;
+
+    /**
+     * Cancels the active flow executions of a FlowGroup iteration and their GitLab pipelines.
+     */
+    public Map<String, Object> cancelRun(Long flowGroupId, Integer iteration) {
+        long started = System.currentTimeMillis();
+        ExecutionTransitionService.Cancellation cancellation = executionTransitionService.cancelRun(flowGroupId, iteration);
+        Map<String, Object> result = finish(cancellation, started);
+        result.put("flowGroupId", flowGroupId);
+        result.put("iteration", iteration);
+        logger.info("Cancelled FlowGroup {} iteration {}: {}", flowGroupId, iteration, result);
+        return result;
+    }
+
+    /**
+     * Cancels the active flow executions of a category and their GitLab pipelines.
+     */
+    public Map<String, Object> cancelCategory(String category) {
+        if (category == null || category.isBlank()) {
+            throw new IllegalArgumentException("category must not be blank");
+        }
+        long started = System.currentTimeMillis();
+        ExecutionTransitionService.Cancellation cancellation = executionTransitionService.cancelCategory(category);
+        Map<String, Object> result = finish(cancellation, started);
+        result.put("category", category);
+        logger.info("Cancelled category {}: {}", category, result);
+        return result;
+    }
+
+    private Map<String, Object> finish(ExecutionTransitionService.Cancellation cancellation, long started) {
+        List<Long> runningIds = new ArrayList<>();
+        Set<Long> runningStepIds = new LinkedHashSet<>();
+        for (ExecutionStatusChange change : cancellation.getPipelines()) {
+            if (change.getFromStatus() == ExecutionStatus.RUNNING || change.getFromStatus() == ExecutionStatus.IN_PROGRESS) {
+                runningIds.add(change.getPipelineExecutionId());
+                runningStepIds.add(change.getFlowStepId());
+            }
+        }
+
+        List<Object[]> targets = new ArrayList<>();
+        for (int i = 0; i < runningIds.size(); i += MAX_IDS_PER_QUERY) {
+            targets.addAll(pipelineExecutionRepository.findGitLabPipelineRefs(
+                    runningIds.subList(i, Math.min(i + MAX_IDS_PER_QUERY, runningIds.size()))));
+        }
+        List<String> errors = new ArrayList<>();
+        AtomicInteger gitlabCancelled = new AtomicInteger();
+        boolean gitlabComplete = cancelGitLabPipelines(targets, gitlabCancelled, errors);
+
+        // Slots of the cancelled pipelines are free: let steps of other runs waiting on those applications in
+        runningStepIds.forEach(applicationConcurrencyGate::onPipelineFinished);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("flowExecutionsCancelled", cancellation.getFlows().size());
+        result.put("pipelineExecutionsCancelled", cancellation.getPipelines().size());
+        result.put("runningPipelinesCancelled", runningIds.size());
+        result.put("gitlabPipelinesCancelled", gitlabCancelled.get());
+        result.put("gitlabCancelComplete", gitlabComplete);
+        result.put("gitlabCancelFailures", errors.size());
+        result.put("errors", errors.subList(0, Math.min(errors.size(), MAX_REPORTED_ERRORS)));
+        result.put("durationMs", System.currentTimeMillis() - started);
+        return result;
+    }
+
+    /**
+     * Cancels the GitLab pipelines of {@code targets}, counting every successful call in
+     * {@code cancelled} as it completes. Returns false when the timeout cut the run short; the
+     * count then covers the calls that completed before it.
+     */
+    private boolean cancelGitLabPipelines(List<Object[]> targets, AtomicInteger cancelled, List<String> errors) {
+        if (targets.isEmpty()) {
+            return true;
+        }
+        if (gitLabConfig.isMockMode()) {
+            logger.info("MOCK: cancelled {} GitLab pipelines", targets.size());
+            cancelled.addAndGet(targets.size());
+            return true;
+        }
+
+        Map<Long, GitLabProject> projects = new ConcurrentHashMap<>();
+        TokenBucket bucket = gitlabBucket();
+        try {
+            Flux.fromIterable(targets)
+                    .delayUntil(target -> awaitToken(bucket))
+                    .flatMap(target -> cancelOne(target, projects, errors), Math.max(1, parallelism))
+                    .filter(Boolean::booleanValue)
+                    .doOnNext(success -> cancelled.incrementAndGet())
+                    .then()
+                    .block(Duration.ofSeconds(timeoutSeconds));
+        } catch (IllegalStateException e) {
+            // The executions are CANCELLED already; pipelines not reached keep running in GitLab
+            logger.warn("GitLab pipeline cancellation did not finish within {} s: {} of {} pipelines cancelled",
+                        timeoutSeconds, cancelled.get(), targets.size());
+            errors.add("Timed out after " + timeoutSeconds + " s: cancelled " + cancelled.get() + " of "
+                    + targets.size() + " GitLab pipelines");
+            return false;
+        }
+        return true;
+    }
+
+    private Mono<Boolean> cancelOne(Object[] target, Map<Long, GitLabProject> projects, List<String> errors) {
+        Long pipelineExecutionId = (Long) target[0];
+        Long pipelineId = (Long) target[1];
+        Long applicationId = (Long) target[2];
+        return Mono.fromCallable(() -> projects.computeIfAbsent(applicationId, this::projectOf))
+                .flatMap(project -> gitLabApiClient.cancelPipeline(gitLabConfig.getBaseUrl(),
+                        project.projectId, pipelineId, project.accessToken))
+                .map(response -> true)
+                .onErrorResume(e -> {
+                    synchronized (errors) {
+                        errors.add("Pipeline " + pipelineId + " (execution " + pipelineExecutionId + "): " + e.getMessage());
+                    }
+                    return Mono.just(false);
+                });
+    }
+
+    private GitLabProject projectOf(Long applicationId) {
+        Application application = applicationRepository.findById(applicationId)
+                .orElseThrow(() -> new IllegalArgumentException("Application not found with ID: " + applicationId));
+        return new GitLabProject(application.getGitlabProjectId(), applicationService.getDecryptedPersonalAccessToken(applicationId));
+    }
+
+    private static Mono<Boolean> awaitToken(TokenBucket bucket) {
+        return Mono.fromCallable(bucket::tryAcquire)
+                .filter(Boolean::booleanValue)
+                .repeatWhenEmpty(repeat -> repeat.delayElements(TOKEN_POLL_INTERVAL));
+    }
+
+    private TokenBucket gitlabBucket() {
+        if (gitlabBucket == null) {
+            synchronized (this) {
+                if (gitlabBucket == null) {
+                    gitlabBucket = new TokenBucket(Math.max(1, gitlabCallsPerMinute), gitlabBurst);
+                }
+            }
+        }
+        return gitlabBucket;
+    }
+
+    private static class GitLabProject {
+        private final String projectId;
+        private final String accessToken;
+
+        private GitLabProject(String projectId, String accessToken) {
+            this.projectId = projectId;
+            this.accessToken = accessToken;
+        }
+    }
+}
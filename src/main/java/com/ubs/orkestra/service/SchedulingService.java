@@ -1,22 +1,39 @@
 package com.ubs.orkestra.service;
 
 import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.event.ExecutionStatusChange;
+import com.ubs.orkestra.model.Application;
+import com.ubs.orkestra.model.FlowStep;
 import com.ubs.orkestra.model.InvokeScheduler;
 import com.ubs.orkestra.model.Timer;
 import com.ubs.orkestra.model.PipelineExecution;
+import com.ubs.orkestra.repository.FlowStepRepository;
 import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import com.ubs.orkestra.util.TokenBucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 @Service
 public class SchedulingService {
@@ -30,9 +47,45 @@ public class SchedulingService {
     @Lazy
     private FlowExecutionService flowExecutionService;
 
+    @Autowired
+    private FlowStepRepository flowStepRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Value("${scheduling.pipeline-status.polling-interval:60000}")
     private long pollingInterval;
 
+    @Value("${flow-execution.scheduled-release.enabled:false}")
+    private boolean releaseEnabled;
+
+    @Value("${flow-execution.scheduled-release.global-per-minute:120}")
+    private int globalReleasePerMinute;
+
+    @Value("${flow-execution.scheduled-release.global-burst:20}")
+    private int globalReleaseBurst;
+
+    @Value("${flow-execution.scheduled-release.per-app-per-minute:60}")
+    private int perAppReleasePerMinute;
+
+    @Value("${flow-execution.scheduled-release.per-app-burst:10}")
+    private int perAppReleaseBurst;
+
+    // Due SCHEDULED steps waiting for a release token, oldest resumeTime first
+    private final PriorityQueue<StagedRelease> stagedReleases = new PriorityQueue<>(
+        Comparator.comparing((StagedRelease r) -> r.resumeTime).thenComparing(r -> r.pipelineExecutionId));
+    private final Set<Long> stagedIds = ConcurrentHashMap.newKeySet();
+    private final Map<Long, AppReleaseBucket> appBuckets = new ConcurrentHashMap<>();
+    private volatile TokenBucket globalBucket;
+
+    @PostConstruct
+    void registerGauges() {
+        meterRegistry.gauge("orkestra.scheduled.release.staged", stagedIds, Set::size);
+    }
+
     /**
      * Calculates the resume time based on InvokeScheduler configuration
      */
@@ -162,6 +215,10 @@ public class SchedulingService {
     /**
      * Background scheduler that checks for scheduled pipeline executions that are ready to resume
      * Uses configurable polling interval
+     *
+     * <p>With {@code scheduled-release.enabled} due rows are only staged here and released
+     * gradually by {@link #releaseStagedExecutions}, so hundreds of steps scheduled for the same
+     * wall-clock time do not trigger GitLab in a single tick.
      */
     @Scheduled(fixedRateString = "${scheduling.pipeline-status.polling-interval:60000}")
     @Transactional
@@ -169,8 +226,8 @@ public class SchedulingService {
         logger.debug("Checking for scheduled pipeline executions ready to resume...");
         
         LocalDateTime now = LocalDateTime.now();
-        List<PipelineExecution> scheduledExecutions = pipelineExecutionRepository.findByStatusAndResumeTimeBefore(
-            ExecutionStatus.SCHEDULED, now);
+        List<PipelineExecution> scheduledExecutions = pipelineExecutionRepository
+            .findByStatusAndResumeTimeBeforeOrderByResumeTimeAscIdAsc(ExecutionStatus.SCHEDULED, now);
 
         if (scheduledExecutions.isEmpty()) {
             logger.debug("No scheduled executions ready to resume at this time");
@@ -179,10 +236,16 @@ public class SchedulingService {
 
         logger.info("Found {} scheduled executions ready to resume", scheduledExecutions.size());
 
+        if (releaseEnabled) {
+            stageForRelease(scheduledExecutions);
+            return;
+        }
+
         for (PipelineExecution execution : scheduledExecutions) {
             try {
                 logger.info("Resuming scheduled pipeline execution ID: {} for flow step ID: {} at resume time: {}", 
                            execution.getId(), execution.getFlowStepId(), execution.getResumeTime());
+                recordReleaseLag(execution.getResumeTime(), null);
                 
                 // CRITICAL FIX: Mark as IN_PROGRESS before triggering resume
                 // This prevents the scheduler from picking it up again
@@ -206,6 +269,130 @@ public class SchedulingService {
         }
     }
 
+    /**
+     * Releases staged due steps in resumeTime order as global and per-application tokens allow.
+     * A step whose application is out of tokens is skipped for this tick without holding back
+     * steps of other applications. Each release claims the row with a guarded update, so steps
+     * cancelled while staged are dropped.
+     */
+    @Scheduled(fixedDelayString = "${flow-execution.scheduled-release.tick-ms:1000}")
+    public void releaseStagedExecutions() {
+        if (!releaseEnabled || stagedIds.isEmpty()) {
+            return;
+        }
+
+        List<StagedRelease> candidates;
+        synchronized (stagedReleases) {
+            candidates = new ArrayList<>(stagedReleases);
+        }
+        candidates.sort(stagedReleases.comparator());
+
+        TokenBucket global = globalBucket();
+        int released = 0;
+        for (StagedRelease release : candidates) {
+            if (!global.hasToken()) {
+                break;
+            }
+            if (!appBucket(release).tryAcquire()) {
+                continue;
+            }
+            global.tryAcquire();
+            unstage(release);
+
+            try {
+                if (pipelineExecutionRepository.claimScheduled(release.pipelineExecutionId,
+                        ExecutionStatus.SCHEDULED, ExecutionStatus.IN_PROGRESS) == 0) {
+                    logger.debug("Staged pipeline execution {} is no longer SCHEDULED, skipping", release.pipelineExecutionId);
+                    continue;
+                }
+                // The guarded update bypasses the entity listener: publish the change for the counters and journal
+                eventPublisher.publishEvent(ExecutionStatusChange.forPipeline(release.flowExecutionId,
+                        release.pipelineExecutionId, release.flowStepId, ExecutionStatus.SCHEDULED, ExecutionStatus.IN_PROGRESS));
+                recordReleaseLag(release.resumeTime, release.applicationId);
+                flowExecutionService.resumeFlowExecution(release.flowExecutionId, release.flowStepId);
+                released++;
+            } catch (Exception e) {
+                logger.error("Error resuming scheduled pipeline execution ID: {}: {}", release.pipelineExecutionId, e.getMessage(), e);
+                pipelineExecutionRepository.findById(release.pipelineExecutionId).ifPresent(execution -> {
+                    execution.setStatus(ExecutionStatus.FAILED);
+                    execution.setEndTime(LocalDateTime.now());
+                    pipelineExecutionRepository.save(execution);
+                });
+            }
+        }
+
+        if (released > 0) {
+            logger.info("Released {} scheduled pipeline executions, {} still staged", released, stagedIds.size());
+        }
+    }
+
+    private void stageForRelease(List<PipelineExecution> dueExecutions) {
+        List<PipelineExecution> newlyDue = dueExecutions.stream()
+            .filter(execution -> !stagedIds.contains(execution.getId()))
+            .collect(Collectors.toList());
+        if (newlyDue.isEmpty()) {
+            return;
+        }
+
+        List<Long> stepIds = newlyDue.stream().map(PipelineExecution::getFlowStepId).distinct().collect(Collectors.toList());
+        Map<Long, Application> applicationByStep = flowStepRepository.findByIdIn(stepIds).stream()
+            .filter(step -> step.getApplication() != null)
+            .collect(Collectors.toMap(FlowStep::getId, FlowStep::getApplication));
+
+        synchronized (stagedReleases) {
+            for (PipelineExecution execution : newlyDue) {
+                Application application = applicationByStep.get(execution.getFlowStepId());
+                StagedRelease release = new StagedRelease(execution.getId(), execution.getFlowExecutionId(),
+                    execution.getFlowStepId(), execution.getResumeTime(),
+                    application != null ? application.getId() : null,
+                    application != null ? application.getScheduledReleasePerMinute() : null);
+                if (stagedIds.add(release.pipelineExecutionId)) {
+                    stagedReleases.add(release);
+                }
+            }
+        }
+        logger.info("Staged {} due scheduled executions for rate-limited release ({} staged in total)",
+                   newlyDue.size(), stagedIds.size());
+    }
+
+    private void unstage(StagedRelease release) {
+        synchronized (stagedReleases) {
+            stagedReleases.remove(release);
+            stagedIds.remove(release.pipelineExecutionId);
+        }
+    }
+
+    private TokenBucket globalBucket() {
+        if (globalBucket == null) {
+            globalBucket = new TokenBucket(Math.max(1, globalReleasePerMinute), globalReleaseBurst);
+        }
+        return globalBucket;
+    }
+
+    private TokenBucket appBucket(StagedRelease release) {
+        int rate = release.appReleasePerMinute != null && release.appReleasePerMinute > 0
+            ? release.appReleasePerMinute : Math.max(1, perAppReleasePerMinute);
+        Long key = release.applicationId != null ? release.applicationId : -1L;
+        // Rebuild the bucket when the application's configured rate changed
+        return appBuckets.compute(key, (k, existing) -> existing != null && existing.ratePerMinute == rate
+            ? existing : new AppReleaseBucket(rate, new TokenBucket(rate, perAppReleaseBurst))).bucket;
+    }
+
+    /**
+     * Scheduled-versus-actual start lag, exported as {@code orkestra.scheduled.release.lag}.
+     */
+    private void recordReleaseLag(LocalDateTime resumeTime, Long applicationId) {
+        if (resumeTime == null) {
+            return;
+        }
+        Duration lag = Duration.between(resumeTime, LocalDateTime.now());
+        io.micrometer.core.instrument.Timer.builder("orkestra.scheduled.release.lag")
+            .description("Delay between the scheduled resume time of a step and its actual release")
+            .tag("application", applicationId != null ? applicationId.toString() : "unknown")
+            .register(meterRegistry)
+            .record(lag.isNegative() ? Duration.ZERO : lag);
+    }
+
     /**
      * Schedules a pipeline execution to run at a specific time
      */
@@ -217,4 +404,33 @@ public class SchedulingService {
         
         logger.info("Scheduled pipeline execution ID: {} to resume at: {}", execution.getId(), resumeTime);
     }
+
+    private static final class StagedRelease {
+        private final Long pipelineExecutionId;
+        private final UUID flowExecutionId;
+        private final Long flowStepId;
+        private final LocalDateTime resumeTime;
+        private final Long applicationId;
+        private final Integer appReleasePerMinute;
+
+        private StagedRelease(Long pipelineExecutionId, UUID flowExecutionId, Long flowStepId,
+                              LocalDateTime resumeTime, Long applicationId, Integer appReleasePerMinute) {
+            this.pipelineExecutionId = pipelineExecutionId;
+            this.flowExecutionId = flowExecutionId;
+            this.flowStepId = flowStepId;
+            this.resumeTime = resumeTime;
+            this.applicationId = applicationId;
+            this.appReleasePerMinute = appReleasePerMinute;
+        }
+    }
+
+    private static final class AppReleaseBucket {
+        private final int ratePerMinute;
+        private final TokenBucket bucket;
+
+        private AppReleaseBucket(int ratePerMinute, TokenBucket bucket) {
+            this.ratePerMinute = ratePerMinute;
+            this.bucket = bucket;
+        }
+    }
 }
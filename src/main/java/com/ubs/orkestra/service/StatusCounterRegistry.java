@@ -0,0 +1,355 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.event.ExecutionStatusChange;
+import com.ubs.orkestra.event.ExecutionStatusListener;
+import com.ubs.orkestra.repository.FlowExecutionRepository;
+import com.ubs.orkestra.repository.FlowStepRepository;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live execution counts kept in memory instead of aggregate queries on every request.
+ *
+ * <p>Flow executions are counted per status, globally and per FlowGroup; pipeline executions per
+ * status and FlowStep, which is summed per Application on read. Every persisted status change
+ * arrives as an {@link ExecutionStatusChange} event, published by {@link ExecutionStatusListener}
+ * for entity writes and by {@link ExecutionTransitionService} for guarded set-based updates; other
+ * set-based updates report their affected rows through {@link #recordFlowTransitions}.
+ *
+ * <p>Changes are applied once their transaction has committed, so a rolled-back transaction never
+ * reaches the counts. Rows changed outside this instance, including by other instances of the
+ * service, are only picked up by the next reconcile, which resets the counts from the database:
+ * the counts, and the admission decisions based on them, are per instance. A deployment running
+ * several instances against one database should disable the counters, so admission counts the
+ * database. Until the first reconcile has completed, reads fall back to the database.
+ */
+@Service
+public class StatusCounterRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatusCounterRegistry.class);
+
+    // Statuses worth a gauge per FlowGroup / Application; terminal counts only grow
+    private static final List<ExecutionStatus> GROUP_GAUGE_STATUSES =
+            List.of(ExecutionStatus.RUNNING, ExecutionStatus.PENDING, ExecutionStatus.PAUSED);
+    private static final List<ExecutionStatus> APPLICATION_GAUGE_STATUSES =
+            List.of(ExecutionStatus.RUNNING, ExecutionStatus.SCHEDULED);
+    private static final Long NO_APPLICATION = -1L;
+
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Autowired
+    private FlowStepRepository flowStepRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.status-counters.enabled:true}")
+    private boolean enabled;
+
+    private final Map<ExecutionStatus, LongAdder> flowCounts = new ConcurrentHashMap<>();
+    private final Map<Long, Map<ExecutionStatus, LongAdder>> flowGroupCounts = new ConcurrentHashMap<>();
+    private final Map<Long, Map<ExecutionStatus, LongAdder>> pipelineStepCounts = new ConcurrentHashMap<>();
+    private final Map<Long, Long> applicationByStep = new ConcurrentHashMap<>();
+
+    private final Set<Long> flowGroupGauges = ConcurrentHashMap.newKeySet();
+    private final Set<Long> applicationGauges = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean ready;
+
+    public StatusCounterRegistry() {
+        for (ExecutionStatus status : ExecutionStatus.values()) {
+            flowCounts.put(status, new LongAdder());
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Updates
+    // -------------------------------------------------------------------------
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatusChange(ExecutionStatusChange change) {
+        if (change.isPipelineChange()) {
+            recordPipelineTransition(change.getFlowStepId(), change.getFromStatus(), change.getToStatus());
+        } else {
+            recordFlowTransition(change.getFlowGroupId(), change.getFromStatus(), change.getToStatus());
+        }
+    }
+
+    /**
+     * Records a flow execution status change; {@code from} is null for a new row and {@code to} is
+     * null for a deleted one.
+     */
+    public void recordFlowTransition(Long flowGroupId, ExecutionStatus from, ExecutionStatus to) {
+        recordFlowTransitions(flowGroupId, from, to, 1);
+    }
+
+    /**
+     * Records {@code count} flow executions of one FlowGroup moving between statuses, e.g. the rows
+     * affected by a set-based update.
+     */
+    public void recordFlowTransitions(Long flowGroupId, ExecutionStatus from, ExecutionStatus to, long count) {
+        if (from == to || count <= 0) {
+            return;
+        }
+        apply(flowCounts, from, to, count);
+        if (flowGroupId != null) {
+            apply(countsFor(flowGroupCounts, flowGroupId), from, to, count);
+            registerFlowGroupGauges(flowGroupId);
+        }
+    }
+
+    public void recordPipelineTransition(Long flowStepId, ExecutionStatus from, ExecutionStatus to) {
+        if (from == to || flowStepId == null) {
+            return;
+        }
+        apply(countsFor(pipelineStepCounts, flowStepId), from, to, 1);
+    }
+
+    // -------------------------------------------------------------------------
+    // Reads
+    // -------------------------------------------------------------------------
+
+    public long countFlows(ExecutionStatus status) {
+        if (!isReady()) {
+            return flowExecutionRepository.countByStatus(status);
+        }
+        return flowCounts.get(status).sum();
+    }
+
+    public long countAllFlows() {
+        if (!isReady()) {
+            return flowExecutionRepository.count();
+        }
+        return sum(flowCounts);
+    }
+
+    public long countFlowGroupFlows(Long flowGroupId, ExecutionStatus status) {
+        Map<ExecutionStatus, LongAdder> counts = flowGroupCounts.get(flowGroupId);
+        LongAdder adder = counts != null ? counts.get(status) : null;
+        return adder != null ? adder.sum() : 0;
+    }
+
+    public long countAllPipelines() {
+        if (!isReady()) {
+            return pipelineExecutionRepository.count();
+        }
+        long total = 0;
+        for (Map<ExecutionStatus, LongAdder> counts : pipelineStepCounts.values()) {
+            total += sum(counts);
+        }
+        return total;
+    }
+
+    public long countApplicationPipelines(Long applicationId, ExecutionStatus status) {
+        resolveUnknownSteps();
+        long total = 0;
+        for (Map.Entry<Long, Map<ExecutionStatus, LongAdder>> entry : pipelineStepCounts.entrySet()) {
+            if (applicationId.equals(applicationByStep.get(entry.getKey()))) {
+                LongAdder adder = entry.getValue().get(status);
+                total += adder != null ? adder.sum() : 0;
+            }
+        }
+        return total;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    // -------------------------------------------------------------------------
+    // Reconciliation
+    // -------------------------------------------------------------------------
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        reconcile();
+        for (ExecutionStatus status : ExecutionStatus.values()) {
+            Gauge.builder("orkestra.flow.executions", flowCounts.get(status), LongAdder::sum)
+                    .tag("status", status.name())
+                    .description("Flow executions by status")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Resets every counter to the database state, correcting drift from rolled-back transactions,
+     * other instances and missed updates.
+     */
+    @Scheduled(fixedDelayString = "${flow-execution.status-counters.reconcile-interval-ms:300000}",
+               initialDelayString = "${flow-execution.status-counters.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long drift = 0;
+
+            Map<ExecutionStatus, Long> flowTotals = new HashMap<>();
+            Map<Long, Map<ExecutionStatus, Long>> groupTotals = new HashMap<>();
+            for (Object[] row : flowExecutionRepository.countGroupedByFlowGroupAndStatus()) {
+                Long flowGroupId = (Long) row[0];
+                ExecutionStatus status = (ExecutionStatus) row[1];
+                long count = ((Number) row[2]).longValue();
+                if (status == null) {
+                    continue;
+                }
+                flowTotals.merge(status, count, Long::sum);
+                if (flowGroupId != null) {
+                    groupTotals.computeIfAbsent(flowGroupId, id -> new HashMap<>()).put(status, count);
+                }
+            }
+            drift += resetTo(flowCounts, flowTotals);
+            drift += resetAll(flowGroupCounts, groupTotals);
+            groupTotals.keySet().forEach(this::registerFlowGroupGauges);
+
+            Map<Long, Map<ExecutionStatus, Long>> stepTotals = new HashMap<>();
+            for (Object[] row : pipelineExecutionRepository.countGroupedByFlowStepAndStatus()) {
+                if (row[0] != null && row[1] != null) {
+                    stepTotals.computeIfAbsent((Long) row[0], id -> new HashMap<>())
+                            .put((ExecutionStatus) row[1], ((Number) row[2]).longValue());
+                }
+            }
+            drift += resetAll(pipelineStepCounts, stepTotals);
+
+            for (Object[] row : flowStepRepository.findStepApplicationIds()) {
+                applicationByStep.put((Long) row[0], (Long) row[1]);
+            }
+            applicationByStep.values().stream().distinct()
+                    .filter(applicationId -> !NO_APPLICATION.equals(applicationId))
+                    .forEach(this::registerApplicationGauges);
+
+            ready = true;
+            if (drift != 0) {
+                logger.info("Reconciled execution status counters with the database (total drift {})", drift);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to reconcile execution status counters: {}", e.getMessage(), e);
+        }
+    }
+
+    private void resolveUnknownSteps() {
+        List<Long> unknown = new ArrayList<>();
+        for (Long stepId : pipelineStepCounts.keySet()) {
+            if (!applicationByStep.containsKey(stepId)) {
+                unknown.add(stepId);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            flowStepRepository.findByIdIn(unknown).forEach(step -> {
+                applicationByStep.put(step.getId(), step.getApplication().getId());
+                registerApplicationGauges(step.getApplication().getId());
+            });
+            // Deleted steps: remember them so they are not looked up on every read
+            unknown.forEach(stepId -> applicationByStep.putIfAbsent(stepId, NO_APPLICATION));
+        }
+    }
+
+    private void registerFlowGroupGauges(Long flowGroupId) {
+        if (!flowGroupGauges.add(flowGroupId)) {
+            return;
+        }
+        Map<ExecutionStatus, LongAdder> counts = countsFor(flowGroupCounts, flowGroupId);
+        for (ExecutionStatus status : GROUP_GAUGE_STATUSES) {
+            LongAdder adder = counts.computeIfAbsent(status, s -> new LongAdder());
+            Gauge.builder("orkestra.flow.group.executions", adder, LongAdder::sum)
+                    .tag("flow_group", String.valueOf(flowGroupId))
+                    .tag("status", status.name())
+                    .description("Flow executions of a FlowGroup by status")
+                    .register(meterRegistry);
+        }
+    }
+
+    private void registerApplicationGauges(Long applicationId) {
+        if (!applicationGauges.add(applicationId)) {
+            return;
+        }
+        for (ExecutionStatus status : APPLICATION_GAUGE_STATUSES) {
+            Gauge.builder("orkestra.application.pipelines", this, registry -> registry.countApplicationPipelines(applicationId, status))
+                    .tag("application", String.valueOf(applicationId))
+                    .tag("status", status.name())
+                    .description("Pipeline executions of an application by status")
+                    .register(meterRegistry);
+        }
+    }
+
+    private static void apply(Map<ExecutionStatus, LongAdder> counts, ExecutionStatus from, ExecutionStatus to, long count) {
+        if (from != null) {
+            counts.computeIfAbsent(from, s -> new LongAdder()).add(-count);
+        }
+        if (to != null) {
+            counts.computeIfAbsent(to, s -> new LongAdder()).add(count);
+        }
+    }
+
+    private static Map<ExecutionStatus, LongAdder> countsFor(Map<Long, Map<ExecutionStatus, LongAdder>> byKey, Long key) {
+        return byKey.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    }
+
+    private static long resetAll(Map<Long, Map<ExecutionStatus, LongAdder>> byKey, Map<Long, Map<ExecutionStatus, Long>> totals) {
+        long drift = 0;
+        for (Map.Entry<Long, Map<ExecutionStatus, LongAdder>> entry : byKey.entrySet()) {
+            drift += resetTo(entry.getValue(), totals.getOrDefault(entry.getKey(), Map.of()));
+        }
+        for (Map.Entry<Long, Map<ExecutionStatus, Long>> entry : totals.entrySet()) {
+            if (!byKey.containsKey(entry.getKey())) {
+                drift += resetTo(countsFor(byKey, entry.getKey()), entry.getValue());
+            }
+        }
+        return drift;
+    }
+
+    // Adds the difference rather than replacing the adder, so registered gauges keep their reference
+    private static long resetTo(Map<ExecutionStatus, LongAdder> counts, Map<ExecutionStatus, Long> totals) {
+        long drift = 0;
+        for (ExecutionStatus status : ExecutionStatus.values()) {
+            long expected = totals.getOrDefault(status, 0L);
+            LongAdder adder = counts.get(status);
+            if (adder == null) {
+                if (expected == 0) {
+                    continue;
+                }
+                adder = counts.computeIfAbsent(status, s -> new LongAdder());
+            }
+            long difference = expected - adder.sum();
+            if (difference != 0) {
+                adder.add(difference);
+                drift += Math.abs(difference);
+            }
+        }
+        return drift;
+    }
+
+    private static long sum(Map<ExecutionStatus, LongAdder> counts) {
+        long total = 0;
+        for (LongAdder adder : counts.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+}
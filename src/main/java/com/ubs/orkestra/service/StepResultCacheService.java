@@ -0,0 +1,329 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.config.GitLabConfig;
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.event.ExecutionStatusChange;
+import com.ubs.orkestra.model.Application;
+import com.ubs.orkestra.model.FlowStep;
+import com.ubs.orkestra.model.PipelineExecution;
+import com.ubs.orkestra.model.StepResultCacheEntry;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import com.ubs.orkestra.repository.StepResultCacheRepository;
+import com.ubs.orkestra.util.GitLabApiClient;
+import com.ubs.orkestra.util.VariableHasher;
+import com.ubs.orkestra.util.VariableDelta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Opt-in memoization of flow step outcomes.
+ *
+ * <p>A step run is keyed by:
+ * <ul>
+ *   <li>the FlowStep ID (fixes application, branch, test tag and stage)</li>
+ *   <li>the commit SHA the branch currently points to</li>
+ *   <li>a hash of the input variables (per-execution identifiers excluded)</li>
+ * </ul>
+ * When a PASSED result exists for the same key and has not expired, the step is completed
+ * from the cache: no pipeline is triggered, the cached output.env variables become the
+ * step's runtime data and the PipelineExecution is flagged with {@code cacheHit=true}.
+ * Only PASSED outcomes are stored; failures are always re-run.
+ *
+ * <p>Outcomes are stored from the committed PASSED status change of the step record, whichever
+ * path completed it (webhook, status polling, startup recovery or sync), and written in batches
+ * every {@code record-interval-ms}.
+ */
+@Service
+public class StepResultCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StepResultCacheService.class);
+
+    // Variables that are unique per execution and must not influence the cache key
+    private static final Set<String> EXECUTION_SCOPED_KEYS = Set.of("EXECUTION_UUID", "FLOW_EXECUTION_ID");
+
+    @Autowired
+    private StepResultCacheRepository stepResultCacheRepository;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Autowired
+    private TestDataSnapshotService testDataSnapshotService;
+
+    @Autowired
+    private GitLabApiClient gitLabApiClient;
+
+    @Autowired
+    private GitLabConfig gitLabConfig;
+
+    @Autowired
+    private ApplicationService applicationService;
+
+    @Autowired
+    @Lazy
+    private FlowExecutionService flowExecutionService;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.step-result-cache.enabled:false}")
+    private boolean enabled;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.step-result-cache.ttl-minutes:720}")
+    private long ttlMinutes;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.step-result-cache.branch-head-ttl-seconds:30}")
+    private long branchHeadTtlSeconds;
+
+    // Short-lived cache of branch HEAD SHAs so a burst of identical steps costs one GitLab call
+    private final Map<String, BranchHead> branchHeads = new ConcurrentHashMap<>();
+
+    // Step records that PASSED and are waiting to be memoized
+    private final Queue<Long> passedSteps = new ConcurrentLinkedQueue<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Resolves the cache key for a step about to be triggered.
+     *
+     * @return the key, or {@code null} when caching is disabled or the branch HEAD cannot be resolved
+     */
+    public CacheKey resolveKey(FlowStep step, Map<String, String> pipelineVariables) {
+        if (!enabled) {
+            return null;
+        }
+        String commitSha = resolveBranchHead(step);
+        if (commitSha == null) {
+            return null;
+        }
+        String variablesHash = VariableHasher.hash(pipelineVariables, EXECUTION_SCOPED_KEYS);
+        String inputHash = VariableHasher.hashParts(variablesHash, step.getBranch(), step.getTestStage(), step.getTestTag());
+        return new CacheKey(commitSha, inputHash);
+    }
+
+    /**
+     * Finds a non-expired PASSED outcome for the given step and key.
+     */
+    @Transactional(readOnly = true)
+    public Optional<StepResultCacheEntry> lookup(Long flowStepId, CacheKey key) {
+        if (!enabled || key == null) {
+            return Optional.empty();
+        }
+        return stepResultCacheRepository.findByFlowStepIdAndCommitShaAndInputHash(flowStepId, key.getCommitSha(), key.getInputHash())
+                .filter(entry -> entry.getExpiresAt().isAfter(LocalDateTime.now()));
+    }
+
+    /**
+     * Completes a pipeline execution from a cached outcome. The caller persists the entity.
+     */
+    @Transactional
+    public void applyHit(PipelineExecution pipelineExecution, StepResultCacheEntry entry, CacheKey key) {
+        LocalDateTime now = LocalDateTime.now();
+        pipelineExecution.setStatus(ExecutionStatus.PASSED);
+        pipelineExecution.setStartTime(now);
+        pipelineExecution.setEndTime(now);
+        pipelineExecution.setCacheHit(true);
+        pipelineExecution.setCommitSha(key.getCommitSha());
+        pipelineExecution.setInputHash(key.getInputHash());
+        // Reference the pipeline that originally produced the outcome
+        pipelineExecution.setPipelineId(entry.getPipelineId());
+        pipelineExecution.setPipelineUrl(entry.getPipelineUrl());
+
+        pipelineExecution.setRuntimeTestData(VariableDelta.diff(pipelineExecution.getConfiguredTestData(),
+                entry.getRuntimeTestData()));
+
+        stepResultCacheRepository.incrementHitCount(entry.getId());
+        logger.info("Step {} of flow execution {} completed from cache (source pipeline execution {}, commit {})",
+                   pipelineExecution.getFlowStepId(), pipelineExecution.getFlowExecutionId(),
+                   entry.getSourcePipelineExecutionId(), key.getCommitSha());
+    }
+
+    /**
+     * Advances the flow past a step that was completed from the cache. The continuation is
+     * dispatched only after the current transaction commits so the async worker sees the
+     * PASSED step.
+     */
+    public void continueFlowAfterCommit(UUID flowExecutionId, Long completedStepId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    flowExecutionService.advanceFlowToNextStep(flowExecutionId, completedStepId);
+                }
+            });
+        } else {
+            flowExecutionService.advanceFlowToNextStep(flowExecutionId, completedStepId);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatusChange(ExecutionStatusChange change) {
+        if (enabled && change.isPipelineChange() && change.getToStatus() == ExecutionStatus.PASSED
+                && change.getPipelineExecutionId() != null) {
+            passedSteps.add(change.getPipelineExecutionId());
+        }
+    }
+
+    /**
+     * Memoizes the step records that PASSED since the last call. Each entry is saved in its own
+     * repository transaction, so a concurrent insert of the same key only loses that entry.
+     */
+    @Scheduled(fixedDelayString = "${flow-execution.step-result-cache.record-interval-ms:1000}")
+    public void recordPassedSteps() {
+        if (passedSteps.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>();
+        Long id;
+        while ((id = passedSteps.poll()) != null) {
+            ids.add(id);
+        }
+        List<PipelineExecution> pipelineExecutions = pipelineExecutionRepository.findAllById(ids);
+        testDataSnapshotService.resolve(pipelineExecutions);
+        for (PipelineExecution pipelineExecution : pipelineExecutions) {
+            try {
+                recordResult(pipelineExecution);
+            } catch (Exception e) {
+                logger.warn("Could not memoize outcome of pipeline execution {}: {}", pipelineExecution.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stores the outcome of a PASSED pipeline execution that was triggered with a cache key.
+     */
+    void recordResult(PipelineExecution pipelineExecution) {
+        if (!enabled
+                || pipelineExecution.getStatus() != ExecutionStatus.PASSED
+                || Boolean.TRUE.equals(pipelineExecution.getCacheHit())
+                || pipelineExecution.getCommitSha() == null
+                || pipelineExecution.getInputHash() == null) {
+            return;
+        }
+
+        StepResultCacheEntry entry = stepResultCacheRepository
+                .findByFlowStepIdAndCommitShaAndInputHash(pipelineExecution.getFlowStepId(),
+                        pipelineExecution.getCommitSha(), pipelineExecution.getInputHash())
+                .orElseGet(() -> new StepResultCacheEntry(pipelineExecution.getFlowStepId(),
+                        pipelineExecution.getCommitSha(), pipelineExecution.getInputHash()));
+
+        // Outputs only: the configured test data is part of the input hash
+        entry.setRuntimeTestData(VariableDelta.diff(pipelineExecution.getConfiguredTestData(),
+                pipelineExecution.getRuntimeTestData()));
+        entry.setSourcePipelineExecutionId(pipelineExecution.getId());
+        entry.setPipelineId(pipelineExecution.getPipelineId());
+        entry.setPipelineUrl(pipelineExecution.getPipelineUrl());
+        entry.setExpiresAt(LocalDateTime.now().plusMinutes(ttlMinutes));
+        stepResultCacheRepository.save(entry);
+
+        logger.debug("Memoized PASSED outcome of step {} (commit {}, input {})",
+                    pipelineExecution.getFlowStepId(), pipelineExecution.getCommitSha(), pipelineExecution.getInputHash());
+    }
+
+    /**
+     * Drops all cached outcomes of a step, e.g. after its definition changed.
+     */
+    @Transactional
+    public int evictStep(Long flowStepId) {
+        return stepResultCacheRepository.deleteByFlowStepId(flowStepId);
+    }
+
+    @Scheduled(fixedDelayString = "${flow-execution.step-result-cache.purge-interval:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        if (!enabled) {
+            return;
+        }
+        int purged = stepResultCacheRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            logger.info("Purged {} expired step result cache entries", purged);
+        }
+        long cutoff = System.currentTimeMillis() - branchHeadTtlSeconds * 1000;
+        branchHeads.values().removeIf(head -> head.fetchedAtMillis < cutoff);
+    }
+
+    private String resolveBranchHead(FlowStep step) {
+        Application application = step.getApplication();
+        if (application == null || step.getBranch() == null) {
+            return null;
+        }
+        if (gitLabConfig.isMockMode()) {
+            return "mock-" + step.getBranch();
+        }
+
+        String cacheKey = application.getGitlabProjectId() + "|" + step.getBranch();
+        long now = System.currentTimeMillis();
+        BranchHead cached = branchHeads.get(cacheKey);
+        if (cached != null && now - cached.fetchedAtMillis < branchHeadTtlSeconds * 1000) {
+            return cached.sha;
+        }
+
+        try {
+            GitLabApiClient.GitLabBranchResponse branch = gitLabApiClient
+                    .getBranch(gitLabConfig.getBaseUrl(), application.getGitlabProjectId(), step.getBranch(),
+                              applicationService.getDecryptedPersonalAccessToken(application.getId()))
+                    .block();
+            if (branch == null || branch.getCommit() == null || branch.getCommit().getId() == null) {
+                return null;
+            }
+            String sha = branch.getCommit().getId();
+            branchHeads.put(cacheKey, new BranchHead(sha, now));
+            return sha;
+        } catch (Exception e) {
+            // Cache is an optimisation only - fall back to a normal trigger
+            logger.warn("Could not resolve HEAD of branch {} for project {}, skipping step cache: {}",
+                       step.getBranch(), application.getGitlabProjectId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Commit SHA and input hash identifying a step run.
+     */
+    public static class CacheKey {
+        private final String commitSha;
+        private final String inputHash;
+
+        public CacheKey(String commitSha, String inputHash) {
+            this.commitSha = commitSha;
+            this.inputHash = inputHash;
+        }
+
+        public String getCommitSha() {
+            return commitSha;
+        }
+
+        public String getInputHash() {
+            return inputHash;
+        }
+    }
+
+    private static class BranchHead {
+        private final String sha;
+        private final long fetchedAtMillis;
+
+        private BranchHead(String sha, long fetchedAtMillis) {
+            this.sha = sha;
+            this.fetchedAtMillis = fetchedAtMillis;
+        }
+    }
+}
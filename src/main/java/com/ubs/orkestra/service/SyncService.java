@@ -3,6 +3,7 @@ package com.ubs.orkestra.service;
 import com.ubs.orkestra.config.GitLabConfig;
 import com.ubs.orkestra.dto.SyncStatusDto;
 import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.event.ExecutionStatusChange;
 import com.ubs.orkestra.model.Application;
 import com.ubs.orkestra.model.FlowExecution;
 import com.ubs.orkestra.model.FlowStep;
@@ -13,6 +14,7 @@ import com.ubs.orkestra.repository.FlowStepRepository;
 import com.ubs.orkestra.repository.PipelineExecutionRepository;
 import com.ubs.orkestra.util.GitLabApiClient;
 import com.ubs.orkestra.util.OutputEnvParser;
+import com.ubs.orkestra.util.VariableDelta;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,12 +24,15 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 /**
  * Service for synchronizing flow execution data with GitLab.
@@ -38,12 +43,18 @@ public class SyncService {
 
     private static final Logger logger = LoggerFactory.getLogger(SyncService.class);
 
+    @Autowired
+    private ExecutionJournalService executionJournalService;
+
     @Autowired
     private FlowExecutionRepository flowExecutionRepository;
 
     @Autowired
     private PipelineExecutionRepository pipelineExecutionRepository;
 
+    @Autowired
+    private TestDataSnapshotService testDataSnapshotService;
+
     @Autowired
     private FlowStepRepository flowStepRepository;
 
@@ -65,6 +76,12 @@ public class SyncService {
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private ExecutionTransitionService executionTransitionService;
+
+    @Autowired
+    private FlowDurationEstimator flowDurationEstimator;
+
     private final AtomicBoolean syncInProgress = new AtomicBoolean(false);
     private volatile SyncStatusDto currentSyncStatus = null;
 
@@ -123,9 +140,11 @@ public class SyncService {
             // Apply limit by taking most recent executions
             List<FlowExecution> flowExecutions;
             if (limit > 0 && allFlowExecutions.size() > limit) {
-                // Sort by ID descending (most recent first) and take 'limit' items
+                // Sort by creation time descending (most recent first) and take 'limit' items; ids only
+                // break ties, as executions created before UUIDv7 ids have random ids
                 flowExecutions = allFlowExecutions.stream()
-                    .sorted((a, b) -> b.getId().compareTo(a.getId()))
+                    .sorted(Comparator.comparing(FlowExecution::getCreatedAt)
+                            .thenComparing(FlowExecution::getId).reversed())
                     .limit(limit)
                     .toList();
                 logger.info("Limited to {} most recent flow executions (out of {} total)", 
@@ -173,6 +192,7 @@ public class SyncService {
                     }
 
                     boolean flowHadUpdates = false;
+                    List<Long> neverTriggered = new ArrayList<>();
 
                     // Process each pipeline execution
                     for (PipelineExecution pipeline : pipelineExecutions) {
@@ -181,19 +201,14 @@ public class SyncService {
                         
                         try {
                             // CRITICAL: Handle SCHEDULED pipelines without pipelineId and resumeTime
-                            // These need to be marked as CANCELLED
+                            // These need to be marked as CANCELLED (steps waiting for application capacity excepted)
                             if (pipeline.getPipelineId() == null) {
                                 if (pipeline.getStatus() == ExecutionStatus.SCHEDULED && 
-                                    pipeline.getResumeTime() == null) {
-                                    // This pipeline was scheduled but never triggered - mark as CANCELLED
+                                    pipeline.getResumeTime() == null && pipeline.getAwaitingCapacitySince() == null) {
+                                    // This pipeline was scheduled but never triggered - cancelled below with the rest of the flow
                                     logger.warn("Pipeline execution {} is SCHEDULED but has no pipelineId and no resumeTime - marking as CANCELLED", 
                                                pipeline.getId());
-                                    
-                                    SyncResult cancelResult = cancelScheduledPipeline(pipeline.getId());
-                                    if (cancelResult.wasUpdated) {
-                                        updatedPipelines++;
-                                        flowHadUpdates = true;
-                                    }
+                                    neverTriggered.add(pipeline.getId());
                                 } else {
                                     logger.debug("Pipeline execution {} has no GitLab pipeline ID (status: {}), skipping", 
                                                pipeline.getId(), pipeline.getStatus());
@@ -255,6 +270,18 @@ public class SyncService {
                         }
                     }
                     
+                    if (!neverTriggered.isEmpty()) {
+                        SyncResult cancelResult = cancelScheduledPipelines(neverTriggered);
+                        if (cancelResult.updatedCount > 0) {
+                            updatedPipelines += cancelResult.updatedCount;
+                            flowHadUpdates = true;
+                        }
+                        if (cancelResult.failed) {
+                            failedPipelines += neverTriggered.size();
+                            syncStatus.addError(cancelResult.errorMessage);
+                        }
+                    }
+
                     // CRITICAL: After syncing all pipelines for this flow, update FlowExecution status
                     // This ensures the overall flow status reflects the current state of all pipelines
                     if (flowHadUpdates) {
@@ -339,6 +366,7 @@ public class SyncService {
         boolean failed = false;
         boolean skipped = false;
         boolean recovered = false;  // Successfully synced despite being orphaned
+        int updatedCount = 0;       // Rows changed by a batch operation
         String errorMessage = null;
         String skipReason = null;
     }
@@ -585,41 +613,33 @@ public class SyncService {
     }
 
     /**
-     * Cancel a scheduled pipeline that was never triggered.
+     * Cancel scheduled pipelines that were never triggered, in one guarded set-based update.
      * This happens when a pipeline is SCHEDULED but has no pipelineId and no resumeTime.
+     * Rows that left SCHEDULED in the meantime are not touched.
      * 
-     * @param pipelineExecutionId Pipeline execution ID to cancel
-     * @return SyncResult indicating what happened
+     * @param pipelineExecutionIds Pipeline execution IDs to cancel
+     * @return SyncResult with the number of pipelines cancelled
      */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public SyncResult cancelScheduledPipeline(Long pipelineExecutionId) {
+    public SyncResult cancelScheduledPipelines(List<Long> pipelineExecutionIds) {
         SyncResult result = new SyncResult();
         
         try {
-            PipelineExecution pipeline = pipelineExecutionRepository.findById(pipelineExecutionId)
-                .orElse(null);
-            
-            if (pipeline == null) {
-                logger.warn("Pipeline execution {} not found for cancellation", pipelineExecutionId);
-                result.skipped = true;
-                return result;
-            }
-            
-            // Update status to CANCELLED
-            pipeline.setStatus(ExecutionStatus.CANCELLED);
-            pipeline.setEndTime(LocalDateTime.now());
-            pipelineExecutionRepository.save(pipeline);
+            List<ExecutionStatusChange> cancelled = executionTransitionService.cancelPipelineExecutions(
+                pipelineExecutionIds, List.of(ExecutionStatus.SCHEDULED));
             
-            logger.info("Marked pipeline execution {} as CANCELLED (was SCHEDULED but never triggered)", 
-                       pipelineExecutionId);
+            logger.info("Marked {} of {} pipeline executions as CANCELLED (were SCHEDULED but never triggered)", 
+                       cancelled.size(), pipelineExecutionIds.size());
             
-            result.wasUpdated = true;
+            result.updatedCount = cancelled.size();
+            result.wasUpdated = !cancelled.isEmpty();
+            result.skipped = cancelled.size() < pipelineExecutionIds.size();
             
         } catch (Exception e) {
-            logger.error("Error cancelling pipeline execution {}: {}", 
-                       pipelineExecutionId, e.getMessage(), e);
+            logger.error("Error cancelling pipeline executions {}: {}", 
+                       pipelineExecutionIds, e.getMessage(), e);
             result.failed = true;
-            result.errorMessage = "Failed to cancel pipeline execution " + pipelineExecutionId;
+            result.errorMessage = "Failed to cancel pipeline executions " + pipelineExecutionIds;
         }
         
         return result;
@@ -630,7 +650,7 @@ public class SyncService {
      * 
      * Logic:
      * - If ANY pipeline is CANCELLED or FAILED → FlowExecution = FAILED
-     * - If ALL pipelines are PASSED → FlowExecution = PASSED
+     * - If ALL steps of the flow have a PASSED pipeline → FlowExecution = PASSED
      * - Otherwise → FlowExecution = current status (RUNNING, etc.)
      * 
      * CRITICAL: This preserves the existing logic for "all PASSED" flows!
@@ -679,6 +699,12 @@ public class SyncService {
                 }
             }
             
+            // Steps the flow has not reached yet have no record
+            if (allPassed && !pipelines.stream().map(PipelineExecution::getFlowStepId).collect(Collectors.toSet())
+                    .containsAll(flowDurationEstimator.getStepIds(flowExecution.getFlowId()))) {
+                allPassed = false;
+            }
+
             ExecutionStatus previousStatus = flowExecution.getStatus();
             ExecutionStatus newStatus = previousStatus;
             
@@ -739,6 +765,7 @@ public class SyncService {
                 if (targetJob != null) {
                     pipelineExecution.setJobId(targetJob.getId());
                     pipelineExecution.setJobUrl(targetJob.getWebUrl());
+                    executionJournalService.jobFound(pipelineExecution, targetJob.getId());
 
                     String artifactContent = gitLabApiClient
                         .downloadJobArtifact(gitLabConfig.getBaseUrl(), application.getGitlabProjectId(),
@@ -749,18 +776,20 @@ public class SyncService {
 
                     if (artifactContent != null && !artifactContent.trim().isEmpty()) {
                         Map<String, String> parsedVariables = outputEnvParser.parseOutputEnv(artifactContent);
+                        executionJournalService.artifactParsed(pipelineExecution, targetJob.getId(), parsedVariables.size());
+                        testDataSnapshotService.resolve(pipelineExecution);
                         Map<String, String> runtimeTestData = new HashMap<>();
                         
                         if (pipelineExecution.getConfiguredTestData() != null) {
                             runtimeTestData.putAll(pipelineExecution.getConfiguredTestData());
                         }
                         runtimeTestData.putAll(parsedVariables);
-                        pipelineExecution.setRuntimeTestData(runtimeTestData);
+                        pipelineExecution.setRuntimeTestData(VariableDelta.diff(pipelineExecution.getConfiguredTestData(), runtimeTestData));
                         
                         logger.debug("Downloaded artifacts for pipeline {}: {} variables", 
                                    targetJob.getId(), parsedVariables.size());
                     } else {
-                        pipelineExecution.setRuntimeTestData(pipelineExecution.getConfiguredTestData());
+                        pipelineExecution.setRuntimeTestData(new HashMap<>());
                     }
                 }
             }
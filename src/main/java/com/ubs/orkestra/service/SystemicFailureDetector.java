@@ -0,0 +1,227 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.dto.FlowGroupRunAbortDto;
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.model.FlowExecution;
+import com.ubs.orkestra.model.FlowGroupRunAbort;
+import com.ubs.orkestra.repository.FlowGroupRunAbortRepository;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Detects systemic failures inside a FlowGroup run and aborts the rest of the run early.
+ *
+ * <p>Each FAILED step outcome of a flow in a FlowGroup run is evaluated against the terminal
+ * outcomes (PASSED / FAILED) of the other flows of the run at that step, counted in the database.
+ * When at least {@code min-samples} flows have finished the step and the share that FAILED there
+ * reaches {@code failure-ratio}, the environment behind that step is assumed broken and every
+ * PENDING flow of the run is paused (or cancelled) through {@link ExecutionTransitionService}. The decision,
+ * its numbers and the affected flow count are persisted in {@code flow_group_run_aborts}.
+ *
+ * <p>The outcome being recorded is not committed yet, so it is excluded from the count and added
+ * on top; an outcome is therefore counted exactly once however outcomes of a run interleave, and
+ * a restart loses nothing.
+ */
+@Service
+public class SystemicFailureDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(SystemicFailureDetector.class);
+
+    public static final String ACTION_PAUSE = "PAUSE";
+    public static final String ACTION_CANCEL = "CANCEL";
+
+    private static final List<ExecutionStatus> TERMINAL_STEP_STATUSES = List.of(ExecutionStatus.PASSED, ExecutionStatus.FAILED);
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Autowired
+    private FlowGroupRunAbortRepository flowGroupRunAbortRepository;
+
+    @Autowired
+    private ExecutionTransitionService executionTransitionService;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.failure-guard.enabled:false}")
+    private boolean enabled;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.failure-guard.failure-ratio:0.8}")
+    private double failureRatio;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.failure-guard.min-samples:20}")
+    private int minSamples;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.failure-guard.action:PAUSE}")
+    private String action;
+
+    // Runs already aborted by this instance; the database is consulted for runs aborted before a restart
+    private final Set<String> abortedRuns = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Records the terminal outcome of one flow at one step and aborts the run if the
+     * failure ratio for that step crosses the configured threshold. Only failures can cross it,
+     * so PASSED outcomes are not evaluated.
+     *
+     * <p>Runs in its own transaction: a failing abort is rolled back on its own and reaches the
+     * caller as an exception, without marking the caller's step advance rollback-only.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recordStepOutcome(FlowExecution flowExecution, Long flowStepId, ExecutionStatus outcome) {
+        if (!enabled || flowExecution.getFlowGroup() == null || flowExecution.getIteration() == null
+                || outcome != ExecutionStatus.FAILED) {
+            return;
+        }
+        Long flowGroupId = flowExecution.getFlowGroup().getId();
+        Integer iteration = flowExecution.getIteration();
+        if (abortedRuns.contains(runKey(flowGroupId, iteration))) {
+            return;
+        }
+
+        long[] outcomes = countOutcomes(flowGroupId, iteration, flowStepId, flowExecution.getId());
+        long failed = outcomes[0] + 1;
+        long terminal = failed + outcomes[1];
+        evaluate(flowGroupId, iteration, flowStepId, failed, terminal);
+    }
+
+    /**
+     * Moves PAUSED flows of a run back to PENDING so capacity-based dispatch picks them up again.
+     *
+     * @return number of flows resumed
+     */
+    @Transactional
+    public int resumeRun(Long flowGroupId, Integer iteration) {
+        LocalDateTime now = LocalDateTime.now();
+        int resumed = executionTransitionService.resumeRun(flowGroupId, iteration).size();
+
+        List<FlowGroupRunAbort> openAborts = flowGroupRunAbortRepository
+                .findByFlowGroupIdAndIterationAndResumedAtIsNull(flowGroupId, iteration);
+        openAborts.forEach(abort -> abort.setResumedAt(now));
+        flowGroupRunAbortRepository.saveAll(openAborts);
+
+        // Outcomes are counted from resumedAt on, so failures before the resume do not trip the guard again
+        abortedRuns.remove(runKey(flowGroupId, iteration));
+
+        logger.info("Resumed {} PAUSED flows of FlowGroup {} iteration {}", resumed, flowGroupId, iteration);
+        return resumed;
+    }
+
+    @Transactional(readOnly = true)
+    public List<FlowGroupRunAbortDto> getAborts(Long flowGroupId) {
+        return flowGroupRunAbortRepository.findByFlowGroupIdOrderByCreatedAtDesc(flowGroupId)
+                .stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    private void evaluate(Long flowGroupId, Integer iteration, Long flowStepId, long failed, long terminal) {
+        if (terminal < minSamples) {
+            return;
+        }
+        double ratio = (double) failed / terminal;
+        if (ratio < failureRatio) {
+            return;
+        }
+
+        String runKey = runKey(flowGroupId, iteration);
+        if (!abortedRuns.add(runKey)) {
+            return;
+        }
+        if (!flowGroupRunAbortRepository.findByFlowGroupIdAndIterationAndResumedAtIsNull(flowGroupId, iteration).isEmpty()) {
+            logger.debug("FlowGroup {} iteration {} already aborted", flowGroupId, iteration);
+            return;
+        }
+        try {
+            abortRun(flowGroupId, iteration, flowStepId, failed, terminal, ratio);
+        } catch (RuntimeException e) {
+            abortedRuns.remove(runKey);
+            throw e;
+        }
+    }
+
+    private void abortRun(Long flowGroupId, Integer iteration, Long flowStepId, long failed, long terminal, double ratio) {
+        boolean cancel = ACTION_CANCEL.equalsIgnoreCase(action);
+
+        int affected = cancel
+                ? executionTransitionService.cancelRunPending(flowGroupId, iteration).getFlows().size()
+                : executionTransitionService.pauseRun(flowGroupId, iteration).size();
+
+        String appliedAction = cancel ? ACTION_CANCEL : ACTION_PAUSE;
+        String reason = String.format(Locale.ROOT,
+                "Step %d failed in %d of %d finished flows (%.1f%%), reaching the %.1f%% failure threshold " +
+                "(minimum %d samples); %d PENDING flows %s",
+                flowStepId, failed, terminal, ratio * 100, failureRatio * 100, minSamples, affected,
+                cancel ? "cancelled" : "paused");
+
+        FlowGroupRunAbort abort = new FlowGroupRunAbort();
+        abort.setFlowGroupId(flowGroupId);
+        abort.setIteration(iteration);
+        abort.setFlowStepId(flowStepId);
+        abort.setFailedCount(failed);
+        abort.setTerminalCount(terminal);
+        abort.setFailureRatio(ratio);
+        abort.setThreshold(failureRatio);
+        abort.setAction(appliedAction);
+        abort.setAffectedFlowCount(affected);
+        abort.setReason(reason);
+        flowGroupRunAbortRepository.save(abort);
+
+        logger.warn("Systemic failure in FlowGroup {} iteration {}: {}", flowGroupId, iteration, reason);
+    }
+
+    // Committed terminal outcomes of the other flows of the run at the step: [failed, passed]
+    private long[] countOutcomes(Long flowGroupId, Integer iteration, Long flowStepId, UUID currentFlowExecutionId) {
+        // Only count outcomes after the last resume of this run
+        LocalDateTime since = flowGroupRunAbortRepository
+                .findTopByFlowGroupIdAndIterationAndResumedAtIsNotNullOrderByResumedAtDesc(flowGroupId, iteration)
+                .map(FlowGroupRunAbort::getResumedAt)
+                .orElse(LocalDateTime.of(1970, 1, 1, 0, 0));
+
+        long[] outcomes = new long[2];
+        List<Object[]> rows = pipelineExecutionRepository.countRunStepOutcomes(flowGroupId, iteration, flowStepId,
+                TERMINAL_STEP_STATUSES, since, currentFlowExecutionId);
+        for (Object[] row : rows) {
+            ExecutionStatus status = (ExecutionStatus) row[0];
+            long count = ((Number) row[1]).longValue();
+            if (status == ExecutionStatus.FAILED) {
+                outcomes[0] += count;
+            } else if (status == ExecutionStatus.PASSED) {
+                outcomes[1] += count;
+            }
+        }
+        return outcomes;
+    }
+
+    private FlowGroupRunAbortDto convertToDto(FlowGroupRunAbort entity) {
+        FlowGroupRunAbortDto dto = new FlowGroupRunAbortDto();
+        dto.setId(entity.getId());
+        dto.setFlowGroupId(entity.getFlowGroupId());
+        dto.setIteration(entity.getIteration());
+        dto.setFlowStepId(entity.getFlowStepId());
+        dto.setFailedCount(entity.getFailedCount());
+        dto.setTerminalCount(entity.getTerminalCount());
+        dto.setFailureRatio(entity.getFailureRatio());
+        dto.setThreshold(entity.getThreshold());
+        dto.setAction(entity.getAction());
+        dto.setAffectedFlowCount(entity.getAffectedFlowCount());
+        dto.setReason(entity.getReason());
+        dto.setCreatedAt(entity.getCreatedAt());
+        dto.setResumedAt(entity.getResumedAt());
+        return dto;
+    }
+
+    private static String runKey(Long flowGroupId, Integer iteration) {
+        return flowGroupId + ":" + iteration;
+    }
+}
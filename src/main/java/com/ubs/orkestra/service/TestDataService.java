@@ -14,6 +14,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -179,6 +181,35 @@ public class TestDataService {
         return mergedData;
     }
 
+    /**
+     * Loads all referenced test data with a single IN query, keyed by dataId.
+     * Used by bulk flow launches together with {@link #mergeTestData}.
+     */
+    public Map<Long, TestData> loadTestDataByIds(Collection<Long> testDataIds) {
+        if (testDataIds == null || testDataIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return testDataRepository.findByDataIdIn(new ArrayList<>(testDataIds)).stream()
+                .collect(Collectors.toMap(TestData::getDataId, testData -> testData, (a, b) -> a));
+    }
+
+    /**
+     * Same as {@link #mergeTestDataByIds} but resolves the ids against preloaded test data.
+     */
+    public Map<String, String> mergeTestData(List<Long> testDataIds, Map<Long, TestData> preloaded) {
+        Map<String, String> mergedData = new HashMap<>();
+        if (testDataIds == null) {
+            return mergedData;
+        }
+        for (Long testDataId : testDataIds) {
+            TestData testData = preloaded.get(testDataId);
+            if (testData != null && testData.getVariables() != null) {
+                mergedData.putAll(testData.getVariables());
+            }
+        }
+        return mergedData;
+    }
+
     private TestDataDto convertToDto(TestData testData) {
         TestDataDto dto = new TestDataDto();
         dto.setDataId(testData.getDataId());
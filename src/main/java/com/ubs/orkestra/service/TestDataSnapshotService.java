@@ -0,0 +1,182 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.model.PipelineExecution;
+import com.ubs.orkestra.model.TestDataSnapshot;
+import com.ubs.orkestra.repository.TestDataSnapshotRepository;
+import com.ubs.orkestra.util.VariableHasher;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Content-addressed storage of the configured test data of step records.
+ *
+ * <p>The merged test data of a flow step is the same for every run, so it is saved once as a
+ * {@link TestDataSnapshot} keyed by its content hash and PipelineExecutions only reference the
+ * hash. Hot snapshots are kept in an LRU of {@code cache-size} entries; records loaded from the
+ * database are resolved with {@link #resolve(Collection)}, which reads missing snapshots with one
+ * IN query. Cached maps are shared and read-only.
+ */
+@Service
+public class TestDataSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestDataSnapshotService.class);
+
+    @Autowired
+    private TestDataSnapshotRepository testDataSnapshotRepository;
+
+    @Autowired
+    private PipelineExecutionTxService pipelineExecutionTxService;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.test-data-snapshots.cache-size:1000}")
+    private int cacheSize;
+
+    private Map<String, Map<String, String>> snapshots;
+
+    @PostConstruct
+    void initCache() {
+        int maxEntries = Math.max(1, cacheSize);
+        snapshots = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, String>> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Sets the configured test data of a step record, saving its snapshot if the content is new.
+     * Callers creating many records call {@link #store(Collection)} with all of their test data
+     * first, so that this finds every snapshot in the cache.
+     */
+    public void attach(PipelineExecution pipelineExecution, Map<String, String> configuredTestData) {
+        Map<String, String> data = snapshotData(configuredTestData);
+        String hash = VariableHasher.hash(data);
+        if (snapshots.get(hash) == null) {
+            store(List.of(data));
+        }
+        pipelineExecution.setConfiguredTestDataHash(hash);
+        pipelineExecution.setConfiguredTestData(snapshots.getOrDefault(hash, data));
+    }
+
+    /**
+     * Saves the snapshots of the given test data that are not stored yet: the distinct uncached
+     * hashes are looked up with one IN query and the missing ones inserted together.
+     */
+    public void store(Collection<Map<String, String>> configuredTestData) {
+        Map<String, Map<String, String>> uncached = new LinkedHashMap<>();
+        for (Map<String, String> testData : configuredTestData) {
+            Map<String, String> data = snapshotData(testData);
+            String hash = VariableHasher.hash(data);
+            if (snapshots.get(hash) == null) {
+                uncached.putIfAbsent(hash, data);
+            }
+        }
+        if (uncached.isEmpty()) {
+            return;
+        }
+
+        Set<String> missing = new HashSet<>(uncached.keySet());
+        testDataSnapshotRepository.findAllById(uncached.keySet()).forEach(stored -> missing.remove(stored.getHash()));
+        if (!missing.isEmpty()) {
+            List<TestDataSnapshot> newSnapshots = new ArrayList<>();
+            missing.forEach(hash -> newSnapshots.add(new TestDataSnapshot(hash, new HashMap<>(uncached.get(hash)))));
+            try {
+                pipelineExecutionTxService.saveNewSnapshots(newSnapshots);
+            } catch (DataIntegrityViolationException e) {
+                // Some were saved concurrently for another run: insert the rest one by one
+                for (String hash : missing) {
+                    try {
+                        pipelineExecutionTxService.saveNewSnapshots(
+                                List.of(new TestDataSnapshot(hash, new HashMap<>(uncached.get(hash)))));
+                    } catch (DataIntegrityViolationException duplicate) {
+                        logger.debug("Test data snapshot {} already stored", hash);
+                    }
+                }
+            }
+        }
+        snapshots.putAll(uncached);
+    }
+
+    /**
+     * Copies the configured test data reference of one step record to another.
+     */
+    public void copy(PipelineExecution from, PipelineExecution to) {
+        if (from.getConfiguredTestDataHash() == null) {
+            attach(to, from.getConfiguredTestData());
+            return;
+        }
+        resolve(from);
+        to.setConfiguredTestDataHash(from.getConfiguredTestDataHash());
+        to.setConfiguredTestData(from.getConfiguredTestData());
+    }
+
+    public void resolve(PipelineExecution pipelineExecution) {
+        if (pipelineExecution != null) {
+            resolve(List.of(pipelineExecution));
+        }
+    }
+
+    /**
+     * Resolves the configured test data of loaded step records; snapshots missing from the cache
+     * are read with one query.
+     */
+    public void resolve(Collection<PipelineExecution> pipelineExecutions) {
+        Set<String> missing = new HashSet<>();
+        for (PipelineExecution pe : pipelineExecutions) {
+            if (!needsResolving(pe)) {
+                continue;
+            }
+            Map<String, String> data = snapshots.get(pe.getConfiguredTestDataHash());
+            if (data != null) {
+                pe.setConfiguredTestData(data);
+            } else {
+                missing.add(pe.getConfiguredTestDataHash());
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        Map<String, Map<String, String>> loaded = new HashMap<>();
+        for (TestDataSnapshot snapshot : testDataSnapshotRepository.findAllById(missing)) {
+            Map<String, String> data = Collections.unmodifiableMap(
+                    snapshot.getData() != null ? snapshot.getData() : new HashMap<>());
+            loaded.put(snapshot.getHash(), data);
+            snapshots.put(snapshot.getHash(), data);
+        }
+        for (PipelineExecution pe : pipelineExecutions) {
+            if (needsResolving(pe)) {
+                Map<String, String> data = loaded.get(pe.getConfiguredTestDataHash());
+                if (data != null) {
+                    pe.setConfiguredTestData(data);
+                } else {
+                    logger.warn("Test data snapshot {} of pipeline execution {} not found",
+                               pe.getConfiguredTestDataHash(), pe.getId());
+                }
+            }
+        }
+    }
+
+    private static Map<String, String> snapshotData(Map<String, String> configuredTestData) {
+        return Collections.unmodifiableMap(
+                configuredTestData != null ? new HashMap<>(configuredTestData) : new HashMap<>());
+    }
+
+    private static boolean needsResolving(PipelineExecution pe) {
+        return pe.getConfiguredTestDataHash() != null && pe.getConfiguredTestData() == null;
+    }
+}
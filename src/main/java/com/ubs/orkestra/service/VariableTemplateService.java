@@ -0,0 +1,101 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.model.FlowExecution;
+import com.ubs.orkestra.model.PipelineExecution;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import com.ubs.orkestra.util.VariableDelta;
+import com.ubs.orkestra.util.VariableHasher;
+import com.ubs.orkestra.util.VariableTemplate;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders {@code ${...}} references in the configured test data of a step before it is triggered.
+ *
+ * <p>The test data of a step is compiled by {@link VariableTemplate} once per content, keyed by its
+ * snapshot hash, so a changed TestData gets a new plan and an unchanged one is never parsed again.
+ * Plans are kept in an LRU of {@code plan-cache-size} entries. Variable references resolve against
+ * the pipeline variables of the trigger, i.e. the step's test data overridden by the accumulated
+ * runtime variables of the flow; step references ({@code ${step1.ORDER_ID}}) are read from the
+ * PASSED step records of the flow execution, loaded only when the plan has any.
+ */
+@Service
+public class VariableTemplateService {
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Autowired
+    private TestDataSnapshotService testDataSnapshotService;
+
+    @Autowired
+    private FlowDurationEstimator flowDurationEstimator;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.templating.enabled:false}")
+    private boolean enabled;
+
+    @org.springframework.beans.factory.annotation.Value("${flow-execution.templating.plan-cache-size:1000}")
+    private int planCacheSize;
+
+    private Map<String, VariableTemplate.Plan> plans;
+
+    @PostConstruct
+    void initCache() {
+        int maxEntries = Math.max(1, planCacheSize);
+        plans = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VariableTemplate.Plan> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Renders the templated test data of {@code pipelineExecution} into {@code pipelineVariables}.
+     */
+    public void render(FlowExecution flowExecution, PipelineExecution pipelineExecution,
+                       Map<String, String> pipelineVariables) {
+        Map<String, String> configuredTestData = pipelineExecution.getConfiguredTestData();
+        if (!enabled || configuredTestData == null || configuredTestData.isEmpty()) {
+            return;
+        }
+        String key = pipelineExecution.getConfiguredTestDataHash() != null
+                ? pipelineExecution.getConfiguredTestDataHash() : VariableHasher.hash(configuredTestData);
+        VariableTemplate.Plan plan = plans.computeIfAbsent(key, hash -> VariableTemplate.compile(configuredTestData));
+        if (plan.isEmpty()) {
+            return;
+        }
+        VariableTemplate.render(plan, pipelineVariables,
+                plan.hasStepReferences() ? stepOutputs(flowExecution) : null);
+    }
+
+    private VariableTemplate.StepOutputs stepOutputs(FlowExecution flowExecution) {
+        List<Long> stepIds = flowDurationEstimator.getStepIds(flowExecution.getFlowId());
+        Map<Integer, Map<String, String>> views = new HashMap<>();
+        return (stepNumber, key) -> {
+            if (stepNumber > stepIds.size()) {
+                return null;
+            }
+            return views.computeIfAbsent(stepNumber,
+                    n -> passedStepView(flowExecution, stepIds.get(n - 1))).get(key);
+        };
+    }
+
+    private Map<String, String> passedStepView(FlowExecution flowExecution, Long flowStepId) {
+        PipelineExecution pe = pipelineExecutionRepository
+                .findByFlowExecutionIdAndFlowStepId(flowExecution.getId(), flowStepId).orElse(null);
+        if (pe == null || pe.getStatus() != ExecutionStatus.PASSED) {
+            return Collections.emptyMap();
+        }
+        testDataSnapshotService.resolve(pe);
+        return VariableDelta.apply(pe.getConfiguredTestData(), pe.getRuntimeTestData());
+    }
+}
@@ -0,0 +1,71 @@
+package com.ubs.orkestra.util;
+
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Forecasts start and finish offsets of queued work behind a concurrency limit.
+ *
+ * <p>Running items occupy a slot until their remaining time has elapsed. Waiting items are started
+ * in the given order, each as soon as fewer than {@code maxConcurrent} items are running, and then
+ * occupy a slot for their expected duration. All values are milliseconds relative to now.
+ */
+public final class CompletionForecaster {
+
+    private CompletionForecaster() {
+    }
+
+    public static final class Forecast {
+        private final long[] runningFinish;
+        private final long[] waitingStart;
+        private final long[] waitingFinish;
+
+        private Forecast(long[] runningFinish, long[] waitingStart, long[] waitingFinish) {
+            this.runningFinish = runningFinish;
+            this.waitingStart = waitingStart;
+            this.waitingFinish = waitingFinish;
+        }
+
+        public long[] getRunningFinish() {
+            return runningFinish;
+        }
+
+        public long[] getWaitingStart() {
+            return waitingStart;
+        }
+
+        public long[] getWaitingFinish() {
+            return waitingFinish;
+        }
+    }
+
+    /**
+     * @param runningRemaining remaining time of each running item
+     * @param waitingDurations expected duration of each waiting item, in dispatch order
+     * @param maxConcurrent    concurrency limit; values below 1 mean unlimited
+     */
+    public static Forecast forecast(List<Long> runningRemaining, List<Long> waitingDurations, int maxConcurrent) {
+        long[] runningFinish = new long[runningRemaining.size()];
+        PriorityQueue<Long> busy = new PriorityQueue<>();
+        for (int i = 0; i < runningFinish.length; i++) {
+            runningFinish[i] = Math.max(0, runningRemaining.get(i));
+            busy.add(runningFinish[i]);
+        }
+
+        long[] waitingStart = new long[waitingDurations.size()];
+        long[] waitingFinish = new long[waitingDurations.size()];
+        // Dispatch is in order, so a waiting item never starts before the one ahead of it
+        long clock = 0;
+        for (int i = 0; i < waitingStart.length; i++) {
+            if (maxConcurrent > 0) {
+                while (busy.size() >= maxConcurrent) {
+                    clock = Math.max(clock, busy.poll());
+                }
+            }
+            waitingStart[i] = clock;
+            waitingFinish[i] = clock + Math.max(0, waitingDurations.get(i));
+            busy.add(waitingFinish[i]);
+        }
+        return new Forecast(runningFinish, waitingStart, waitingFinish);
+    }
+}
@@ -0,0 +1,59 @@
+package com.ubs.orkestra.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Continuation token of keyset-paginated flow execution listings.
+ *
+ * <p>A cursor is the (createdAt, id) of the last row of a page; the next page starts strictly
+ * after it in (createdAt, id) order. It is passed to clients as an opaque URL-safe string.
+ */
+public final class ExecutionCursor {
+
+    private final LocalDateTime createdAt;
+    private final UUID id;
+
+    public ExecutionCursor(LocalDateTime createdAt, UUID id) {
+        if (createdAt == null || id == null) {
+            throw new IllegalArgumentException("Cursor needs createdAt and id");
+        }
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a token produced by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the token is not a valid cursor
+     */
+    public static ExecutionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new ExecutionCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.ubs.orkestra.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Weighted fair-share selection of waiting work for a number of free slots.
+ *
+ * <p>Waiting candidates are grouped into queues by (tenant, class). Each free slot goes to the
+ * queue with the lowest weighted occupancy, {@code (running + picked) / (tenantWeight * classWeight)},
+ * ties going to the queue whose head has waited longest; within a queue candidates stay FIFO.
+ * Before that, slots are reserved for interactive candidates until interactive runs hold
+ * {@code minInteractiveShare} of {@code maxConcurrent}. A tenant never exceeds
+ * {@code tenantMaxRunning} running plus picked candidates.
+ */
+public final class FairShareSelector {
+
+    private FairShareSelector() {
+    }
+
+    public static final class Candidate<T> {
+        private final T item;
+        private final String tenant;
+        private final boolean interactive;
+
+        public Candidate(T item, String tenant, boolean interactive) {
+            this.item = item;
+            this.tenant = tenant;
+            this.interactive = interactive;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public String getTenant() {
+            return tenant;
+        }
+
+        public boolean isInteractive() {
+            return interactive;
+        }
+    }
+
+    public static final class Policy {
+        private final double interactiveWeight;
+        private final double bulkWeight;
+        private final Map<String, Double> tenantWeights;
+        private final double minInteractiveShare;
+        private final int tenantMaxRunning;
+        private final int maxConcurrent;
+
+        /**
+         * @param tenantMaxRunning running cap per tenant; values below 1 mean unlimited
+         */
+        public Policy(double interactiveWeight, double bulkWeight, Map<String, Double> tenantWeights,
+                      double minInteractiveShare, int tenantMaxRunning, int maxConcurrent) {
+            this.interactiveWeight = interactiveWeight > 0 ? interactiveWeight : 1.0;
+            this.bulkWeight = bulkWeight > 0 ? bulkWeight : 1.0;
+            this.tenantWeights = tenantWeights != null ? tenantWeights : Map.of();
+            this.minInteractiveShare = Math.max(0, Math.min(1, minInteractiveShare));
+            this.tenantMaxRunning = tenantMaxRunning;
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        double weight(String tenant, boolean interactive) {
+            double tenantWeight = tenantWeights.getOrDefault(tenant, 1.0);
+            return (tenantWeight > 0 ? tenantWeight : 1.0) * (interactive ? interactiveWeight : bulkWeight);
+        }
+    }
+
+    /**
+     * @param candidates         waiting candidates in arrival order
+     * @param runningByTenant    running count per tenant, split by class
+     *                           (key {@link #queueKey(String, boolean)})
+     * @param slots              free slots to fill
+     * @return selected items in dispatch order
+     */
+    public static <T> List<T> select(List<Candidate<T>> candidates, Map<String, Integer> runningByTenant,
+                                     int slots, Policy policy) {
+        List<T> selected = new ArrayList<>();
+        if (slots <= 0 || candidates.isEmpty()) {
+            return selected;
+        }
+
+        Map<String, Deque<Indexed<T>>> queues = new LinkedHashMap<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            Candidate<T> candidate = candidates.get(i);
+            queues.computeIfAbsent(queueKey(candidate.tenant, candidate.interactive), k -> new ArrayDeque<>())
+                  .add(new Indexed<>(i, candidate));
+        }
+
+        Map<String, Integer> occupancy = new HashMap<>(runningByTenant);
+        Map<String, Integer> tenantTotals = new HashMap<>();
+        int runningInteractive = 0;
+        for (Map.Entry<String, Integer> entry : runningByTenant.entrySet()) {
+            tenantTotals.merge(tenantOf(entry.getKey()), entry.getValue(), Integer::sum);
+            if (isInteractiveKey(entry.getKey())) {
+                runningInteractive += entry.getValue();
+            }
+        }
+
+        int reserved = (int) Math.ceil(policy.minInteractiveShare * policy.maxConcurrent) - runningInteractive;
+        while (reserved > 0 && selected.size() < slots) {
+            Candidate<T> next = pick(queues, occupancy, tenantTotals, policy, FairShareSelector::isInteractiveKey);
+            if (next == null) {
+                break;
+            }
+            selected.add(next.item);
+            reserved--;
+        }
+        while (selected.size() < slots) {
+            Candidate<T> next = pick(queues, occupancy, tenantTotals, policy, key -> true);
+            if (next == null) {
+                break;
+            }
+            selected.add(next.item);
+        }
+        return selected;
+    }
+
+    public static String queueKey(String tenant, boolean interactive) {
+        return (interactive ? "I|" : "B|") + tenant;
+    }
+
+    private static <T> Candidate<T> pick(Map<String, Deque<Indexed<T>>> queues, Map<String, Integer> occupancy,
+                                         Map<String, Integer> tenantTotals, Policy policy,
+                                         Predicate<String> eligible) {
+        String bestKey = null;
+        double bestShare = Double.MAX_VALUE;
+        int bestIndex = Integer.MAX_VALUE;
+
+        for (Map.Entry<String, Deque<Indexed<T>>> entry : queues.entrySet()) {
+            String key = entry.getKey();
+            Deque<Indexed<T>> queue = entry.getValue();
+            if (queue.isEmpty() || !eligible.test(key)) {
+                continue;
+            }
+            String tenant = tenantOf(key);
+            if (policy.tenantMaxRunning > 0 && tenantTotals.getOrDefault(tenant, 0) >= policy.tenantMaxRunning) {
+                continue;
+            }
+            double share = occupancy.getOrDefault(key, 0) / policy.weight(tenant, isInteractiveKey(key));
+            int headIndex = queue.peek().index;
+            if (share < bestShare || (share == bestShare && headIndex < bestIndex)) {
+                bestKey = key;
+                bestShare = share;
+                bestIndex = headIndex;
+            }
+        }
+
+        if (bestKey == null) {
+            return null;
+        }
+        Indexed<T> next = queues.get(bestKey).poll();
+        occupancy.merge(bestKey, 1, Integer::sum);
+        tenantTotals.merge(tenantOf(bestKey), 1, Integer::sum);
+        return next.candidate;
+    }
+
+    private static boolean isInteractiveKey(String key) {
+        return key.startsWith("I|");
+    }
+
+    private static String tenantOf(String key) {
+        return key.substring(2);
+    }
+
+    private static final class Indexed<T> {
+        private final int index;
+        private final Candidate<T> candidate;
+
+        private Indexed(int index, Candidate<T> candidate) {
+            this.index = index;
+            this.candidate = candidate;
+        }
+    }
+}
@@ -18,6 +18,7 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 public class GitLabApiClient {
@@ -30,6 +31,10 @@ public class GitLabApiClient {
     private static final Duration RETRY_MIN_BACKOFF  = Duration.ofSeconds(1);
     private static final Duration RETRY_MAX_BACKOFF  = Duration.ofSeconds(10);
 
+    // Smoothed triggerPipeline round-trip time (incl. retries), read by the launch planner
+    private static final double TRIGGER_LATENCY_EWMA_ALPHA = 0.2;
+    private final AtomicLong triggerLatencyEwmaMillis = new AtomicLong(-1);
+
     public GitLabApiClient() {
         /*
          * Configure a dedicated Reactor Netty connection pool sized to handle
@@ -117,21 +122,38 @@ public class GitLabApiClient {
         
         GitLabPipelineRequest request = new GitLabPipelineRequest(branch, variables);
         
-        return webClient.post()
-                .uri(url)
-                .header("PRIVATE-TOKEN", accessToken)
-                .header("Content-Type", "application/json")
-                .bodyValue(request)
-                .retrieve()
-                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                         response -> response.bodyToMono(String.class)
-                                 .doOnNext(body -> logger.error("GitLab API error response: {}", body))
-                                 .then(Mono.error(new RuntimeException("GitLab API error: " + response.statusCode()))))
-                .bodyToMono(GitLabPipelineResponse.class)
-                .timeout(Duration.ofSeconds(30))
-                .retryWhen(transientRetry("triggerPipeline"))
-                .doOnSuccess(response -> logger.info("Pipeline triggered successfully: {}", response.getId()))
-                .doOnError(error -> logger.error("Failed to trigger pipeline: {}", error.getMessage()));
+        return Mono.defer(() -> {
+            long startNanos = System.nanoTime();
+            return webClient.post()
+                    .uri(url)
+                    .header("PRIVATE-TOKEN", accessToken)
+                    .header("Content-Type", "application/json")
+                    .bodyValue(request)
+                    .retrieve()
+                    .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                             response -> response.bodyToMono(String.class)
+                                     .doOnNext(body -> logger.error("GitLab API error response: {}", body))
+                                     .then(Mono.error(new RuntimeException("GitLab API error: " + response.statusCode()))))
+                    .bodyToMono(GitLabPipelineResponse.class)
+                    .timeout(Duration.ofSeconds(30))
+                    .retryWhen(transientRetry("triggerPipeline"))
+                    .doOnTerminate(() -> recordTriggerLatency((System.nanoTime() - startNanos) / 1_000_000))
+                    .doOnSuccess(response -> logger.info("Pipeline triggered successfully: {}", response.getId()))
+                    .doOnError(error -> logger.error("Failed to trigger pipeline: {}", error.getMessage()));
+        });
+    }
+
+    /**
+     * Smoothed latency of recent triggerPipeline calls in milliseconds, or {@code -1}
+     * when no trigger has completed yet.
+     */
+    public long getTriggerLatencyMillis() {
+        return triggerLatencyEwmaMillis.get();
+    }
+
+    private void recordTriggerLatency(long latencyMillis) {
+        triggerLatencyEwmaMillis.updateAndGet(previous -> previous < 0 ? latencyMillis
+                : Math.round(TRIGGER_LATENCY_EWMA_ALPHA * latencyMillis + (1 - TRIGGER_LATENCY_EWMA_ALPHA) * previous));
     }
 
     /**
@@ -151,6 +173,25 @@ public class GitLabApiClient {
                 .doOnError(error -> logger.error("Failed to get pipeline status: {}", error.getMessage()));
     }
 
+    /**
+     * Cancel a running pipeline; GitLab answers with the pipeline in its new state
+     */
+    public Mono<GitLabPipelineResponse> cancelPipeline(String gitlabBaseUrl, String projectId,
+                                                      Long pipelineId, String accessToken) {
+        String url = String.format("%s/api/v4/projects/%s/pipelines/%d/cancel", gitlabBaseUrl, projectId, pipelineId);
+        
+        return webClient.post()
+                .uri(url)
+                .header("PRIVATE-TOKEN", accessToken)
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                         response -> Mono.error(new RuntimeException("GitLab API error: " + response.statusCode())))
+                .bodyToMono(GitLabPipelineResponse.class)
+                .timeout(Duration.ofSeconds(15))
+                .retryWhen(transientRetry("cancelPipeline"))
+                .doOnError(error -> logger.error("Failed to cancel pipeline {}: {}", pipelineId, error.getMessage()));
+    }
+
     /**
      * Get jobs for a pipeline
      */
@@ -255,6 +296,27 @@ public class GitLabApiClient {
                 .doOnError(error -> logger.error("Failed to fetch branches for project {}: {}", projectId, error.getMessage()));
     }
     
+    /**
+     * Get a single branch (including its HEAD commit) for a GitLab project.
+     * The branch name is passed as a URI variable so names containing '/' are encoded correctly.
+     */
+    public Mono<GitLabBranchResponse> getBranch(String gitlabBaseUrl, String projectId, String branch, String accessToken) {
+        logger.debug("Fetching branch {} for GitLab project {}", branch, projectId);
+
+        return webClient.get()
+                .uri(gitlabBaseUrl + "/api/v4/projects/{projectId}/repository/branches/{branch}", projectId, branch)
+                .header("PRIVATE-TOKEN", accessToken)
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                         response -> Mono.error(new RuntimeException(
+                                 String.format("GitLab branch API error: %d %s", response.statusCode().value(),
+                                              getStatusMessage(response.statusCode().value())))))
+                .bodyToMono(GitLabBranchResponse.class)
+                .timeout(Duration.ofSeconds(15))
+                .retryWhen(transientRetry("getBranch"))
+                .doOnError(error -> logger.warn("Failed to fetch branch {} for project {}: {}", branch, projectId, error.getMessage()));
+    }
+
     private String getStatusMessage(int statusCode) {
         switch (statusCode) {
             case 401:
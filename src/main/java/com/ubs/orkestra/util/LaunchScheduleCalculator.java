@@ -0,0 +1,90 @@
+package com.ubs.orkestra.util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Computes launch offsets for a batch of step-0 triggers.
+ *
+ * <p>Launches are spread evenly over a ramp window with bounded random jitter. Every trigger is
+ * assumed to occupy GitLab for {@code triggerLatencyMillis}; a launch is pushed back until fewer
+ * than {@code maxConcurrent} triggers are in flight globally and fewer than
+ * {@code perAppMaxConcurrent} for its application. Offsets never decrease, so launches keep the
+ * order in which they were requested.
+ */
+public final class LaunchScheduleCalculator {
+
+    private static final double MAX_JITTER_RATIO = 0.5;
+
+    private LaunchScheduleCalculator() {
+    }
+
+    /**
+     * @param appKeys             application key per launch, in launch order
+     * @param rampWindowMillis    window over which launches are spread
+     * @param triggerLatencyMillis expected duration of one trigger call
+     * @param perAppMaxConcurrent maximum triggers in flight per application (values below 1 mean unlimited)
+     * @param maxConcurrent       maximum triggers in flight overall (values below 1 mean unlimited)
+     * @param jitterRatio         jitter as a fraction of the launch spacing, capped at 0.5
+     * @param random              source of jitter
+     * @return offset in milliseconds from now for each launch
+     */
+    public static long[] computeOffsets(List<String> appKeys, long rampWindowMillis, long triggerLatencyMillis,
+                                        int perAppMaxConcurrent, int maxConcurrent, double jitterRatio,
+                                        Random random) {
+        int n = appKeys.size();
+        long[] offsets = new long[n];
+        if (n == 0) {
+            return offsets;
+        }
+
+        double spacing = (double) Math.max(0, rampWindowMillis) / n;
+        double jitter = Math.max(0, Math.min(MAX_JITTER_RATIO, jitterRatio)) * spacing;
+        long latency = Math.max(0, triggerLatencyMillis);
+
+        PriorityQueue<Long> inFlight = new PriorityQueue<>();
+        Map<String, PriorityQueue<Long>> inFlightByApp = new HashMap<>();
+        long previous = 0;
+
+        for (int i = 0; i < n; i++) {
+            long desired = Math.round(i * spacing + (random.nextDouble() * 2 - 1) * jitter);
+            long t = Math.max(previous, Math.max(0, desired));
+
+            PriorityQueue<Long> appInFlight = inFlightByApp.computeIfAbsent(appKeys.get(i), k -> new PriorityQueue<>());
+            // Waiting for one limit can only move t forward, so repeat until both limits hold at t
+            boolean moved = true;
+            while (moved) {
+                moved = false;
+                long afterGlobal = waitForSlot(inFlight, maxConcurrent, t);
+                long afterApp = waitForSlot(appInFlight, perAppMaxConcurrent, afterGlobal);
+                if (afterApp != t) {
+                    t = afterApp;
+                    moved = true;
+                }
+            }
+
+            inFlight.add(t + latency);
+            appInFlight.add(t + latency);
+            offsets[i] = t;
+            previous = t;
+        }
+        return offsets;
+    }
+
+    /**
+     * Drops triggers finished by {@code t} and, if the limit is still reached, returns the time
+     * the earliest in-flight trigger finishes.
+     */
+    private static long waitForSlot(PriorityQueue<Long> inFlight, int limit, long t) {
+        while (!inFlight.isEmpty() && inFlight.peek() <= t) {
+            inFlight.poll();
+        }
+        if (limit < 1 || inFlight.size() < limit) {
+            return t;
+        }
+        return inFlight.peek();
+    }
+}
@@ -0,0 +1,63 @@
+package com.ubs.orkestra.util;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe token bucket: refills at a fixed rate up to a burst capacity.
+ * Used to pace GitLab triggers so bursts of due work are released gradually.
+ */
+public class TokenBucket {
+
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param ratePerMinute tokens added per minute (must be positive)
+     * @param burst         maximum tokens held at once; the bucket starts full
+     */
+    public TokenBucket(double ratePerMinute, int burst) {
+        this(ratePerMinute, burst, System::nanoTime);
+    }
+
+    public TokenBucket(double ratePerMinute, int burst, LongSupplier nanoClock) {
+        if (ratePerMinute <= 0) {
+            throw new IllegalArgumentException("ratePerMinute must be positive: " + ratePerMinute);
+        }
+        this.capacity = Math.max(1, burst);
+        this.tokensPerNano = ratePerMinute / NANOS_PER_MINUTE;
+        this.nanoClock = nanoClock;
+        this.tokens = this.capacity;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /** Takes one token if available. */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /** True if a token is available, without taking it. */
+    public synchronized boolean hasToken() {
+        refill();
+        return tokens >= 1;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
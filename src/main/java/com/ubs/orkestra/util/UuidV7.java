@@ -0,0 +1,62 @@
+package com.ubs.orkestra.util;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Time-ordered UUIDs (version 7, RFC 9562).
+ *
+ * <p>The first 48 bits are the Unix epoch milliseconds, followed by the version, a 12-bit counter
+ * and 62 random bits. The counter starts at a random value below 2048 each millisecond and is
+ * incremented for every further id in the same millisecond; when it overflows, or the clock goes
+ * back, the timestamp of the previous id is carried forward. Ids generated by one JVM are
+ * therefore strictly increasing, both as {@link UUID#compareTo} and in the byte order the database
+ * sorts uuid columns by, so new rows are appended at the right edge of a primary key index.
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final UuidV7 GENERATOR = new UuidV7();
+
+    private long lastMillis = -1;
+    private int counter;
+
+    UuidV7() {
+    }
+
+    public static UUID generate() {
+        return GENERATOR.next(System.currentTimeMillis());
+    }
+
+    UUID next(long currentMillis) {
+        long millis;
+        int sequence;
+        synchronized (this) {
+            if (currentMillis > lastMillis) {
+                lastMillis = currentMillis;
+                counter = RANDOM.nextInt(1 << 11);
+            } else if (++counter > 0xFFF) {
+                lastMillis++;
+                counter = 0;
+            }
+            millis = lastMillis;
+            sequence = counter;
+        }
+        long mostSignificantBits = (millis & 0xFFFFFFFFFFFFL) << 16 | 0x7000L | sequence;
+        long leastSignificantBits = RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    public static boolean isTimeOrdered(UUID id) {
+        return id != null && id.version() == 7;
+    }
+
+    /**
+     * Creation time embedded in a version 7 id; null for other versions, e.g. random (v4) ids.
+     */
+    public static Instant timestamp(UUID id) {
+        return isTimeOrdered(id) ? Instant.ofEpochMilli(id.getMostSignificantBits() >>> 16) : null;
+    }
+}
@@ -0,0 +1,48 @@
+package com.ubs.orkestra.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Stores step variables as the delta against the variables the step started from.
+ *
+ * <p>A step's runtime test data is its configured test data plus the outputs of its pipeline.
+ * Only the entries that are new or changed are stored; the full view is rebuilt by applying the
+ * delta on top of the base. Removals are not represented, as outputs only ever add or override
+ * variables. Records written before deltas were introduced hold full snapshots, which apply to
+ * the same full view.
+ */
+public final class VariableDelta {
+
+    private VariableDelta() {
+    }
+
+    /**
+     * Entries of {@code full} that are missing from {@code base} or have a different value.
+     */
+    public static Map<String, String> diff(Map<String, String> base, Map<String, String> full) {
+        Map<String, String> delta = new HashMap<>();
+        if (full == null) {
+            return delta;
+        }
+        for (Map.Entry<String, String> entry : full.entrySet()) {
+            if (base == null || !base.containsKey(entry.getKey())
+                    || !Objects.equals(base.get(entry.getKey()), entry.getValue())) {
+                delta.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Full view of the variables: {@code base} overridden by {@code delta}.
+     */
+    public static Map<String, String> apply(Map<String, String> base, Map<String, String> delta) {
+        Map<String, String> full = base != null ? new HashMap<>(base) : new HashMap<>();
+        if (delta != null) {
+            full.putAll(delta);
+        }
+        return full;
+    }
+}
@@ -0,0 +1,91 @@
+package com.ubs.orkestra.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Produces stable content hashes for variable maps.
+ *
+ * <p>The map is canonicalised (keys sorted, nulls normalised) before hashing so two maps
+ * with the same entries always yield the same SHA-256 hex digest regardless of
+ * insertion order or map implementation.
+ */
+public final class VariableHasher {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private VariableHasher() {
+    }
+
+    /**
+     * Hash every entry of the given map.
+     */
+    public static String hash(Map<String, String> variables) {
+        return hash(variables, Collections.emptySet());
+    }
+
+    /**
+     * Hash the given map, ignoring the listed keys (e.g. per-execution identifiers that
+     * must not influence the result).
+     */
+    public static String hash(Map<String, String> variables, Set<String> excludedKeys) {
+        MessageDigest digest = newDigest();
+        if (variables != null) {
+            Map<String, String> sorted = new TreeMap<>();
+            variables.forEach((key, value) -> {
+                if (key != null && !excludedKeys.contains(key)) {
+                    sorted.put(key, value);
+                }
+            });
+            sorted.forEach((key, value) -> {
+                update(digest, key);
+                // Distinguish a null value from an empty string
+                update(digest, value == null ? "\u0000null" : value);
+            });
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Hash an arbitrary sequence of string parts, e.g. to build composite keys.
+     */
+    public static String hashParts(String... parts) {
+        MessageDigest digest = newDigest();
+        for (String part : parts) {
+            update(digest, part == null ? "\u0000null" : part);
+        }
+        return toHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        // Length-prefix each part so ("ab","c") and ("a","bc") never collide
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0x0F];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0x0F];
+        }
+        return new String(chars);
+    }
+}
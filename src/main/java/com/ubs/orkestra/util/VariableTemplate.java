@@ -0,0 +1,231 @@
+package com.ubs.orkestra.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles variable values with {@code ${...}} references into reusable evaluation plans.
+ *
+ * <p>A reference names another variable ({@code ${ENV}_user}) or an output of an earlier step of
+ * the flow by its 1-based position ({@code ${step1.ORDER_ID}-suffix}). References that cannot be
+ * resolved are kept verbatim, and {@code $$} is passed through untouched, so values meant for
+ * GitLab's own variable expansion, including its {@code $$} escape, reach GitLab unchanged.
+ *
+ * <p>{@link #compile} splits every templated value once into literal and reference segments and
+ * orders the entries so that a value referencing another templated variable of the same map is
+ * evaluated after it. Entries in a reference cycle are left out of the plan. Values without
+ * references are not part of the plan, and {@link #render} only touches the templated entries.
+ */
+public final class VariableTemplate {
+
+    private static final Plan EMPTY = new Plan(Collections.emptyList(), false);
+
+    private VariableTemplate() {
+    }
+
+    /**
+     * Outputs of earlier steps of the flow, by 1-based step position.
+     */
+    @FunctionalInterface
+    public interface StepOutputs {
+        String get(int stepNumber, String key);
+    }
+
+    public static final class Plan {
+        private final List<Entry> entries;
+        private final boolean stepReferences;
+
+        private Plan(List<Entry> entries, boolean stepReferences) {
+            this.entries = entries;
+            this.stepReferences = stepReferences;
+        }
+
+        public boolean isEmpty() {
+            return entries.isEmpty();
+        }
+
+        /** True if any entry references an output of another step. */
+        public boolean hasStepReferences() {
+            return stepReferences;
+        }
+
+        /** Templated keys in evaluation order. */
+        public List<String> getKeys() {
+            List<String> keys = new ArrayList<>(entries.size());
+            entries.forEach(entry -> keys.add(entry.key));
+            return keys;
+        }
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final String template;
+        // literals.length == references.length + 1; the value is literals[0] ref[0] literals[1] ...
+        private final String[] literals;
+        private final Reference[] references;
+        private final int literalLength;
+
+        private Entry(String key, String template, List<String> literals, List<Reference> references) {
+            this.key = key.intern();
+            this.template = template;
+            this.literals = literals.toArray(new String[0]);
+            this.references = references.toArray(new Reference[0]);
+            int length = 0;
+            for (String literal : this.literals) {
+                length += literal.length();
+            }
+            this.literalLength = length;
+        }
+    }
+
+    private static final class Reference {
+        private final String name;
+        private final int stepNumber;
+        private final String stepKey;
+
+        private Reference(String name) {
+            this.name = name.intern();
+            int dot = name.indexOf('.');
+            int step = 0;
+            if (name.startsWith("step") && dot > 4 && dot < name.length() - 1) {
+                try {
+                    step = Integer.parseInt(name.substring(4, dot));
+                } catch (NumberFormatException e) {
+                    step = 0;
+                }
+            }
+            this.stepNumber = step > 0 ? step : 0;
+            this.stepKey = stepNumber > 0 ? name.substring(dot + 1).intern() : null;
+        }
+    }
+
+    /**
+     * Compiles the templated values of {@code variables} into an evaluation plan.
+     */
+    public static Plan compile(Map<String, String> variables) {
+        if (variables == null || variables.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, Entry> templated = new HashMap<>();
+        boolean stepReferences = false;
+        for (Map.Entry<String, String> variable : variables.entrySet()) {
+            String value = variable.getValue();
+            if (variable.getKey() == null || value == null || !value.contains("${")) {
+                continue;
+            }
+            Entry entry = parse(variable.getKey(), value);
+            if (entry != null) {
+                templated.put(entry.key, entry);
+                for (Reference reference : entry.references) {
+                    stepReferences |= reference.stepNumber > 0;
+                }
+            }
+        }
+        if (templated.isEmpty()) {
+            return EMPTY;
+        }
+        return new Plan(order(templated), stepReferences);
+    }
+
+    /**
+     * Evaluates the plan in place: each templated entry whose value is still its template (i.e. not
+     * overridden by a runtime variable) is replaced by its rendered value. Variable references are
+     * looked up in {@code variables}, step references in {@code stepOutputs}.
+     */
+    public static void render(Plan plan, Map<String, String> variables, StepOutputs stepOutputs) {
+        for (Entry entry : plan.entries) {
+            if (!entry.template.equals(variables.get(entry.key))) {
+                continue;
+            }
+            StringBuilder value = new StringBuilder(entry.literalLength + 16 * entry.references.length);
+            for (int i = 0; i < entry.references.length; i++) {
+                value.append(entry.literals[i]);
+                Reference reference = entry.references[i];
+                String resolved;
+                if (reference.stepNumber > 0) {
+                    resolved = stepOutputs != null ? stepOutputs.get(reference.stepNumber, reference.stepKey) : null;
+                } else {
+                    // A value referencing itself stays verbatim
+                    resolved = reference.name.equals(entry.key) ? null : variables.get(reference.name);
+                }
+                if (resolved != null) {
+                    value.append(resolved);
+                } else {
+                    value.append("${").append(reference.name).append('}');
+                }
+            }
+            value.append(entry.literals[entry.references.length]);
+            variables.put(entry.key, value.toString());
+        }
+    }
+
+    private static Entry parse(String key, String value) {
+        List<String> literals = new ArrayList<>();
+        List<Reference> references = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        boolean templated = false;
+        int i = 0;
+        while (i < value.length()) {
+            // GitLab's escaped dollar; whatever follows it is not a reference
+            if (value.startsWith("$$", i)) {
+                literal.append("$$");
+                i += 2;
+                continue;
+            }
+            if (value.startsWith("${", i)) {
+                int end = value.indexOf('}', i + 2);
+                if (end > i + 2) {
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    references.add(new Reference(value.substring(i + 2, end)));
+                    templated = true;
+                    i = end + 1;
+                    continue;
+                }
+            }
+            literal.append(value.charAt(i));
+            i++;
+        }
+        literals.add(literal.toString());
+        return templated ? new Entry(key, value, literals, references) : null;
+    }
+
+    // Kahn's algorithm over references between templated entries; entries on a cycle are dropped
+    private static List<Entry> order(Map<String, Entry> templated) {
+        Map<String, Integer> pending = new HashMap<>();
+        Map<String, List<Entry>> dependents = new HashMap<>();
+        for (Entry entry : templated.values()) {
+            int count = 0;
+            for (Reference reference : entry.references) {
+                if (reference.stepNumber == 0 && templated.containsKey(reference.name)
+                        && !reference.name.equals(entry.key)) {
+                    dependents.computeIfAbsent(reference.name, name -> new ArrayList<>()).add(entry);
+                    count++;
+                }
+            }
+            pending.put(entry.key, count);
+        }
+
+        Deque<Entry> ready = new ArrayDeque<>();
+        templated.values().stream()
+                .filter(entry -> pending.get(entry.key) == 0)
+                .sorted((a, b) -> a.key.compareTo(b.key))
+                .forEach(ready::add);
+        List<Entry> ordered = new ArrayList<>(templated.size());
+        while (!ready.isEmpty()) {
+            Entry entry = ready.poll();
+            ordered.add(entry);
+            for (Entry dependent : dependents.getOrDefault(entry.key, Collections.emptyList())) {
+                if (pending.merge(dependent.key, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        return Collections.unmodifiableList(ordered);
+    }
+}
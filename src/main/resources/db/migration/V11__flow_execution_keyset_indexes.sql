@@ -0,0 +1,6 @@
+-- Keyset pagination of execution listings
+-- Listings page on (created_at, id), optionally narrowed to a flow or a FlowGroup run.
+CREATE INDEX IF NOT EXISTS idx_flow_executions_created_at_id ON flow_executions (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_flow_executions_flow_created_at_id ON flow_executions (flow_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_flow_executions_group_iteration_created_at_id
+    ON flow_executions (flow_group_id, iteration, created_at, id);
@@ -0,0 +1,24 @@
+-- Step outcome memoization
+-- Step records remember whether their outcome was reused and the cache key captured at trigger time.
+ALTER TABLE pipeline_executions ADD COLUMN IF NOT EXISTS cache_hit BOOLEAN DEFAULT FALSE;
+ALTER TABLE pipeline_executions ADD COLUMN IF NOT EXISTS commit_sha VARCHAR(64);
+ALTER TABLE pipeline_executions ADD COLUMN IF NOT EXISTS input_hash VARCHAR(64);
+
+CREATE SEQUENCE IF NOT EXISTS step_result_cache_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS step_result_cache (
+    id                           BIGINT       NOT NULL PRIMARY KEY,
+    flow_step_id                 BIGINT       NOT NULL,
+    commit_sha                   VARCHAR(64)  NOT NULL,
+    input_hash                   VARCHAR(64)  NOT NULL,
+    runtime_test_data            JSON,
+    source_pipeline_execution_id BIGINT,
+    pipeline_id                  BIGINT,
+    pipeline_url                 VARCHAR(255),
+    hit_count                    BIGINT,
+    created_at                   TIMESTAMP(6) NOT NULL,
+    expires_at                   TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_step_result_cache_key UNIQUE (flow_step_id, commit_sha, input_hash)
+);
+
+CREATE INDEX IF NOT EXISTS idx_step_result_cache_expires_at ON step_result_cache (expires_at);
@@ -0,0 +1,29 @@
+-- Early abort of FlowGroup runs on systemic step failures
+-- Abort decisions are recorded per run; paused flows use the new PAUSED status.
+CREATE SEQUENCE IF NOT EXISTS flow_group_run_aborts_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS flow_group_run_aborts (
+    id                  BIGINT           NOT NULL PRIMARY KEY,
+    flow_group_id       BIGINT           NOT NULL,
+    iteration           INTEGER          NOT NULL,
+    flow_step_id        BIGINT           NOT NULL,
+    failed_count        BIGINT,
+    terminal_count      BIGINT,
+    failure_ratio       DOUBLE PRECISION,
+    threshold           DOUBLE PRECISION,
+    action              VARCHAR(16),
+    affected_flow_count INTEGER,
+    reason              VARCHAR(1000),
+    created_at          TIMESTAMP(6)     NOT NULL,
+    resumed_at          TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_run_aborts_group_iteration ON flow_group_run_aborts (flow_group_id, iteration);
+
+-- Schemas generated by Hibernate restrict enum columns to the values known at the time
+ALTER TABLE flow_executions DROP CONSTRAINT IF EXISTS flow_executions_status_check;
+ALTER TABLE flow_executions ADD CONSTRAINT flow_executions_status_check
+    CHECK (status IN ('PENDING', 'RUNNING', 'PASSED', 'FAILED', 'CANCELLED', 'SCHEDULED', 'IN_PROGRESS', 'PAUSED'));
+ALTER TABLE pipeline_executions DROP CONSTRAINT IF EXISTS pipeline_executions_status_check;
+ALTER TABLE pipeline_executions ADD CONSTRAINT pipeline_executions_status_check
+    CHECK (status IN ('PENDING', 'RUNNING', 'PASSED', 'FAILED', 'CANCELLED', 'SCHEDULED', 'IN_PROGRESS', 'PAUSED'));
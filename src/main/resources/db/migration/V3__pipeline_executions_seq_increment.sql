@@ -0,0 +1,4 @@
+-- Bulk batched creation of multi-flow launches
+-- Step records use pooled id allocation (allocationSize = 50); Hibernate refuses to start when the
+-- database sequence increment does not match.
+ALTER SEQUENCE pipeline_executions_seq INCREMENT BY 50;
@@ -0,0 +1,3 @@
+-- Rate-limited release of due scheduled steps
+-- Optional per-application release rate; null uses flow-execution.scheduled-release.per-app-per-minute.
+ALTER TABLE applications ADD COLUMN IF NOT EXISTS scheduled_release_per_minute INTEGER;
@@ -0,0 +1,3 @@
+-- Fair-share dispatch of PENDING flows
+-- Scheduling class of a flow execution; null (older rows) is treated as BULK.
+ALTER TABLE flow_executions ADD COLUMN IF NOT EXISTS scheduling_class VARCHAR(16);
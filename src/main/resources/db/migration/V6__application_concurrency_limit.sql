@@ -0,0 +1,4 @@
+-- Per-application concurrency gate
+-- Optional cap on RUNNING pipelines per application, and the time a step started waiting for a slot.
+ALTER TABLE applications ADD COLUMN IF NOT EXISTS max_concurrent_pipelines INTEGER;
+ALTER TABLE pipeline_executions ADD COLUMN IF NOT EXISTS awaiting_capacity_since TIMESTAMP(6);
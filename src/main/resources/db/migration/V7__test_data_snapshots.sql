@@ -0,0 +1,9 @@
+-- Content-addressed storage for configured test data snapshots
+-- Configured test data is stored once per distinct content and referenced from step records by hash.
+CREATE TABLE IF NOT EXISTS test_data_snapshots (
+    hash       VARCHAR(64)  NOT NULL PRIMARY KEY,
+    data       JSON,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+ALTER TABLE pipeline_executions ADD COLUMN IF NOT EXISTS configured_test_data_hash VARCHAR(64);
@@ -0,0 +1,18 @@
+-- Event-sourced execution journal
+-- Append-only journal of execution events; ids are allocated in blocks of 50 for batched inserts.
+CREATE SEQUENCE IF NOT EXISTS execution_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS execution_events (
+    id                    BIGINT       NOT NULL PRIMARY KEY,
+    flow_execution_id     UUID         NOT NULL,
+    pipeline_execution_id BIGINT,
+    flow_step_id          BIGINT,
+    flow_group_id         BIGINT,
+    event_type            VARCHAR(32)  NOT NULL,
+    from_status           VARCHAR(32),
+    to_status             VARCHAR(32),
+    detail                VARCHAR(512),
+    occurred_at           TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_execution_events_flow_execution ON execution_events (flow_execution_id, id);
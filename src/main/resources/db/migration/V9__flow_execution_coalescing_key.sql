@@ -0,0 +1,5 @@
+-- Coalescing of duplicate in-flight runs
+-- Key of an in-flight coalesced launch; unique, and PostgreSQL ignores NULLs, so only in-flight executions hold one.
+ALTER TABLE flow_executions ADD COLUMN IF NOT EXISTS coalescing_key VARCHAR(64);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_flow_executions_coalescing_key ON flow_executions (coalescing_key);
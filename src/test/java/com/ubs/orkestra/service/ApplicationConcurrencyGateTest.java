@@ -0,0 +1,186 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.model.Application;
+import com.ubs.orkestra.model.PipelineExecution;
+import com.ubs.orkestra.repository.ApplicationRepository;
+import com.ubs.orkestra.repository.FlowStepRepository;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ApplicationConcurrencyGateTest {
+
+    private static final Long APP_ID = 7L;
+
+    @Mock
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Mock
+    private ApplicationRepository applicationRepository;
+
+    @Mock
+    private FlowStepRepository flowStepRepository;
+
+    @Mock
+    private FlowExecutionService flowExecutionService;
+
+    @InjectMocks
+    private ApplicationConcurrencyGate gate;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(gate, "enabled", true);
+    }
+
+    @Test
+    void testTryAdmitReservesTheLastSlot() {
+        Application application = application(2);
+        runningPipelines(1L);
+        noneAhead();
+
+        assertTrue(gate.tryAdmit(application, step(100L)));
+        // The reservation counts until the RUNNING row is visible, so the next trigger finds the application full
+        assertFalse(gate.tryAdmit(application, step(101L)));
+    }
+
+    @Test
+    void testTryAdmitRefusedWhileOlderStepsWait() {
+        when(pipelineExecutionRepository.countAwaitingCapacityAhead(eq(APP_ID), eq(ExecutionStatus.SCHEDULED),
+                eq(ExecutionStatus.RUNNING), any(), anyLong())).thenReturn(1L);
+
+        assertFalse(gate.tryAdmit(application(5), step(100L)));
+        verify(pipelineExecutionRepository, never()).countByApplicationAndStatusExcluding(any(), any(), any());
+    }
+
+    @Test
+    void testUnlimitedApplicationIsAlwaysAdmitted() {
+        assertTrue(gate.tryAdmit(application(null), step(100L)));
+        assertTrue(gate.tryAdmit(application(0), step(101L)));
+
+        verifyNoInteractions(pipelineExecutionRepository);
+    }
+
+    @Test
+    void testExpiredReservationFreesItsSlot() {
+        Application application = application(1);
+        runningPipelines(0L);
+        noneAhead();
+        assertTrue(gate.tryAdmit(application, step(100L)));
+        assertFalse(gate.tryAdmit(application, step(101L)));
+
+        // A trigger that never committed leaves its reservation behind until the TTL drops it
+        reservationsOf(APP_ID).put(100L, System.currentTimeMillis() - 3 * 60 * 1000L);
+        when(pipelineExecutionRepository.countAwaitingCapacityByApplication(ExecutionStatus.SCHEDULED,
+                ExecutionStatus.RUNNING)).thenReturn(List.of());
+        gate.releaseAllWaiting();
+
+        assertTrue(gate.tryAdmit(application, step(101L)));
+    }
+
+    @Test
+    void testFreshReservationSurvivesTheSweep() {
+        Application application = application(1);
+        runningPipelines(0L);
+        noneAhead();
+        assertTrue(gate.tryAdmit(application, step(100L)));
+        when(pipelineExecutionRepository.countAwaitingCapacityByApplication(ExecutionStatus.SCHEDULED,
+                ExecutionStatus.RUNNING)).thenReturn(List.of());
+
+        gate.releaseAllWaiting();
+
+        assertFalse(gate.tryAdmit(application, step(101L)));
+    }
+
+    @Test
+    void testReleaseWaitingResumesClaimedStepsInOrder() {
+        Application application = application(3);
+        when(applicationRepository.findById(APP_ID)).thenReturn(Optional.of(application));
+        runningPipelines(1L);
+        PipelineExecution first = waitingStep(100L);
+        PipelineExecution taken = waitingStep(101L);
+        when(pipelineExecutionRepository.findAwaitingCapacity(eq(APP_ID), eq(ExecutionStatus.SCHEDULED),
+                eq(ExecutionStatus.RUNNING), any())).thenReturn(List.of(first, taken));
+        when(pipelineExecutionRepository.claimAwaitingCapacity(100L, ExecutionStatus.SCHEDULED, ExecutionStatus.RUNNING))
+                .thenReturn(1);
+        // Released by another sweep, or its flow is no longer RUNNING
+        when(pipelineExecutionRepository.claimAwaitingCapacity(101L, ExecutionStatus.SCHEDULED, ExecutionStatus.RUNNING))
+                .thenReturn(0);
+
+        assertEquals(1, gate.releaseWaiting(APP_ID));
+
+        verify(flowExecutionService).resumeFlowExecution(first.getFlowExecutionId(), first.getFlowStepId());
+        verify(flowExecutionService, never()).resumeFlowExecution(taken.getFlowExecutionId(), taken.getFlowStepId());
+        // The released step holds its slot and is admitted without queueing again
+        assertTrue(gate.tryAdmit(application, first));
+        verify(pipelineExecutionRepository, never()).countAwaitingCapacityAhead(any(), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void testReleaseWaitingDoesNothingWhenApplicationIsFull() {
+        when(applicationRepository.findById(APP_ID)).thenReturn(Optional.of(application(2)));
+        runningPipelines(2L);
+
+        assertEquals(0, gate.releaseWaiting(APP_ID));
+
+        verify(pipelineExecutionRepository, never()).findAwaitingCapacity(any(), any(), any(), any());
+        verifyNoInteractions(flowExecutionService);
+    }
+
+    private void runningPipelines(long running) {
+        when(pipelineExecutionRepository.countByApplicationAndStatusExcluding(eq(APP_ID), eq(ExecutionStatus.RUNNING),
+                any())).thenReturn(running);
+    }
+
+    private void noneAhead() {
+        when(pipelineExecutionRepository.countAwaitingCapacityAhead(eq(APP_ID), eq(ExecutionStatus.SCHEDULED),
+                eq(ExecutionStatus.RUNNING), any(), anyLong())).thenReturn(0L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Long> reservationsOf(Long applicationId) {
+        Map<Long, Map<Long, Long>> reservations =
+                (Map<Long, Map<Long, Long>>) ReflectionTestUtils.getField(gate, "reservations");
+        return reservations.get(applicationId);
+    }
+
+    private static Application application(Integer maxConcurrentPipelines) {
+        Application application = new Application();
+        application.setId(APP_ID);
+        application.setMaxConcurrentPipelines(maxConcurrentPipelines);
+        return application;
+    }
+
+    private static PipelineExecution step(long id) {
+        PipelineExecution pe = new PipelineExecution();
+        pe.setId(id);
+        pe.setFlowExecutionId(UUID.randomUUID());
+        pe.setFlowStepId(10L);
+        return pe;
+    }
+
+    private static PipelineExecution waitingStep(long id) {
+        PipelineExecution pe = step(id);
+        pe.setStatus(ExecutionStatus.SCHEDULED);
+        pe.setAwaitingCapacitySince(LocalDateTime.now().minusMinutes(1));
+        return pe;
+    }
+}
@@ -0,0 +1,181 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.enums.SchedulingClass;
+import com.ubs.orkestra.model.Flow;
+import com.ubs.orkestra.model.FlowExecution;
+import com.ubs.orkestra.model.FlowStep;
+import com.ubs.orkestra.model.PipelineExecution;
+import com.ubs.orkestra.repository.FlowExecutionRepository;
+import com.ubs.orkestra.repository.FlowRepository;
+import com.ubs.orkestra.repository.FlowStepRepository;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkReplayServiceTest {
+
+    private static final Long FLOW_ID = 1L;
+
+    @Mock
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Mock
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Mock
+    private FlowRepository flowRepository;
+
+    @Mock
+    private FlowStepRepository flowStepRepository;
+
+    @Mock
+    private TestDataService testDataService;
+
+    @Mock
+    private TestDataSnapshotService testDataSnapshotService;
+
+    @Mock
+    private FlowExecutionQueueService flowExecutionQueueService;
+
+    @Mock
+    private ThreadPoolTaskExecutor flowExecutionTaskExecutor;
+
+    @InjectMocks
+    private BulkReplayService bulkReplayService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bulkReplayService, "maxFlows", 1000);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReplaysFailedFlowFromItsFailedStepAndNudgesDispatcher() {
+        FlowExecution failed = flowExecution(ExecutionStatus.FAILED);
+        PipelineExecution passedStep = stepRecord(failed, 10L, ExecutionStatus.PASSED);
+        PipelineExecution failedStep = stepRecord(failed, 20L, ExecutionStatus.FAILED);
+        stubDefinitions();
+        when(flowExecutionRepository.lockAllById(any())).thenReturn(List.of(failed));
+        when(pipelineExecutionRepository.findByFlowExecutionIdInOrderByCreatedAt(List.of(failed.getId())))
+                .thenReturn(List.of(passedStep, failedStep));
+
+        Map<String, Object> result = bulkReplayService.replay(null, null, List.of(failed.getId()));
+
+        List<Map<String, Object>> replayed = (List<Map<String, Object>>) result.get("replayed");
+        assertEquals(1, replayed.size());
+        assertEquals(20L, replayed.get(0).get("failedFlowStepId"));
+        assertEquals(ExecutionStatus.PENDING, failed.getStatus());
+        assertEquals(SchedulingClass.BULK, failed.getSchedulingClass());
+        assertEquals(1, failed.getReplayCount());
+        assertNull(failed.getEndTime());
+        assertEquals(ExecutionStatus.PASSED, passedStep.getStatus());
+        assertEquals(ExecutionStatus.SCHEDULED, failedStep.getStatus());
+        assertTrue(failedStep.getIsReplay());
+
+        // Replays are started by the PENDING dispatcher once the transaction has committed
+        verifyNoInteractions(flowExecutionTaskExecutor);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(flowExecutionTaskExecutor).execute(any(Runnable.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRejectsFlowsThatAreNotFailedOrMissing() {
+        FlowExecution pending = flowExecution(ExecutionStatus.PENDING);
+        UUID missing = UUID.randomUUID();
+        when(flowExecutionRepository.lockAllById(any())).thenReturn(List.of(pending));
+
+        Map<String, Object> result = bulkReplayService.replay(null, null, List.of(pending.getId(), missing));
+
+        List<Map<String, Object>> rejected = (List<Map<String, Object>>) result.get("rejected");
+        assertEquals(2, rejected.size());
+        assertTrue(rejected.stream().anyMatch(r -> missing.equals(r.get("flowExecutionId")) && "not_found".equals(r.get("reason"))));
+        assertTrue(rejected.stream().anyMatch(r -> pending.getId().equals(r.get("flowExecutionId")) && "not_failed".equals(r.get("reason"))));
+        assertEquals(ExecutionStatus.PENDING, pending.getStatus());
+        assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+    }
+
+    @Test
+    void testRunReplayLocksFailedFlowsOfTheRun() {
+        FlowExecution failed = flowExecution(ExecutionStatus.FAILED);
+        stubDefinitions();
+        when(flowExecutionRepository.lockRunExecutionsByStatus(7L, 2, ExecutionStatus.FAILED)).thenReturn(List.of(failed));
+        when(pipelineExecutionRepository.findByFlowExecutionIdInOrderByCreatedAt(List.of(failed.getId())))
+                .thenReturn(List.of(stepRecord(failed, 10L, ExecutionStatus.FAILED)));
+
+        bulkReplayService.replay(7L, 2, null);
+
+        assertEquals(ExecutionStatus.PENDING, failed.getStatus());
+        verify(flowExecutionRepository, never()).lockAllById(any());
+    }
+
+    @Test
+    void testRejectsMoreFlowsThanTheLimit() {
+        ReflectionTestUtils.setField(bulkReplayService, "maxFlows", 1);
+        when(flowExecutionRepository.lockRunExecutionsByStatus(7L, 2, ExecutionStatus.FAILED))
+                .thenReturn(List.of(flowExecution(ExecutionStatus.FAILED), flowExecution(ExecutionStatus.FAILED)));
+
+        assertThrows(IllegalArgumentException.class, () -> bulkReplayService.replay(7L, 2, null));
+    }
+
+    @Test
+    void testRequiresIdsOrRun() {
+        assertThrows(IllegalArgumentException.class, () -> bulkReplayService.replay(null, null, Collections.emptyList()));
+    }
+
+    private void stubDefinitions() {
+        Flow flow = new Flow();
+        flow.setId(FLOW_ID);
+        flow.setFlowStepIds(List.of(10L, 20L, 30L));
+        when(flowRepository.findAllById(any())).thenReturn(List.of(flow));
+        when(flowStepRepository.findByIdIn(any())).thenReturn(List.of(step(10L), step(20L), step(30L)));
+    }
+
+    private static FlowStep step(Long id) {
+        FlowStep step = new FlowStep();
+        step.setId(id);
+        return step;
+    }
+
+    private static FlowExecution flowExecution(ExecutionStatus status) {
+        FlowExecution flowExecution = new FlowExecution(FLOW_ID, Collections.emptyMap());
+        flowExecution.setStatus(status);
+        return flowExecution;
+    }
+
+    private static PipelineExecution stepRecord(FlowExecution flowExecution, Long flowStepId, ExecutionStatus status) {
+        PipelineExecution pe = new PipelineExecution();
+        pe.setId(flowStepId * 100);
+        pe.setFlowId(FLOW_ID);
+        pe.setFlowExecutionId(flowExecution.getId());
+        pe.setFlowStepId(flowStepId);
+        pe.setStatus(status);
+        return pe;
+    }
+}
@@ -0,0 +1,198 @@
+package com.ubs.orkestra.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ubs.orkestra.dto.FlowExecutionDto;
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.model.FlowExecution;
+import com.ubs.orkestra.model.PipelineExecution;
+import com.ubs.orkestra.repository.FlowExecutionRepository;
+import com.ubs.orkestra.repository.FlowGroupRepository;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExecutionArchiveServiceTest {
+
+    @Mock
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Mock
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Mock
+    private FlowGroupRepository flowGroupRepository;
+
+    @Mock
+    private TestDataSnapshotService testDataSnapshotService;
+
+    @Mock
+    private StatusCounterRegistry statusCounterRegistry;
+
+    @InjectMocks
+    private ExecutionArchiveService executionArchiveService;
+
+    @TempDir
+    Path archiveDirectory;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(executionArchiveService, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(executionArchiveService, "directory", archiveDirectory.toString());
+        executionArchiveService.initMapper();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void testArchivedRunCanBeReadBack() {
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(100);
+        FlowExecution flowExecution = finished(createdAt, ExecutionStatus.PASSED);
+        PipelineExecution step = new PipelineExecution();
+        step.setId(42L);
+        step.setFlowExecutionId(flowExecution.getId());
+        step.setFlowStepId(10L);
+        step.setStatus(ExecutionStatus.PASSED);
+        stubBatch(List.of(flowExecution), List.of(step));
+
+        assertEquals(1, executionArchiveService.archiveBatch(LocalDateTime.now(), 500));
+        commit();
+
+        verify(pipelineExecutionRepository).deleteByFlowExecutionIds(List.of(flowExecution.getId()));
+        verify(flowExecutionRepository).deleteByIds(List.of(flowExecution.getId()));
+        verify(statusCounterRegistry).recordFlowTransition(null, ExecutionStatus.PASSED, null);
+        verify(statusCounterRegistry).recordPipelineTransition(10L, ExecutionStatus.PASSED, null);
+
+        FlowExecutionDto archived = executionArchiveService.getArchivedExecution(flowExecution.getId());
+        assertNotNull(archived);
+        assertEquals(ExecutionStatus.PASSED, archived.getStatus());
+        assertEquals(createdAt, archived.getCreatedAt());
+        assertEquals(1, archived.getPipelineExecutions().size());
+        assertEquals(42L, archived.getPipelineExecutions().get(0).getId());
+
+        List<Map<String, Object>> segments = executionArchiveService.listSegments();
+        assertEquals(1, segments.size());
+        assertEquals(YearMonth.from(createdAt).toString(), segments.get(0).get("month"));
+    }
+
+    @Test
+    void testRunCreatedInEarlierMonthThanItsIdIsFound() {
+        // A run whose createdAt falls into the month before the one its id names
+        FlowExecution flowExecution = finished(LocalDateTime.now().minusMonths(1), ExecutionStatus.FAILED);
+        stubBatch(List.of(flowExecution), List.of());
+
+        executionArchiveService.archiveBatch(LocalDateTime.now(), 500);
+        commit();
+
+        assertNotNull(executionArchiveService.getArchivedExecution(flowExecution.getId()));
+    }
+
+    @Test
+    void testRunWithRandomIdIsFound() {
+        FlowExecution flowExecution = finished(LocalDateTime.now().minusMonths(5), ExecutionStatus.CANCELLED);
+        UUID id = UUID.randomUUID();
+        flowExecution.setId(id);
+        stubBatch(List.of(flowExecution), List.of());
+
+        executionArchiveService.archiveBatch(LocalDateTime.now(), 500);
+        commit();
+
+        assertEquals(id, executionArchiveService.getArchivedExecution(id).getId());
+        assertNull(executionArchiveService.getArchivedExecution(UUID.randomUUID()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMonthListingFiltersAndPages() {
+        LocalDateTime createdAt = LocalDateTime.of(2030, 3, 15, 12, 0);
+        List<FlowExecution> flowExecutions = List.of(
+                finished(createdAt, ExecutionStatus.PASSED),
+                finished(createdAt.plusMinutes(1), ExecutionStatus.FAILED),
+                finished(createdAt.plusMinutes(2), ExecutionStatus.PASSED),
+                finished(createdAt.plusMonths(1), ExecutionStatus.PASSED));
+        stubBatch(flowExecutions, List.of());
+
+        executionArchiveService.archiveBatch(LocalDateTime.now(), 500);
+        commit();
+
+        Map<String, Object> firstPage = executionArchiveService.getArchivedExecutions("2030-03", null, ExecutionStatus.PASSED, 0, 1);
+        List<FlowExecutionDto> content = (List<FlowExecutionDto>) firstPage.get("content");
+        assertEquals(1, content.size());
+        assertEquals(flowExecutions.get(0).getId(), content.get(0).getId());
+        assertEquals(true, firstPage.get("hasNext"));
+
+        Map<String, Object> secondPage = executionArchiveService.getArchivedExecutions("2030-03", null, ExecutionStatus.PASSED, 1, 1);
+        assertEquals(flowExecutions.get(2).getId(), ((List<FlowExecutionDto>) secondPage.get("content")).get(0).getId());
+        assertEquals(false, secondPage.get("hasNext"));
+
+        assertEquals(2, executionArchiveService.listSegments().size());
+        assertThrows(IllegalArgumentException.class,
+                () -> executionArchiveService.getArchivedExecutions("March", null, null, 0, 10));
+    }
+
+    @Test
+    void testRolledBackBatchLeavesNoSegment() {
+        FlowExecution flowExecution = finished(LocalDateTime.now().minusDays(100), ExecutionStatus.PASSED);
+        stubBatch(List.of(flowExecution), List.of());
+
+        executionArchiveService.archiveBatch(LocalDateTime.now(), 500);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertTrue(executionArchiveService.listSegments().isEmpty());
+        assertNull(executionArchiveService.getArchivedExecution(flowExecution.getId()));
+        verifyNoInteractions(statusCounterRegistry);
+    }
+
+    @Test
+    void testNothingToArchive() {
+        when(flowExecutionRepository.lockArchivable(any(), any(), any())).thenReturn(Collections.emptyList());
+
+        assertEquals(0, executionArchiveService.archiveBatch(LocalDateTime.now(), 500));
+        verify(flowExecutionRepository, never()).deleteByIds(any());
+    }
+
+    private void stubBatch(List<FlowExecution> flowExecutions, List<PipelineExecution> pipelineExecutions) {
+        when(flowExecutionRepository.lockArchivable(any(), any(), any())).thenReturn(flowExecutions);
+        when(pipelineExecutionRepository.findByFlowExecutionIdInOrderByCreatedAt(anyList())).thenReturn(pipelineExecutions);
+    }
+
+    private static void commit() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private static FlowExecution finished(LocalDateTime createdAt, ExecutionStatus status) {
+        FlowExecution flowExecution = new FlowExecution(1L, Collections.emptyMap());
+        flowExecution.setCreatedAt(createdAt);
+        flowExecution.setEndTime(createdAt.plusMinutes(5));
+        flowExecution.setStatus(status);
+        return flowExecution;
+    }
+}
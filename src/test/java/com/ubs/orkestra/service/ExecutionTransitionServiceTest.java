@@ -0,0 +1,155 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.event.ExecutionStatusChange;
+import com.ubs.orkestra.repository.FlowExecutionRepository;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExecutionTransitionServiceTest {
+
+    private static final Long GROUP_ID = 3L;
+    private static final Integer ITERATION = 1;
+    private static final List<ExecutionStatus> NOT_STARTED = List.of(ExecutionStatus.SCHEDULED, ExecutionStatus.PENDING);
+
+    @Mock
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Mock
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ExecutionTransitionService executionTransitionService;
+
+    @Test
+    void testCancelNotStartedStepsMovesExactlyTheLockedRows() {
+        UUID flowExecutionId = UUID.randomUUID();
+        when(pipelineExecutionRepository.lockByFlowExecutionAndStatus(flowExecutionId, NOT_STARTED, 20L))
+                .thenReturn(List.of(
+                        pipelineRow(1L, flowExecutionId, 10L, ExecutionStatus.SCHEDULED),
+                        pipelineRow(2L, flowExecutionId, 11L, ExecutionStatus.PENDING)));
+
+        List<ExecutionStatusChange> changes = executionTransitionService.cancelNotStartedSteps(flowExecutionId, 20L);
+
+        verify(pipelineExecutionRepository).transitionByIds(eq(List.of(1L, 2L)), eq(NOT_STARTED),
+                eq(ExecutionStatus.CANCELLED), any(LocalDateTime.class));
+        assertEquals(2, changes.size());
+        assertEquals(ExecutionStatus.SCHEDULED, changes.get(0).getFromStatus());
+        assertEquals(ExecutionStatus.PENDING, changes.get(1).getFromStatus());
+        assertEquals(10L, changes.get(0).getFlowStepId());
+        assertTrue(changes.stream().allMatch(change -> change.getToStatus() == ExecutionStatus.CANCELLED));
+        changes.forEach(change -> verify(eventPublisher).publishEvent(change));
+    }
+
+    @Test
+    void testCancelNotStartedStepsWithoutExcludedStepMatchesEveryStep() {
+        UUID flowExecutionId = UUID.randomUUID();
+        when(pipelineExecutionRepository.lockByFlowExecutionAndStatus(flowExecutionId, NOT_STARTED, -1L))
+                .thenReturn(List.of());
+
+        assertTrue(executionTransitionService.cancelNotStartedSteps(flowExecutionId, null).isEmpty());
+
+        verify(pipelineExecutionRepository, never()).transitionByIds(anyList(), anyList(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testLargeTransitionsAreUpdatedInChunks() {
+        LocalDateTime waitingBefore = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            rows.add(flowRow(UUID.randomUUID(), null, ExecutionStatus.PENDING));
+        }
+        when(flowExecutionRepository.lockWaitingSince(ExecutionStatus.PENDING, waitingBefore)).thenReturn(rows);
+
+        List<ExecutionStatusChange> changes = executionTransitionService.cancelPendingFlowsWaitingSince(waitingBefore);
+
+        // 500 ids per UPDATE at most
+        verify(flowExecutionRepository, times(3)).transitionByIds(anyList(), eq(List.of(ExecutionStatus.PENDING)),
+                eq(ExecutionStatus.CANCELLED), any(LocalDateTime.class));
+        assertEquals(1001, changes.size());
+    }
+
+    @Test
+    void testPauseRunMovesPendingFlowsWithoutEndingThem() {
+        UUID flowExecutionId = UUID.randomUUID();
+        when(flowExecutionRepository.lockRunExecutions(GROUP_ID, ITERATION, List.of(ExecutionStatus.PENDING)))
+                .thenReturn(List.<Object[]>of(flowRow(flowExecutionId, GROUP_ID, ExecutionStatus.PENDING)));
+
+        List<ExecutionStatusChange> changes = executionTransitionService.pauseRun(GROUP_ID, ITERATION);
+
+        verify(flowExecutionRepository).updateStatusByIds(List.of(flowExecutionId), List.of(ExecutionStatus.PENDING),
+                ExecutionStatus.PAUSED);
+        verify(flowExecutionRepository, never()).transitionByIds(anyList(), anyList(), any(), any());
+        assertEquals(1, changes.size());
+        assertEquals(GROUP_ID, changes.get(0).getFlowGroupId());
+        assertEquals(ExecutionStatus.PAUSED, changes.get(0).getToStatus());
+    }
+
+    @Test
+    void testResumeRunRestartsThePendingClock() {
+        UUID flowExecutionId = UUID.randomUUID();
+        when(flowExecutionRepository.lockRunExecutions(GROUP_ID, ITERATION, List.of(ExecutionStatus.PAUSED)))
+                .thenReturn(List.<Object[]>of(flowRow(flowExecutionId, GROUP_ID, ExecutionStatus.PAUSED)));
+
+        List<ExecutionStatusChange> changes = executionTransitionService.resumeRun(GROUP_ID, ITERATION);
+
+        verify(flowExecutionRepository).restartByIds(eq(List.of(flowExecutionId)), eq(List.of(ExecutionStatus.PAUSED)),
+                eq(ExecutionStatus.PENDING), any(LocalDateTime.class));
+        assertEquals(ExecutionStatus.PAUSED, changes.get(0).getFromStatus());
+        assertEquals(ExecutionStatus.PENDING, changes.get(0).getToStatus());
+    }
+
+    @Test
+    void testCancelRunCancelsFlowsAndTheirUnfinishedSteps() {
+        UUID running = UUID.randomUUID();
+        UUID paused = UUID.randomUUID();
+        List<ExecutionStatus> activeFlows = List.of(ExecutionStatus.PENDING, ExecutionStatus.RUNNING, ExecutionStatus.PAUSED);
+        List<ExecutionStatus> activeSteps = List.of(ExecutionStatus.SCHEDULED, ExecutionStatus.PENDING,
+                ExecutionStatus.RUNNING, ExecutionStatus.IN_PROGRESS);
+        when(flowExecutionRepository.lockRunExecutions(GROUP_ID, ITERATION, activeFlows)).thenReturn(List.of(
+                flowRow(running, GROUP_ID, ExecutionStatus.RUNNING),
+                flowRow(paused, GROUP_ID, ExecutionStatus.PAUSED)));
+        when(pipelineExecutionRepository.lockByFlowExecutionIdsAndStatus(List.of(running, paused), activeSteps))
+                .thenReturn(List.<Object[]>of(pipelineRow(7L, running, 10L, ExecutionStatus.RUNNING)));
+
+        ExecutionTransitionService.Cancellation cancellation = executionTransitionService.cancelRun(GROUP_ID, ITERATION);
+
+        verify(flowExecutionRepository).transitionByIds(eq(List.of(running, paused)), eq(activeFlows),
+                eq(ExecutionStatus.CANCELLED), any(LocalDateTime.class));
+        verify(pipelineExecutionRepository).transitionByIds(eq(List.of(7L)), eq(activeSteps),
+                eq(ExecutionStatus.CANCELLED), any(LocalDateTime.class));
+        assertEquals(2, cancellation.getFlows().size());
+        assertEquals(1, cancellation.getPipelines().size());
+        assertEquals(7L, cancellation.getPipelines().get(0).getPipelineExecutionId());
+        verify(eventPublisher, times(3)).publishEvent(any(Object.class));
+    }
+
+    private static Object[] flowRow(UUID id, Long flowGroupId, ExecutionStatus status) {
+        return new Object[]{id, flowGroupId, status};
+    }
+
+    private static Object[] pipelineRow(Long id, UUID flowExecutionId, Long flowStepId, ExecutionStatus status) {
+        return new Object[]{id, flowExecutionId, flowStepId, status};
+    }
+}
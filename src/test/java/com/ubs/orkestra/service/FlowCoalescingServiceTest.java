@@ -0,0 +1,164 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.event.ExecutionStatusChange;
+import com.ubs.orkestra.model.Flow;
+import com.ubs.orkestra.repository.FlowExecutionRepository;
+import com.ubs.orkestra.repository.FlowRepository;
+import com.ubs.orkestra.repository.FlowStepRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FlowCoalescingServiceTest {
+
+    private static final String KEY = "key";
+
+    @Mock
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Mock
+    private FlowRepository flowRepository;
+
+    @Mock
+    private FlowStepRepository flowStepRepository;
+
+    @Mock
+    private TestDataService testDataService;
+
+    @InjectMocks
+    private FlowCoalescingService flowCoalescingService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(flowCoalescingService, "enabled", true);
+    }
+
+    @Test
+    void testDuplicateLaunchAttachesToUncommittedClaim() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        // The first execution's transaction has not committed yet
+        when(flowExecutionRepository.findStatusById(first)).thenReturn(Optional.empty());
+
+        assertNull(flowCoalescingService.claim(KEY, first));
+        assertEquals(first, flowCoalescingService.claim(KEY, second));
+    }
+
+    @Test
+    void testDuplicateLaunchAttachesToRunningExecution() {
+        UUID first = UUID.randomUUID();
+        when(flowExecutionRepository.findStatusById(first)).thenReturn(Optional.of(ExecutionStatus.RUNNING));
+        flowCoalescingService.claim(KEY, first);
+
+        assertEquals(first, flowCoalescingService.claim(KEY, UUID.randomUUID()));
+    }
+
+    @Test
+    void testFinishedHolderDoesNotBlockNewLaunch() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        // Finished by a set-based update, without a status change event
+        when(flowExecutionRepository.findStatusById(first)).thenReturn(Optional.of(ExecutionStatus.PASSED));
+        when(flowExecutionRepository.findStatusById(second)).thenReturn(Optional.of(ExecutionStatus.PENDING));
+        flowCoalescingService.claim(KEY, first);
+
+        assertNull(flowCoalescingService.claim(KEY, second));
+        assertEquals(second, flowCoalescingService.claim(KEY, UUID.randomUUID()));
+    }
+
+    @Test
+    void testFinishedStatusChangeFreesKey() {
+        UUID first = UUID.randomUUID();
+        flowCoalescingService.claim(KEY, first);
+
+        flowCoalescingService.onStatusChange(ExecutionStatusChange.forFlow(first, null, ExecutionStatus.RUNNING, ExecutionStatus.FAILED));
+
+        assertNull(flowCoalescingService.claim(KEY, UUID.randomUUID()));
+        verify(flowExecutionRepository, never()).findStatusById(any());
+    }
+
+    @Test
+    void testPausedStatusChangeFreesKey() {
+        UUID first = UUID.randomUUID();
+        flowCoalescingService.claim(KEY, first);
+
+        flowCoalescingService.onStatusChange(ExecutionStatusChange.forFlow(first, null, ExecutionStatus.PENDING, ExecutionStatus.PAUSED));
+
+        assertNull(flowCoalescingService.claim(KEY, UUID.randomUUID()));
+        verify(flowExecutionRepository, never()).findStatusById(any());
+    }
+
+    @Test
+    void testPausedHolderIsNotInFlight() {
+        UUID first = UUID.randomUUID();
+        flowCoalescingService.claim(KEY, first);
+        when(flowExecutionRepository.findStatusById(first)).thenReturn(Optional.of(ExecutionStatus.PAUSED));
+
+        UUID second = UUID.randomUUID();
+        assertNull(flowCoalescingService.claim(KEY, second));
+    }
+
+    @Test
+    void testReleasedClaimFreesKey() {
+        UUID first = UUID.randomUUID();
+        flowCoalescingService.claim(KEY, first);
+
+        flowCoalescingService.release(KEY, first);
+
+        assertNull(flowCoalescingService.claim(KEY, UUID.randomUUID()));
+        verify(flowExecutionRepository, never()).findStatusById(any());
+    }
+
+    @Test
+    void testIndexIsLoadedFromDatabase() {
+        UUID holder = UUID.randomUUID();
+        when(flowExecutionRepository.findCoalescingKeys()).thenReturn(Collections.singletonList(new Object[]{KEY, holder}));
+        when(flowExecutionRepository.findStatusById(holder)).thenReturn(Optional.of(ExecutionStatus.PENDING));
+
+        flowCoalescingService.loadIndex();
+
+        assertEquals(holder, flowCoalescingService.claim(KEY, UUID.randomUUID()));
+    }
+
+    @Test
+    void testHolderInDatabaseIsAdopted() {
+        UUID holder = UUID.randomUUID();
+        when(flowExecutionRepository.findIdByCoalescingKey(KEY)).thenReturn(Optional.of(holder));
+        when(flowExecutionRepository.findStatusById(holder)).thenReturn(Optional.of(ExecutionStatus.RUNNING));
+
+        assertEquals(Optional.of(holder), flowCoalescingService.holderInDatabase(KEY));
+        assertEquals(holder, flowCoalescingService.claim(KEY, UUID.randomUUID()));
+    }
+
+    @Test
+    void testKeyDependsOnCategoryAndTestData() {
+        Flow flow = new Flow();
+        flow.setId(1L);
+        flow.setFlowStepIds(List.of(10L, 20L));
+        Map<Long, Map<String, String>> testData = Map.of(10L, Map.of("ENV", "uat"), 20L, Map.of("USER", "a"));
+
+        String key = flowCoalescingService.keyFor(flow, "smoke", testData);
+
+        assertEquals(key, flowCoalescingService.keyFor(flow, "smoke",
+                Map.of(20L, Map.of("USER", "a"), 10L, Map.of("ENV", "uat"))));
+        assertNotEquals(key, flowCoalescingService.keyFor(flow, "regression", testData));
+        assertNotEquals(key, flowCoalescingService.keyFor(flow, "smoke",
+                Map.of(10L, Map.of("ENV", "prod"), 20L, Map.of("USER", "a"))));
+    }
+}
@@ -0,0 +1,177 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.model.FlowExecution;
+import com.ubs.orkestra.repository.FlowExecutionRepository;
+import com.ubs.orkestra.repository.QueuedFlowExecutionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FlowExecutionQueueServiceTest {
+
+    @Mock
+    private QueuedFlowExecutionRepository queuedFlowExecutionRepository;
+
+    @Mock
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Mock
+    private FlowExecutionService flowExecutionService;
+
+    @Mock
+    private FlowDurationEstimator flowDurationEstimator;
+
+    @Mock
+    private StatusCounterRegistry statusCounterRegistry;
+
+    @Mock
+    private ExecutionTransitionService executionTransitionService;
+
+    @InjectMocks
+    private FlowExecutionQueueService queueService;
+
+    private final FlowLaunchPlanner flowLaunchPlanner = new FlowLaunchPlanner();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(queueService, "flowLaunchPlanner", flowLaunchPlanner);
+        ReflectionTestUtils.setField(queueService, "maxConcurrentFlows", 5);
+        ReflectionTestUtils.setField(queueService, "pendingTimeoutMinutes", 30);
+        ReflectionTestUtils.setField(queueService, "queuePollingIntervalMs", 30000L);
+        ReflectionTestUtils.setField(queueService, "fairShareEnabled", false);
+        ReflectionTestUtils.setField(queueService, "dispatchPolicy", "FIFO");
+    }
+
+    @Test
+    void testAcceptedFlowsHoldCapacityUntilClaimed() {
+        FlowExecution acceptedA = pendingFlow();
+        FlowExecution acceptedB = pendingFlow();
+        FlowExecution waitingC = pendingFlow();
+        FlowExecution waitingD = pendingFlow();
+        flowLaunchPlanner.reserve(acceptedA.getId());
+        flowLaunchPlanner.reserve(acceptedB.getId());
+        when(statusCounterRegistry.countFlows(ExecutionStatus.RUNNING)).thenReturn(2L);
+        when(flowExecutionRepository.findByStatusOrderByCreatedAtAsc(ExecutionStatus.PENDING))
+                .thenReturn(List.of(acceptedA, acceptedB, waitingC, waitingD));
+
+        queueService.processPendingFlowExecutions();
+
+        // 5 slots - 2 RUNNING - 2 accepted but still PENDING = 1 slot for the backlog
+        verify(flowExecutionService).executeFlowAsync(waitingC.getId());
+        verify(flowExecutionService, never()).executeFlowAsync(acceptedA.getId());
+        verify(flowExecutionService, never()).executeFlowAsync(acceptedB.getId());
+        verify(flowExecutionService, never()).executeFlowAsync(waitingD.getId());
+    }
+
+    @Test
+    void testNoBacklogDispatchWhileAcceptedFlowsFillCapacity() {
+        flowLaunchPlanner.reserve(UUID.randomUUID());
+        flowLaunchPlanner.reserve(UUID.randomUUID());
+        when(statusCounterRegistry.countFlows(ExecutionStatus.RUNNING)).thenReturn(3L);
+
+        queueService.processPendingFlowExecutions();
+
+        verify(flowExecutionRepository, never()).findByStatusOrderByCreatedAtAsc(any());
+        verify(flowExecutionService, never()).executeFlowAsync(any());
+    }
+
+    @Test
+    void testReleasedReservationFreesCapacity() {
+        FlowExecution waiting = pendingFlow();
+        UUID claimed = UUID.randomUUID();
+        for (int i = 0; i < 4; i++) {
+            flowLaunchPlanner.reserve(UUID.randomUUID());
+        }
+        flowLaunchPlanner.reserve(claimed);
+        flowLaunchPlanner.release(claimed);
+        assertEquals(4, flowLaunchPlanner.getReservedCount());
+        when(statusCounterRegistry.countFlows(ExecutionStatus.RUNNING)).thenReturn(0L);
+        when(flowExecutionRepository.findByStatusOrderByCreatedAtAsc(ExecutionStatus.PENDING)).thenReturn(List.of(waiting));
+
+        queueService.processPendingFlowExecutions();
+
+        verify(flowExecutionService).executeFlowAsync(waiting.getId());
+    }
+
+    @Test
+    void testDispatchedFlowsHoldCapacityForTheNextRound() {
+        FlowExecution first = pendingFlow();
+        FlowExecution second = pendingFlow();
+        ReflectionTestUtils.setField(queueService, "maxConcurrentFlows", 1);
+        when(statusCounterRegistry.countFlows(ExecutionStatus.RUNNING)).thenReturn(0L);
+        when(flowExecutionRepository.findByStatusOrderByCreatedAtAsc(ExecutionStatus.PENDING))
+                .thenReturn(List.of(first, second));
+
+        queueService.processPendingFlowExecutions();
+        // The dispatch has not claimed the first flow yet: it is still PENDING and RUNNING is still 0
+        queueService.processPendingFlowExecutions();
+
+        assertTrue(flowLaunchPlanner.isReserved(first.getId()));
+        verify(flowExecutionService, times(1)).executeFlowAsync(first.getId());
+        verify(flowExecutionService, never()).executeFlowAsync(second.getId());
+    }
+
+    @Test
+    void testFailedDispatchReleasesItsSlot() {
+        FlowExecution flow = pendingFlow();
+        when(statusCounterRegistry.countFlows(ExecutionStatus.RUNNING)).thenReturn(0L);
+        when(flowExecutionRepository.findByStatusOrderByCreatedAtAsc(ExecutionStatus.PENDING)).thenReturn(List.of(flow));
+        when(flowExecutionService.executeFlowAsync(flow.getId())).thenThrow(new IllegalStateException("executor saturated"));
+
+        queueService.processPendingFlowExecutions();
+
+        assertFalse(flowLaunchPlanner.isReserved(flow.getId()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStaleReservationOfFlowThatLeftPendingIsReleased() {
+        FlowExecution paused = pendingFlow();
+        paused.setStatus(ExecutionStatus.PAUSED);
+        FlowExecution stillPending = pendingFlow();
+        Map<UUID, Long> reservations = (Map<UUID, Long>) ReflectionTestUtils.getField(flowLaunchPlanner, "reservedLaunches");
+        reservations.put(paused.getId(), 0L);
+        reservations.put(stillPending.getId(), 0L);
+        when(flowExecutionRepository.findAllById(any())).thenReturn(List.of(paused, stillPending));
+        when(statusCounterRegistry.countFlows(ExecutionStatus.RUNNING)).thenReturn(5L);
+
+        queueService.processPendingFlowExecutions();
+
+        assertFalse(flowLaunchPlanner.isReserved(paused.getId()));
+        assertTrue(flowLaunchPlanner.isReserved(stillPending.getId()));
+    }
+
+    @Test
+    void testRejectedDispatchReleasesReservation() {
+        FlowExecution accepted = pendingFlow();
+        flowLaunchPlanner.reserve(accepted.getId());
+        when(flowExecutionRepository.findById(accepted.getId())).thenReturn(Optional.of(accepted));
+        when(queuedFlowExecutionRepository.findByFlowExecutionId(accepted.getId())).thenReturn(Optional.empty());
+
+        queueService.enqueueFromExistingExecution(accepted.getId());
+
+        assertFalse(flowLaunchPlanner.isReserved(accepted.getId()));
+    }
+
+    private static FlowExecution pendingFlow() {
+        FlowExecution flowExecution = new FlowExecution(1L, Collections.emptyMap());
+        flowExecution.setStatus(ExecutionStatus.PENDING);
+        return flowExecution;
+    }
+}
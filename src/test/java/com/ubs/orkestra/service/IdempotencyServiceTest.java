@@ -0,0 +1,187 @@
+package com.ubs.orkestra.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ubs.orkestra.model.IdempotencyRecord;
+import com.ubs.orkestra.repository.IdempotencyRecordRepository;
+import com.ubs.orkestra.util.VariableHasher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final String KEY = "launch-1";
+    private static final String REQUEST = "POST /api/flow-executions flowIds=1";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    private final AtomicInteger submissions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(idempotencyService, "enabled", true);
+        ReflectionTestUtils.setField(idempotencyService, "ttlHours", 24L);
+        ReflectionTestUtils.setField(idempotencyService, "inProgressTimeoutSeconds", 300L);
+        ReflectionTestUtils.setField(idempotencyService, "cacheSize", 100);
+        idempotencyService.initCache();
+    }
+
+    @Test
+    void testRequestWithoutKeyIsNotTracked() {
+        ResponseEntity<?> response = idempotencyService.execute(null, REQUEST, accepted());
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(1, submissions.get());
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    @Test
+    void testRepeatedRequestGetsStoredResponse() {
+        when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.empty());
+
+        ResponseEntity<?> first = idempotencyService.execute(KEY, REQUEST, accepted());
+        ResponseEntity<?> second = idempotencyService.execute(KEY, REQUEST, accepted());
+
+        assertEquals(1, submissions.get());
+        assertEquals(HttpStatus.ACCEPTED, first.getStatusCode());
+        assertEquals(HttpStatus.ACCEPTED, second.getStatusCode());
+        assertEquals("true", second.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals("{\"id\":\"abc\"}", second.getBody());
+
+        ArgumentCaptor<IdempotencyRecord> stored = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepository).save(stored.capture());
+        assertEquals(202, stored.getValue().getStatusCode());
+    }
+
+    @Test
+    void testStoredResponseIsReplayedFromDatabase() {
+        IdempotencyRecord record = record(VariableHasher.hashParts(REQUEST), LocalDateTime.now());
+        record.setStatusCode(202);
+        record.setResponseBody("{\"id\":\"abc\"}");
+        when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.of(record));
+
+        ResponseEntity<?> response = idempotencyService.execute(KEY, REQUEST, accepted());
+
+        assertEquals(0, submissions.get());
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("{\"id\":\"abc\"}", response.getBody());
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequestIsRejected() {
+        when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.empty());
+        idempotencyService.execute(KEY, REQUEST, accepted());
+
+        ResponseEntity<?> response = idempotencyService.execute(KEY, "POST /api/flow-executions flowIds=2", accepted());
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+        assertEquals(1, submissions.get());
+    }
+
+    @Test
+    void testRequestInProgressIsConflict() {
+        when(idempotencyRecordRepository.findById(KEY))
+                .thenReturn(Optional.of(record(VariableHasher.hashParts(REQUEST), LocalDateTime.now())));
+
+        ResponseEntity<?> response = idempotencyService.execute(KEY, REQUEST, accepted());
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(0, submissions.get());
+    }
+
+    @Test
+    void testAbandonedClaimIsTakenOver() {
+        IdempotencyRecord abandoned = record(VariableHasher.hashParts(REQUEST), LocalDateTime.now().minusMinutes(10));
+        when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.of(abandoned));
+
+        ResponseEntity<?> response = idempotencyService.execute(KEY, REQUEST, accepted());
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(1, submissions.get());
+        verify(idempotencyRecordRepository).delete(abandoned);
+    }
+
+    @Test
+    void testConcurrentClaimIsConflict() {
+        when(idempotencyRecordRepository.findById(KEY))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(record(VariableHasher.hashParts(REQUEST), LocalDateTime.now())));
+        when(idempotencyRecordRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        ResponseEntity<?> response = idempotencyService.execute(KEY, REQUEST, accepted());
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(0, submissions.get());
+    }
+
+    @Test
+    void testServerErrorReleasesKey() {
+        when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.empty());
+
+        ResponseEntity<?> response = idempotencyService.execute(KEY, REQUEST,
+                () -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        verify(idempotencyRecordRepository).deleteById(KEY);
+        verify(idempotencyRecordRepository, never()).save(any());
+    }
+
+    @Test
+    void testFailedSubmissionReleasesKey() {
+        when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute(KEY, REQUEST, () -> {
+            throw new IllegalArgumentException("Flow not found");
+        }));
+
+        verify(idempotencyRecordRepository).deleteById(KEY);
+    }
+
+    @Test
+    void testOverlongKeyIsBadRequest() {
+        ResponseEntity<?> response = idempotencyService.execute("k".repeat(256), REQUEST, accepted());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(0, submissions.get());
+    }
+
+    private Supplier<ResponseEntity<?>> accepted() {
+        return () -> {
+            submissions.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("id", "abc"));
+        };
+    }
+
+    private static IdempotencyRecord record(String requestHash, LocalDateTime createdAt) {
+        IdempotencyRecord record = new IdempotencyRecord(KEY, requestHash, LocalDateTime.now().plusHours(1));
+        ReflectionTestUtils.setField(record, "createdAt", createdAt);
+        return record;
+    }
+}
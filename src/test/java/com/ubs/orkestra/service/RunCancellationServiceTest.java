@@ -0,0 +1,167 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.config.GitLabConfig;
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.event.ExecutionStatusChange;
+import com.ubs.orkestra.model.Application;
+import com.ubs.orkestra.repository.ApplicationRepository;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import com.ubs.orkestra.util.GitLabApiClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RunCancellationServiceTest {
+
+    private static final Long GROUP_ID = 3L;
+    private static final Integer ITERATION = 1;
+    private static final Long APP_ID = 5L;
+    private static final Long STEP_ID = 10L;
+    private static final String BASE_URL = "https://gitlab.example.com";
+
+    @Mock
+    private ExecutionTransitionService executionTransitionService;
+
+    @Mock
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Mock
+    private ApplicationRepository applicationRepository;
+
+    @Mock
+    private ApplicationService applicationService;
+
+    @Mock
+    private ApplicationConcurrencyGate applicationConcurrencyGate;
+
+    @Mock
+    private GitLabApiClient gitLabApiClient;
+
+    @Mock
+    private GitLabConfig gitLabConfig;
+
+    @InjectMocks
+    private RunCancellationService runCancellationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(runCancellationService, "gitlabCallsPerMinute", 600.0);
+        ReflectionTestUtils.setField(runCancellationService, "gitlabBurst", 20);
+        ReflectionTestUtils.setField(runCancellationService, "parallelism", 8);
+        ReflectionTestUtils.setField(runCancellationService, "timeoutSeconds", 1L);
+    }
+
+    @Test
+    void testRunningPipelinesAreCancelledInGitLab() {
+        cancelledRunWithRunningPipelines(1001L, 1002L);
+        gitLabReachable();
+        cancelCall(1001L, Mono.just(new GitLabApiClient.GitLabPipelineResponse()));
+        cancelCall(1002L, Mono.just(new GitLabApiClient.GitLabPipelineResponse()));
+
+        Map<String, Object> result = runCancellationService.cancelRun(GROUP_ID, ITERATION);
+
+        assertEquals(2, result.get("gitlabPipelinesCancelled"));
+        assertEquals(true, result.get("gitlabCancelComplete"));
+        assertEquals(0, result.get("gitlabCancelFailures"));
+        verify(applicationConcurrencyGate).onPipelineFinished(STEP_ID);
+    }
+
+    @Test
+    void testFailedGitLabCallIsReportedWithoutStoppingTheOthers() {
+        cancelledRunWithRunningPipelines(1001L, 1002L);
+        gitLabReachable();
+        cancelCall(1001L, Mono.error(new RuntimeException("403 Forbidden")));
+        cancelCall(1002L, Mono.just(new GitLabApiClient.GitLabPipelineResponse()));
+
+        Map<String, Object> result = runCancellationService.cancelRun(GROUP_ID, ITERATION);
+
+        assertEquals(1, result.get("gitlabPipelinesCancelled"));
+        assertEquals(true, result.get("gitlabCancelComplete"));
+        assertEquals(1, result.get("gitlabCancelFailures"));
+    }
+
+    @Test
+    void testTimeoutReportsThePipelinesCancelledSoFar() {
+        cancelledRunWithRunningPipelines(1001L, 1002L, 1003L);
+        gitLabReachable();
+        cancelCall(1001L, Mono.just(new GitLabApiClient.GitLabPipelineResponse()));
+        // GitLab never answers for this one, so the run hits the timeout
+        cancelCall(1002L, Mono.never());
+        cancelCall(1003L, Mono.just(new GitLabApiClient.GitLabPipelineResponse()));
+
+        Map<String, Object> result = runCancellationService.cancelRun(GROUP_ID, ITERATION);
+
+        assertEquals(2, result.get("gitlabPipelinesCancelled"));
+        assertEquals(false, result.get("gitlabCancelComplete"));
+        assertEquals(3, result.get("runningPipelinesCancelled"));
+        @SuppressWarnings("unchecked")
+        List<String> errors = (List<String>) result.get("errors");
+        assertTrue(errors.get(0).contains("cancelled 2 of 3"));
+        // The executions are CANCELLED regardless: waiting steps of the application may start
+        verify(applicationConcurrencyGate).onPipelineFinished(STEP_ID);
+    }
+
+    @Test
+    void testMockModeSkipsGitLab() {
+        cancelledRunWithRunningPipelines(1001L);
+        when(gitLabConfig.isMockMode()).thenReturn(true);
+
+        Map<String, Object> result = runCancellationService.cancelRun(GROUP_ID, ITERATION);
+
+        assertEquals(1, result.get("gitlabPipelinesCancelled"));
+        assertEquals(true, result.get("gitlabCancelComplete"));
+        verifyNoInteractions(gitLabApiClient);
+    }
+
+    @Test
+    void testBlankCategoryIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> runCancellationService.cancelCategory(" "));
+        verifyNoInteractions(executionTransitionService);
+    }
+
+    // One flow whose steps were RUNNING; step record i has pipeline execution id i and GitLab pipeline id i * 10
+    private void cancelledRunWithRunningPipelines(Long... pipelineExecutionIds) {
+        UUID flowExecutionId = UUID.randomUUID();
+        List<ExecutionStatusChange> pipelines = new ArrayList<>();
+        List<Object[]> refs = new ArrayList<>();
+        for (Long id : pipelineExecutionIds) {
+            pipelines.add(ExecutionStatusChange.forPipeline(flowExecutionId, id, STEP_ID,
+                    ExecutionStatus.RUNNING, ExecutionStatus.CANCELLED));
+            refs.add(new Object[]{id, id * 10, APP_ID});
+        }
+        List<ExecutionStatusChange> flows = List.of(ExecutionStatusChange.forFlow(flowExecutionId, GROUP_ID,
+                ExecutionStatus.RUNNING, ExecutionStatus.CANCELLED));
+        when(executionTransitionService.cancelRun(GROUP_ID, ITERATION))
+                .thenReturn(new ExecutionTransitionService.Cancellation(flows, pipelines));
+        when(pipelineExecutionRepository.findGitLabPipelineRefs(List.of(pipelineExecutionIds))).thenReturn(refs);
+    }
+
+    private void gitLabReachable() {
+        Application application = new Application();
+        application.setId(APP_ID);
+        application.setGitlabProjectId("42");
+        when(gitLabConfig.isMockMode()).thenReturn(false);
+        when(gitLabConfig.getBaseUrl()).thenReturn(BASE_URL);
+        when(applicationRepository.findById(APP_ID)).thenReturn(Optional.of(application));
+        when(applicationService.getDecryptedPersonalAccessToken(APP_ID)).thenReturn("token");
+    }
+
+    private void cancelCall(Long pipelineExecutionId, Mono<GitLabApiClient.GitLabPipelineResponse> response) {
+        when(gitLabApiClient.cancelPipeline(BASE_URL, "42", pipelineExecutionId * 10, "token")).thenReturn(response);
+    }
+}
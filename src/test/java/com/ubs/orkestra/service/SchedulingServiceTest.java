@@ -0,0 +1,194 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.event.ExecutionStatusChange;
+import com.ubs.orkestra.model.Application;
+import com.ubs.orkestra.model.FlowStep;
+import com.ubs.orkestra.model.PipelineExecution;
+import com.ubs.orkestra.repository.FlowStepRepository;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulingServiceTest {
+
+    private static final LocalDateTime DUE = LocalDateTime.now().minusMinutes(1);
+
+    @Mock
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Mock
+    private FlowExecutionService flowExecutionService;
+
+    @Mock
+    private FlowStepRepository flowStepRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private SchedulingService schedulingService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(schedulingService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(schedulingService, "releaseEnabled", true);
+        // One token per minute: nothing is refilled while a test runs, so only the bursts count
+        ReflectionTestUtils.setField(schedulingService, "globalReleasePerMinute", 1);
+        ReflectionTestUtils.setField(schedulingService, "globalReleaseBurst", 3);
+        ReflectionTestUtils.setField(schedulingService, "perAppReleasePerMinute", 1);
+        ReflectionTestUtils.setField(schedulingService, "perAppReleaseBurst", 10);
+    }
+
+    @Test
+    void testDueStepsAreReleasedOldestFirstUpToTheGlobalBurst() {
+        List<PipelineExecution> due = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            due.add(scheduledStep(100L + i, 1L, DUE.plusSeconds(5 - i)));
+        }
+        stubDue(due, application(1L, null));
+        when(pipelineExecutionRepository.claimScheduled(anyLong(), eq(ExecutionStatus.SCHEDULED), eq(ExecutionStatus.IN_PROGRESS)))
+                .thenReturn(1);
+
+        schedulingService.processScheduledExecutions();
+        verify(flowExecutionService, never()).resumeFlowExecution(any(), any());
+
+        schedulingService.releaseStagedExecutions();
+
+        // Latest resumeTime first in the list, so the release order is the reverse of it
+        InOrder order = inOrder(pipelineExecutionRepository);
+        order.verify(pipelineExecutionRepository).claimScheduled(104L, ExecutionStatus.SCHEDULED, ExecutionStatus.IN_PROGRESS);
+        order.verify(pipelineExecutionRepository).claimScheduled(103L, ExecutionStatus.SCHEDULED, ExecutionStatus.IN_PROGRESS);
+        order.verify(pipelineExecutionRepository).claimScheduled(102L, ExecutionStatus.SCHEDULED, ExecutionStatus.IN_PROGRESS);
+        verify(pipelineExecutionRepository, times(3)).claimScheduled(anyLong(), any(), any());
+        verify(flowExecutionService, times(3)).resumeFlowExecution(any(), eq(1L));
+
+        ArgumentCaptor<ExecutionStatusChange> events = ArgumentCaptor.forClass(ExecutionStatusChange.class);
+        verify(eventPublisher, times(3)).publishEvent(events.capture());
+        events.getAllValues().forEach(event -> {
+            assertTrue(event.isPipelineChange());
+            assertEquals(ExecutionStatus.SCHEDULED, event.getFromStatus());
+            assertEquals(ExecutionStatus.IN_PROGRESS, event.getToStatus());
+        });
+    }
+
+    @Test
+    void testApplicationOutOfTokensDoesNotHoldBackOthers() {
+        ReflectionTestUtils.setField(schedulingService, "globalReleaseBurst", 10);
+        List<PipelineExecution> due = List.of(
+                scheduledStep(100L, 1L, DUE.minusSeconds(3)),
+                scheduledStep(101L, 1L, DUE.minusSeconds(2)),
+                scheduledStep(102L, 2L, DUE.minusSeconds(1)));
+        // Application 1 releases one step per minute with a burst of one
+        when(pipelineExecutionRepository.findByStatusAndResumeTimeBeforeOrderByResumeTimeAscIdAsc(eq(ExecutionStatus.SCHEDULED), any()))
+                .thenReturn(due);
+        when(flowStepRepository.findByIdIn(anyList())).thenReturn(List.of(
+                step(1L, application(1L, 1)), step(2L, application(2L, null))));
+        ReflectionTestUtils.setField(schedulingService, "perAppReleaseBurst", 1);
+        when(pipelineExecutionRepository.claimScheduled(anyLong(), any(), any())).thenReturn(1);
+
+        schedulingService.processScheduledExecutions();
+        schedulingService.releaseStagedExecutions();
+
+        verify(pipelineExecutionRepository).claimScheduled(100L, ExecutionStatus.SCHEDULED, ExecutionStatus.IN_PROGRESS);
+        verify(pipelineExecutionRepository, never()).claimScheduled(101L, ExecutionStatus.SCHEDULED, ExecutionStatus.IN_PROGRESS);
+        verify(pipelineExecutionRepository).claimScheduled(102L, ExecutionStatus.SCHEDULED, ExecutionStatus.IN_PROGRESS);
+    }
+
+    @Test
+    void testStepNoLongerScheduledIsDropped() {
+        stubDue(List.of(scheduledStep(100L, 1L, DUE)), application(1L, null));
+        when(pipelineExecutionRepository.claimScheduled(100L, ExecutionStatus.SCHEDULED, ExecutionStatus.IN_PROGRESS)).thenReturn(0);
+
+        schedulingService.processScheduledExecutions();
+        schedulingService.releaseStagedExecutions();
+        schedulingService.releaseStagedExecutions();
+
+        verify(pipelineExecutionRepository, times(1)).claimScheduled(anyLong(), any(), any());
+        verifyNoInteractions(flowExecutionService, eventPublisher);
+    }
+
+    @Test
+    void testStepsAreStagedOnce() {
+        ReflectionTestUtils.setField(schedulingService, "globalReleaseBurst", 1);
+        stubDue(List.of(scheduledStep(100L, 1L, DUE), scheduledStep(101L, 1L, DUE.plusSeconds(1))), application(1L, null));
+        when(pipelineExecutionRepository.claimScheduled(anyLong(), any(), any())).thenReturn(1);
+
+        schedulingService.processScheduledExecutions();
+        schedulingService.processScheduledExecutions();
+        schedulingService.releaseStagedExecutions();
+
+        verify(flowStepRepository, times(1)).findByIdIn(anyList());
+        verify(pipelineExecutionRepository, times(1)).claimScheduled(anyLong(), any(), any());
+        verify(pipelineExecutionRepository).claimScheduled(100L, ExecutionStatus.SCHEDULED, ExecutionStatus.IN_PROGRESS);
+    }
+
+    @Test
+    void testDisabledReleaseResumesAllDueStepsAtOnce() {
+        ReflectionTestUtils.setField(schedulingService, "releaseEnabled", false);
+        List<PipelineExecution> due = List.of(scheduledStep(100L, 1L, DUE), scheduledStep(101L, 1L, DUE));
+        when(pipelineExecutionRepository.findByStatusAndResumeTimeBeforeOrderByResumeTimeAscIdAsc(eq(ExecutionStatus.SCHEDULED), any()))
+                .thenReturn(due);
+
+        schedulingService.processScheduledExecutions();
+
+        verify(flowExecutionService, times(2)).resumeFlowExecution(any(), eq(1L));
+        due.forEach(step -> {
+            assertEquals(ExecutionStatus.IN_PROGRESS, step.getStatus());
+            assertNull(step.getResumeTime());
+        });
+        verifyNoInteractions(flowStepRepository);
+    }
+
+    private void stubDue(List<PipelineExecution> due, Application application) {
+        when(pipelineExecutionRepository.findByStatusAndResumeTimeBeforeOrderByResumeTimeAscIdAsc(eq(ExecutionStatus.SCHEDULED), any()))
+                .thenReturn(due);
+        when(flowStepRepository.findByIdIn(anyList())).thenReturn(List.of(step(1L, application)));
+    }
+
+    private static PipelineExecution scheduledStep(Long id, Long flowStepId, LocalDateTime resumeTime) {
+        PipelineExecution pe = new PipelineExecution();
+        pe.setId(id);
+        pe.setFlowExecutionId(UUID.randomUUID());
+        pe.setFlowStepId(flowStepId);
+        pe.setStatus(ExecutionStatus.SCHEDULED);
+        pe.setResumeTime(resumeTime);
+        return pe;
+    }
+
+    private static FlowStep step(Long id, Application application) {
+        FlowStep step = new FlowStep();
+        step.setId(id);
+        step.setApplication(application);
+        return step;
+    }
+
+    private static Application application(Long id, Integer releasePerMinute) {
+        Application application = new Application();
+        application.setId(id);
+        application.setScheduledReleasePerMinute(releasePerMinute);
+        return application;
+    }
+}
@@ -0,0 +1,136 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.event.ExecutionStatusChange;
+import com.ubs.orkestra.repository.FlowExecutionRepository;
+import com.ubs.orkestra.repository.FlowStepRepository;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatusCounterRegistryTest {
+
+    private static final Long GROUP_ID = 5L;
+    private static final Long STEP_ID = 10L;
+    private static final Long APP_ID = 77L;
+
+    @Mock
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Mock
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Mock
+    private FlowStepRepository flowStepRepository;
+
+    @InjectMocks
+    private StatusCounterRegistry statusCounterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(statusCounterRegistry, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(statusCounterRegistry, "enabled", true);
+    }
+
+    @Test
+    void testReadsFallBackToDatabaseUntilReconciled() {
+        when(flowExecutionRepository.countByStatus(ExecutionStatus.RUNNING)).thenReturn(4L);
+
+        assertFalse(statusCounterRegistry.isReady());
+        assertEquals(4, statusCounterRegistry.countFlows(ExecutionStatus.RUNNING));
+    }
+
+    @Test
+    void testReconcileLoadsCountsFromDatabase() {
+        databaseHolds(2L, 3L, 1L);
+
+        statusCounterRegistry.reconcile();
+
+        assertTrue(statusCounterRegistry.isReady());
+        assertEquals(2, statusCounterRegistry.countFlows(ExecutionStatus.RUNNING));
+        assertEquals(3, statusCounterRegistry.countFlows(ExecutionStatus.PENDING));
+        assertEquals(5, statusCounterRegistry.countAllFlows());
+        assertEquals(2, statusCounterRegistry.countFlowGroupFlows(GROUP_ID, ExecutionStatus.RUNNING));
+        assertEquals(1, statusCounterRegistry.countAllPipelines());
+        assertEquals(1, statusCounterRegistry.countApplicationPipelines(APP_ID, ExecutionStatus.RUNNING));
+        verify(flowExecutionRepository, never()).countByStatus(any());
+    }
+
+    @Test
+    void testStatusChangesMoveCounts() {
+        databaseHolds(0L, 0L, 0L);
+        statusCounterRegistry.reconcile();
+        UUID flowExecutionId = UUID.randomUUID();
+
+        statusCounterRegistry.onStatusChange(ExecutionStatusChange.forFlow(flowExecutionId, GROUP_ID, null, ExecutionStatus.PENDING));
+        statusCounterRegistry.onStatusChange(ExecutionStatusChange.forFlow(flowExecutionId, GROUP_ID,
+                ExecutionStatus.PENDING, ExecutionStatus.RUNNING));
+        statusCounterRegistry.onStatusChange(ExecutionStatusChange.forPipeline(flowExecutionId, 100L, STEP_ID,
+                null, ExecutionStatus.RUNNING));
+
+        assertEquals(0, statusCounterRegistry.countFlows(ExecutionStatus.PENDING));
+        assertEquals(1, statusCounterRegistry.countFlows(ExecutionStatus.RUNNING));
+        assertEquals(1, statusCounterRegistry.countFlowGroupFlows(GROUP_ID, ExecutionStatus.RUNNING));
+        assertEquals(1, statusCounterRegistry.countApplicationPipelines(APP_ID, ExecutionStatus.RUNNING));
+    }
+
+    @Test
+    void testSetBasedTransitionsMoveCountsInOneStep() {
+        databaseHolds(0L, 3L, 0L);
+        statusCounterRegistry.reconcile();
+
+        statusCounterRegistry.recordFlowTransitions(null, ExecutionStatus.PENDING, ExecutionStatus.CANCELLED, 3);
+
+        assertEquals(0, statusCounterRegistry.countFlows(ExecutionStatus.PENDING));
+        assertEquals(3, statusCounterRegistry.countFlows(ExecutionStatus.CANCELLED));
+    }
+
+    @Test
+    void testReconcileCorrectsDrift() {
+        databaseHolds(2L, 0L, 0L);
+        statusCounterRegistry.reconcile();
+        // A change this instance counted but the database does not have, e.g. made by a rolled-back write
+        statusCounterRegistry.recordFlowTransitions(GROUP_ID, null, ExecutionStatus.RUNNING, 5);
+        assertEquals(7, statusCounterRegistry.countFlows(ExecutionStatus.RUNNING));
+
+        statusCounterRegistry.reconcile();
+
+        assertEquals(2, statusCounterRegistry.countFlows(ExecutionStatus.RUNNING));
+        assertEquals(2, statusCounterRegistry.countFlowGroupFlows(GROUP_ID, ExecutionStatus.RUNNING));
+    }
+
+    @Test
+    void testDisabledRegistryReadsDatabase() {
+        ReflectionTestUtils.setField(statusCounterRegistry, "enabled", false);
+        when(flowExecutionRepository.countByStatus(ExecutionStatus.PENDING)).thenReturn(9L);
+
+        statusCounterRegistry.reconcile();
+
+        assertFalse(statusCounterRegistry.isReady());
+        assertEquals(9, statusCounterRegistry.countFlows(ExecutionStatus.PENDING));
+        verify(flowExecutionRepository, never()).countGroupedByFlowGroupAndStatus();
+    }
+
+    // RUNNING flows of the FlowGroup, PENDING ad-hoc flows and RUNNING pipelines of the step
+    private void databaseHolds(long runningInGroup, long pendingAdHoc, long runningPipelines) {
+        when(flowExecutionRepository.countGroupedByFlowGroupAndStatus()).thenReturn(List.of(
+                new Object[]{GROUP_ID, ExecutionStatus.RUNNING, runningInGroup},
+                new Object[]{null, ExecutionStatus.PENDING, pendingAdHoc}));
+        when(pipelineExecutionRepository.countGroupedByFlowStepAndStatus()).thenReturn(List.<Object[]>of(
+                new Object[]{STEP_ID, ExecutionStatus.RUNNING, runningPipelines}));
+        when(flowStepRepository.findStepApplicationIds()).thenReturn(List.<Object[]>of(new Object[]{STEP_ID, APP_ID}));
+    }
+}
@@ -0,0 +1,226 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.enums.ExecutionStatus;
+import com.ubs.orkestra.event.ExecutionStatusChange;
+import com.ubs.orkestra.model.FlowExecution;
+import com.ubs.orkestra.model.FlowGroup;
+import com.ubs.orkestra.model.FlowGroupRunAbort;
+import com.ubs.orkestra.repository.FlowGroupRunAbortRepository;
+import com.ubs.orkestra.repository.PipelineExecutionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SystemicFailureDetectorTest {
+
+    private static final Long FLOW_GROUP_ID = 7L;
+    private static final Integer ITERATION = 3;
+    private static final Long FLOW_STEP_ID = 11L;
+
+    @Mock
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Mock
+    private FlowGroupRunAbortRepository flowGroupRunAbortRepository;
+
+    @Mock
+    private ExecutionTransitionService executionTransitionService;
+
+    @InjectMocks
+    private SystemicFailureDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(detector, "enabled", true);
+        ReflectionTestUtils.setField(detector, "failureRatio", 0.8);
+        ReflectionTestUtils.setField(detector, "minSamples", 5);
+        ReflectionTestUtils.setField(detector, "action", SystemicFailureDetector.ACTION_PAUSE);
+    }
+
+    @Test
+    void testPausesPendingFlowsWhenFailureRatioIsReached() {
+        persistedOutcomes(4, 0);
+        when(executionTransitionService.pauseRun(FLOW_GROUP_ID, ITERATION)).thenReturn(changes(3, ExecutionStatus.PAUSED));
+
+        detector.recordStepOutcome(runFlow(), FLOW_STEP_ID, ExecutionStatus.FAILED);
+
+        verify(executionTransitionService).pauseRun(FLOW_GROUP_ID, ITERATION);
+        verify(executionTransitionService, never()).cancelRunPending(anyLong(), any());
+        FlowGroupRunAbort abort = savedAbort();
+        assertEquals(SystemicFailureDetector.ACTION_PAUSE, abort.getAction());
+        assertEquals(3, abort.getAffectedFlowCount());
+        assertEquals(5L, abort.getFailedCount());
+        assertEquals(5L, abort.getTerminalCount());
+        assertEquals(FLOW_STEP_ID, abort.getFlowStepId());
+    }
+
+    @Test
+    void testCurrentOutcomeIsCountedOnce() {
+        FlowExecution flowExecution = runFlow();
+        persistedOutcomes(3, 0);
+
+        detector.recordStepOutcome(flowExecution, FLOW_STEP_ID, ExecutionStatus.FAILED);
+
+        // The recorded flow is excluded from the persisted count and added on top: 4 of 4, below 5 samples
+        verify(pipelineExecutionRepository).countRunStepOutcomes(eq(FLOW_GROUP_ID), eq(ITERATION), eq(FLOW_STEP_ID),
+                anyList(), any(), eq(flowExecution.getId()));
+        verifyNoInteractions(executionTransitionService);
+    }
+
+    @Test
+    void testCancelActionCancelsPendingFlows() {
+        ReflectionTestUtils.setField(detector, "action", SystemicFailureDetector.ACTION_CANCEL);
+        persistedOutcomes(4, 0);
+        when(executionTransitionService.cancelRunPending(FLOW_GROUP_ID, ITERATION)).thenReturn(
+                new ExecutionTransitionService.Cancellation(changes(2, ExecutionStatus.CANCELLED), Collections.emptyList()));
+
+        detector.recordStepOutcome(runFlow(), FLOW_STEP_ID, ExecutionStatus.FAILED);
+
+        verify(executionTransitionService, never()).pauseRun(anyLong(), any());
+        FlowGroupRunAbort abort = savedAbort();
+        assertEquals(SystemicFailureDetector.ACTION_CANCEL, abort.getAction());
+        assertEquals(2, abort.getAffectedFlowCount());
+    }
+
+    @Test
+    void testDoesNotAbortBelowFailureRatio() {
+        persistedOutcomes(3, 2);
+
+        detector.recordStepOutcome(runFlow(), FLOW_STEP_ID, ExecutionStatus.FAILED);
+
+        verifyNoInteractions(executionTransitionService);
+        verify(flowGroupRunAbortRepository, never()).save(any());
+    }
+
+    @Test
+    void testPassedOutcomesAreNotEvaluated() {
+        detector.recordStepOutcome(runFlow(), FLOW_STEP_ID, ExecutionStatus.PASSED);
+
+        verifyNoInteractions(pipelineExecutionRepository, flowGroupRunAbortRepository, executionTransitionService);
+    }
+
+    @Test
+    void testIgnoresFlowsOutsideFlowGroupRuns() {
+        FlowExecution standalone = new FlowExecution(1L, Collections.emptyMap());
+
+        detector.recordStepOutcome(standalone, FLOW_STEP_ID, ExecutionStatus.FAILED);
+
+        verifyNoInteractions(pipelineExecutionRepository, flowGroupRunAbortRepository, executionTransitionService);
+    }
+
+    @Test
+    void testAbortsRunOnlyOnce() {
+        persistedOutcomes(10, 0);
+        when(executionTransitionService.pauseRun(FLOW_GROUP_ID, ITERATION)).thenReturn(changes(3, ExecutionStatus.PAUSED));
+
+        for (int i = 0; i < 3; i++) {
+            detector.recordStepOutcome(runFlow(), FLOW_STEP_ID, ExecutionStatus.FAILED);
+        }
+
+        verify(executionTransitionService, times(1)).pauseRun(FLOW_GROUP_ID, ITERATION);
+        verify(flowGroupRunAbortRepository, times(1)).save(any());
+    }
+
+    @Test
+    void testCountsOutcomesSinceLastResume() {
+        LocalDateTime resumedAt = LocalDateTime.of(2030, 1, 1, 12, 0);
+        FlowGroupRunAbort resumed = new FlowGroupRunAbort();
+        resumed.setResumedAt(resumedAt);
+        when(flowGroupRunAbortRepository.findTopByFlowGroupIdAndIterationAndResumedAtIsNotNullOrderByResumedAtDesc(FLOW_GROUP_ID, ITERATION))
+                .thenReturn(Optional.of(resumed));
+        persistedOutcomes(0, 0);
+
+        detector.recordStepOutcome(runFlow(), FLOW_STEP_ID, ExecutionStatus.FAILED);
+
+        verify(pipelineExecutionRepository).countRunStepOutcomes(eq(FLOW_GROUP_ID), eq(ITERATION), eq(FLOW_STEP_ID),
+                anyList(), eq(resumedAt), any());
+    }
+
+    @Test
+    void testResumeRestartsPausedFlowsAndAllowsAnotherAbort() {
+        persistedOutcomes(4, 0);
+        when(executionTransitionService.pauseRun(FLOW_GROUP_ID, ITERATION)).thenReturn(changes(3, ExecutionStatus.PAUSED));
+        detector.recordStepOutcome(runFlow(), FLOW_STEP_ID, ExecutionStatus.FAILED);
+
+        FlowGroupRunAbort open = new FlowGroupRunAbort();
+        when(flowGroupRunAbortRepository.findByFlowGroupIdAndIterationAndResumedAtIsNull(FLOW_GROUP_ID, ITERATION))
+                .thenReturn(List.of(open)).thenReturn(Collections.emptyList());
+        when(executionTransitionService.resumeRun(FLOW_GROUP_ID, ITERATION)).thenReturn(changes(3, ExecutionStatus.PENDING));
+
+        assertEquals(3, detector.resumeRun(FLOW_GROUP_ID, ITERATION));
+        assertNotNull(open.getResumedAt());
+
+        detector.recordStepOutcome(runFlow(), FLOW_STEP_ID, ExecutionStatus.FAILED);
+        verify(executionTransitionService, times(2)).pauseRun(FLOW_GROUP_ID, ITERATION);
+    }
+
+    @Test
+    void testExceptionsReachTheCaller() {
+        persistedOutcomes(4, 0);
+        when(executionTransitionService.pauseRun(FLOW_GROUP_ID, ITERATION)).thenThrow(new IllegalStateException("lock timeout"));
+
+        assertThrows(IllegalStateException.class,
+                () -> detector.recordStepOutcome(runFlow(), FLOW_STEP_ID, ExecutionStatus.FAILED));
+
+        // The run was not marked as aborted, so the next failure tries again
+        reset(executionTransitionService);
+        when(executionTransitionService.pauseRun(FLOW_GROUP_ID, ITERATION)).thenReturn(changes(3, ExecutionStatus.PAUSED));
+        detector.recordStepOutcome(runFlow(), FLOW_STEP_ID, ExecutionStatus.FAILED);
+        verify(executionTransitionService).pauseRun(FLOW_GROUP_ID, ITERATION);
+    }
+
+    private void persistedOutcomes(long failed, long passed) {
+        List<Object[]> rows = new ArrayList<>();
+        if (failed > 0) {
+            rows.add(new Object[]{ExecutionStatus.FAILED, failed});
+        }
+        if (passed > 0) {
+            rows.add(new Object[]{ExecutionStatus.PASSED, passed});
+        }
+        when(pipelineExecutionRepository.countRunStepOutcomes(eq(FLOW_GROUP_ID), eq(ITERATION), eq(FLOW_STEP_ID),
+                anyList(), any(), any())).thenReturn(rows);
+    }
+
+    private FlowGroupRunAbort savedAbort() {
+        ArgumentCaptor<FlowGroupRunAbort> captor = ArgumentCaptor.forClass(FlowGroupRunAbort.class);
+        verify(flowGroupRunAbortRepository).save(captor.capture());
+        return captor.getValue();
+    }
+
+    private static FlowExecution runFlow() {
+        FlowGroup flowGroup = new FlowGroup();
+        flowGroup.setId(FLOW_GROUP_ID);
+        FlowExecution flowExecution = new FlowExecution(1L, Collections.emptyMap());
+        flowExecution.setFlowGroup(flowGroup);
+        flowExecution.setIteration(ITERATION);
+        return flowExecution;
+    }
+
+    private static List<ExecutionStatusChange> changes(int count, ExecutionStatus toStatus) {
+        List<ExecutionStatusChange> changes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            changes.add(ExecutionStatusChange.forFlow(UUID.randomUUID(), FLOW_GROUP_ID, ExecutionStatus.PENDING, toStatus));
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,94 @@
+package com.ubs.orkestra.service;
+
+import com.ubs.orkestra.model.PipelineExecution;
+import com.ubs.orkestra.model.TestDataSnapshot;
+import com.ubs.orkestra.repository.TestDataSnapshotRepository;
+import com.ubs.orkestra.util.VariableHasher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TestDataSnapshotServiceTest {
+
+    private static final Map<String, String> STORED = Map.of("env", "qa");
+    private static final Map<String, String> NEW = Map.of("env", "prod");
+
+    @Mock
+    private TestDataSnapshotRepository testDataSnapshotRepository;
+
+    @Mock
+    private PipelineExecutionTxService pipelineExecutionTxService;
+
+    @InjectMocks
+    private TestDataSnapshotService testDataSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(testDataSnapshotService, "cacheSize", 100);
+        testDataSnapshotService.initCache();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStoreLooksUpDistinctHashesOnceAndInsertsOnlyMissing() {
+        when(testDataSnapshotRepository.findAllById(any()))
+                .thenReturn(List.of(new TestDataSnapshot(VariableHasher.hash(STORED), STORED)));
+
+        testDataSnapshotService.store(List.of(STORED, NEW, STORED, NEW));
+
+        ArgumentCaptor<Iterable<String>> lookedUp = ArgumentCaptor.forClass(Iterable.class);
+        verify(testDataSnapshotRepository).findAllById(lookedUp.capture());
+        assertEquals(Set.of(VariableHasher.hash(STORED), VariableHasher.hash(NEW)), lookedUp.getValue());
+        ArgumentCaptor<List<TestDataSnapshot>> saved = ArgumentCaptor.forClass(List.class);
+        verify(pipelineExecutionTxService).saveNewSnapshots(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        assertEquals(VariableHasher.hash(NEW), saved.getValue().get(0).getHash());
+    }
+
+    @Test
+    void testAttachAfterStoreNeedsNoQuery() {
+        when(testDataSnapshotRepository.findAllById(any())).thenReturn(List.of());
+        testDataSnapshotService.store(List.of(STORED, NEW));
+        clearInvocations(testDataSnapshotRepository, pipelineExecutionTxService);
+
+        PipelineExecution pe = new PipelineExecution();
+        testDataSnapshotService.attach(pe, NEW);
+
+        assertEquals(VariableHasher.hash(NEW), pe.getConfiguredTestDataHash());
+        assertEquals(NEW, pe.getConfiguredTestData());
+        verifyNoInteractions(testDataSnapshotRepository, pipelineExecutionTxService);
+    }
+
+    @Test
+    void testConcurrentInsertFallsBackToOneByOne() {
+        when(testDataSnapshotRepository.findAllById(any())).thenReturn(List.of());
+        doThrow(new DataIntegrityViolationException("duplicate"))
+                .doNothing()
+                .doThrow(new DataIntegrityViolationException("duplicate"))
+                .when(pipelineExecutionTxService).saveNewSnapshots(anyList());
+
+        testDataSnapshotService.store(List.of(STORED, NEW));
+
+        // One batch, then one insert per snapshot; the duplicate is ignored
+        verify(pipelineExecutionTxService, times(3)).saveNewSnapshots(anyList());
+        PipelineExecution pe = new PipelineExecution();
+        testDataSnapshotService.attach(pe, STORED);
+        assertEquals(VariableHasher.hash(STORED), pe.getConfiguredTestDataHash());
+    }
+}
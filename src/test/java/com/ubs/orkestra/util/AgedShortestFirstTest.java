@@ -0,0 +1,56 @@
+package com.ubs.orkestra.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgedShortestFirstTest {
+
+    private static final long MINUTE = 60_000;
+
+    @Test
+    void testShortestFirstWithoutWaiting() {
+        Map<String, Long> estimates = Map.of("long", 120 * MINUTE, "short", 3 * MINUTE, "medium", 20 * MINUTE);
+        List<String> ordered = AgedShortestFirst.order(List.of("long", "short", "medium"),
+                estimates::get, item -> 0L, 1.0);
+
+        assertEquals(List.of("short", "medium", "long"), ordered);
+    }
+
+    @Test
+    void testLongWaitingItemOvertakesNewShortItem() {
+        Map<String, Long> estimates = Map.of("long", 120 * MINUTE, "short", 3 * MINUTE);
+        Map<String, Long> waited = Map.of("long", 600 * MINUTE, "short", 0L);
+        List<String> ordered = AgedShortestFirst.order(List.of("short", "long"),
+                estimates::get, waited::get, 1.0);
+
+        assertEquals(List.of("long", "short"), ordered);
+    }
+
+    @Test
+    void testZeroAgingWeightIsPureShortestFirst() {
+        Map<String, Long> estimates = Map.of("long", 120 * MINUTE, "short", 3 * MINUTE);
+        Map<String, Long> waited = Map.of("long", 6000 * MINUTE, "short", 0L);
+        List<String> ordered = AgedShortestFirst.order(List.of("long", "short"),
+                estimates::get, waited::get, 0.0);
+
+        assertEquals(List.of("short", "long"), ordered);
+    }
+
+    @Test
+    void testEqualScoresKeepInputOrder() {
+        List<String> ordered = AgedShortestFirst.order(List.of("a", "b", "c"),
+                item -> 5 * MINUTE, item -> MINUTE, 1.0);
+
+        assertEquals(List.of("a", "b", "c"), ordered);
+    }
+
+    @Test
+    void testScoreHandlesMissingEstimateAndNegativeWait() {
+        assertEquals(1.0, AgedShortestFirst.score(0, -10, 1.0));
+        assertEquals(3.0, AgedShortestFirst.score(MINUTE, 2 * MINUTE, 1.0));
+    }
+}
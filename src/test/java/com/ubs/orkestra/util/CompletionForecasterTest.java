@@ -0,0 +1,50 @@
+package com.ubs.orkestra.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletionForecasterTest {
+
+    @Test
+    void testWaitingItemsStartImmediatelyWhenSlotsAreFree() {
+        CompletionForecaster.Forecast forecast = CompletionForecaster.forecast(List.of(), List.of(100L, 200L), 5);
+
+        assertArrayEquals(new long[] {0, 0}, forecast.getWaitingStart());
+        assertArrayEquals(new long[] {100, 200}, forecast.getWaitingFinish());
+    }
+
+    @Test
+    void testWaitingItemsStartAsRunningItemsFinish() {
+        CompletionForecaster.Forecast forecast = CompletionForecaster.forecast(List.of(300L, 100L), List.of(50L, 50L, 50L), 2);
+
+        assertArrayEquals(new long[] {300, 100}, forecast.getRunningFinish());
+        assertArrayEquals(new long[] {100, 150, 200}, forecast.getWaitingStart());
+        assertArrayEquals(new long[] {150, 200, 250}, forecast.getWaitingFinish());
+    }
+
+    @Test
+    void testStartsFollowDispatchOrder() {
+        // The second item could run in the slot freed at 10, but is dispatched after the first
+        CompletionForecaster.Forecast forecast = CompletionForecaster.forecast(List.of(10L, 500L), List.of(1000L, 5L), 2);
+
+        assertArrayEquals(new long[] {10, 500}, forecast.getWaitingStart());
+    }
+
+    @Test
+    void testRunningAboveLimitDelaysWaitingItems() {
+        CompletionForecaster.Forecast forecast = CompletionForecaster.forecast(List.of(100L, 200L, 300L), List.of(10L), 2);
+
+        assertArrayEquals(new long[] {200}, forecast.getWaitingStart());
+    }
+
+    @Test
+    void testUnlimitedConcurrencyAndOverdueRunningItems() {
+        CompletionForecaster.Forecast forecast = CompletionForecaster.forecast(List.of(-20L), List.of(10L, 20L), 0);
+
+        assertArrayEquals(new long[] {0}, forecast.getRunningFinish());
+        assertArrayEquals(new long[] {0, 0}, forecast.getWaitingStart());
+    }
+}
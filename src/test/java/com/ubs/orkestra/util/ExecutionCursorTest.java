@@ -0,0 +1,37 @@
+package com.ubs.orkestra.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionCursorTest {
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 17, 9, 30, 12, 123456000);
+        UUID id = UUID.randomUUID();
+
+        ExecutionCursor cursor = ExecutionCursor.decode(new ExecutionCursor(createdAt, id).encode());
+
+        assertEquals(createdAt, cursor.getCreatedAt());
+        assertEquals(id, cursor.getId());
+    }
+
+    @Test
+    void testTokenIsUrlSafe() {
+        String token = new ExecutionCursor(LocalDateTime.of(2024, 1, 1, 0, 0), UUID.randomUUID()).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void testInvalidTokensAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ExecutionCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> ExecutionCursor.decode(""));
+        assertThrows(IllegalArgumentException.class, () -> ExecutionCursor.decode(
+                java.util.Base64.getUrlEncoder().encodeToString("2024-01-01T00:00|nope".getBytes())));
+    }
+}
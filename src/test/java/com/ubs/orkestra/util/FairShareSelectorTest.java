@@ -0,0 +1,84 @@
+package com.ubs.orkestra.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairShareSelectorTest {
+
+    private static final FairShareSelector.Policy EQUAL = new FairShareSelector.Policy(1, 1, Map.of(), 0, 0, 10);
+
+    @Test
+    void testTenantsAreInterleaved() {
+        List<FairShareSelector.Candidate<String>> candidates = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            candidates.add(new FairShareSelector.Candidate<>("big" + i, "group:1", false));
+        }
+        candidates.add(new FairShareSelector.Candidate<>("small0", "group:2", false));
+
+        List<String> selected = FairShareSelector.select(candidates, Map.of(), 2, EQUAL);
+
+        assertEquals(List.of("big0", "small0"), selected);
+    }
+
+    @Test
+    void testRunningWorkCountsTowardsShare() {
+        List<FairShareSelector.Candidate<String>> candidates = List.of(
+            new FairShareSelector.Candidate<>("a", "group:1", false),
+            new FairShareSelector.Candidate<>("b", "group:2", false));
+        Map<String, Integer> running = Map.of(FairShareSelector.queueKey("group:1", false), 3);
+
+        assertEquals(List.of("b"), FairShareSelector.select(candidates, running, 1, EQUAL));
+    }
+
+    @Test
+    void testWeightsFavourHeavierTenant() {
+        FairShareSelector.Policy policy = new FairShareSelector.Policy(1, 1, Map.of("group:1", 3.0), 0, 0, 10);
+        List<FairShareSelector.Candidate<String>> candidates = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            candidates.add(new FairShareSelector.Candidate<>("heavy" + i, "group:1", false));
+            candidates.add(new FairShareSelector.Candidate<>("light" + i, "group:2", false));
+        }
+
+        List<String> selected = FairShareSelector.select(candidates, Map.of(), 4, policy);
+
+        assertEquals(3, selected.stream().filter(s -> s.startsWith("heavy")).count());
+    }
+
+    @Test
+    void testInteractiveShareIsReservedBeforeOlderBulkWork() {
+        FairShareSelector.Policy policy = new FairShareSelector.Policy(1, 1, Map.of(), 0.2, 0, 10);
+        List<FairShareSelector.Candidate<String>> candidates = List.of(
+            new FairShareSelector.Candidate<>("bulk0", "group:1", false),
+            new FairShareSelector.Candidate<>("debug", "category:uncategorized", true));
+        Map<String, Integer> running = new HashMap<>();
+
+        assertEquals(List.of("debug"), FairShareSelector.select(candidates, running, 1, policy));
+    }
+
+    @Test
+    void testTenantCapIsRespected() {
+        FairShareSelector.Policy policy = new FairShareSelector.Policy(1, 1, Map.of(), 0, 2, 10);
+        List<FairShareSelector.Candidate<String>> candidates = List.of(
+            new FairShareSelector.Candidate<>("a0", "group:1", false),
+            new FairShareSelector.Candidate<>("a1", "group:1", false),
+            new FairShareSelector.Candidate<>("a2", "group:1", false));
+        Map<String, Integer> running = Map.of(FairShareSelector.queueKey("group:1", false), 1);
+
+        assertEquals(List.of("a0"), FairShareSelector.select(candidates, running, 3, policy));
+    }
+
+    @Test
+    void testFifoWithinQueue() {
+        List<FairShareSelector.Candidate<String>> candidates = List.of(
+            new FairShareSelector.Candidate<>("first", "group:1", false),
+            new FairShareSelector.Candidate<>("second", "group:1", false));
+
+        assertEquals(List.of("first", "second"), FairShareSelector.select(candidates, Map.of(), 5, EQUAL));
+    }
+}
@@ -0,0 +1,59 @@
+package com.ubs.orkestra.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LaunchScheduleCalculatorTest {
+
+    @Test
+    void testEmptyBatchHasNoOffsets() {
+        assertEquals(0, LaunchScheduleCalculator.computeOffsets(List.of(), 60_000, 1_000, 5, 10, 0.25, new Random(1)).length);
+    }
+
+    @Test
+    void testLaunchesAreSpreadOverRampWindow() {
+        List<String> apps = List.of("a", "b", "c", "d");
+        long[] offsets = LaunchScheduleCalculator.computeOffsets(apps, 40_000, 100, 0, 0, 0.0, new Random(1));
+
+        assertArrayEquals(new long[] {0, 10_000, 20_000, 30_000}, offsets);
+    }
+
+    @Test
+    void testOffsetsNeverDecreaseWithJitter() {
+        List<String> apps = Collections.nCopies(50, "a");
+        long[] offsets = LaunchScheduleCalculator.computeOffsets(apps, 10_000, 0, 0, 0, 0.5, new Random(42));
+
+        for (int i = 1; i < offsets.length; i++) {
+            assertTrue(offsets[i] >= offsets[i - 1]);
+        }
+    }
+
+    @Test
+    void testPerApplicationCapDelaysLaunches() {
+        List<String> apps = Collections.nCopies(3, "a");
+        long[] offsets = LaunchScheduleCalculator.computeOffsets(apps, 0, 2_000, 1, 0, 0.0, new Random(1));
+
+        assertArrayEquals(new long[] {0, 2_000, 4_000}, offsets);
+    }
+
+    @Test
+    void testPerApplicationCapDoesNotDelayOtherApplications() {
+        List<String> apps = List.of("a", "b", "a");
+        long[] offsets = LaunchScheduleCalculator.computeOffsets(apps, 0, 2_000, 1, 0, 0.0, new Random(1));
+
+        assertArrayEquals(new long[] {0, 0, 2_000}, offsets);
+    }
+
+    @Test
+    void testGlobalCapDelaysLaunches() {
+        List<String> apps = List.of("a", "b", "c", "d");
+        long[] offsets = LaunchScheduleCalculator.computeOffsets(apps, 0, 1_000, 0, 2, 0.0, new Random(1));
+
+        assertArrayEquals(new long[] {0, 0, 1_000, 1_000}, offsets);
+    }
+}
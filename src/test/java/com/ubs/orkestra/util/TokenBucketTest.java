@@ -0,0 +1,66 @@
+package com.ubs.orkestra.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long ONE_SECOND = 1_000_000_000L;
+
+    @Test
+    void testBucketStartsFullUpToBurst() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(60, 3, clock::get);
+
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    void testTokensRefillAtRate() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(60, 1, clock::get);
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+
+        clock.addAndGet(ONE_SECOND / 2);
+        assertFalse(bucket.tryAcquire());
+
+        clock.addAndGet(ONE_SECOND / 2);
+        assertTrue(bucket.tryAcquire());
+    }
+
+    @Test
+    void testRefillIsCappedAtBurst() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(60, 2, clock::get);
+        bucket.tryAcquire();
+        bucket.tryAcquire();
+
+        clock.addAndGet(100 * ONE_SECOND);
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    void testHasTokenDoesNotConsume() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(60, 1, clock::get);
+
+        assertTrue(bucket.hasToken());
+        assertTrue(bucket.hasToken());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.hasToken());
+    }
+
+    @Test
+    void testNonPositiveRateIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+    }
+}
@@ -0,0 +1,74 @@
+package com.ubs.orkestra.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7Test {
+
+    @Test
+    void testVersionAndVariant() {
+        UUID id = UuidV7.generate();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertTrue(UuidV7.isTimeOrdered(id));
+    }
+
+    @Test
+    void testTimestampIsEmbedded() {
+        UuidV7 generator = new UuidV7();
+        long millis = Instant.parse("2030-03-01T12:00:00.123Z").toEpochMilli();
+
+        UUID id = generator.next(millis);
+
+        assertEquals(Instant.ofEpochMilli(millis), UuidV7.timestamp(id));
+    }
+
+    @Test
+    void testIdsWithinOneMillisecondAreIncreasing() {
+        UuidV7 generator = new UuidV7();
+        long millis = Instant.parse("2031-01-01T00:00:00Z").toEpochMilli();
+        UUID previous = generator.next(millis);
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = generator.next(millis);
+            assertTrue(next.compareTo(previous) > 0, "id " + i + " is not greater than its predecessor");
+            previous = next;
+        }
+    }
+
+    @Test
+    void testLaterMillisecondSortsAfter() {
+        UuidV7 generator = new UuidV7();
+        long millis = Instant.parse("2032-01-01T00:00:00Z").toEpochMilli();
+
+        UUID earlier = generator.next(millis);
+        UUID later = generator.next(millis + 1);
+
+        assertTrue(later.compareTo(earlier) > 0);
+    }
+
+    @Test
+    void testClockGoingBackKeepsOrder() {
+        UuidV7 generator = new UuidV7();
+        long millis = Instant.parse("2033-01-01T00:00:00Z").toEpochMilli();
+
+        UUID first = generator.next(millis);
+        UUID second = generator.next(millis - 5_000);
+
+        assertTrue(second.compareTo(first) > 0);
+        assertEquals(Instant.ofEpochMilli(millis), UuidV7.timestamp(second));
+    }
+
+    @Test
+    void testRandomIdsHaveNoTimestamp() {
+        UUID id = UUID.randomUUID();
+
+        assertFalse(UuidV7.isTimeOrdered(id));
+        assertNull(UuidV7.timestamp(id));
+        assertFalse(UuidV7.isTimeOrdered(null));
+    }
+}
@@ -0,0 +1,67 @@
+package com.ubs.orkestra.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VariableDeltaTest {
+
+    @Test
+    void testDiffKeepsOnlyNewAndChangedEntries() {
+        Map<String, String> base = Map.of("env", "uat", "user", "alice");
+        Map<String, String> full = Map.of("env", "uat", "user", "bob", "orderId", "42");
+
+        assertEquals(Map.of("user", "bob", "orderId", "42"), VariableDelta.diff(base, full));
+    }
+
+    @Test
+    void testDiffOfUnchangedVariablesIsEmpty() {
+        Map<String, String> base = Map.of("env", "uat");
+
+        assertTrue(VariableDelta.diff(base, Map.of("env", "uat")).isEmpty());
+        assertTrue(VariableDelta.diff(base, null).isEmpty());
+    }
+
+    @Test
+    void testDiffAgainstMissingBaseIsTheFullMap() {
+        assertEquals(Map.of("env", "uat"), VariableDelta.diff(null, Map.of("env", "uat")));
+    }
+
+    @Test
+    void testDiffKeepsNullValues() {
+        Map<String, String> full = new HashMap<>();
+        full.put("token", null);
+
+        assertEquals(full, VariableDelta.diff(Map.of("token", "abc"), full));
+    }
+
+    @Test
+    void testApplyRebuildsTheFullView() {
+        Map<String, String> base = Map.of("env", "uat", "user", "alice");
+        Map<String, String> full = Map.of("env", "uat", "user", "bob", "orderId", "42");
+
+        assertEquals(full, VariableDelta.apply(base, VariableDelta.diff(base, full)));
+    }
+
+    @Test
+    void testApplyOfFullSnapshotGivesTheSameView() {
+        Map<String, String> base = Map.of("env", "uat");
+        Map<String, String> snapshot = Map.of("env", "uat", "orderId", "42");
+
+        assertEquals(snapshot, VariableDelta.apply(base, snapshot));
+    }
+
+    @Test
+    void testApplyDoesNotModifyTheBase() {
+        Map<String, String> base = new HashMap<>(Map.of("env", "uat"));
+
+        Map<String, String> full = VariableDelta.apply(base, Map.of("env", "prod"));
+
+        assertEquals("prod", full.get("env"));
+        assertEquals("uat", base.get("env"));
+        assertEquals(Map.of(), VariableDelta.apply(null, null));
+    }
+}
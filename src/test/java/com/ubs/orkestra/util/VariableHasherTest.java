@@ -0,0 +1,63 @@
+package com.ubs.orkestra.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VariableHasherTest {
+
+    @Test
+    void testHashIsIndependentOfInsertionOrder() {
+        Map<String, String> first = new LinkedHashMap<>();
+        first.put("A", "1");
+        first.put("B", "2");
+        Map<String, String> second = new LinkedHashMap<>();
+        second.put("B", "2");
+        second.put("A", "1");
+
+        assertEquals(VariableHasher.hash(first), VariableHasher.hash(second));
+    }
+
+    @Test
+    void testHashChangesWithValue() {
+        Map<String, String> first = Map.of("A", "1");
+        Map<String, String> second = Map.of("A", "2");
+
+        assertNotEquals(VariableHasher.hash(first), VariableHasher.hash(second));
+    }
+
+    @Test
+    void testExcludedKeysAreIgnored() {
+        Map<String, String> first = new HashMap<>(Map.of("A", "1", "EXECUTION_UUID", "x"));
+        Map<String, String> second = new HashMap<>(Map.of("A", "1", "EXECUTION_UUID", "y"));
+
+        assertEquals(VariableHasher.hash(first, Set.of("EXECUTION_UUID")),
+                     VariableHasher.hash(second, Set.of("EXECUTION_UUID")));
+    }
+
+    @Test
+    void testNullAndEmptyValuesDiffer() {
+        Map<String, String> withNull = new HashMap<>();
+        withNull.put("A", null);
+        Map<String, String> withEmpty = new HashMap<>();
+        withEmpty.put("A", "");
+
+        assertNotEquals(VariableHasher.hash(withNull), VariableHasher.hash(withEmpty));
+    }
+
+    @Test
+    void testHashPartsAreLengthPrefixed() {
+        assertNotEquals(VariableHasher.hashParts("ab", "c"), VariableHasher.hashParts("a", "bc"));
+        assertEquals(64, VariableHasher.hashParts("a").length());
+    }
+
+    @Test
+    void testNullMapHashesLikeEmptyMap() {
+        assertEquals(VariableHasher.hash(null), VariableHasher.hash(new HashMap<>()));
+    }
+}
@@ -0,0 +1,122 @@
+package com.ubs.orkestra.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VariableTemplateTest {
+
+    @Test
+    void testValuesWithoutReferencesAreNotPartOfThePlan() {
+        VariableTemplate.Plan plan = VariableTemplate.compile(Map.of("ENV", "uat", "USER", "alice"));
+
+        assertTrue(plan.isEmpty());
+        assertFalse(plan.hasStepReferences());
+    }
+
+    @Test
+    void testRendersVariableReferences() {
+        Map<String, String> variables = new HashMap<>(Map.of("ENV", "uat", "USER", "${ENV}_user"));
+
+        VariableTemplate.render(VariableTemplate.compile(variables), variables, null);
+
+        assertEquals("uat_user", variables.get("USER"));
+        assertEquals("uat", variables.get("ENV"));
+    }
+
+    @Test
+    void testOrdersEntriesByDependency() {
+        Map<String, String> variables = new HashMap<>(Map.of(
+                "ENV", "uat",
+                "A", "${B}-a",
+                "B", "${ENV}-b"));
+
+        VariableTemplate.Plan plan = VariableTemplate.compile(variables);
+        VariableTemplate.render(plan, variables, null);
+
+        assertEquals(List.of("B", "A"), plan.getKeys());
+        assertEquals("uat-b-a", variables.get("A"));
+    }
+
+    @Test
+    void testRendersStepReferences() {
+        Map<String, String> variables = new HashMap<>(Map.of("ORDER", "${step1.ORDER_ID}-suffix"));
+
+        VariableTemplate.Plan plan = VariableTemplate.compile(variables);
+        VariableTemplate.render(plan, variables, (step, key) -> step == 1 && key.equals("ORDER_ID") ? "42" : null);
+
+        assertTrue(plan.hasStepReferences());
+        assertEquals("42-suffix", variables.get("ORDER"));
+    }
+
+    @Test
+    void testUnresolvedReferencesAreKeptVerbatim() {
+        Map<String, String> variables = new HashMap<>(Map.of(
+                "URL", "https://${CI_SERVER_HOST}/${step2.PATH}"));
+
+        VariableTemplate.render(VariableTemplate.compile(variables), variables, (step, key) -> null);
+
+        assertEquals("https://${CI_SERVER_HOST}/${step2.PATH}", variables.get("URL"));
+    }
+
+    @Test
+    void testEscapedDollarIsPassedThrough() {
+        Map<String, String> variables = new HashMap<>(Map.of("ENV", "uat", "RAW", "$${ENV}-${ENV}", "LITERAL", "$${ENV}"));
+        VariableTemplate.Plan plan = VariableTemplate.compile(variables);
+
+        VariableTemplate.render(plan, variables, null);
+
+        assertEquals("$${ENV}-uat", variables.get("RAW"));
+        assertEquals("$${ENV}", variables.get("LITERAL"));
+        assertEquals(List.of("RAW"), plan.getKeys());
+    }
+
+    @Test
+    void testOverriddenEntriesAreNotRendered() {
+        Map<String, String> testData = Map.of("ENV", "uat", "USER", "${ENV}_user");
+        VariableTemplate.Plan plan = VariableTemplate.compile(testData);
+
+        Map<String, String> variables = new HashMap<>(testData);
+        variables.put("USER", "bob");
+        VariableTemplate.render(plan, variables, null);
+
+        assertEquals("bob", variables.get("USER"));
+    }
+
+    @Test
+    void testReferencesResolveAgainstRuntimeVariables() {
+        VariableTemplate.Plan plan = VariableTemplate.compile(Map.of("ENV", "uat", "USER", "${ENV}_user"));
+
+        Map<String, String> variables = new HashMap<>(Map.of("ENV", "prod", "USER", "${ENV}_user"));
+        VariableTemplate.render(plan, variables, null);
+
+        assertEquals("prod_user", variables.get("USER"));
+    }
+
+    @Test
+    void testCyclesAndSelfReferencesAreLeftAsIs() {
+        Map<String, String> variables = new HashMap<>(Map.of(
+                "A", "${B}",
+                "B", "${A}",
+                "C", "${C}x"));
+
+        VariableTemplate.Plan plan = VariableTemplate.compile(variables);
+        VariableTemplate.render(plan, variables, null);
+
+        assertEquals(List.of("C"), plan.getKeys());
+        assertEquals("${B}", variables.get("A"));
+        assertEquals("${A}", variables.get("B"));
+        assertEquals("${C}x", variables.get("C"));
+    }
+
+    @Test
+    void testUnterminatedReferenceIsALiteral() {
+        Map<String, String> variables = new HashMap<>(Map.of("A", "${B", "B", "${}"));
+
+        assertTrue(VariableTemplate.compile(variables).isEmpty());
+    }
+}